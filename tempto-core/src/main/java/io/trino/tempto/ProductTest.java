@@ -16,8 +16,19 @@ package io.trino.tempto;
 
 import io.trino.tempto.internal.initialization.RequirementsExpanderInterceptor;
 import io.trino.tempto.internal.initialization.TestInitializationListener;
+import io.trino.tempto.internal.listeners.ConventionTestResultCacheListener;
 import io.trino.tempto.internal.listeners.ProgressLoggingListener;
+import io.trino.tempto.internal.listeners.QueryProfileReportingListener;
+import io.trino.tempto.internal.listeners.TestDurationRecordingListener;
+import io.trino.tempto.internal.listeners.TestProfilingListener;
 import org.testng.annotations.Listeners;
 
-@Listeners({RequirementsExpanderInterceptor.class, TestInitializationListener.class, ProgressLoggingListener.class})
+@Listeners({
+        RequirementsExpanderInterceptor.class,
+        TestInitializationListener.class,
+        ProgressLoggingListener.class,
+        QueryProfileReportingListener.class,
+        TestProfilingListener.class,
+        TestDurationRecordingListener.class,
+        ConventionTestResultCacheListener.class})
 public class ProductTest {}
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.assertions;
+
+import io.trino.tempto.threads.QueryLoadResult;
+import io.trino.tempto.threads.StatementLoadStatistics;
+import org.assertj.core.api.AbstractAssert;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+/**
+ * Assertions on {@link QueryLoadResult}. Statement-level assertions apply to all statements,
+ * unless narrowed with {@link #statement(String)}.
+ */
+public class QueryLoadAssert
+        extends AbstractAssert<QueryLoadAssert, QueryLoadResult>
+{
+    private final List<StatementLoadStatistics> statements;
+
+    public QueryLoadAssert(QueryLoadResult actual)
+    {
+        this(actual, actual.getStatements());
+    }
+
+    private QueryLoadAssert(QueryLoadResult actual, List<StatementLoadStatistics> statements)
+    {
+        super(actual, QueryLoadAssert.class);
+        this.statements = statements;
+    }
+
+    /**
+     * @param name name of statement given to {@link io.trino.tempto.threads.QueryLoadDriver}
+     * @return assert for the given statement only
+     */
+    public QueryLoadAssert statement(String name)
+    {
+        return new QueryLoadAssert(actual, List.of(actual.getStatement(name)));
+    }
+
+    public QueryLoadAssert hasPercentileBelow(double percentile, Duration maxLatency)
+    {
+        List<String> violations = statements.stream()
+                .filter(statement -> statement.getPercentile(percentile).compareTo(maxLatency) >= 0)
+                .map(statement -> statement.getName() + "=" + statement.getPercentile(percentile))
+                .collect(toImmutableList());
+        if (!violations.isEmpty()) {
+            failWithMessage("Expected p%s latency below <%s> but was %s", percentile, maxLatency, violations);
+        }
+        return this;
+    }
+
+    public QueryLoadAssert hasP99Below(Duration maxLatency)
+    {
+        return hasPercentileBelow(99, maxLatency);
+    }
+
+    public QueryLoadAssert hasNoErrors()
+    {
+        return hasErrorRateAtMost(0);
+    }
+
+    public QueryLoadAssert hasErrorRateAtMost(double maxErrorRate)
+    {
+        List<String> violations = statements.stream()
+                .filter(statement -> statement.getErrorRate() > maxErrorRate)
+                .map(statement -> statement.getName() + "=" + statement.getErrorRate() + " (last error: " + statement.getLastError().orElse("") + ")")
+                .collect(toImmutableList());
+        if (!violations.isEmpty()) {
+            failWithMessage("Expected error rate at most <%s> but was %s", maxErrorRate, violations);
+        }
+        return this;
+    }
+
+    /**
+     * @param minThroughput minimal successful executions per second, summed over asserted statements
+     */
+    public QueryLoadAssert hasThroughputAtLeast(double minThroughput)
+    {
+        double throughput = statements.stream().mapToDouble(StatementLoadStatistics::getThroughput).sum();
+        if (throughput < minThroughput) {
+            failWithMessage("Expected throughput at least <%s/s> but was <%s/s>", minThroughput, throughput);
+        }
+        return this;
+    }
+}
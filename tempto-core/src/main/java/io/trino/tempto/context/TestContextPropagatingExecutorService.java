@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.context;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.withCurrentTestContext;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link ExecutorService} which runs every task with the {@link TestContext} of the thread that submitted it.
+ * <p>
+ * Unlike the inherited thread local context, this works for pooled and reused threads as well as for
+ * {@link java.util.concurrent.CompletableFuture} async stages executed on this executor. Context is bound
+ * only for the duration of a task, so a thread never sees a stale context of a previous task.
+ */
+public class TestContextPropagatingExecutorService
+        extends AbstractExecutorService
+{
+    private final ExecutorService delegate;
+
+    public static ExecutorService propagatingTestContext(ExecutorService delegate)
+    {
+        if (delegate instanceof TestContextPropagatingExecutorService) {
+            return delegate;
+        }
+        return new TestContextPropagatingExecutorService(delegate);
+    }
+
+    public TestContextPropagatingExecutorService(ExecutorService delegate)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+    }
+
+    @Override
+    public void execute(Runnable command)
+    {
+        delegate.execute(withCurrentTestContext(command));
+    }
+
+    @Override
+    public void shutdown()
+    {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow()
+    {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown()
+    {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated()
+    {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException
+    {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -18,9 +18,11 @@ import com.google.common.annotations.VisibleForTesting;
 import io.trino.tempto.internal.context.TestContextStack;
 
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
 
 /**
  * Static helper for holding TestContext stack in a thread local variable.
@@ -32,9 +34,15 @@ import static com.google.common.base.Preconditions.checkState;
  * <p>
  * We also do not require users to subclass a common context-aware test class
  * when they write tests.
+ * <p>
+ * Pushed contexts are inherited by threads created directly by the thread which pushed them only.
+ * Tasks executed on pooled or reused threads should bind the context with
+ * {@link #runWithTestContext(TestContext, Runnable)} (see {@link TestContextPropagatingExecutorService}),
+ * which uses a {@link ScopedValue} bound only for the duration of the task.
  */
 public final class ThreadLocalTestContextHolder
 {
+    private static final ScopedValue<TestContext> scopedTestContext = ScopedValue.newInstance();
     private static final ThreadLocal<TestContextStack<TestContext>> testContextStackThreadLocal = new InheritableThreadLocal<TestContextStack<TestContext>>()
     {
         protected TestContextStack<TestContext> childValue(TestContextStack<TestContext> parentTestContextStack)
@@ -53,18 +61,87 @@ public final class ThreadLocalTestContextHolder
     public static TestContext testContext()
     {
         assertTestContextSet();
-        return testContextStackThreadLocal.get().peek();
+        TestContextStack<TestContext> testContextStack = testContextStackThreadLocal.get();
+        if (testContextStack != null && !testContextStack.empty()) {
+            return testContextStack.peek();
+        }
+        return scopedTestContext.get();
     }
 
     public static Optional<TestContext> testContextIfSet()
     {
-        if (testContextStackThreadLocal.get() == null) {
+        if (testContextStackThreadLocal.get() == null && !scopedTestContext.isBound()) {
             return Optional.empty();
         }
 
         return Optional.of(testContext());
     }
 
+    /**
+     * Runs given {@link Runnable} with {@link #testContext()} returning given {@link TestContext}. Contexts
+     * pushed to the current thread, e.g. inherited from the thread which created a pooled thread,
+     * are hidden for the duration of the call and restored afterwards.
+     *
+     * @param testContext test context to bind
+     * @param runnable code to be run
+     */
+    public static void runWithTestContext(TestContext testContext, Runnable runnable)
+    {
+        requireNonNull(testContext, "testContext is null");
+        requireNonNull(runnable, "runnable is null");
+        TestContextStack<TestContext> hiddenTestContextStack = popAllTestContexts();
+        try {
+            ScopedValue.where(scopedTestContext, testContext).run(runnable);
+        }
+        finally {
+            restoreTestContexts(hiddenTestContextStack);
+        }
+    }
+
+    /**
+     * Same as {@link #runWithTestContext(TestContext, Runnable)} but for a {@link Callable}.
+     */
+    public static <T> T callWithTestContext(TestContext testContext, Callable<T> callable)
+            throws Exception
+    {
+        requireNonNull(testContext, "testContext is null");
+        requireNonNull(callable, "callable is null");
+        TestContextStack<TestContext> hiddenTestContextStack = popAllTestContexts();
+        try {
+            return ScopedValue.where(scopedTestContext, testContext).call(callable::call);
+        }
+        finally {
+            restoreTestContexts(hiddenTestContextStack);
+        }
+    }
+
+    /**
+     * Captures {@link TestContext} of the current thread, if set, and returns a {@link Runnable} which
+     * runs given one with captured context bound, see {@link #runWithTestContext(TestContext, Runnable)}.
+     * When no test context is set, returned {@link Runnable} runs with no test context at all.
+     *
+     * @param runnable code to be run
+     * @return runnable that can be executed on any thread
+     */
+    public static Runnable withCurrentTestContext(Runnable runnable)
+    {
+        requireNonNull(runnable, "runnable is null");
+        Optional<TestContext> capturedTestContext = testContextIfSet();
+        return () -> {
+            if (capturedTestContext.isPresent()) {
+                runWithTestContext(capturedTestContext.get(), runnable);
+                return;
+            }
+            TestContextStack<TestContext> hiddenTestContextStack = popAllTestContexts();
+            try {
+                runnable.run();
+            }
+            finally {
+                restoreTestContexts(hiddenTestContextStack);
+            }
+        };
+    }
+
     public static void pushTestContext(TestContext testContext)
     {
         ensureTestContextStack();
@@ -73,9 +150,11 @@ public final class ThreadLocalTestContextHolder
 
     public static TestContext popTestContext()
     {
-        assertTestContextSet();
-
         TestContextStack<TestContext> testContextStack = testContextStackThreadLocal.get();
+        if (testContextStack == null || testContextStack.empty()) {
+            throw new ThreadLocalTestContextException("no test context pushed for current thread");
+        }
+
         TestContext testContext = testContextStack.pop();
         if (testContextStack.empty()) {
             testContextStackThreadLocal.remove();
@@ -103,11 +182,19 @@ public final class ThreadLocalTestContextHolder
 
     public static void assertTestContextSet()
     {
-        if (testContextStackThreadLocal.get() == null || testContextStackThreadLocal.get().empty()) {
+        if ((testContextStackThreadLocal.get() == null || testContextStackThreadLocal.get().empty()) && !scopedTestContext.isBound()) {
             throw new ThreadLocalTestContextException("test context not set for current thread");
         }
     }
 
+    private static void restoreTestContexts(TestContextStack<TestContext> testContextStack)
+    {
+        testContextStackThreadLocal.remove();
+        if (testContextStack != null) {
+            pushAllTestContexts(testContextStack);
+        }
+    }
+
     private static void ensureTestContextStack()
     {
         if (testContextStackThreadLocal.get() == null) {
@@ -55,7 +55,7 @@ public class TableDefinitionsRepository
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(TableDefinitionsRepository.class);
 
-    private static final String DATASETS_PATH_PART = "datasets";
+    public static final String DATASETS_PATH_PART = "datasets";
 
     private static TableDefinitionsRepository instance;
 
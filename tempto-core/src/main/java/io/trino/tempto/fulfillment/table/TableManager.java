@@ -13,6 +13,7 @@
  */
 package io.trino.tempto.fulfillment.table;
 
+import com.google.common.collect.ImmutableList;
 import io.trino.tempto.fulfillment.table.MutableTableRequirement.State;
 import io.trino.tempto.internal.fulfillment.table.TableName;
 
@@ -21,12 +22,19 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.List;
+import java.util.function.Supplier;
 
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.LOADED;
 import static io.trino.tempto.fulfillment.table.TableManagerDispatcher.getTableManagerDispatcher;
 
 /**
  * Provides functionality of creating/dropping tables based on {@link TableDefinition}.
+ * <p>
+ * Table managers are not thread safe. Mutable tables are created by tests while tables of finished tests are
+ * dropped in background and stale mutable tables of previous runs are swept, so mutable tables are created,
+ * listed and dropped only within {@link #callExclusively(TableManager, Supplier)} or
+ * {@link #runExclusively(TableManager, Runnable)}.
  */
 public interface TableManager<T extends TableDefinition>
         extends Closeable
@@ -47,6 +55,12 @@ public interface TableManager<T extends TableDefinition>
 
     TableInstance<T> createImmutable(T tableDefinition, TableHandle tableHandle);
 
+    /**
+     * Waits until immutable tables created so far are complete. Table managers may finish creation of immutable
+     * tables in background, e.g. inject their statistics concurrently; failures of that work are thrown from here.
+     */
+    default void awaitImmutableTables() {}
+
     default TableInstance<T> createMutable(T tableDefinition)
     {
         return createMutable(tableDefinition, LOADED);
@@ -59,23 +73,68 @@ public interface TableManager<T extends TableDefinition>
 
     TableInstance<T> createMutable(T tableDefinition, State state, TableHandle tableHandle);
 
+    /**
+     * Creates mutable table in {@link State#LOADED} state with data copied from {@code source}, a table
+     * created from the same definition in this database. Implementations should copy data within the database,
+     * without transferring it through the client. By default table is created and loaded from the definition.
+     */
+    default TableInstance<T> createMutableCopy(T tableDefinition, TableHandle tableHandle, TableInstance<T> source)
+    {
+        return createMutable(tableDefinition, LOADED, tableHandle);
+    }
+
     void dropTable(TableName tableName);
 
     void dropStaleMutableTables();
 
+    /**
+     * Lists mutable tables left by previous runs, so they can be dropped in background. Table managers which
+     * cannot list them drop stale tables right away and return an empty list.
+     *
+     * @param schemas schemas to search, all schemas (or the default one) when empty
+     */
+    default List<TableName> listStaleMutableTables(List<String> schemas)
+    {
+        dropStaleMutableTables();
+        return ImmutableList.of();
+    }
+
     static <T extends TableDefinition> TableInstance<T> createImmutableTable(T tableDefinition)
     {
-        return getTableManagerDispatcher().getTableManagerFor(tableDefinition).createImmutable(tableDefinition);
+        TableManager<T> tableManager = getTableManagerDispatcher().getTableManagerFor(tableDefinition);
+        TableInstance<T> tableInstance = tableManager.createImmutable(tableDefinition);
+        tableManager.awaitImmutableTables();
+        return tableInstance;
     }
 
     static <T extends TableDefinition> TableInstance<T> createMutableTable(T tableDefinition, State state)
     {
-        return getTableManagerDispatcher().getTableManagerFor(tableDefinition).createMutable(tableDefinition, state);
+        TableManager<T> tableManager = getTableManagerDispatcher().getTableManagerFor(tableDefinition);
+        return callExclusively(tableManager, () -> tableManager.createMutable(tableDefinition, state));
     }
 
     static <T extends TableDefinition> TableInstance<T> createMutableTable(T tableDefinition)
     {
-        return getTableManagerDispatcher().getTableManagerFor(tableDefinition).createMutable(tableDefinition);
+        TableManager<T> tableManager = getTableManagerDispatcher().getTableManagerFor(tableDefinition);
+        return callExclusively(tableManager, () -> tableManager.createMutable(tableDefinition));
+    }
+
+    /**
+     * Runs given action holding the table manager, see the concurrency note of {@link TableManager}.
+     * The table manager is held for a single operation only, so background work interleaves with tests.
+     */
+    static <R> R callExclusively(TableManager<?> tableManager, Supplier<R> action)
+    {
+        synchronized (tableManager) {
+            return action.get();
+        }
+    }
+
+    static void runExclusively(TableManager<?> tableManager, Runnable action)
+    {
+        synchronized (tableManager) {
+            action.run();
+        }
     }
 
     String getDatabaseName();
@@ -70,6 +70,11 @@ public abstract class TablesState
         };
     }
 
+    public List<TableInstance> getTables()
+    {
+        return tables;
+    }
+
     public List<TableName> getTableNames(String databaseName)
     {
         return tables.stream()
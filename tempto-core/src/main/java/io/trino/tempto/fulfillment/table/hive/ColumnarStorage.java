@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.fulfillment.table.hive;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Columnar file format of a Hive table. Data of such table is uploaded as delimited text, according to
+ * the DDL of its {@link HiveTableDefinition}, and then rewritten by Hive into ORC or Parquet files with
+ * {@code CREATE TABLE ... AS SELECT}, so that the table is read with the columnar readers.
+ */
+public final class ColumnarStorage
+{
+    public enum Format
+    {
+        ORC("ORC", "orc.stripe.size"),
+        PARQUET("PARQUET", "parquet.block.size");
+
+        private final String storedAs;
+        private final String blockSizeProperty;
+
+        Format(String storedAs, String blockSizeProperty)
+        {
+            this.storedAs = storedAs;
+            this.blockSizeProperty = blockSizeProperty;
+        }
+    }
+
+    private final Format format;
+    private final OptionalLong blockSize;
+    private final List<String> sortColumns;
+
+    private ColumnarStorage(Format format, OptionalLong blockSize, List<String> sortColumns)
+    {
+        this.format = requireNonNull(format, "format is null");
+        this.blockSize = requireNonNull(blockSize, "blockSize is null");
+        this.sortColumns = ImmutableList.copyOf(requireNonNull(sortColumns, "sortColumns is null"));
+    }
+
+    public static ColumnarStorage orc()
+    {
+        return new ColumnarStorage(Format.ORC, OptionalLong.empty(), ImmutableList.of());
+    }
+
+    public static ColumnarStorage parquet()
+    {
+        return new ColumnarStorage(Format.PARQUET, OptionalLong.empty(), ImmutableList.of());
+    }
+
+    /**
+     * @param bytes ORC stripe size or Parquet row group size; Hive default is used when not set
+     */
+    public ColumnarStorage withBlockSize(long bytes)
+    {
+        checkArgument(bytes > 0, "block size must be positive: %s", bytes);
+        return new ColumnarStorage(format, OptionalLong.of(bytes), sortColumns);
+    }
+
+    /**
+     * Rows are sorted by given columns within each written file, which makes min/max statistics of stripes
+     * and row groups selective for these columns.
+     */
+    public ColumnarStorage sortedBy(String... columns)
+    {
+        return new ColumnarStorage(format, blockSize, ImmutableList.copyOf(columns));
+    }
+
+    public Format getFormat()
+    {
+        return format;
+    }
+
+    public OptionalLong getBlockSize()
+    {
+        return blockSize;
+    }
+
+    public List<String> getSortColumns()
+    {
+        return sortColumns;
+    }
+
+    public String getCreateTableAsSelectDDL(String name, String sourceName)
+    {
+        StringBuilder ddl = new StringBuilder(format("CREATE TABLE %s STORED AS %s", name, format.storedAs));
+        if (blockSize.isPresent()) {
+            ddl.append(format(" TBLPROPERTIES ('%s'='%s')", format.blockSizeProperty, blockSize.getAsLong()));
+        }
+        ddl.append(" AS SELECT * FROM ").append(sourceName);
+        if (!sortColumns.isEmpty()) {
+            ddl.append(" SORT BY ").append(String.join(", ", sortColumns));
+        }
+        return ddl.toString();
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnarStorage that = (ColumnarStorage) o;
+        return format == that.format &&
+                blockSize.equals(that.blockSize) &&
+                sortColumns.equals(that.sortColumns);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(format, blockSize, sortColumns);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("format", format)
+                .add("blockSize", blockSize)
+                .add("sortColumns", sortColumns)
+                .toString();
+    }
+}
@@ -36,6 +36,24 @@ public interface HiveDataSource
      */
     Collection<RepeatableContentProducer> data();
 
+    /**
+     * @return whether data files are delimited text, which Hive reads also when compressed with a codec recognized
+     *         by file extension; such files are compressed when {@code tests.hdfs.text_compression} is configured
+     */
+    default boolean isTextFormat()
+    {
+        return false;
+    }
+
+    /**
+     * @return identifier of data content, which changes whenever {@link #data()} changes; when present, tables derived
+     *         from the data, like columnar immutable tables, are reused while the revision stays the same
+     */
+    default Optional<String> getRevision()
+    {
+        return Optional.empty();
+    }
+
     default Optional<TableStatistics> getStatistics()
     {
         return Optional.empty();
@@ -43,20 +43,24 @@ public class HiveTableDefinition
     private final Optional<List<PartitionDefinition>> partitionDefinitions;
     private final String createTableDDLTemplate;
     private final Optional<Boolean> injectStats;
+    private final Optional<ColumnarStorage> columnarStorage;
 
     private HiveTableDefinition(
             TableHandle handle,
             String createTableDDLTemplate,
             Optional<HiveDataSource> dataSource,
             Optional<List<PartitionDefinition>> partitionDefinitions,
-            Optional<Boolean> injectStats)
+            Optional<Boolean> injectStats,
+            Optional<ColumnarStorage> columnarStorage)
     {
         super(handle);
         checkArgument(dataSource.isPresent() != partitionDefinitions.isPresent(), "either dataSource or partitionDefinitions must be set (but not both)");
+        checkArgument(!columnarStorage.isPresent() || !partitionDefinitions.isPresent(), "columnar storage is not supported for partitioned table");
         this.dataSource = dataSource;
         this.partitionDefinitions = partitionDefinitions;
         this.createTableDDLTemplate = createTableDDLTemplate;
         this.injectStats = requireNonNull(injectStats, "injectStats is null");
+        this.columnarStorage = requireNonNull(columnarStorage, "columnarStorage is null");
 
         checkArgument(createTableDDLTemplate.contains(NAME_MARKER), "Create table DDL must contain %NAME% placeholder");
     }
@@ -100,6 +104,15 @@ public class HiveTableDefinition
         return injectStats;
     }
 
+    /**
+     * @return columnar format the table is converted to, after the data is loaded into a delimited text table created with
+     *         {@link #getCreateTableDDL(String, Optional)}
+     */
+    public Optional<ColumnarStorage> getColumnarStorage()
+    {
+        return columnarStorage;
+    }
+
     public static HiveTableDefinition hiveTableDefinition(String name, String createTableDDLTemplate, HiveDataSource dataSource)
     {
         return hiveTableDefinition(tableHandle(name), createTableDDLTemplate, dataSource);
@@ -107,7 +120,7 @@ public class HiveTableDefinition
 
     public static HiveTableDefinition hiveTableDefinition(TableHandle handle, String createTableDDLTemplate, HiveDataSource dataSource)
     {
-        return new HiveTableDefinition(handle, createTableDDLTemplate, Optional.of(dataSource), Optional.empty(), Optional.empty());
+        return new HiveTableDefinition(handle, createTableDDLTemplate, Optional.of(dataSource), Optional.empty(), Optional.empty(), Optional.empty());
     }
 
     public static HiveTableDefinitionBuilder builder(String name)
@@ -128,6 +141,7 @@ public class HiveTableDefinition
         }
         hiveTableDefinitionBuilder.setCreateTableDDLTemplate(hiveTableDefinition.createTableDDLTemplate);
         hiveTableDefinitionBuilder.setDataSource(hiveTableDefinition.getDataSource());
+        hiveTableDefinitionBuilder.columnarStorage = hiveTableDefinition.columnarStorage;
         return hiveTableDefinitionBuilder;
     }
 
@@ -138,6 +152,7 @@ public class HiveTableDefinition
         private Optional<HiveDataSource> dataSource = Optional.empty();
         private Optional<List<PartitionDefinition>> partitionDefinitions = Optional.empty();
         private Optional<Boolean> injectStats = Optional.empty();
+        private Optional<ColumnarStorage> columnarStorage = Optional.empty();
 
         private HiveTableDefinitionBuilder(HiveTableDefinition initialDefinition)
         {
@@ -147,6 +162,7 @@ public class HiveTableDefinition
             this.dataSource = initialDefinition.dataSource;
             this.partitionDefinitions = initialDefinition.partitionDefinitions;
             this.injectStats = initialDefinition.injectStats;
+            this.columnarStorage = initialDefinition.columnarStorage;
         }
 
         private HiveTableDefinitionBuilder(String name)
@@ -222,9 +238,18 @@ public class HiveTableDefinition
             return this;
         }
 
+        /**
+         * Store the table in given columnar format instead of the delimited text defined by the DDL template.
+         */
+        public HiveTableDefinitionBuilder setColumnarStorage(ColumnarStorage columnarStorage)
+        {
+            this.columnarStorage = Optional.of(columnarStorage);
+            return this;
+        }
+
         public HiveTableDefinition build()
         {
-            return new HiveTableDefinition(handle, createTableDDLTemplate, dataSource, partitionDefinitions, injectStats);
+            return new HiveTableDefinition(handle, createTableDDLTemplate, dataSource, partitionDefinitions, injectStats, columnarStorage);
         }
     }
 
@@ -236,11 +261,13 @@ public class HiveTableDefinition
         private final String partitionSpec;
         private final HiveDataSource dataSource;
 
-        private static final String ADD_PARTITION_DDL_TEMPLATE =
-                "ALTER TABLE " + NAME_MARKER +
-                        " ADD PARTITION (" + PARTITION_SPEC_MARKER + ")" +
+        private static final String ADD_PARTITION_CLAUSE_TEMPLATE =
+                "PARTITION (" + PARTITION_SPEC_MARKER + ")" +
                         " LOCATION '" + LOCATION_MARKER + "'";
 
+        private static final String ADD_PARTITION_DDL_TEMPLATE =
+                "ALTER TABLE " + NAME_MARKER + " ADD " + ADD_PARTITION_CLAUSE_TEMPLATE;
+
         public PartitionDefinition(String partitionSpec, HiveDataSource dataSource)
         {
             this.partitionSpec = partitionSpec;
@@ -263,6 +290,16 @@ public class HiveTableDefinition
                     .replace(PARTITION_SPEC_MARKER, partitionSpec)
                     .replace(LOCATION_MARKER, location);
         }
+
+        /**
+         * @return {@code PARTITION (...) LOCATION '...'} clause; clauses of several partitions can be added with a single
+         *         {@code ALTER TABLE ... ADD} statement
+         */
+        public String getAddPartitionClause(String location)
+        {
+            return ADD_PARTITION_CLAUSE_TEMPLATE.replace(PARTITION_SPEC_MARKER, partitionSpec)
+                    .replace(LOCATION_MARKER, location);
+        }
     }
 
     @Override
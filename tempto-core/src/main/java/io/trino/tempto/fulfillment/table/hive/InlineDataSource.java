@@ -60,6 +60,12 @@ public abstract class InlineDataSource
             {
                 return singleton(() -> wrap(data.getBytes()).openStream());
             }
+
+            @Override
+            public boolean isTextFormat()
+            {
+                return true;
+            }
         };
     }
 
@@ -87,6 +93,12 @@ public abstract class InlineDataSource
                     }
                 };
             }
+
+            @Override
+            public boolean isTextFormat()
+            {
+                return true;
+            }
         };
     }
 
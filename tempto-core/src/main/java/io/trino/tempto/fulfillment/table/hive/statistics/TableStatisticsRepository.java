@@ -18,6 +18,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 
 import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
@@ -25,17 +27,25 @@ import static java.util.Locale.ENGLISH;
 
 public class TableStatisticsRepository
 {
-    private final ObjectMapper objectMapper = new ObjectMapper()
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .registerModule(new Jdk8Module());
 
+    // statistics resources never change, data sources create a repository for each lookup
+    private static final Map<String, TableStatistics> CACHE = new ConcurrentHashMap<>();
+
     public TableStatistics load(String benchmark, double scaleFactor, String table)
     {
         String schema = schema(scaleFactor);
         String resourcePath = "/statistics/" + benchmark.toLowerCase(ENGLISH) + "/" + schema + "/" + table.toLowerCase(ENGLISH) + ".json";
+        return CACHE.computeIfAbsent(resourcePath, this::parse);
+    }
+
+    private TableStatistics parse(String resourcePath)
+    {
         URL resource = getClass().getResource(resourcePath);
         checkState(resource != null, "Unable to find statistics data file, trying with: %s", resourcePath);
         try {
-            return objectMapper.readValue(resource, TableStatistics.class);
+            return OBJECT_MAPPER.readValue(resource, TableStatistics.class);
         }
         catch (Exception e) {
             throw new RuntimeException(format("Failed to parse stats from resource [%s]", resourcePath), e);
@@ -28,13 +28,14 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.trino.tpcds.Results.constructResults;
 import static java.lang.String.format;
-import static java.util.Collections.singleton;
 import static java.util.Objects.requireNonNull;
 
 public class TpcdsDataSource
@@ -42,12 +43,24 @@ public class TpcdsDataSource
 {
     private final TpcdsTable table;
     private final int scaleFactor;
+    private final int partCount;
 
     public TpcdsDataSource(TpcdsTable table, int scaleFactor)
+    {
+        this(table, scaleFactor, 1);
+    }
+
+    /**
+     * @param partCount number of files the table data is split into; parts are generated independently of each other,
+     *         so they can be generated and uploaded in parallel
+     */
+    public TpcdsDataSource(TpcdsTable table, int scaleFactor, int partCount)
     {
         checkArgument(scaleFactor > 0, "Scale factor should be greater than 0: %s", scaleFactor);
+        checkArgument(partCount > 0, "Part count should be greater than 0: %s", partCount);
         this.table = table;
         this.scaleFactor = scaleFactor;
+        this.partCount = partCount;
     }
 
     @Override
@@ -59,14 +72,17 @@ public class TpcdsDataSource
     @Override
     public Collection<RepeatableContentProducer> data()
     {
-        return singleton(() -> new StringIteratorInputStream(generate()));
+        return IntStream.rangeClosed(1, partCount)
+                .mapToObj(chunkNumber -> (RepeatableContentProducer) () -> new StringIteratorInputStream(generate(chunkNumber)))
+                .collect(toImmutableList());
     }
 
-    private Iterator<String> generate()
+    private Iterator<String> generate(int chunkNumber)
     {
         Session session = Session.getDefaultSession()
                 .withScale(scaleFactor)
-                .withParallelism(1)
+                .withParallelism(partCount)
+                .withChunkNumber(chunkNumber)
                 .withTable(table.getTable())
                 .withNoSexism(false);
         Results results = constructResults(table.getTable(), session);
@@ -85,6 +101,19 @@ public class TpcdsDataSource
                 .collect(Collectors.joining("|")) + "|";
     }
 
+    @Override
+    public boolean isTextFormat()
+    {
+        return true;
+    }
+
+    @Override
+    public Optional<String> getRevision()
+    {
+        // generated data depends on table and scale factor only, not on the number of parts
+        return Optional.of(getPathSuffix());
+    }
+
     @Override
     public Optional<TableStatistics> getStatistics()
     {
@@ -103,13 +132,14 @@ public class TpcdsDataSource
         }
         TpcdsDataSource that = (TpcdsDataSource) o;
         return scaleFactor == that.scaleFactor &&
+                partCount == that.partCount &&
                 table == that.table;
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(table, scaleFactor);
+        return Objects.hash(table, scaleFactor, partCount);
     }
 
     private static class StringIteratorInputStream
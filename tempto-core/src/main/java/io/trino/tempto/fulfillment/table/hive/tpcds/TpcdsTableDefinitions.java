@@ -16,6 +16,9 @@ package io.trino.tempto.fulfillment.table.hive.tpcds;
 
 import io.trino.tempto.fulfillment.table.hive.HiveTableDefinition;
 
+import static io.trino.tempto.fulfillment.table.hive.ColumnarStorage.orc;
+import static io.trino.tempto.fulfillment.table.hive.ColumnarStorage.parquet;
+
 // Table definitions according to: tpc.org/tpc_documents_current_versions/pdf/tpc-ds_v2.3.0.pdf
 // TODO: move to separate module
 public class TpcdsTableDefinitions
@@ -485,6 +488,18 @@ public class TpcdsTableDefinitions
                     .inSchema("tpcds")
                     .build();
 
+    public static final HiveTableDefinition STORE_SALES_ORC =
+            HiveTableDefinition.from(STORE_SALES)
+                    .setName("store_sales_orc")
+                    .setColumnarStorage(orc().sortedBy("ss_sold_date_sk"))
+                    .build();
+
+    public static final HiveTableDefinition STORE_SALES_PARQUET =
+            HiveTableDefinition.from(STORE_SALES)
+                    .setName("store_sales_parquet")
+                    .setColumnarStorage(parquet().sortedBy("ss_sold_date_sk"))
+                    .build();
+
     public static final HiveTableDefinition TIME_DIM =
             HiveTableDefinition.builder("time_dim")
                     .setCreateTableDDLTemplate("" +
@@ -23,9 +23,11 @@ import io.trino.tpch.TpchEntity;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.String.format;
-import static java.util.Collections.singleton;
 import static org.apache.commons.lang3.builder.EqualsBuilder.reflectionEquals;
 import static org.apache.commons.lang3.builder.HashCodeBuilder.reflectionHashCode;
 
@@ -34,11 +36,23 @@ public class TpchDataSource
 {
     private final TpchTable table;
     private final double scaleFactor;
+    private final int partCount;
 
     public TpchDataSource(TpchTable table, double scaleFactor)
     {
+        this(table, scaleFactor, 1);
+    }
+
+    /**
+     * @param partCount number of files the table data is split into; parts are generated independently of each other,
+     *         so they can be generated and uploaded in parallel
+     */
+    public TpchDataSource(TpchTable table, double scaleFactor, int partCount)
+    {
+        checkArgument(partCount > 0, "partCount must be positive: %s", partCount);
         this.table = table;
         this.scaleFactor = scaleFactor;
+        this.partCount = partCount;
     }
 
     @Override
@@ -51,8 +65,28 @@ public class TpchDataSource
     @Override
     public Collection<RepeatableContentProducer> data()
     {
-        Iterable<? extends TpchEntity> tableDataGenerator = table.entity().createGenerator(scaleFactor, 1, 1);
-        return singleton(() -> new TpchEntityByteSource<>(tableDataGenerator).openStream());
+        return IntStream.rangeClosed(1, partCount)
+                .mapToObj(this::part)
+                .collect(toImmutableList());
+    }
+
+    private RepeatableContentProducer part(int part)
+    {
+        Iterable<? extends TpchEntity> tableDataGenerator = table.entity().createGenerator(scaleFactor, part, partCount);
+        return () -> new TpchEntityByteSource<>(tableDataGenerator).openStream();
+    }
+
+    @Override
+    public boolean isTextFormat()
+    {
+        return true;
+    }
+
+    @Override
+    public Optional<String> getRevision()
+    {
+        // generated data depends on table and scale factor only, not on the number of parts
+        return Optional.of(getPathSuffix());
     }
 
     @Override
@@ -16,6 +16,9 @@ package io.trino.tempto.fulfillment.table.hive.tpch;
 
 import io.trino.tempto.fulfillment.table.hive.HiveTableDefinition;
 
+import static io.trino.tempto.fulfillment.table.hive.ColumnarStorage.orc;
+import static io.trino.tempto.fulfillment.table.hive.ColumnarStorage.parquet;
+
 // Table definitions according to: http://www.tpc.org/tpc_documents_current_versions/pdf/tpc-h_v2.17.1.pdf
 // TODO: support for CHAR
 // TODO: move to separate module
@@ -148,5 +151,31 @@ public class TpchTableDefinitions
                     .setDataSource(new TpchDataSource(TpchTable.LINE_ITEM, DEFAULT_SCALE_FACTOR))
                     .build();
 
+    // columnar variants of the largest tables, sorted by the column most queries filter on
+
+    public static final HiveTableDefinition ORDERS_ORC =
+            HiveTableDefinition.from(ORDERS)
+                    .setName("orders_orc")
+                    .setColumnarStorage(orc().sortedBy("o_orderdate"))
+                    .build();
+
+    public static final HiveTableDefinition ORDERS_PARQUET =
+            HiveTableDefinition.from(ORDERS)
+                    .setName("orders_parquet")
+                    .setColumnarStorage(parquet().sortedBy("o_orderdate"))
+                    .build();
+
+    public static final HiveTableDefinition LINE_ITEM_ORC =
+            HiveTableDefinition.from(LINE_ITEM)
+                    .setName("lineitem_orc")
+                    .setColumnarStorage(orc().sortedBy("l_shipdate"))
+                    .build();
+
+    public static final HiveTableDefinition LINE_ITEM_PARQUET =
+            HiveTableDefinition.from(LINE_ITEM)
+                    .setName("lineitem_parquet")
+                    .setColumnarStorage(parquet().sortedBy("l_shipdate"))
+                    .build();
+
     private TpchTableDefinitions() {}
 }
@@ -21,9 +21,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.function.Function.identity;
+
 /**
  * HDFS client.
  */
@@ -47,6 +52,14 @@ public interface HdfsClient
 
     void delete(String path);
 
+    /**
+     * Deletes given files or directories, recursively. Implementations may delete paths concurrently.
+     */
+    default void delete(Collection<String> paths)
+    {
+        paths.forEach(this::delete);
+    }
+
     void saveFile(String path, InputStream input);
 
     void saveFile(String path, RepeatableContentProducer repeatableContentProducer);
@@ -60,6 +73,18 @@ public interface HdfsClient
 
     List<String> listDirectory(String path);
 
+    /**
+     * Lists many directories at once. Implementations may list directories concurrently.
+     *
+     * @return entries of every given directory, keyed by the directory path
+     */
+    default Map<String, List<String>> listDirectories(Collection<String> paths)
+    {
+        return paths.stream()
+                .distinct()
+                .collect(toImmutableMap(identity(), this::listDirectory));
+    }
+
     default String loadFile(String path, Charset charset)
     {
         ByteArrayOutputStream output = new ByteArrayOutputStream();
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Collects failures of independent operations, e.g. run in parallel, so all of them complete before the first
+ * failure is thrown, with the other failures suppressed.
+ */
+public final class FailureCollector
+{
+    private RuntimeException failure;
+
+    /**
+     * Waits for all given futures. All of them are completed before the first failure is thrown, with the other
+     * failures suppressed. When interrupted, futures which are still pending are cancelled.
+     *
+     * @param activity what the futures do, used in exception messages, e.g. {@code "uploading partitions data"}
+     */
+    public static void awaitAll(Collection<? extends Future<?>> futures, String activity)
+    {
+        FailureCollector failures = new FailureCollector();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new RuntimeException("Interrupted while " + activity, e);
+            }
+            catch (ExecutionException e) {
+                failures.add(e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException
+                        : new RuntimeException("Failed " + activity, e.getCause()));
+            }
+        }
+        failures.throwIfFailed();
+    }
+
+    public void add(RuntimeException failure)
+    {
+        requireNonNull(failure, "failure is null");
+        if (this.failure == null) {
+            this.failure = failure;
+        }
+        else {
+            this.failure.addSuppressed(failure);
+        }
+    }
+
+    public void throwIfFailed()
+    {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Local JSON file with a map, e.g. results of previous runs, updated by runs which may finish at the same time,
+ * like shards or forked workers sharing the file.
+ * <p>
+ * Updates of the file are serialized with a lock on a {@code .lock} file next to it, held while the file is read,
+ * merged with the update and replaced, so no update is lost. The file is replaced atomically with a uniquely
+ * named temporary file, so readers never see a partially written file.
+ */
+public final class JsonMapFile<V>
+{
+    private static final Logger LOGGER = getLogger(JsonMapFile.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Path file;
+    private final TypeReference<Map<String, V>> type;
+
+    public JsonMapFile(Path file, TypeReference<Map<String, V>> type)
+    {
+        this.file = requireNonNull(file, "file is null").toAbsolutePath();
+        this.type = requireNonNull(type, "type is null");
+    }
+
+    public Path getPath()
+    {
+        return file;
+    }
+
+    /**
+     * @return content of the file, empty if there is no file yet or it cannot be read
+     */
+    public Map<String, V> read()
+    {
+        if (!Files.exists(file)) {
+            return ImmutableMap.of();
+        }
+        try {
+            return ImmutableMap.copyOf(MAPPER.readValue(file.toFile(), type));
+        }
+        catch (IOException e) {
+            LOGGER.warn("Could not read {}, ignoring", file, e);
+            return ImmutableMap.of();
+        }
+    }
+
+    /**
+     * Applies given update to the current content of the file and writes the result back, holding the lock.
+     */
+    public void update(Consumer<Map<String, V>> update)
+            throws IOException
+    {
+        Files.createDirectories(file.getParent());
+        // a file lock is held by the whole JVM, so threads of a single JVM have to be serialized separately
+        synchronized (JsonMapFile.class) {
+            try (FileChannel lockChannel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"), CREATE, WRITE);
+                    FileLock _ = lockChannel.lock()) {
+                Map<String, V> content = new TreeMap<>(read());
+                update.accept(content);
+                Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+                try {
+                    MAPPER.writeValue(temporaryFile.toFile(), content);
+                    Files.move(temporaryFile, file, REPLACE_EXISTING, ATOMIC_MOVE);
+                }
+                finally {
+                    Files.deleteIfExists(temporaryFile);
+                }
+            }
+        }
+    }
+}
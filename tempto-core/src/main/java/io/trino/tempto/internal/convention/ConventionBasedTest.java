@@ -26,4 +26,9 @@ public abstract class ConventionBasedTest
                    WithTestGroups
 {
     public abstract void test();
+
+    /**
+     * Called when the test passed, see {@link io.trino.tempto.internal.listeners.ConventionTestResultCacheListener}.
+     */
+    public void recordPass() {}
 }
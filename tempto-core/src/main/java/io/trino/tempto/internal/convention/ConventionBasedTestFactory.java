@@ -30,6 +30,7 @@ import java.util.Optional;
 
 import static io.trino.tempto.fulfillment.table.TableDefinitionsRepository.tableDefinitionsRepository;
 import static io.trino.tempto.internal.configuration.TestConfigurationFactory.testConfiguration;
+import static io.trino.tempto.internal.convention.ConventionTestResultCache.conventionTestResultCache;
 import static io.trino.tempto.internal.convention.ConventionTestsUtils.getConventionsTestsPath;
 import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -82,7 +83,8 @@ public class ConventionBasedTestFactory
                 new SqlPathTestFactory(
                         tableDefinitionsRepository(),
                         new ConventionBasedTestProxyGenerator(TEST_PACKAGE),
-                        configuration));
+                        configuration,
+                        conventionTestResultCache()));
     }
 
     public List<ConventionBasedTest> createTestsForPath(Path path, String testNamePrefix)
@@ -124,6 +124,12 @@ public class ConventionBasedTestProxyGenerator
             delegate.test();
         }
 
+        @Override
+        public void recordPass()
+        {
+            delegate.recordPass();
+        }
+
         @Override
         public String getTestName()
         {
@@ -0,0 +1,231 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.convention;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.trino.tempto.configuration.Configuration;
+import io.trino.tempto.internal.JsonMapFile;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.google.common.io.MoreFiles.asByteSource;
+import static io.trino.tempto.fulfillment.table.TableDefinitionsRepository.DATASETS_PATH_PART;
+import static io.trino.tempto.internal.configuration.TestConfigurationFactory.testConfiguration;
+import static io.trino.tempto.internal.convention.ConventionTestsUtils.getConventionsTestsPath;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Passes of convention tests recorded in previous runs, stored in a local JSON file.
+ * <p>
+ * A pass is keyed by a fingerprint of everything the outcome of the test depends on: the test file, its expected
+ * result, before and after scripts, definitions and data revisions of the datasets it uses and the version of
+ * the system under test given with {@value #SUT_VERSION_KEY}. A test whose fingerprint did not change since its
+ * last pass is not run again and is reported as passed. Such a test has no requirements, so tables used only by
+ * cached tests are not created either.
+ * <p>
+ * Files are assumed not to change during the run, digest of each file is computed once and shared by all tests
+ * reading it, e.g. tests using the same dataset.
+ */
+public class ConventionTestResultCache
+{
+    private static final Logger LOGGER = getLogger(ConventionTestResultCache.class);
+
+    public static final String CACHE_FILE_KEY = "tests.convention_result_cache.file";
+    public static final String SUT_VERSION_KEY = "tests.convention_result_cache.sut_version";
+
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+    private static final HashCode MISSING_FILE_DIGEST = HashCode.fromInt(-1);
+
+    private static Optional<ConventionTestResultCache> instance;
+
+    private final JsonMapFile<String> cacheFile;
+    private final String sutVersion;
+    private final Supplier<Optional<Path>> datasetsPath;
+    private final Map<String, String> previousPasses;
+    private final Map<String, String> recordedPasses = new ConcurrentHashMap<>();
+    private final Map<Path, HashCode> fileDigests = new ConcurrentHashMap<>();
+
+    public static synchronized Optional<ConventionTestResultCache> conventionTestResultCache()
+    {
+        if (instance == null) {
+            instance = fromConfiguration(testConfiguration());
+        }
+        return instance;
+    }
+
+    static Optional<ConventionTestResultCache> fromConfiguration(Configuration configuration)
+    {
+        Optional<String> cacheFile = configuration.getString(CACHE_FILE_KEY);
+        if (cacheFile.isEmpty()) {
+            return Optional.empty();
+        }
+        String sutVersion = configuration.getString(SUT_VERSION_KEY)
+                .orElseThrow(() -> new IllegalStateException(format("%s must be set when %s is configured", SUT_VERSION_KEY, CACHE_FILE_KEY)));
+        return Optional.of(new ConventionTestResultCache(Paths.get(cacheFile.get()), sutVersion, () -> getConventionsTestsPath(DATASETS_PATH_PART)));
+    }
+
+    public ConventionTestResultCache(Path cacheFile, String sutVersion, Supplier<Optional<Path>> datasetsPath)
+    {
+        this.cacheFile = new JsonMapFile<>(requireNonNull(cacheFile, "cacheFile is null"), new TypeReference<>() {});
+        this.sutVersion = requireNonNull(sutVersion, "sutVersion is null");
+        this.datasetsPath = Suppliers.memoize(requireNonNull(datasetsPath, "datasetsPath is null")::get);
+        this.previousPasses = this.cacheFile.read();
+    }
+
+    /**
+     * @param files files read by the test; a missing file is a valid input too
+     * @param tableDefinitionNames names of convention table definitions used by the test
+     * @param discriminator distinguishes tests defined by the same files, e.g. index of the query section
+     */
+    public TestFingerprint fingerprint(List<Path> files, Set<String> tableDefinitionNames, String discriminator)
+    {
+        Hasher hasher = HASH_FUNCTION.newHasher();
+        putString(hasher, sutVersion);
+        putString(hasher, discriminator);
+        for (Path file : files) {
+            putFile(hasher, file);
+        }
+        for (String tableDefinitionName : ImmutableSortedSet.copyOf(tableDefinitionNames)) {
+            putString(hasher, tableDefinitionName);
+            for (Path file : getDatasetFiles(tableDefinitionName)) {
+                putFile(hasher, file);
+            }
+        }
+        return new TestFingerprint(this, hasher.hash().toString());
+    }
+
+    /**
+     * Dataset data files can be large, so when a {@code .data-revision} marker is present only the marker is read.
+     * Generated data is identified by its generator.
+     */
+    private List<Path> getDatasetFiles(String tableDefinitionName)
+    {
+        if (datasetsPath.get().isEmpty()) {
+            return ImmutableList.of();
+        }
+        Path ddlFile = datasetsPath.get().get().resolve(tableDefinitionName + ".ddl");
+        Path dataRevisionFile = ddlFile.resolveSibling(tableDefinitionName + ".data-revision");
+        Path dataGeneratorFile = ddlFile.resolveSibling(tableDefinitionName + ".data-generator");
+        if (Files.exists(dataRevisionFile)) {
+            return ImmutableList.of(ddlFile, dataRevisionFile);
+        }
+        if (Files.exists(dataGeneratorFile)) {
+            return ImmutableList.of(ddlFile, dataGeneratorFile);
+        }
+        return ImmutableList.of(ddlFile, ddlFile.resolveSibling(tableDefinitionName + ".data"));
+    }
+
+    private static void putString(Hasher hasher, String value)
+    {
+        hasher.putInt(value.length());
+        hasher.putString(value, UTF_8);
+    }
+
+    private void putFile(Hasher hasher, Path file)
+    {
+        putString(hasher, file.getFileName().toString());
+        hasher.putBytes(fileDigests.computeIfAbsent(file.toAbsolutePath(), ConventionTestResultCache::digest).asBytes());
+    }
+
+    private static HashCode digest(Path file)
+    {
+        if (!Files.isRegularFile(file)) {
+            return MISSING_FILE_DIGEST;
+        }
+        try {
+            return asByteSource(file).hash(HASH_FUNCTION);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+
+    boolean isCachedPass(String testName, String fingerprint)
+    {
+        return fingerprint.equals(previousPasses.get(testName));
+    }
+
+    void recordPass(String testName, String fingerprint)
+    {
+        recordedPasses.put(testName, fingerprint);
+    }
+
+    /**
+     * Merges passes recorded in this run into the cache file, keeping passes saved by other runs in the meantime.
+     */
+    public synchronized void save()
+    {
+        if (recordedPasses.isEmpty()) {
+            return;
+        }
+        try {
+            cacheFile.update(passes -> passes.putAll(recordedPasses));
+            LOGGER.info("Saved {} convention test passes to {}", recordedPasses.size(), cacheFile.getPath());
+        }
+        catch (IOException e) {
+            LOGGER.warn("Could not save convention test passes to {}", cacheFile.getPath(), e);
+        }
+    }
+
+    /**
+     * Fingerprint of inputs of a single convention test.
+     */
+    public static final class TestFingerprint
+    {
+        private final ConventionTestResultCache cache;
+        private final String value;
+
+        private TestFingerprint(ConventionTestResultCache cache, String value)
+        {
+            this.cache = cache;
+            this.value = value;
+        }
+
+        public boolean isCachedPass(String testName)
+        {
+            return cache.isCachedPass(testName, value);
+        }
+
+        public void recordPass(String testName)
+        {
+            cache.recordPass(testName, value);
+        }
+
+        public String getValue()
+        {
+            return value;
+        }
+    }
+}
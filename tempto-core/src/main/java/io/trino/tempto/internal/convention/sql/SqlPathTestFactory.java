@@ -30,6 +30,8 @@ import io.trino.tempto.internal.convention.AnnotatedFileParser.SectionParsingRes
 import io.trino.tempto.internal.convention.ConventionBasedTest;
 import io.trino.tempto.internal.convention.ConventionBasedTestFactory;
 import io.trino.tempto.internal.convention.ConventionBasedTestProxyGenerator;
+import io.trino.tempto.internal.convention.ConventionTestResultCache;
+import io.trino.tempto.internal.convention.ConventionTestResultCache.TestFingerprint;
 import io.trino.tempto.internal.convention.MutableTableDescriptor;
 import io.trino.tempto.internal.convention.SqlQueryDescriptor;
 import io.trino.tempto.internal.convention.SqlResultDescriptor;
@@ -38,8 +40,10 @@ import io.trino.tempto.internal.convention.SqlTestsFileUtils;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Lists.newArrayList;
 import static io.trino.tempto.Requirements.compose;
@@ -51,6 +55,7 @@ import static java.nio.file.Files.exists;
 import static java.nio.file.Files.isRegularFile;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Stream.concat;
 
 public class SqlPathTestFactory
         implements ConventionBasedTestFactory.PathTestFactory
@@ -65,15 +70,26 @@ public class SqlPathTestFactory
     private final TableDefinitionsRepository tableDefinitionsRepository;
     private final ConventionBasedTestProxyGenerator proxyGenerator;
     private final Configuration configuration;
+    private final Optional<ConventionTestResultCache> resultCache;
 
     public SqlPathTestFactory(
             TableDefinitionsRepository tableDefinitionsRepository,
             ConventionBasedTestProxyGenerator proxyGenerator,
             Configuration configuration)
+    {
+        this(tableDefinitionsRepository, proxyGenerator, configuration, Optional.empty());
+    }
+
+    public SqlPathTestFactory(
+            TableDefinitionsRepository tableDefinitionsRepository,
+            ConventionBasedTestProxyGenerator proxyGenerator,
+            Configuration configuration,
+            Optional<ConventionTestResultCache> resultCache)
     {
         this.tableDefinitionsRepository = requireNonNull(tableDefinitionsRepository, "tableDefinitionsRepository is null");
         this.proxyGenerator = requireNonNull(proxyGenerator, "proxyGenerator is null");
         this.configuration = requireNonNull(configuration, "configuration is null");
+        this.resultCache = requireNonNull(resultCache, "resultCache is null");
     }
 
     @Override
@@ -176,7 +192,8 @@ public class SqlPathTestFactory
                     queryDescriptors.size(),
                     queryDescriptor,
                     resultDescriptor,
-                    requirement);
+                    requirement,
+                    getFingerprint(testFile, optionalBeforeScriptFile, optionalAfterScriptFile, queryDescriptor, i));
             ConventionBasedTest proxiedConventionTest = proxyGenerator.generateProxy(conventionTest);
             conventionBasedTests.add(proxiedConventionTest);
         }
@@ -206,6 +223,27 @@ public class SqlPathTestFactory
         return compose(requirements);
     }
 
+    private Optional<TestFingerprint> getFingerprint(
+            Path testFile,
+            Optional<Path> optionalBeforeScriptFile,
+            Optional<Path> optionalAfterScriptFile,
+            SqlQueryDescriptor queryDescriptor,
+            int queryNumber)
+    {
+        if (resultCache.isEmpty()) {
+            return Optional.empty();
+        }
+        // results of multi section files are part of the test file
+        List<Path> files = newArrayList(testFile, changeExtension(testFile, RESULT_FILE_EXTENSION));
+        optionalBeforeScriptFile.ifPresent(files::add);
+        optionalAfterScriptFile.ifPresent(files::add);
+        Set<String> tableDefinitionNames = concat(
+                queryDescriptor.getTableDefinitionHandles().stream().map(TableHandle::getName),
+                queryDescriptor.getMutableTableDescriptors().stream().map(descriptor -> descriptor.tableDefinitionName))
+                .collect(toImmutableSet());
+        return Optional.of(resultCache.get().fingerprint(files, tableDefinitionNames, String.valueOf(queryNumber)));
+    }
+
     private TableHandle resolveTableHandle(SqlQueryDescriptor queryDescriptor, TableHandle tableHandle)
     {
         if (!tableHandle.getDatabase().isPresent()) {
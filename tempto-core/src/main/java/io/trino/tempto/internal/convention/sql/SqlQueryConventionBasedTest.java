@@ -21,6 +21,7 @@ import io.trino.tempto.Requirement;
 import io.trino.tempto.assertions.QueryAssert;
 import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.internal.convention.ConventionBasedTest;
+import io.trino.tempto.internal.convention.ConventionTestResultCache.TestFingerprint;
 import io.trino.tempto.internal.convention.SqlQueryDescriptor;
 import io.trino.tempto.internal.convention.SqlResultDescriptor;
 import io.trino.tempto.query.QueryExecutor;
@@ -46,12 +47,14 @@ import java.util.Set;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static io.trino.tempto.Requirements.compose;
 import static io.trino.tempto.assertions.QueryAssert.assertThat;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.testContext;
 import static io.trino.tempto.fulfillment.table.MutableTablesState.mutableTablesState;
 import static io.trino.tempto.internal.convention.ConventionTestsUtils.getConventionTestResultsDumpPath;
 import static io.trino.tempto.internal.convention.ProcessUtils.execute;
 import static java.nio.file.Files.newBufferedWriter;
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
@@ -73,6 +76,7 @@ public class SqlQueryConventionBasedTest
     private final SqlQueryDescriptor queryDescriptor;
     private final SqlResultDescriptor resultDescriptor;
     private final Requirement requirement;
+    private final Optional<TestFingerprint> fingerprint;
 
     public SqlQueryConventionBasedTest(
             Optional<Path> beforeScriptFile,
@@ -84,6 +88,24 @@ public class SqlQueryConventionBasedTest
             SqlQueryDescriptor queryDescriptor,
             SqlResultDescriptor resultDescriptor,
             Requirement requirement)
+    {
+        this(beforeScriptFile, afterScriptFile, queryFile, testNamePrefix, queryNumber, queriesCount, queryDescriptor, resultDescriptor, requirement, Optional.empty());
+    }
+
+    /**
+     * @param fingerprint fingerprint of test inputs, when present the test is not run if it passed with the same fingerprint before
+     */
+    public SqlQueryConventionBasedTest(
+            Optional<Path> beforeScriptFile,
+            Optional<Path> afterScriptFile,
+            Path queryFile,
+            String testNamePrefix,
+            int queryNumber,
+            int queriesCount,
+            SqlQueryDescriptor queryDescriptor,
+            SqlResultDescriptor resultDescriptor,
+            Requirement requirement,
+            Optional<TestFingerprint> fingerprint)
     {
         this.beforeScriptPath = beforeScriptFile;
         this.afterScriptPath = afterScriptFile;
@@ -94,11 +116,17 @@ public class SqlQueryConventionBasedTest
         this.queryDescriptor = queryDescriptor;
         this.resultDescriptor = resultDescriptor;
         this.requirement = requirement;
+        this.fingerprint = requireNonNull(fingerprint, "fingerprint is null");
     }
 
     @Override
     public void test()
     {
+        if (isCachedPass()) {
+            LOGGER.info("Cached pass, not running sql test: {}", getTestName());
+            return;
+        }
+
         LOGGER.debug("Executing sql test: {}#{}", queryFile.getFileName(), queryDescriptor.getName());
 
         if (beforeScriptPath.isPresent()) {
@@ -113,6 +141,19 @@ public class SqlQueryConventionBasedTest
         }
     }
 
+    @Override
+    public void recordPass()
+    {
+        if (!isCachedPass()) {
+            fingerprint.ifPresent(value -> value.recordPass(getTestName()));
+        }
+    }
+
+    private boolean isCachedPass()
+    {
+        return fingerprint.isPresent() && fingerprint.get().isCachedPass(getTestName());
+    }
+
     private QueryResult runTestQuery()
     {
         QueryExecutor queryExecutor = getQueryExecutor(queryDescriptor);
@@ -215,6 +256,9 @@ public class SqlQueryConventionBasedTest
     @Override
     public Requirement getRequirements(Configuration configuration)
     {
+        if (isCachedPass()) {
+            return compose();
+        }
         return requirement;
     }
 
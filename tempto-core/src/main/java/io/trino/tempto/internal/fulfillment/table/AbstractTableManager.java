@@ -25,9 +25,13 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Optional;
 
-import static io.trino.tempto.fulfillment.table.TableHandle.tableHandle;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Collections.singletonList;
+import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public abstract class AbstractTableManager<T extends TableDefinition>
@@ -49,21 +53,35 @@ public abstract class AbstractTableManager<T extends TableDefinition>
     public void dropStaleMutableTables()
     {
         if (!staleMutableTablesDropped) {
-            getTableNames().stream()
-                    .filter(tableNameGenerator::isMutableTableName)
-                    .forEach(tableName -> dropTableIgnoreError(createMutableTableName(tableHandle(tableName))));
+            listStaleMutableTables(ImmutableList.of()).forEach(this::dropTableIgnoreError);
         }
         staleMutableTablesDropped = true;
     }
 
-    private List<String> getTableNames()
+    @Override
+    public List<TableName> listStaleMutableTables(List<String> schemas)
     {
         try {
-            ImmutableList.Builder<String> tableNames = ImmutableList.builder();
+            ImmutableList.Builder<TableName> tableNames = ImmutableList.builder();
             DatabaseMetaData metaData = queryExecutor.getConnection().getMetaData();
-            try (ResultSet tables = metaData.getTables(null, null, null, null)) {
-                while (tables.next()) {
-                    tableNames.add(tables.getString("TABLE_NAME"));
+            String escape = metaData.getSearchStringEscape();
+            String namePattern = escapeNamePattern(tableNameGenerator.getMutableTableNamePrefix(), escape) + "%";
+            if (metaData.storesUpperCaseIdentifiers()) {
+                namePattern = namePattern.toUpperCase(ENGLISH);
+            }
+            List<String> schemaPatterns = schemas.isEmpty() ? singletonList(null) : schemas.stream()
+                    .map(schema -> escapeNamePattern(schema, escape))
+                    .collect(toList());
+            for (String schemaPattern : schemaPatterns) {
+                try (ResultSet tables = metaData.getTables(null, schemaPattern, namePattern, null)) {
+                    while (tables.next()) {
+                        String tableName = tables.getString("TABLE_NAME");
+                        // some drivers ignore the pattern
+                        if (tableNameGenerator.isMutableTableName(tableName)) {
+                            Optional<String> schema = Optional.ofNullable(tables.getString("TABLE_SCHEM"));
+                            tableNames.add(new TableName(getDatabaseName(), schema, tableName, tableName));
+                        }
+                    }
                 }
             }
             return tableNames.build();
@@ -74,6 +92,19 @@ public abstract class AbstractTableManager<T extends TableDefinition>
         }
     }
 
+    protected static String escapeNamePattern(String name, String escape)
+    {
+        if ((name == null) || (escape == null)) {
+            return name;
+        }
+        checkArgument(!escape.equals("_"), "Escape string must not be '_'");
+        checkArgument(!escape.equals("%"), "Escape string must not be '%'");
+        name = name.replace(escape, escape + escape);
+        name = name.replace("_", escape + "_");
+        name = name.replace("%", escape + "%");
+        return name;
+    }
+
     protected void dropTableIgnoreError(TableName tableName)
     {
         try {
@@ -23,6 +23,7 @@ import io.trino.tempto.fulfillment.table.TableInstance;
 import io.trino.tempto.fulfillment.table.TableManager;
 import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
 import io.trino.tempto.fulfillment.table.TablesState;
+import io.trino.tempto.internal.jfr.TableCreationEvent;
 
 import java.util.List;
 
@@ -39,13 +40,24 @@ public class ImmutableTablesFulfiller
     @Override
     protected TablesState createState(List<TableInstance> tables)
     {
+        // all tables of the suite are created, wait for work table managers finish in background, e.g. statistics injection
+        tableManagerDispatcher.getAllTableManagers().forEach(TableManager::awaitImmutableTables);
         return new ImmutableTablesState(tables);
     }
 
     @Override
     protected TableInstance createTable(TableManager tableManager, ImmutableTableRequirement tableRequirement)
     {
-        return tableManager.createImmutable(tableRequirement.getTableDefinition());
+        TableCreationEvent event = new TableCreationEvent(
+                tableManager.getDatabaseName(),
+                tableRequirement.getTableDefinition().getName(),
+                tableManager.getClass(),
+                false,
+                "LOADED");
+        event.begin();
+        TableInstance tableInstance = tableManager.createImmutable(tableRequirement.getTableDefinition());
+        event.setTableName(tableInstance.getNameInDatabase()).commit();
+        return tableInstance;
     }
 
     @Override
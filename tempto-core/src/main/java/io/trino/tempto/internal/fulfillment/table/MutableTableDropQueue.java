@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.tempto.context.State;
+import io.trino.tempto.context.TestContext;
+import io.trino.tempto.fulfillment.table.TableManager;
+import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static io.trino.tempto.context.TestContextDsl.runWithTestContext;
+import static io.trino.tempto.fulfillment.table.TableManager.runExclusively;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.groupingBy;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Drops mutable tables on background threads, so tests do not wait for {@code DROP TABLE} statements.
+ * <p>
+ * Tables passed in a single {@link #drop(List)} call are dropped as one batch per database. Databases are
+ * processed in parallel, batches of a single database sequentially, as table managers are not thread safe.
+ * Tables left behind when the JVM exits before the queue is drained are removed by the stale mutable tables sweep
+ * of the next run.
+ */
+public class MutableTableDropQueue
+        implements State
+{
+    private static final Logger LOGGER = getLogger(MutableTableDropQueue.class);
+
+    private final TestContext testContext;
+    private final TableManagerDispatcher tableManagerDispatcher;
+    private final Map<String, ExecutorService> executors = newHashMap();
+    private final AtomicInteger pendingTables = new AtomicInteger();
+    private final AtomicInteger droppedTables = new AtomicInteger();
+    private boolean closed;
+
+    public MutableTableDropQueue(TestContext testContext, TableManagerDispatcher tableManagerDispatcher)
+    {
+        this.testContext = requireNonNull(testContext, "testContext is null");
+        this.tableManagerDispatcher = requireNonNull(tableManagerDispatcher, "tableManagerDispatcher is null");
+    }
+
+    /**
+     * @return false if queue is already drained, tables have to be dropped by the caller then
+     */
+    public synchronized boolean drop(List<TableName> tableNames)
+    {
+        if (closed) {
+            return false;
+        }
+        tableNames.stream()
+                .collect(groupingBy(tableName -> tableName.getDatabase().toLowerCase()))
+                .forEach((database, batch) -> {
+                    TableManager tableManager = getTableManager(database);
+                    pendingTables.addAndGet(batch.size());
+                    executors.computeIfAbsent(database, _ -> newSingleThreadExecutor(new ThreadFactoryBuilder()
+                                    .setNameFormat("mutable-table-drop-" + database + "-%s")
+                                    .setDaemon(true)
+                                    .build()))
+                            .execute(() -> runWithTestContext(testContext, () -> dropBatch(tableManager, batch)));
+                });
+        return true;
+    }
+
+    private TableManager getTableManager(String database)
+    {
+        return tableManagerDispatcher.getAllTableManagers().stream()
+                .filter(tableManager -> tableManager.getDatabaseName().equalsIgnoreCase(database))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No table manager found for database " + database));
+    }
+
+    private void dropBatch(TableManager tableManager, List<TableName> batch)
+    {
+        for (TableName tableName : batch) {
+            try {
+                runExclusively(tableManager, () -> tableManager.dropTable(tableName));
+                droppedTables.incrementAndGet();
+            }
+            catch (RuntimeException e) {
+                LOGGER.debug("{} - unable to drop table: {}", tableManager.getDatabaseName(), tableName, e);
+            }
+            finally {
+                pendingTables.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Waits until queued tables are dropped, up to given timeout. Tables which could not be dropped in time are left
+     * for the stale mutable tables sweep.
+     */
+    public void drain(Duration timeout)
+    {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        long deadlineNanos = nanoTime() + timeout.toNanos();
+        executors.values().forEach(ExecutorService::shutdown);
+        try {
+            for (ExecutorService executor : executors.values()) {
+                if (!executor.awaitTermination(deadlineNanos - nanoTime(), NANOSECONDS)) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executors.values().forEach(ExecutorService::shutdownNow);
+        }
+
+        if (pendingTables.get() > 0) {
+            LOGGER.warn("Timed out after {} dropping mutable tables, {} tables are left for the stale mutable tables sweep", timeout, pendingTables.get());
+        }
+        LOGGER.info("Dropped {} mutable tables in background", droppedTables.get());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import io.trino.tempto.Requirement;
+import io.trino.tempto.configuration.Configuration;
+import io.trino.tempto.context.State;
+import io.trino.tempto.context.TestContext;
+import io.trino.tempto.fulfillment.RequirementFulfiller;
+import io.trino.tempto.fulfillment.TestStatus;
+import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Provides {@link MutableTableDropQueue} when enabled with {@value #ENABLED_KEY}. The queue is drained
+ * when the suite finishes, waiting at most {@value #DRAIN_TIMEOUT_KEY} seconds.
+ */
+@RequirementFulfiller.SuiteLevelFulfiller
+public class MutableTableDropQueueFulfiller
+        implements RequirementFulfiller
+{
+    public static final String ENABLED_KEY = "tests.mutable_tables.async_drop.enabled";
+    public static final String DRAIN_TIMEOUT_KEY = "tests.mutable_tables.async_drop.drain_timeout_seconds";
+
+    private static final int DEFAULT_DRAIN_TIMEOUT_SECONDS = 300;
+
+    private final TableManagerDispatcher tableManagerDispatcher;
+    private final Configuration configuration;
+    private final TestContext testContext;
+    private Optional<MutableTableDropQueue> mutableTableDropQueue = Optional.empty();
+
+    @Inject
+    public MutableTableDropQueueFulfiller(TableManagerDispatcher tableManagerDispatcher, Configuration configuration, TestContext testContext)
+    {
+        this.tableManagerDispatcher = requireNonNull(tableManagerDispatcher, "tableManagerDispatcher is null");
+        this.configuration = requireNonNull(configuration, "configuration is null");
+        this.testContext = requireNonNull(testContext, "testContext is null");
+    }
+
+    @Override
+    public Set<State> fulfill(Set<Requirement> requirements)
+    {
+        if (!configuration.getBoolean(ENABLED_KEY).orElse(false)) {
+            return ImmutableSet.of();
+        }
+        MutableTableDropQueue queue = new MutableTableDropQueue(testContext, tableManagerDispatcher);
+        mutableTableDropQueue = Optional.of(queue);
+        return ImmutableSet.of(queue);
+    }
+
+    @Override
+    public void cleanup(TestStatus status)
+    {
+        Duration timeout = Duration.ofSeconds(configuration.getInt(DRAIN_TIMEOUT_KEY).orElse(DEFAULT_DRAIN_TIMEOUT_SECONDS));
+        mutableTableDropQueue.ifPresent(queue -> queue.drain(timeout));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import io.trino.tempto.configuration.Configuration;
+import io.trino.tempto.fulfillment.table.ImmutableTablesState;
+import io.trino.tempto.fulfillment.table.MutableTableRequirement;
+import io.trino.tempto.fulfillment.table.TableInstance;
+import io.trino.tempto.fulfillment.table.TableManager;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.LOADED;
+import static io.trino.tempto.fulfillment.table.TableManager.callExclusively;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Creates mutable tables. When enabled with {@value #CLONE_FROM_IMMUTABLE_KEY}, data of {@code LOADED} tables
+ * is copied from an immutable table of the same definition in the same database, see
+ * {@link TableManager#createMutableCopy}, instead of being generated and loaded again.
+ */
+public class MutableTableFactory
+{
+    public static final String CLONE_FROM_IMMUTABLE_KEY = "tests.mutable_tables.clone_from_immutable";
+
+    private static final Logger LOGGER = getLogger(MutableTableFactory.class);
+    private static final MutableTableFactory WITHOUT_CLONING = new MutableTableFactory(ImmutableList.of());
+
+    private final List<TableInstance> immutableTables;
+
+    @Inject
+    public MutableTableFactory(Configuration configuration, ImmutableTablesState immutableTablesState)
+    {
+        this(configuration.getBoolean(CLONE_FROM_IMMUTABLE_KEY).orElse(false) ? immutableTablesState.getTables() : ImmutableList.of());
+    }
+
+    public MutableTableFactory(List<TableInstance> immutableTables)
+    {
+        this.immutableTables = ImmutableList.copyOf(requireNonNull(immutableTables, "immutableTables is null"));
+    }
+
+    public static MutableTableFactory withoutCloning()
+    {
+        return WITHOUT_CLONING;
+    }
+
+    public TableInstance createMutable(TableManager tableManager, MutableTableRequirement requirement)
+    {
+        return callExclusively(tableManager, () -> createMutableExclusively(tableManager, requirement));
+    }
+
+    private TableInstance createMutableExclusively(TableManager tableManager, MutableTableRequirement requirement)
+    {
+        if (requirement.getState() == LOADED) {
+            Optional<TableInstance> source = findImmutableTable(tableManager, requirement);
+            if (source.isPresent()) {
+                LOGGER.debug("copying mutable table {} from {}", requirement.getTableHandle(), source.get().getNameInDatabase());
+                return tableManager.createMutableCopy(requirement.getTableDefinition(), requirement.getTableHandle(), source.get());
+            }
+        }
+        return tableManager.createMutable(requirement.getTableDefinition(), requirement.getState(), requirement.getTableHandle());
+    }
+
+    private Optional<TableInstance> findImmutableTable(TableManager tableManager, MutableTableRequirement requirement)
+    {
+        return immutableTables.stream()
+                .filter(table -> table.tableDefinition().equals(requirement.getTableDefinition()))
+                .filter(table -> table.getDatabase().equalsIgnoreCase(tableManager.getDatabaseName()))
+                .findFirst();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.tempto.context.State;
+import io.trino.tempto.context.TestContext;
+import io.trino.tempto.fulfillment.table.MutableTableRequirement;
+import io.trino.tempto.fulfillment.table.TableInstance;
+import io.trino.tempto.fulfillment.table.TableManager;
+import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Maps.newHashMap;
+import static io.trino.tempto.context.TestContextDsl.runWithTestContext;
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.callWithTestContext;
+import static io.trino.tempto.fulfillment.table.TableManager.runExclusively;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Mutable tables created ahead of time on background threads. Each table is handed out at most once,
+ * so a table touched by a test is never reused, and a replacement is created as soon as one is taken.
+ * <p>
+ * Tables of a single database are created sequentially, as table managers and their query executors
+ * are not thread safe.
+ */
+public class MutableTablePool
+        implements State
+{
+    private static final Logger LOGGER = getLogger(MutableTablePool.class);
+
+    private final TestContext testContext;
+    private final TableManagerDispatcher tableManagerDispatcher;
+    private final MutableTableFactory mutableTableFactory;
+    private final Map<MutableTableRequirement, Integer> sizes;
+    private final Map<MutableTableRequirement, Deque<PooledTable>> tables = newHashMap();
+    private final Map<String, ExecutorService> executors = newHashMap();
+    private volatile boolean closed;
+
+    public MutableTablePool(TestContext testContext, TableManagerDispatcher tableManagerDispatcher, Map<MutableTableRequirement, Integer> sizes)
+    {
+        this(testContext, tableManagerDispatcher, MutableTableFactory.withoutCloning(), sizes);
+    }
+
+    /**
+     * @param sizes number of tables kept ready for each requirement, requirements must be bound to a database
+     */
+    public MutableTablePool(TestContext testContext, TableManagerDispatcher tableManagerDispatcher, MutableTableFactory mutableTableFactory, Map<MutableTableRequirement, Integer> sizes)
+    {
+        this.testContext = requireNonNull(testContext, "testContext is null");
+        this.tableManagerDispatcher = requireNonNull(tableManagerDispatcher, "tableManagerDispatcher is null");
+        this.mutableTableFactory = requireNonNull(mutableTableFactory, "mutableTableFactory is null");
+        this.sizes = Map.copyOf(requireNonNull(sizes, "sizes is null"));
+        sizes.values().forEach(size -> checkArgument(size > 0, "pool size must be positive"));
+    }
+
+    public synchronized void start()
+    {
+        sizes.forEach((requirement, size) -> {
+            for (int i = 0; i < size; ++i) {
+                replenish(requirement);
+            }
+        });
+        LOGGER.info("Creating {} mutable tables in background for {} table requirements", sizes.values().stream().mapToInt(Integer::intValue).sum(), sizes.size());
+    }
+
+    /**
+     * @return table created for the requirement, empty if the requirement is not pooled or background creation failed
+     */
+    public Optional<TableInstance> take(MutableTableRequirement requirement)
+    {
+        PooledTable table;
+        synchronized (this) {
+            Deque<PooledTable> queue = tables.get(requirement);
+            if (closed || queue == null || queue.isEmpty()) {
+                return Optional.empty();
+            }
+            table = queue.poll();
+            replenish(requirement);
+        }
+
+        try {
+            return Optional.of(table.future.get());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            LOGGER.warn("Background creation of mutable table {} failed, creating it synchronously", requirement.getTableHandle(), e.getCause());
+            return Optional.empty();
+        }
+    }
+
+    private void replenish(MutableTableRequirement requirement)
+    {
+        TableManager tableManager = tableManagerDispatcher.getTableManagerFor(requirement.getTableDefinition(), requirement.getTableHandle());
+        ExecutorService executor = executors.computeIfAbsent(tableManager.getDatabaseName(), database -> newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("mutable-table-pool-" + database + "-%s")
+                .setDaemon(true)
+                .build()));
+        Future<TableInstance> future = executor.submit(() -> {
+            if (closed) {
+                // pool is being drained, skip creation of tables that would be dropped right away
+                return null;
+            }
+            return callWithTestContext(testContext, () -> mutableTableFactory.createMutable(tableManager, requirement));
+        });
+        tables.computeIfAbsent(requirement, _ -> new ArrayDeque<>()).add(new PooledTable(tableManager, future));
+    }
+
+    /**
+     * Stops creating new tables, waits for tables being created and drops all tables which were not taken.
+     */
+    public void drain()
+    {
+        List<PooledTable> remaining;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            remaining = tables.values().stream()
+                    .flatMap(Deque::stream)
+                    .collect(toImmutableList());
+            tables.clear();
+        }
+
+        for (ExecutorService executor : executors.values()) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(10, MINUTES)) {
+                    LOGGER.warn("Timed out waiting for mutable table creation to finish");
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+
+        int dropped = 0;
+        for (PooledTable table : remaining) {
+            if (!table.future.isDone()) {
+                continue;
+            }
+            try {
+                TableInstance tableInstance = table.future.get();
+                if (tableInstance == null) {
+                    continue;
+                }
+                runWithTestContext(testContext, () -> runExclusively(table.tableManager, () -> table.tableManager.dropTable(tableInstance.getTableName())));
+                dropped++;
+            }
+            catch (ExecutionException ignored) {
+                // table was not created
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            catch (RuntimeException e) {
+                LOGGER.warn("Unable to drop pooled mutable table", e);
+            }
+        }
+        LOGGER.info("Dropped {} unused pooled mutable tables", dropped);
+    }
+
+    private static class PooledTable
+    {
+        private final TableManager tableManager;
+        private final Future<TableInstance> future;
+
+        private PooledTable(TableManager tableManager, Future<TableInstance> future)
+        {
+            this.tableManager = requireNonNull(tableManager, "tableManager is null");
+            this.future = requireNonNull(future, "future is null");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import io.trino.tempto.Requirement;
+import io.trino.tempto.configuration.Configuration;
+import io.trino.tempto.context.State;
+import io.trino.tempto.context.TestContext;
+import io.trino.tempto.fulfillment.RequirementFulfiller;
+import io.trino.tempto.fulfillment.TestStatus;
+import io.trino.tempto.fulfillment.table.MutableTableRequirement;
+import io.trino.tempto.fulfillment.table.TableManager;
+import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.PREPARED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Starts a {@link MutableTablePool} with tables for all {@link MutableTableRequirement}s of the suite,
+ * when enabled with {@value #ENABLED_KEY}. Unused tables are dropped when the suite finishes.
+ */
+@RequirementFulfiller.SuiteLevelFulfiller
+public class MutableTablePoolFulfiller
+        implements RequirementFulfiller
+{
+    public static final String ENABLED_KEY = "tests.mutable_table_pool.enabled";
+    public static final String SIZE_KEY = "tests.mutable_table_pool.size";
+    public static final String SIZES_KEY_PREFIX = "tests.mutable_table_pool.sizes.";
+
+    private static final int DEFAULT_SIZE = 2;
+
+    private final TableManagerDispatcher tableManagerDispatcher;
+    private final Configuration configuration;
+    private final TestContext testContext;
+    private MutableTableFactory mutableTableFactory = MutableTableFactory.withoutCloning();
+    private Optional<MutableTablePool> mutableTablePool = Optional.empty();
+    private boolean staleMutableTablesSwept;
+
+    @Inject
+    public MutableTablePoolFulfiller(TableManagerDispatcher tableManagerDispatcher, Configuration configuration, TestContext testContext)
+    {
+        this.tableManagerDispatcher = requireNonNull(tableManagerDispatcher, "tableManagerDispatcher is null");
+        this.configuration = requireNonNull(configuration, "configuration is null");
+        this.testContext = requireNonNull(testContext, "testContext is null");
+    }
+
+    @Inject(optional = true)
+    public void setMutableTableFactory(MutableTableFactory mutableTableFactory)
+    {
+        this.mutableTableFactory = mutableTableFactory;
+    }
+
+    @Inject(optional = true)
+    public void setStaleMutableTablesSweep(StaleMutableTablesFulfiller.StaleMutableTablesSweep staleMutableTablesSweep)
+    {
+        staleMutableTablesSwept = true;
+    }
+
+    @Override
+    public Set<State> fulfill(Set<Requirement> requirements)
+    {
+        if (!configuration.getBoolean(ENABLED_KEY).orElse(false)) {
+            return ImmutableSet.of();
+        }
+
+        int defaultSize = configuration.getInt(SIZE_KEY).orElse(DEFAULT_SIZE);
+        ImmutableMap.Builder<MutableTableRequirement, Integer> sizes = ImmutableMap.builder();
+        ImmutableSet.Builder<TableManager> tableManagers = ImmutableSet.builder();
+        requirements.stream()
+                .filter(requirement -> requirement.getClass().isAssignableFrom(MutableTableRequirement.class))
+                .map(requirement -> (MutableTableRequirement) requirement)
+                // PREPARED tables are not created by tempto, there is nothing to prepare ahead of time
+                .filter(requirement -> requirement.getState() != PREPARED)
+                .map(requirement -> (MutableTableRequirement) requirement.copyWithDatabase(getTableManager(requirement).getDatabaseName()))
+                .distinct()
+                .forEach(requirement -> {
+                    int size = configuration.getInt(SIZES_KEY_PREFIX + requirement.getTableDefinition().getName()).orElse(defaultSize);
+                    if (size > 0) {
+                        sizes.put(requirement, size);
+                        tableManagers.add(getTableManager(requirement));
+                    }
+                });
+
+        Map<MutableTableRequirement, Integer> poolSizes = sizes.build();
+        if (poolSizes.isEmpty()) {
+            return ImmutableSet.of();
+        }
+
+        // stale tables are dropped once here, test level fulfillers must not drop pooled tables later on
+        if (!staleMutableTablesSwept) {
+            tableManagers.build().forEach(TableManager::dropStaleMutableTables);
+        }
+        MutableTablePool pool = new MutableTablePool(testContext, tableManagerDispatcher, mutableTableFactory, poolSizes);
+        pool.start();
+        mutableTablePool = Optional.of(pool);
+        return ImmutableSet.of(pool);
+    }
+
+    private TableManager getTableManager(MutableTableRequirement requirement)
+    {
+        return tableManagerDispatcher.getTableManagerFor(requirement.getTableDefinition(), requirement.getTableHandle());
+    }
+
+    @Override
+    public void cleanup(TestStatus status)
+    {
+        mutableTablePool.ifPresent(MutableTablePool::drain);
+    }
+}
@@ -23,17 +23,24 @@ import io.trino.tempto.fulfillment.table.TableInstance;
 import io.trino.tempto.fulfillment.table.TableManager;
 import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
 import io.trino.tempto.fulfillment.table.TablesState;
+import io.trino.tempto.internal.jfr.TableCreationEvent;
 
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.trino.tempto.fulfillment.TestStatus.FAILURE;
+import static io.trino.tempto.fulfillment.table.TableManager.runExclusively;
 
 @RequirementFulfiller.TestLevelFulfiller
 public class MutableTablesFulfiller
         extends TableRequirementFulfiller<MutableTableRequirement>
 {
     private MutableTablesState mutableTablesState;
+    private Optional<MutableTablePool> mutableTablePool = Optional.empty();
+    private MutableTableFactory mutableTableFactory = MutableTableFactory.withoutCloning();
+    private Optional<MutableTableDropQueue> mutableTableDropQueue = Optional.empty();
 
     @Inject
     public MutableTablesFulfiller(TableManagerDispatcher tableManagerDispatcher)
@@ -41,6 +48,30 @@ public class MutableTablesFulfiller
         super(tableManagerDispatcher, MutableTableRequirement.class);
     }
 
+    /**
+     * Pool is bound only when enabled, see {@link MutableTablePoolFulfiller}.
+     */
+    @Inject(optional = true)
+    public void setMutableTablePool(MutableTablePool mutableTablePool)
+    {
+        this.mutableTablePool = Optional.of(mutableTablePool);
+    }
+
+    @Inject(optional = true)
+    public void setMutableTableFactory(MutableTableFactory mutableTableFactory)
+    {
+        this.mutableTableFactory = mutableTableFactory;
+    }
+
+    /**
+     * Queue is bound only when enabled, see {@link MutableTableDropQueueFulfiller}.
+     */
+    @Inject(optional = true)
+    public void setMutableTableDropQueue(MutableTableDropQueue mutableTableDropQueue)
+    {
+        this.mutableTableDropQueue = Optional.of(mutableTableDropQueue);
+    }
+
     @Override
     protected TablesState createState(List<TableInstance> tables)
     {
@@ -48,10 +79,33 @@ public class MutableTablesFulfiller
         return mutableTablesState;
     }
 
+    @Override
+    protected void dropStaleMutableTables(TableManager tableManager)
+    {
+        // stale tables were dropped before the pool was filled, dropping them now would drop pooled tables too
+        if (mutableTablePool.isEmpty()) {
+            super.dropStaleMutableTables(tableManager);
+        }
+    }
+
     @Override
     protected TableInstance createTable(TableManager tableManager, MutableTableRequirement tableRequirement)
     {
-        return tableManager.createMutable(tableRequirement.getTableDefinition(), tableRequirement.getState(), tableRequirement.getTableHandle());
+        Optional<TableInstance> pooledTable = mutableTablePool.flatMap(pool -> pool.take(tableRequirement));
+        if (pooledTable.isPresent()) {
+            return pooledTable.get();
+        }
+
+        TableCreationEvent event = new TableCreationEvent(
+                tableManager.getDatabaseName(),
+                tableRequirement.getTableDefinition().getName(),
+                tableManager.getClass(),
+                true,
+                tableRequirement.getState().name());
+        event.begin();
+        TableInstance tableInstance = mutableTableFactory.createMutable(tableManager, tableRequirement);
+        event.setTableName(tableInstance.getNameInDatabase()).commit();
+        return tableInstance;
     }
 
     @Override
@@ -61,9 +115,18 @@ public class MutableTablesFulfiller
         if (testStatus == FAILURE) {
             return;
         }
+        if (mutableTableDropQueue.isPresent()) {
+            List<TableName> tableNames = tableManagerDispatcher.getAllTableManagers().stream()
+                    .flatMap(tableManager -> mutableTablesState.getTableNames(tableManager.getDatabaseName()).stream())
+                    .collect(toImmutableList());
+            if (mutableTableDropQueue.get().drop(tableNames)) {
+                return;
+            }
+        }
         for (TableManager tableManager : tableManagerDispatcher.getAllTableManagers()) {
-            mutableTablesState.getTableNames(tableManager.getDatabaseName()).stream()
-                    .forEach(tableManager::dropTable);
+            for (TableName tableName : mutableTablesState.getTableNames(tableManager.getDatabaseName())) {
+                runExclusively(tableManager, () -> tableManager.dropTable(tableName));
+            }
         }
     }
 }
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import io.trino.tempto.Requirement;
+import io.trino.tempto.configuration.Configuration;
+import io.trino.tempto.context.State;
+import io.trino.tempto.context.TestContext;
+import io.trino.tempto.fulfillment.RequirementFulfiller;
+import io.trino.tempto.fulfillment.TestStatus;
+import io.trino.tempto.fulfillment.table.TableManager;
+import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
+import io.trino.tempto.internal.listeners.TestShard;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.tempto.context.TestContextDsl.runWithTestContext;
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.callWithTestContext;
+import static io.trino.tempto.fulfillment.table.TableManager.callExclusively;
+import static io.trino.tempto.fulfillment.table.TableManager.runExclusively;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Drops mutable tables left by previous runs, once per suite. Stale tables of all databases are listed in parallel
+ * before any table is created, so tables of the current run are never dropped, and then dropped in background
+ * while tests already run. Schemas searched for stale tables can be narrowed with
+ * {@code databases.<name>.mutable_tables_schemas}. The sweep can be disabled with {@value #ENABLED_KEY}, e.g. when
+ * several runs share databases at the same time. It is always disabled when the suite is split into several
+ * {@link TestShard}s, as shards run at the same time and any shard could drop tables another one just created.
+ */
+@RequirementFulfiller.SuiteLevelFulfiller
+public class StaleMutableTablesFulfiller
+        implements RequirementFulfiller
+{
+    public static final String ENABLED_KEY = "tests.mutable_tables.stale_sweep.enabled";
+
+    private static final Logger LOGGER = getLogger(StaleMutableTablesFulfiller.class);
+
+    private final TableManagerDispatcher tableManagerDispatcher;
+    private final Configuration configuration;
+    private final TestContext testContext;
+    private final Optional<TestShard> testShard;
+    private final ExecutorService executor = newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("stale-mutable-tables-%s")
+            .setDaemon(true)
+            .build());
+    private List<CompletableFuture<?>> sweeps = ImmutableList.of();
+
+    @Inject
+    public StaleMutableTablesFulfiller(TableManagerDispatcher tableManagerDispatcher, Configuration configuration, TestContext testContext)
+    {
+        this(tableManagerDispatcher, configuration, testContext, TestShard.fromSystemProperties());
+    }
+
+    StaleMutableTablesFulfiller(TableManagerDispatcher tableManagerDispatcher, Configuration configuration, TestContext testContext, Optional<TestShard> testShard)
+    {
+        this.tableManagerDispatcher = requireNonNull(tableManagerDispatcher, "tableManagerDispatcher is null");
+        this.configuration = requireNonNull(configuration, "configuration is null");
+        this.testContext = requireNonNull(testContext, "testContext is null");
+        this.testShard = requireNonNull(testShard, "testShard is null");
+    }
+
+    @Override
+    public Set<State> fulfill(Set<Requirement> requirements)
+    {
+        if (!configuration.getBoolean(ENABLED_KEY).orElse(true) || testShard.map(shard -> shard.getCount() > 1).orElse(false)) {
+            // tables of other runs must not be dropped by per-test sweeps either
+            return ImmutableSet.of(new StaleMutableTablesSweep());
+        }
+
+        // listing and dropping of each table manager runs on a single thread, while test threads may use the same table
+        // manager, see dropStaleMutableTables
+        List<TableManager> tableManagers = ImmutableList.copyOf(tableManagerDispatcher.getAllTableManagers());
+        List<CompletableFuture<List<TableName>>> listings = tableManagers.stream()
+                .map(tableManager -> supplyAsync(() -> listStaleMutableTables(tableManager), executor))
+                .collect(toImmutableList());
+
+        ImmutableList.Builder<CompletableFuture<?>> sweeps = ImmutableList.builder();
+        for (int i = 0; i < tableManagers.size(); ++i) {
+            TableManager tableManager = tableManagers.get(i);
+            List<TableName> staleTables = listings.get(i).join();
+            if (!staleTables.isEmpty()) {
+                sweeps.add(CompletableFuture.runAsync(() -> dropStaleMutableTables(tableManager, staleTables), executor));
+            }
+        }
+        this.sweeps = sweeps.build();
+        return ImmutableSet.of(new StaleMutableTablesSweep());
+    }
+
+    private List<TableName> listStaleMutableTables(TableManager tableManager)
+    {
+        List<String> schemas = configuration.getStringOrList("databases." + tableManager.getDatabaseName() + ".mutable_tables_schemas");
+        try {
+            return callWithTestContext(testContext, () -> callExclusively(tableManager, () -> tableManager.listStaleMutableTables(schemas)));
+        }
+        catch (Exception e) {
+            LOGGER.warn("{} - unable to list stale mutable tables", tableManager.getDatabaseName(), e);
+            return ImmutableList.of();
+        }
+    }
+
+    private void dropStaleMutableTables(TableManager tableManager, List<TableName> staleTables)
+    {
+        long startNanos = nanoTime();
+        int dropped = 0;
+        for (TableName tableName : staleTables) {
+            try {
+                runWithTestContext(testContext, () -> runExclusively(tableManager, () -> tableManager.dropTable(tableName)));
+                dropped++;
+            }
+            catch (RuntimeException e) {
+                LOGGER.debug("{} - unable to drop stale table: {}", tableManager.getDatabaseName(), tableName, e);
+            }
+        }
+        LOGGER.info("Dropped {} of {} stale mutable tables from {} in {} ms",
+                dropped,
+                staleTables.size(),
+                tableManager.getDatabaseName(),
+                NANOSECONDS.toMillis(nanoTime() - startNanos));
+    }
+
+    @Override
+    public void cleanup(TestStatus status)
+    {
+        // table managers are closed after suite level cleanup
+        sweeps.forEach(sweep -> sweep.exceptionally(_ -> null).join());
+        executor.shutdown();
+    }
+
+    /**
+     * Marks that stale mutable tables are already taken care of, see {@link TableRequirementFulfiller}.
+     */
+    public static class StaleMutableTablesSweep
+            implements State
+    {
+        private StaleMutableTablesSweep() {}
+    }
+}
@@ -14,6 +14,7 @@
 
 package io.trino.tempto.internal.fulfillment.table;
 
+import static java.util.Locale.ENGLISH;
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphanumeric;
 
 public class TableNameGenerator
@@ -28,6 +29,12 @@ public class TableNameGenerator
 
     public boolean isMutableTableName(String tableNameInDatabase)
     {
-        return tableNameInDatabase.startsWith(MUTABLE_TABLE_NAME_PREFIX);
+        // databases may report unquoted identifiers in upper case
+        return tableNameInDatabase.toLowerCase(ENGLISH).startsWith(MUTABLE_TABLE_NAME_PREFIX);
+    }
+
+    public String getMutableTableNamePrefix()
+    {
+        return MUTABLE_TABLE_NAME_PREFIX;
     }
 }
@@ -15,6 +15,7 @@
 package io.trino.tempto.internal.fulfillment.table;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
 import io.trino.tempto.Requirement;
 import io.trino.tempto.context.State;
 import io.trino.tempto.fulfillment.RequirementFulfiller;
@@ -23,6 +24,7 @@ import io.trino.tempto.fulfillment.table.TableManager;
 import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
 import io.trino.tempto.fulfillment.table.TableRequirement;
 import io.trino.tempto.fulfillment.table.TablesState;
+import io.trino.tempto.internal.fulfillment.table.StaleMutableTablesFulfiller.StaleMutableTablesSweep;
 import org.slf4j.Logger;
 
 import java.util.List;
@@ -38,6 +40,7 @@ public abstract class TableRequirementFulfiller<T extends TableRequirement>
 
     protected final TableManagerDispatcher tableManagerDispatcher;
     private final Class<T> requirementClass;
+    private boolean staleMutableTablesSwept;
 
     public TableRequirementFulfiller(TableManagerDispatcher tableManagerDispatcher, Class<T> requirementClass)
     {
@@ -45,6 +48,15 @@ public abstract class TableRequirementFulfiller<T extends TableRequirement>
         this.requirementClass = requirementClass;
     }
 
+    /**
+     * Sweep is bound once stale mutable tables of the suite are dropped by {@link StaleMutableTablesFulfiller}.
+     */
+    @Inject(optional = true)
+    public void setStaleMutableTablesSweep(StaleMutableTablesSweep staleMutableTablesSweep)
+    {
+        staleMutableTablesSwept = true;
+    }
+
     @Override
     public final Set<State> fulfill(Set<Requirement> requirements)
     {
@@ -72,10 +84,17 @@ public abstract class TableRequirementFulfiller<T extends TableRequirement>
     private TableInstance createTable(T tableRequirement)
     {
         TableManager tableManager = getTableManager(tableRequirement);
-        tableManager.dropStaleMutableTables();
+        dropStaleMutableTables(tableManager);
         return createTable(tableManager, tableRequirement);
     }
 
+    protected void dropStaleMutableTables(TableManager tableManager)
+    {
+        if (!staleMutableTablesSwept) {
+            tableManager.dropStaleMutableTables();
+        }
+    }
+
     private TableManager getTableManager(T tableRequirement)
     {
         return tableManagerDispatcher.getTableManagerFor(tableRequirement.getTableDefinition(), tableRequirement.getTableHandle());
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Collections.nCopies;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Copies rows between tables with the same columns. CQL has no {@code INSERT ... SELECT}, so rows are read
+ * page by page and written with up to {@code parallelism} asynchronous inserts in flight.
+ */
+public class CassandraTableCopier
+{
+    private final CqlSession session;
+    private final int parallelism;
+
+    public CassandraTableCopier(CqlSession session, int parallelism)
+    {
+        this.session = requireNonNull(session, "session is null");
+        checkArgument(parallelism > 0, "parallelism must be greater then zero");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return number of copied rows
+     */
+    public long copy(String sourceTableName, String targetTableName, List<String> columnNames)
+    {
+        String columns = String.join(",", columnNames);
+        PreparedStatement insert = session.prepare(format(
+                "INSERT INTO %s (%s) VALUES(%s)",
+                targetTableName,
+                columns,
+                String.join(",", nCopies(columnNames.size(), "?"))));
+
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long rowsCount = 0;
+        for (Row row : session.execute(format("SELECT %s FROM %s", columns, sourceTableName))) {
+            permits.acquireUninterruptibly();
+            if (failure.get() != null) {
+                permits.release();
+                break;
+            }
+            Object[] values = new Object[columnNames.size()];
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = row.getObject(i);
+            }
+            session.executeAsync(insert.bind(values)).whenComplete((_, throwable) -> {
+                if (throwable != null) {
+                    failure.compareAndSet(null, throwable);
+                }
+                permits.release();
+            });
+            rowsCount++;
+        }
+
+        // wait for all inserts in flight
+        permits.acquireUninterruptibly(parallelism);
+        if (failure.get() != null) {
+            throw new RuntimeException(format("Failed to copy rows from %s to %s", sourceTableName, targetTableName), failure.get());
+        }
+        return rowsCount;
+    }
+}
@@ -13,6 +13,7 @@
  */
 package io.trino.tempto.internal.fulfillment.table.cassandra;
 
+import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
@@ -26,11 +27,13 @@ import io.trino.tempto.fulfillment.table.jdbc.RelationalDataSource;
 import io.trino.tempto.internal.fulfillment.table.TableName;
 import io.trino.tempto.internal.fulfillment.table.TableNameGenerator;
 import io.trino.tempto.internal.query.CassandraQueryExecutor;
+import io.trino.tempto.query.QueryExecutionListener;
 import io.trino.tempto.util.Lazy;
 import org.slf4j.Logger;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkState;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.CREATED;
@@ -54,19 +57,23 @@ public class CassandraTableManager
     private final String defaultKeySpace;
     private final boolean skipCreateSchema;
     private final int insertBatchRowsCount;
+    private final int copyParallelism;
 
     @Inject
     public CassandraTableManager(
             TableNameGenerator tableNameGenerator,
             @Named("databaseName") String databaseName,
-            Configuration configuration)
+            Configuration configuration,
+            Set<QueryExecutionListener> queryExecutionListeners)
     {
         this.tableNameGenerator = requireNonNull(tableNameGenerator, "tableNameGenerator is null");
-        this.queryExecutor = new Lazy<>(() -> new CassandraQueryExecutor(configuration));
+        requireNonNull(queryExecutionListeners, "queryExecutionListeners is null");
+        this.queryExecutor = new Lazy<>(() -> new CassandraQueryExecutor(configuration, queryExecutionListeners));
         this.databaseName = requireNonNull(databaseName, "databaseName is null");
         this.defaultKeySpace = configuration.getStringMandatory("databases." + databaseName + ".default_schema");
         this.skipCreateSchema = configuration.getBoolean("databases." + databaseName + ".skip_create_schema").orElse(false);
         this.insertBatchRowsCount = configuration.getInt("databases." + databaseName + ".insert_batch_rows_count").orElse(10);
+        this.copyParallelism = configuration.getInt("databases." + databaseName + ".copy_parallelism").orElse(32);
     }
 
     @Override
@@ -132,6 +139,19 @@ public class CassandraTableManager
         return tableInstance;
     }
 
+    @Override
+    public TableInstance<CassandraTableDefinition> createMutableCopy(CassandraTableDefinition tableDefinition, TableHandle tableHandle, TableInstance<CassandraTableDefinition> source)
+    {
+        TableInstance<CassandraTableDefinition> tableInstance = createMutable(tableDefinition, CREATED, tableHandle);
+        TableName tableName = tableInstance.getTableName();
+        List<String> columnNames = queryExecutor.get().getColumnNames(tableName.getSchema().get(), tableName.getSchemalessNameInDatabase());
+
+        CassandraTableCopier copier = new CassandraTableCopier(queryExecutor.get().getSession(), copyParallelism);
+        long rowsCount = copier.copy(source.getNameInDatabase(), tableName.getNameInDatabase(), columnNames);
+        LOGGER.debug("copied {} rows from {} to {}", rowsCount, source.getNameInDatabase(), tableName.getNameInDatabase());
+        return tableInstance;
+    }
+
     @Override
     public void dropTable(TableName tableName)
     {
@@ -158,14 +178,18 @@ public class CassandraTableManager
     @Override
     public void dropStaleMutableTables()
     {
-        List<String> tableNames = queryExecutor.get().getTableNames(defaultKeySpace).stream()
-                .filter(tableNameGenerator::isMutableTableName)
-                .map(tableName -> defaultKeySpace + "." + tableName)
-                .collect(toList());
+        listStaleMutableTables(ImmutableList.of()).forEach(this::dropTable);
+    }
 
-        for (String tableName : tableNames) {
-            dropTable(tableName);
-        }
+    @Override
+    public List<TableName> listStaleMutableTables(List<String> schemas)
+    {
+        List<String> keySpaces = schemas.isEmpty() ? ImmutableList.of(defaultKeySpace) : schemas;
+        return keySpaces.stream()
+                .flatMap(keySpace -> queryExecutor.get().getTableNames(keySpace).stream()
+                        .filter(tableNameGenerator::isMutableTableName)
+                        .map(tableName -> new TableName(databaseName, Optional.of(keySpace), tableName, tableName)))
+                .collect(toList());
     }
 
     protected TableName createMutableTableName(TableHandle tableHandle)
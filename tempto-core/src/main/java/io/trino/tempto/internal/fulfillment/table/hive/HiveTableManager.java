@@ -13,39 +13,53 @@
  */
 package io.trino.tempto.internal.fulfillment.table.hive;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import io.trino.tempto.fulfillment.table.MutableTableRequirement.State;
 import io.trino.tempto.fulfillment.table.TableDefinition;
 import io.trino.tempto.fulfillment.table.TableHandle;
+import io.trino.tempto.fulfillment.table.TableInstance;
 import io.trino.tempto.fulfillment.table.TableManager;
 import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
 import io.trino.tempto.fulfillment.table.hive.HiveTableDefinition;
+import io.trino.tempto.fulfillment.table.hive.HiveTableDefinition.PartitionDefinition;
 import io.trino.tempto.internal.fulfillment.table.AbstractTableManager;
 import io.trino.tempto.internal.fulfillment.table.TableName;
 import io.trino.tempto.internal.fulfillment.table.TableNameGenerator;
 import io.trino.tempto.internal.hadoop.hdfs.HdfsDataSourceWriter;
 import io.trino.tempto.query.QueryExecutor;
-import io.trino.tempto.query.QueryResult;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
 import org.slf4j.Logger;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
-import static com.google.common.base.Verify.verify;
-import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.hash.Hashing.sha256;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.LOADED;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.PREPARED;
+import static io.trino.tempto.internal.FailureCollector.awaitAll;
 import static java.lang.Integer.parseInt;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.joining;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @TableManager.Descriptor(tableDefinitionClass = HiveTableDefinition.class, type = "HIVE")
@@ -55,6 +69,20 @@ public class HiveTableManager
 {
     private static final Logger LOGGER = getLogger(HiveTableManager.class);
 
+    public static final String CREATE_TABLES_IN_METASTORE_KEY = "metastore.create_tables";
+
+    // text tables columnar tables are converted from; the prefix keeps them apart from tables of tests
+    private static final String STAGING_TABLE_PREFIX = "tempto_staging_";
+    // staging tables of mutable tables keep the mutable table name prefix, so the stale mutable tables sweep drops them
+    private static final String MUTABLE_STAGING_TABLE_SUFFIX = "_staging";
+    // revision of the data source and storage a columnar immutable table was created from
+    private static final String SOURCE_REVISION_PROPERTY = "tempto.source_revision";
+
+    // number of partitions uploaded at a time, files of each partition are uploaded in parallel by HdfsDataSourceWriter
+    private static final int PARTITION_UPLOAD_PARALLELISM = 8;
+    // matches the default number of metastore connections of HiveThriftClient
+    private static final int STATISTICS_INJECTION_PARALLELISM = 4;
+
     private final QueryExecutor queryExecutor;
     private final HdfsDataSourceWriter hdfsDataSourceWriter;
     private final String testDataBasePath;
@@ -62,6 +90,17 @@ public class HiveTableManager
     private final String databaseName;
     private final boolean injectStatsForImmutableTables;
     private final boolean injectStatsForMutableTables;
+    private boolean createTablesInMetastore;
+    private final Map<TableName, String> mutableTableLocations = new ConcurrentHashMap<>();
+    private final Queue<Future<?>> pendingStatisticsInjections = new ConcurrentLinkedQueue<>();
+    private final ExecutorService statisticsExecutor = newFixedThreadPool(STATISTICS_INJECTION_PARALLELISM, new ThreadFactoryBuilder()
+            .setNameFormat("hive-statistics-%s")
+            .setDaemon(true)
+            .build());
+    private final ExecutorService partitionUploadExecutor = newFixedThreadPool(PARTITION_UPLOAD_PARALLELISM, new ThreadFactoryBuilder()
+            .setNameFormat("hive-partition-upload-%s")
+            .setDaemon(true)
+            .build());
 
     @Inject
     public HiveTableManager(
@@ -105,6 +144,17 @@ public class HiveTableManager
         this.injectStatsForMutableTables = injectStatsForMutableTables;
     }
 
+    /**
+     * @param createTablesInMetastore whether delimited text tables and their partitions are registered directly in the
+     *         metastore, instead of running their DDL through HiveServer2; DDL which cannot be converted is still run
+     *         through HiveServer2
+     */
+    @Inject(optional = true)
+    public void setCreateTablesInMetastore(@Named(CREATE_TABLES_IN_METASTORE_KEY) boolean createTablesInMetastore)
+    {
+        this.createTablesInMetastore = createTablesInMetastore;
+    }
+
     @Override
     public HiveTableInstance createImmutable(HiveTableDefinition tableDefinition, TableHandle tableHandle)
     {
@@ -123,18 +173,72 @@ public class HiveTableManager
         LOGGER.debug("creating immutable table {}", tableHandle.getName());
 
         String tableDataPath = getImmutableTableHdfsPath(tableDefinition.getDataSource());
-        uploadTableData(tableDataPath, tableDefinition.getDataSource());
-
-        dropTableIgnoreError(tableName);
-        createTable(tableDefinition, tableName, Optional.of(tableDataPath));
-        markTableAsExternal(tableName);
+        if (tableDefinition.getColumnarStorage().isPresent()) {
+            createColumnarImmutableTable(tableDefinition, tableName, tableDataPath);
+        }
+        else {
+            uploadTableData(tableDataPath, tableDefinition.getDataSource());
+            dropTableIgnoreError(tableName);
+            createExternalTable(tableDefinition, tableName, tableDataPath);
+        }
         if (tableDefinition.getInjectStats().orElse(injectStatsForImmutableTables)) {
-            injectStatistics(tableDefinition, tableName, tableDefinition.getInjectStats().orElse(false));
+            injectStatisticsInBackground(tableDefinition, tableName, tableDefinition.getInjectStats().orElse(false));
         }
 
         return new HiveTableInstance(tableName, tableDefinition);
     }
 
+    private void createColumnarImmutableTable(HiveTableDefinition tableDefinition, TableName tableName, String tableDataPath)
+    {
+        // columnar table keeps its own copy of the data, rewriting it is the most expensive part of table creation
+        Optional<String> sourceRevision = getSourceRevision(tableDefinition, tableDataPath);
+        if (sourceRevision.isPresent() && sourceRevision.equals(hiveThriftClient.getTableParameters(tableName).map(parameters -> parameters.get(SOURCE_REVISION_PROPERTY)))) {
+            LOGGER.debug("reusing columnar table {}, its data source did not change", tableName);
+            return;
+        }
+
+        uploadTableData(tableDataPath, tableDefinition.getDataSource());
+        dropTableIgnoreError(tableName);
+        // columnar table is managed, the text table dropped after conversion must leave the uploaded data in place
+        TableName stagingTableName = getStagingTableName(tableName);
+        // left behind by a run which was killed
+        dropTableIgnoreError(stagingTableName);
+        try {
+            createExternalTable(tableDefinition, stagingTableName, tableDataPath);
+            createColumnarTable(tableDefinition, tableName, stagingTableName.getNameInDatabase());
+        }
+        finally {
+            dropTableIgnoreError(stagingTableName);
+        }
+        sourceRevision.ifPresent(revision -> queryExecutor.executeQuery(
+                format("ALTER TABLE %s SET TBLPROPERTIES('%s'='%s')", tableName.getNameInDatabase(), SOURCE_REVISION_PROPERTY, revision)));
+    }
+
+    /**
+     * @return revision covering the data, the DDL it is read with and the columnar storage it is rewritten into,
+     *         or empty when the data source has no revision
+     */
+    private static Optional<String> getSourceRevision(HiveTableDefinition tableDefinition, String tableDataPath)
+    {
+        return tableDefinition.getDataSource().getRevision()
+                .map(dataRevision -> sha256().newHasher()
+                        .putString(dataRevision, UTF_8)
+                        .putString(tableDefinition.getCreateTableDDL("source", Optional.of(tableDataPath)), UTF_8)
+                        .putString(tableDefinition.getColumnarStorage().get().getCreateTableAsSelectDDL("target", "source"), UTF_8)
+                        .hash()
+                        .toString());
+    }
+
+    @Override
+    public void awaitImmutableTables()
+    {
+        List<Future<?>> injections = new ArrayList<>();
+        for (Future<?> injection = pendingStatisticsInjections.poll(); injection != null; injection = pendingStatisticsInjections.poll()) {
+            injections.add(injection);
+        }
+        awaitAll(injections, "injecting statistics");
+    }
+
     @Override
     public HiveTableInstance createMutable(HiveTableDefinition tableDefinition, State state, TableHandle tableHandle)
     {
@@ -155,22 +259,36 @@ public class HiveTableManager
             return new HiveTableInstance(tableName, tableDefinition);
         }
 
-        createTable(tableDefinition, tableName, Optional.empty());
-
-        if (tableDefinition.isPartitioned()) {
-            int partitionId = 0;
-            for (HiveTableDefinition.PartitionDefinition partitionDefinition : tableDefinition.getPartitionDefinitions()) {
-                String partitionDataPath = getMutableTableHdfsPath(tableName, Optional.of(partitionId));
+        if (tableDefinition.getColumnarStorage().isPresent()) {
+            TableName stagingTableName = getMutableStagingTableName(tableName);
+            createTable(tableDefinition, stagingTableName, Optional.empty());
+            try {
                 if (state == LOADED) {
-                    uploadTableData(partitionDataPath, partitionDefinition.getDataSource());
+                    uploadTableData(getMutableTableHdfsPath(stagingTableName, Optional.empty()), tableDefinition.getDataSource());
                 }
-                queryExecutor.executeQuery(partitionDefinition.getAddPartitionTableDDL(tableName, partitionDataPath));
-                partitionId++;
+                createColumnarTable(tableDefinition, tableName, stagingTableName.getNameInDatabase());
+            }
+            finally {
+                dropTableIgnoreError(stagingTableName);
             }
         }
-        else if (state == LOADED) {
-            String tableDataPath = getMutableTableHdfsPath(tableName, Optional.empty());
-            uploadTableData(tableDataPath, tableDefinition.getDataSource());
+        else if (tableDefinition.isPartitioned()) {
+            Optional<Table> metastoreTable = createTable(tableDefinition, tableName, Optional.empty());
+            List<PartitionDefinition> partitionDefinitions = tableDefinition.getPartitionDefinitions();
+            List<String> partitionDataPaths = IntStream.range(0, partitionDefinitions.size())
+                    .mapToObj(partitionId -> getMutableTableHdfsPath(tableName, Optional.of(partitionId)))
+                    .collect(toImmutableList());
+            if (state == LOADED) {
+                uploadPartitionsData(partitionDefinitions, partitionDataPaths);
+            }
+            addPartitions(tableName, metastoreTable, partitionDefinitions, partitionDataPaths);
+        }
+        else {
+            createTable(tableDefinition, tableName, Optional.empty());
+            if (state == LOADED) {
+                String tableDataPath = getMutableTableHdfsPath(tableName, Optional.empty());
+                uploadTableData(tableDataPath, tableDefinition.getDataSource());
+            }
         }
 
         if (state == LOADED && tableDefinition.getInjectStats().orElse(injectStatsForMutableTables)) {
@@ -180,6 +298,33 @@ public class HiveTableManager
         return new HiveTableInstance(tableName, tableDefinition);
     }
 
+    @Override
+    public HiveTableInstance createMutableCopy(HiveTableDefinition tableDefinition, TableHandle tableHandle, TableInstance<HiveTableDefinition> source)
+    {
+        if (tableDefinition.isPartitioned()) {
+            // immutable tables are never partitioned, there is nothing to copy partitions from
+            return createMutable(tableDefinition, LOADED, tableHandle);
+        }
+        try {
+            TableName tableName = createMutableTableName(tableHandle);
+            LOGGER.debug("creating mutable table {} as copy of {}", tableName, source.getNameInDatabase());
+            if (tableDefinition.getColumnarStorage().isPresent()) {
+                createColumnarTable(tableDefinition, tableName, source.getNameInDatabase());
+            }
+            else {
+                createTable(tableDefinition, tableName, Optional.empty());
+                queryExecutor.executeQuery(format("INSERT INTO TABLE %s SELECT * FROM %s", tableName.getNameInDatabase(), source.getNameInDatabase()));
+            }
+            if (tableDefinition.getInjectStats().orElse(injectStatsForMutableTables)) {
+                injectStatistics(tableDefinition, tableName, tableDefinition.getInjectStats().orElse(false));
+            }
+            return new HiveTableInstance(tableName, tableDefinition);
+        }
+        catch (RuntimeException e) {
+            throw new RuntimeException("Failed to create table " + tableHandle, e);
+        }
+    }
+
     @Override
     public String getDatabaseName()
     {
@@ -197,6 +342,18 @@ public class HiveTableManager
         hdfsDataSourceWriter.ensureDataOnHdfs(tableDataPath, dataSource);
     }
 
+    private void uploadPartitionsData(List<PartitionDefinition> partitionDefinitions, List<String> partitionDataPaths)
+    {
+        List<Future<?>> uploads = new ArrayList<>();
+        for (int partitionId = 0; partitionId < partitionDefinitions.size(); partitionId++) {
+            String partitionDataPath = partitionDataPaths.get(partitionId);
+            HiveDataSource dataSource = partitionDefinitions.get(partitionId).getDataSource();
+            uploads.add(partitionUploadExecutor.submit(() -> uploadTableData(partitionDataPath, dataSource)));
+        }
+
+        awaitAll(uploads, "uploading partitions data");
+    }
+
     private String getImmutableTableHdfsPath(HiveDataSource dataSource)
     {
         return testDataBasePath + "/" + dataSource.getPathSuffix();
@@ -204,21 +361,16 @@ public class HiveTableManager
 
     private String getMutableTableHdfsPath(TableName tableName, Optional<Integer> partitionId)
     {
-        QueryResult queryResult = queryExecutor.executeQuery("SHOW CREATE TABLE " + tableName.getNameInDatabase());
-
-        // result spans multiple rows
-        StringBuilder value = new StringBuilder();
-        for (List<?> row : queryResult.rows()) {
-            value.append(getOnlyElement(row));
+        String location = mutableTableLocations.computeIfAbsent(tableName, this::getTableLocation);
+        if (partitionId.isPresent()) {
+            location += "/partition_" + partitionId.get();
         }
+        return location;
+    }
 
-        Pattern locationPattern = Pattern.compile("LOCATION\\s+'([^']+)'");
-        Matcher matcher = locationPattern.matcher(value);
-        if (!matcher.find()) {
-            throw new IllegalArgumentException("Cant get table location from result of SHOW CREATE TABLE: " + value);
-        }
-        String location = matcher.group(1);
-        verify(!matcher.find(), "Expected only single match of LOCATION in result of SHOW CREATE TABLE");
+    private String getTableLocation(TableName tableName)
+    {
+        String location = hiveThriftClient.getTableLocation(tableName);
         if (location.startsWith("hdfs://")) {
             try {
                 URI uri = new URI(location);
@@ -228,18 +380,97 @@ public class HiveTableManager
                 throw new RuntimeException(e);
             }
         }
+        return location;
+    }
 
-        if (partitionId.isPresent()) {
-            location += "/partition_" + partitionId.get();
+    /**
+     * @return table registered in the metastore, when it was created through the metastore
+     */
+    private Optional<Table> createTable(HiveTableDefinition tableDefinition, TableName tableName, Optional<String> tableDataPath)
+    {
+        Optional<Table> metastoreTable = createTableInMetastore(tableDefinition, tableName, tableDataPath, false);
+        if (metastoreTable.isEmpty()) {
+            createTableInHiveServer(tableDefinition, tableName, tableDataPath);
+        }
+        return metastoreTable;
+    }
+
+    private void createExternalTable(HiveTableDefinition tableDefinition, TableName tableName, String tableDataPath)
+    {
+        if (createTableInMetastore(tableDefinition, tableName, Optional.of(tableDataPath), true).isEmpty()) {
+            createTableInHiveServer(tableDefinition, tableName, Optional.of(tableDataPath));
+            markTableAsExternal(tableName);
         }
-        return location;
     }
 
-    private void createTable(HiveTableDefinition tableDefinition, TableName tableName, Optional<String> tableDataPath)
+    private void createTableInHiveServer(HiveTableDefinition tableDefinition, TableName tableName, Optional<String> tableDataPath)
+    {
+        createSchemaIfNotExists(tableName);
+        queryExecutor.executeQuery(tableDefinition.getCreateTableDDL(tableName.getNameInDatabase(), tableDataPath));
+    }
+
+    private Optional<Table> createTableInMetastore(HiveTableDefinition tableDefinition, TableName tableName, Optional<String> tableDataPath, boolean external)
+    {
+        if (!createTablesInMetastore) {
+            return Optional.empty();
+        }
+        String ddl = tableDefinition.getCreateTableDDL(tableName.getNameInDatabase(), tableDataPath);
+        Optional<Table> metastoreTable = MetastoreTableFactory.createTable(ddl, tableName.getSchema().orElse("default"), tableName.getSchemalessNameInDatabase(), external);
+        if (metastoreTable.isEmpty()) {
+            LOGGER.debug("DDL of table {} cannot be run through metastore, running it through HiveServer2: {}", tableName, ddl);
+            return Optional.empty();
+        }
+        tableName.getSchema().ifPresent(hiveThriftClient::createDatabaseIfNotExists);
+        hiveThriftClient.createTable(metastoreTable.get());
+        return metastoreTable;
+    }
+
+    private void addPartitions(TableName tableName, Optional<Table> metastoreTable, List<PartitionDefinition> partitionDefinitions, List<String> partitionDataPaths)
+    {
+        if (metastoreTable.isPresent()) {
+            List<Optional<Partition>> partitions = IntStream.range(0, partitionDefinitions.size())
+                    .mapToObj(partitionId -> MetastoreTableFactory.createPartition(metastoreTable.get(), partitionDefinitions.get(partitionId).getPartitionSpec(), partitionDataPaths.get(partitionId)))
+                    .collect(toImmutableList());
+            if (partitions.stream().allMatch(Optional::isPresent)) {
+                hiveThriftClient.addPartitions(partitions.stream()
+                        .map(Optional::get)
+                        .collect(toImmutableList()));
+                return;
+            }
+        }
+        queryExecutor.executeQuery("ALTER TABLE " + tableName.getNameInDatabase() + " ADD " + IntStream.range(0, partitionDefinitions.size())
+                .mapToObj(partitionId -> partitionDefinitions.get(partitionId).getAddPartitionClause(partitionDataPaths.get(partitionId)))
+                .collect(joining(" ")));
+    }
+
+    private void createColumnarTable(HiveTableDefinition tableDefinition, TableName tableName, String sourceTableName)
+    {
+        createSchemaIfNotExists(tableName);
+        queryExecutor.executeQuery(tableDefinition.getColumnarStorage().get().getCreateTableAsSelectDDL(tableName.getNameInDatabase(), sourceTableName));
+    }
+
+    private void createSchemaIfNotExists(TableName tableName)
     {
         tableName.getSchema().ifPresent(schema ->
                 queryExecutor.executeQuery("CREATE SCHEMA IF NOT EXISTS " + schema));
-        queryExecutor.executeQuery(tableDefinition.getCreateTableDDL(tableName.getNameInDatabase(), tableDataPath));
+    }
+
+    private static TableName getStagingTableName(TableName tableName)
+    {
+        return new TableName(
+                tableName.getDatabase(),
+                tableName.getSchema(),
+                STAGING_TABLE_PREFIX + tableName.getName(),
+                STAGING_TABLE_PREFIX + tableName.getSchemalessNameInDatabase());
+    }
+
+    private static TableName getMutableStagingTableName(TableName tableName)
+    {
+        return new TableName(
+                tableName.getDatabase(),
+                tableName.getSchema(),
+                tableName.getName() + MUTABLE_STAGING_TABLE_SUFFIX,
+                tableName.getSchemalessNameInDatabase() + MUTABLE_STAGING_TABLE_SUFFIX);
     }
 
     private void markTableAsExternal(TableName tableName)
@@ -256,9 +487,33 @@ public class HiveTableManager
         hiveThriftClient.setStatistics(tableName, tableDefinition.getDataSource().getStatistics().get());
     }
 
+    /**
+     * Statistics of immutable tables are injected concurrently with creation of other tables, see {@link #awaitImmutableTables()}.
+     */
+    private void injectStatisticsInBackground(HiveTableDefinition tableDefinition, TableName tableName, boolean mustInject)
+    {
+        pendingStatisticsInjections.add(statisticsExecutor.submit(() -> {
+            try {
+                injectStatistics(tableDefinition, tableName, mustInject);
+            }
+            catch (RuntimeException e) {
+                throw new RuntimeException("Failed to inject statistics of table " + tableName.getNameInDatabase(), e);
+            }
+        }));
+    }
+
+    @Override
+    public void dropTable(TableName tableName)
+    {
+        mutableTableLocations.remove(tableName);
+        super.dropTable(tableName);
+    }
+
     @Override
     public void close()
     {
+        partitionUploadExecutor.shutdownNow();
+        statisticsExecutor.shutdownNow();
         hiveThriftClient.close();
         super.close();
     }
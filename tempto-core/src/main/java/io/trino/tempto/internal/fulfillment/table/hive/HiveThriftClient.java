@@ -16,9 +16,12 @@ package io.trino.tempto.internal.fulfillment.table.hive;
 import io.trino.tempto.fulfillment.table.hive.statistics.ColumnStatistics;
 import io.trino.tempto.fulfillment.table.hive.statistics.TableStatistics;
 import io.trino.tempto.internal.fulfillment.table.TableName;
+import io.trino.tempto.internal.jfr.HiveStatisticsEvent;
+import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsDesc;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.Date;
 import org.apache.hadoop.hive.metastore.api.DateColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.Decimal;
@@ -26,6 +29,8 @@ import org.apache.hadoop.hive.metastore.api.DecimalColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.DoubleColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.StringColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hadoop.hive.metastore.api.ThriftHiveMetastore;
@@ -34,78 +39,226 @@ import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.transport.TSocket;
 import org.apache.thrift.transport.TTransport;
 import org.apache.thrift.transport.TTransportException;
+import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 import java.util.function.Predicate;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.primitives.Shorts.checkedCast;
+import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
 import static java.lang.Integer.parseInt;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
 
 public class HiveThriftClient
         implements AutoCloseable
 {
+    private static final Logger LOGGER = getLogger(HiveThriftClient.class);
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 4;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+
     private final String thriftHost;
     private final int thriftPort;
-
-    @Nullable
-    private TTransport transport;
-    @Nullable
-    private ThriftHiveMetastore.Client client;
+    private final Semaphore connectionPermits;
+    private final Queue<MetastoreConnection> idleConnections = new ConcurrentLinkedQueue<>();
 
     public HiveThriftClient(String thriftHost, int thriftPort)
     {
+        this(thriftHost, thriftPort, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * @param maxConnections number of metastore connections open at a time; a Thrift client is not thread safe,
+     *         each connection is used by a single thread at a time
+     */
+    public HiveThriftClient(String thriftHost, int thriftPort, int maxConnections)
+    {
+        checkArgument(maxConnections > 0, "maxConnections must be positive: %s", maxConnections);
         this.thriftHost = requireNonNull(thriftHost, "thriftHost is null");
         this.thriftPort = thriftPort;
+        this.connectionPermits = new Semaphore(maxConnections);
     }
 
-    private void open()
+    /**
+     * @return location of the table storage descriptor, as stored in the metastore, e.g. {@code hdfs://namenode:8020/user/hive/warehouse/nation}
+     */
+    public String getTableLocation(TableName tableName)
     {
-        if (transport != null) {
-            checkState(client != null, "Previously failed to open");
-            return;
+        try {
+            return withClient(client -> client.get_table(getSchema(tableName), tableName.getSchemalessNameInDatabase()).getSd().getLocation());
+        }
+        catch (TException e) {
+            throw new RuntimeException("Could not get location of table " + tableName.getNameInDatabase(), e);
         }
+    }
 
+    /**
+     * @return parameters of the table, or empty when the table does not exist
+     */
+    public Optional<Map<String, String>> getTableParameters(TableName tableName)
+    {
         try {
-            transport = new TSocket(thriftHost, thriftPort);
-            transport.open();
+            return withClient(client -> {
+                try {
+                    Table table = client.get_table(getSchema(tableName), tableName.getSchemalessNameInDatabase());
+                    return Optional.of(table.isSetParameters() ? table.getParameters() : Map.of());
+                }
+                catch (NoSuchObjectException ignored) {
+                    return Optional.empty();
+                }
+            });
         }
-        catch (TTransportException e) {
-            throw new RuntimeException(e);
+        catch (TException e) {
+            throw new RuntimeException("Could not get parameters of table " + tableName.getNameInDatabase(), e);
         }
-        TBinaryProtocol protocol = new TBinaryProtocol(transport);
-        client = new ThriftHiveMetastore.Client(protocol);
     }
 
-    void setStatistics(TableName tableName, TableStatistics tableStatistics)
+    public void createDatabaseIfNotExists(String databaseName)
     {
-        open();
         try {
-            Table table = client.get_table(getSchema(tableName), tableName.getSchemalessNameInDatabase());
+            withClient(client -> {
+                try {
+                    client.create_database(new Database(databaseName, "", null, new HashMap<>()));
+                }
+                catch (AlreadyExistsException ignored) {
+                    // created by other table or run
+                }
+                return null;
+            });
+        }
+        catch (TException e) {
+            throw new RuntimeException("Could not create database " + databaseName, e);
+        }
+    }
+
+    public void createTable(Table table)
+    {
+        try {
+            withClient(client -> {
+                client.create_table(table);
+                return null;
+            });
+        }
+        catch (TException e) {
+            throw new RuntimeException("Could not create table " + table.getDbName() + "." + table.getTableName(), e);
+        }
+    }
+
+    /**
+     * Registers all partitions with a single metastore call.
+     */
+    public void addPartitions(List<Partition> partitions)
+    {
+        try {
+            withClient(client -> client.add_partitions(partitions));
+        }
+        catch (TException e) {
+            throw new RuntimeException("Could not add partitions", e);
+        }
+    }
+
+    public void setStatistics(TableName tableName, TableStatistics tableStatistics)
+    {
+        HiveStatisticsEvent event = new HiveStatisticsEvent(tableName.getNameInDatabase(), tableStatistics.getRowCount(), tableStatistics.getColumns().size());
+        event.begin();
+        try {
+            Table table = withClient(client -> client.get_table(getSchema(tableName), tableName.getSchemalessNameInDatabase()));
             setRowsCount(tableName, tableStatistics, table);
             try {
                 setColumnStatistics(tableName, tableStatistics, table, _ -> true);
             }
             catch (TException ignore) {
-                transport.close();
-                transport.open();
+                event.setRetried();
                 // try to avoid date type as it not supported in hive 1.1.0
                 setColumnStatistics(tableName, tableStatistics, table, fieldSchema -> !fieldSchema.getType().equals("date"));
             }
+            event.commit();
         }
         catch (TException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Runs the call with an idle connection of the pool, or a new one. Calls failed because of the transport are retried
+     * with a backoff on a new connection. A connection is returned to the pool only after a successful call, as a failed
+     * call may leave unread data in the connection.
+     */
+    private <T> T withClient(MetastoreCall<T> call)
+            throws TException
+    {
+        try {
+            connectionPermits.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for metastore connection", e);
+        }
+        try {
+            long backoffMillis = INITIAL_BACKOFF_MILLIS;
+            for (int attempt = 1; ; attempt++) {
+                MetastoreConnection connection = null;
+                try {
+                    connection = borrowConnection();
+                    T result = call.call(connection.client);
+                    idleConnections.add(connection);
+                    return result;
+                }
+                catch (TTransportException e) {
+                    closeQuietly(connection);
+                    if (attempt == MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                    LOGGER.debug("Metastore call failed, retrying in {} ms", backoffMillis, e);
+                    sleepUninterruptibly(backoffMillis, MILLISECONDS);
+                    backoffMillis *= 2;
+                }
+                catch (TException | RuntimeException e) {
+                    closeQuietly(connection);
+                    throw e;
+                }
+            }
+        }
+        finally {
+            connectionPermits.release();
+        }
+    }
+
+    private MetastoreConnection borrowConnection()
+            throws TTransportException
+    {
+        MetastoreConnection connection = idleConnections.poll();
+        if (connection != null) {
+            return connection;
+        }
+        TTransport transport = new TSocket(thriftHost, thriftPort);
+        transport.open();
+        return new MetastoreConnection(transport, new ThriftHiveMetastore.Client(new TBinaryProtocol(transport)));
+    }
+
+    private static void closeQuietly(@Nullable MetastoreConnection connection)
+    {
+        if (connection != null) {
+            connection.transport.close();
+        }
+    }
+
     private void setRowsCount(TableName tableName, TableStatistics tableStatistics, Table table)
             throws TException
     {
@@ -119,7 +272,10 @@ public class HiveThriftClient
         tableParameters.put("numFiles", "1");
         tableParameters.put("STATS_GENERATED_VIA_STATS_TASK", "true");
 
-        client.alter_table(getSchema(tableName), tableName.getSchemalessNameInDatabase(), table);
+        withClient(client -> {
+            client.alter_table(getSchema(tableName), tableName.getSchemalessNameInDatabase(), table);
+            return null;
+        });
     }
 
     private String getSchema(TableName tableName)
@@ -143,7 +299,7 @@ public class HiveThriftClient
         org.apache.hadoop.hive.metastore.api.ColumnStatistics hiveColumnStatistics = new org.apache.hadoop.hive.metastore.api.ColumnStatistics();
         hiveColumnStatistics.setStatsDesc(hiveColumnStatisticsDesc);
         hiveColumnStatistics.setStatsObj(hiveColumnStatisticsObjs);
-        client.update_table_column_statistics(hiveColumnStatistics);
+        withClient(client -> client.update_table_column_statistics(hiveColumnStatistics));
     }
 
     private ColumnStatisticsObj toHiveColumnStatistics(FieldSchema fieldSchema, ColumnStatistics columnStatistics)
@@ -222,11 +378,9 @@ public class HiveThriftClient
     @Override
     public void close()
     {
-        if (transport != null) {
-            transport.close();
+        for (MetastoreConnection connection = idleConnections.poll(); connection != null; connection = idleConnections.poll()) {
+            connection.transport.close();
         }
-        transport = null;
-        client = null;
     }
 
     private static Decimal toHiveDecimal(Object objectValue, int scale)
@@ -235,4 +389,22 @@ public class HiveThriftClient
         BigInteger bigInteger = BigInteger.valueOf(Math.round(value * scale));
         return new Decimal(checkedCast(scale), ByteBuffer.wrap(bigInteger.toByteArray()));
     }
+
+    private interface MetastoreCall<T>
+    {
+        T call(ThriftHiveMetastore.Client client)
+                throws TException;
+    }
+
+    private static class MetastoreConnection
+    {
+        private final TTransport transport;
+        private final ThriftHiveMetastore.Client client;
+
+        MetastoreConnection(TTransport transport, ThriftHiveMetastore.Client client)
+        {
+            this.transport = transport;
+            this.client = client;
+        }
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.SerDeInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.Math.toIntExact;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Locale.ENGLISH;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Builds metastore {@link Table} and {@link Partition} objects equivalent to Hive DDL, so that tables can be registered
+ * in the metastore directly instead of through HiveServer2. Only delimited text tables are supported, as defined
+ * by TPC-H, TPC-DS and most of test tables:
+ * <pre>
+ * CREATE [EXTERNAL] TABLE name (column type, ...)
+ *     [PARTITIONED BY (column type, ...)]
+ *     [ROW FORMAT DELIMITED FIELDS TERMINATED BY 'c']
+ *     [STORED AS TEXTFILE]
+ *     [LOCATION 'location']
+ * </pre>
+ * Other DDL, e.g. with column comments, table properties or other formats, is not converted.
+ */
+final class MetastoreTableFactory
+{
+    private static final Pattern CREATE_TABLE_PATTERN = Pattern.compile("CREATE\\s+(EXTERNAL\\s+)?TABLE\\s+(IF\\s+NOT\\s+EXISTS\\s+)?[\\w.`]+\\s*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TABLE_CLAUSES_PATTERN = Pattern.compile(
+            "(PARTITIONED\\s+BY\\s*\\((?<partitionColumns>[^)]*(\\([^)]*\\)[^)]*)*)\\)\\s*)?" +
+                    "(ROW\\s+FORMAT\\s+DELIMITED\\s+FIELDS\\s+TERMINATED\\s+BY\\s+'(?<delimiter>[^'\\\\])'\\s*)?" +
+                    "(STORED\\s+AS\\s+TEXTFILE\\s*)?" +
+                    "(LOCATION\\s+'(?<location>[^']+)'\\s*)?",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("`?(?<name>\\w+)`?\\s+(?<type>\\w+(\\s*\\([\\d\\s,]+\\))?)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PARTITION_VALUE_PATTERN = Pattern.compile("\\s*`?(?<key>\\w+)`?\\s*=\\s*('(?<quoted>[^']*)'|\"(?<doubleQuoted>[^\"]*)\"|(?<value>[^'\"\\s]+))\\s*");
+
+    private static final String DEFAULT_DELIMITER = "\u0001";
+
+    private MetastoreTableFactory() {}
+
+    /**
+     * @param external whether the table is external also when the DDL does not say so
+     * @return metastore table, or empty when the DDL is not supported
+     */
+    static Optional<Table> createTable(String createTableDDL, String databaseName, String tableName, boolean external)
+    {
+        String ddl = createTableDDL.strip();
+        Matcher createTable = CREATE_TABLE_PATTERN.matcher(ddl);
+        if (!createTable.lookingAt() || createTable.end() == ddl.length() || ddl.charAt(createTable.end()) != '(') {
+            return Optional.empty();
+        }
+        int columnsEnd = findClosingParenthesis(ddl, createTable.end());
+        if (columnsEnd < 0) {
+            return Optional.empty();
+        }
+        Optional<List<FieldSchema>> columns = parseColumns(ddl.substring(createTable.end() + 1, columnsEnd));
+        Matcher clauses = TABLE_CLAUSES_PATTERN.matcher(ddl.substring(columnsEnd + 1).strip());
+        if (columns.isEmpty() || !clauses.matches()) {
+            return Optional.empty();
+        }
+        Optional<List<FieldSchema>> partitionColumns = clauses.group("partitionColumns") == null
+                ? Optional.of(ImmutableList.of())
+                : parseColumns(clauses.group("partitionColumns"));
+        if (partitionColumns.isEmpty()) {
+            return Optional.empty();
+        }
+        boolean externalTable = external || createTable.group(1) != null;
+        String delimiter = Optional.ofNullable(clauses.group("delimiter")).orElse(DEFAULT_DELIMITER);
+
+        SerDeInfo serDeInfo = new SerDeInfo();
+        serDeInfo.setSerializationLib("org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe");
+        serDeInfo.setParameters(new HashMap<>(ImmutableMap.of(
+                "field.delim", delimiter,
+                "serialization.format", delimiter)));
+
+        StorageDescriptor storageDescriptor = new StorageDescriptor();
+        storageDescriptor.setCols(columns.get());
+        storageDescriptor.setLocation(clauses.group("location"));
+        storageDescriptor.setInputFormat("org.apache.hadoop.mapred.TextInputFormat");
+        storageDescriptor.setOutputFormat("org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat");
+        storageDescriptor.setSerdeInfo(serDeInfo);
+        storageDescriptor.setNumBuckets(-1);
+        storageDescriptor.setBucketCols(ImmutableList.of());
+        storageDescriptor.setSortCols(ImmutableList.of());
+        storageDescriptor.setParameters(new HashMap<>());
+
+        Table table = new Table();
+        table.setDbName(databaseName);
+        table.setTableName(tableName);
+        table.setOwner(System.getProperty("user.name"));
+        table.setCreateTime(toIntExact(MILLISECONDS.toSeconds(currentTimeMillis())));
+        table.setSd(storageDescriptor);
+        table.setPartitionKeys(partitionColumns.get());
+        table.setTableType(externalTable ? "EXTERNAL_TABLE" : "MANAGED_TABLE");
+        table.setParameters(externalTable ? new HashMap<>(ImmutableMap.of("EXTERNAL", "TRUE")) : new HashMap<>());
+        return Optional.of(table);
+    }
+
+    /**
+     * @param partitionSpec partition spec as in {@code ALTER TABLE ... ADD PARTITION}, e.g. {@code pc=0, region='EUROPE'}
+     * @return metastore partition, or empty when the spec does not have a value for every partition column of the table
+     */
+    static Optional<Partition> createPartition(Table table, String partitionSpec, String location)
+    {
+        Map<String, String> values = new HashMap<>();
+        for (String partitionValue : partitionSpec.split(",")) {
+            Matcher matcher = PARTITION_VALUE_PATTERN.matcher(partitionValue);
+            if (!matcher.matches()) {
+                return Optional.empty();
+            }
+            String value = Optional.ofNullable(matcher.group("quoted"))
+                    .or(() -> Optional.ofNullable(matcher.group("doubleQuoted")))
+                    .orElse(matcher.group("value"));
+            values.put(matcher.group("key").toLowerCase(ENGLISH), value);
+        }
+        ImmutableList.Builder<String> orderedValues = ImmutableList.builder();
+        for (FieldSchema partitionColumn : table.getPartitionKeys()) {
+            String value = values.remove(partitionColumn.getName());
+            if (value == null) {
+                return Optional.empty();
+            }
+            orderedValues.add(value);
+        }
+        if (!values.isEmpty()) {
+            return Optional.empty();
+        }
+
+        StorageDescriptor storageDescriptor = table.getSd().deepCopy();
+        storageDescriptor.setLocation(location);
+
+        Partition partition = new Partition();
+        partition.setDbName(table.getDbName());
+        partition.setTableName(table.getTableName());
+        partition.setValues(orderedValues.build());
+        partition.setSd(storageDescriptor);
+        partition.setCreateTime(toIntExact(MILLISECONDS.toSeconds(currentTimeMillis())));
+        partition.setParameters(new HashMap<>());
+        return Optional.of(partition);
+    }
+
+    private static Optional<List<FieldSchema>> parseColumns(String columnsDefinition)
+    {
+        ImmutableList.Builder<FieldSchema> columns = ImmutableList.builder();
+        int depth = 0;
+        int columnStart = 0;
+        for (int i = 0; i <= columnsDefinition.length(); i++) {
+            char character = i == columnsDefinition.length() ? ',' : columnsDefinition.charAt(i);
+            if (character == '(') {
+                depth++;
+            }
+            else if (character == ')') {
+                depth--;
+            }
+            else if (character == ',' && depth == 0) {
+                Matcher column = COLUMN_PATTERN.matcher(columnsDefinition.substring(columnStart, i).strip());
+                if (!column.matches()) {
+                    return Optional.empty();
+                }
+                // metastore stores types as Hive prints them, e.g. decimal(12,2)
+                String type = column.group("type").replaceAll("\\s", "").toLowerCase(ENGLISH);
+                columns.add(new FieldSchema(column.group("name").toLowerCase(ENGLISH), type, null));
+                columnStart = i + 1;
+            }
+        }
+        return Optional.of(columns.build());
+    }
+
+    private static int findClosingParenthesis(String value, int openingParenthesis)
+    {
+        int depth = 0;
+        for (int i = openingParenthesis; i < value.length(); i++) {
+            if (value.charAt(i) == '(') {
+                depth++;
+            }
+            else if (value.charAt(i) == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -40,12 +40,12 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.CREATED;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.LOADED;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.PREPARED;
+import static java.lang.String.format;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @TableManager.Descriptor(tableDefinitionClass = RelationalTableDefinition.class, type = "JDBC")
@@ -120,19 +120,6 @@ public class JdbcTableManager
         }
     }
 
-    private static String escapeNamePattern(String name, String escape)
-    {
-        if ((name == null) || (escape == null)) {
-            return name;
-        }
-        checkArgument(!escape.equals("_"), "Escape string must not be '_'");
-        checkArgument(!escape.equals("%"), "Escape string must not be '%'");
-        name = name.replace(escape, escape + escape);
-        name = name.replace("_", escape + "_");
-        name = name.replace("%", escape + "%");
-        return name;
-    }
-
     private void createTable(RelationalTableDefinition tableDefinition, TableName tableName)
     {
         boolean skipCreateSchema = configuration.getBoolean("databases." + databaseName + ".skip_create_schema").orElse(false);
@@ -167,6 +154,17 @@ public class JdbcTableManager
         return tableInstance;
     }
 
+    @Override
+    public TableInstance createMutableCopy(RelationalTableDefinition tableDefinition, TableHandle tableHandle, TableInstance<RelationalTableDefinition> source)
+    {
+        TableName tableName = createMutableTableName(tableHandle);
+        LOGGER.debug("creating mutable table {} as copy of {}", tableName, source.getNameInDatabase());
+        // table is created from definition rather than with CREATE TABLE AS, so column types do not depend on the database
+        createTable(tableDefinition, tableName);
+        queryExecutor.executeQuery(format("INSERT INTO %s SELECT * FROM %s", tableName.getNameInDatabase(), source.getNameInDatabase()));
+        return new JdbcTableInstance(tableName, tableDefinition);
+    }
+
     @Override
     public String getDatabaseName()
     {
@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+
+import static java.util.Arrays.copyOf;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Compresses content of another producer on a separate thread, so compression runs concurrently with the upload
+ * reading the compressed stream. Compressed data is passed in chunks, at most {@value #MAX_BUFFERED_CHUNKS} chunks
+ * are buffered; compression waits when the upload is slower.
+ */
+class CompressingContentProducer
+        implements RepeatableContentProducer
+{
+    static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_BUFFERED_CHUNKS = 16;
+
+    private final RepeatableContentProducer content;
+    private final TextDataCompression compression;
+    private final Executor executor;
+
+    CompressingContentProducer(RepeatableContentProducer content, TextDataCompression compression, Executor executor)
+    {
+        this.content = requireNonNull(content, "content is null");
+        this.compression = requireNonNull(compression, "compression is null");
+        this.executor = requireNonNull(executor, "executor is null");
+    }
+
+    @Override
+    public InputStream getInputStream()
+    {
+        ChunkPipe pipe = new ChunkPipe();
+        executor.execute(() -> {
+            try (InputStream input = content.getInputStream();
+                    OutputStream output = compression.compress(pipe.output())) {
+                input.transferTo(output);
+            }
+            catch (Throwable e) {
+                pipe.fail(e);
+            }
+            finally {
+                pipe.finish();
+            }
+        });
+        return pipe;
+    }
+
+    /**
+     * Stream of chunks written by the compressing thread. Closing it stops the compression.
+     */
+    private static class ChunkPipe
+            extends InputStream
+    {
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(MAX_BUFFERED_CHUNKS);
+        private volatile Throwable failure;
+        private volatile boolean closed;
+        private byte[] chunk = new byte[0];
+        private int position;
+
+        OutputStream output()
+        {
+            return new OutputStream()
+            {
+                private final byte[] buffer = new byte[CHUNK_SIZE];
+                private int size;
+
+                @Override
+                public void write(int b)
+                        throws IOException
+                {
+                    if (size == buffer.length) {
+                        flush();
+                    }
+                    buffer[size++] = (byte) b;
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length)
+                        throws IOException
+                {
+                    while (length > 0) {
+                        if (size == buffer.length) {
+                            flush();
+                        }
+                        int copied = Math.min(length, buffer.length - size);
+                        System.arraycopy(bytes, offset, buffer, size, copied);
+                        size += copied;
+                        offset += copied;
+                        length -= copied;
+                    }
+                }
+
+                @Override
+                public void flush()
+                        throws IOException
+                {
+                    if (size > 0) {
+                        put(copyOf(buffer, size));
+                        size = 0;
+                    }
+                }
+
+                @Override
+                public void close()
+                        throws IOException
+                {
+                    flush();
+                }
+            };
+        }
+
+        private void put(byte[] chunk)
+                throws IOException
+        {
+            try {
+                while (!chunks.offer(chunk, 100, MILLISECONDS)) {
+                    if (closed) {
+                        throw new IOException("Compressed stream was closed by the reader");
+                    }
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing");
+            }
+        }
+
+        void fail(Throwable failure)
+        {
+            this.failure = failure;
+        }
+
+        void finish()
+        {
+            try {
+                put(END);
+            }
+            catch (IOException _) {
+                // closed by the reader, nobody waits for the end
+            }
+        }
+
+        @Override
+        public int read()
+                throws IOException
+        {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length)
+                throws IOException
+        {
+            if (length == 0) {
+                return 0;
+            }
+            if (position == chunk.length) {
+                if (chunk == END || !nextChunk()) {
+                    return -1;
+                }
+            }
+            int read = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, bytes, offset, read);
+            position += read;
+            return read;
+        }
+
+        private boolean nextChunk()
+                throws IOException
+        {
+            try {
+                chunk = chunks.take();
+                position = 0;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for compressed data");
+            }
+            if (chunk == END) {
+                if (failure != null) {
+                    throw new IOException("Could not compress content", failure);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+            chunks.clear();
+        }
+    }
+}
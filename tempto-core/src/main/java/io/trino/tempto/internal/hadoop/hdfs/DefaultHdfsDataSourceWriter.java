@@ -14,12 +14,28 @@
 
 package io.trino.tempto.internal.hadoop.hdfs;
 
+import com.google.common.base.Suppliers;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
 import io.trino.tempto.hadoop.hdfs.HdfsClient;
 import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+import io.trino.tempto.internal.jfr.HdfsUploadEvent;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.trino.tempto.internal.FailureCollector.awaitAll;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class DefaultHdfsDataSourceWriter
@@ -27,7 +43,22 @@ public class DefaultHdfsDataSourceWriter
 {
     private static final Logger LOGGER = getLogger(DefaultHdfsDataSourceWriter.class);
 
+    public static final String TEXT_COMPRESSION_KEY = "tests.hdfs.text_compression";
+    public static final String UPLOAD_PARALLELISM_KEY = "tests.hdfs.upload_parallelism";
+
+    private static final int DEFAULT_UPLOAD_PARALLELISM = 4;
+
     private final HdfsClient hdfsClient;
+    private final ExecutorService compressionExecutor = newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("hdfs-compression-%s")
+            .setDaemon(true)
+            .build());
+    private TextDataCompression textCompression = TextDataCompression.NONE;
+    private int uploadParallelism = DEFAULT_UPLOAD_PARALLELISM;
+    private final Supplier<ExecutorService> uploadExecutor = Suppliers.memoize(() -> newFixedThreadPool(uploadParallelism, new ThreadFactoryBuilder()
+            .setNameFormat("hdfs-upload-%s")
+            .setDaemon(true)
+            .build()));
 
     @Inject
     public DefaultHdfsDataSourceWriter(HdfsClient hdfsClient)
@@ -35,22 +66,69 @@ public class DefaultHdfsDataSourceWriter
         this.hdfsClient = hdfsClient;
     }
 
+    /**
+     * @param textCompression name of {@link TextDataCompression} used for files of text data sources
+     */
+    @Inject(optional = true)
+    public void setTextCompression(@Named(TEXT_COMPRESSION_KEY) String textCompression)
+    {
+        this.textCompression = TextDataCompression.fromString(textCompression);
+    }
+
+    /**
+     * @param uploadParallelism number of files of a data source, e.g. TPC-H table parts, generated and uploaded at a time
+     */
+    @Inject(optional = true)
+    public void setUploadParallelism(@Named(UPLOAD_PARALLELISM_KEY) int uploadParallelism)
+    {
+        checkArgument(uploadParallelism > 0, "uploadParallelism must be positive: %s", uploadParallelism);
+        this.uploadParallelism = uploadParallelism;
+    }
+
     @Override
     public void ensureDataOnHdfs(String dataSourcePath, HiveDataSource dataSource)
     {
+        HdfsUploadEvent event = new HdfsUploadEvent(dataSourcePath, dataSource.getPathSuffix());
+        event.begin();
         hdfsClient.delete(dataSourcePath);
         hdfsClient.createDirectory(dataSourcePath);
-        storeTableFiles(dataSourcePath, dataSource);
+        storeTableFiles(dataSourcePath, dataSource, event);
+        event.commit();
     }
 
-    private void storeTableFiles(String dataSourcePath, HiveDataSource dataSource)
+    private void storeTableFiles(String dataSourcePath, HiveDataSource dataSource, HdfsUploadEvent event)
     {
+        TextDataCompression compression = dataSource.isTextFormat() ? textCompression : TextDataCompression.NONE;
+        List<Future<?>> uploads = new ArrayList<>();
         int fileIndex = 0;
-        for (RepeatableContentProducer fileContent : dataSource.data()) {
-            String filePath = dataSourcePath + "/data_" + fileIndex;
-            LOGGER.debug("Saving new file {}", filePath);
-            hdfsClient.saveFile(filePath, fileContent);
+        for (RepeatableContentProducer rawFileContent : dataSource.data()) {
+            String filePath = dataSourcePath + "/data_" + fileIndex + compression.getFileExtension();
+            RepeatableContentProducer fileContent = compression == TextDataCompression.NONE
+                    ? rawFileContent
+                    : new CompressingContentProducer(rawFileContent, compression, compressionExecutor);
+            // content is generated lazily, while it is read, so parts of a data source are generated in parallel too
+            uploads.add(uploadExecutor.get().submit(() -> storeFile(filePath, fileContent, event)));
             fileIndex++;
         }
+
+        awaitAll(uploads, "uploading files to " + dataSourcePath);
+    }
+
+    private void storeFile(String filePath, RepeatableContentProducer fileContent, HdfsUploadEvent event)
+    {
+        LOGGER.debug("Saving new file {}", filePath);
+        if (event.isEnabled()) {
+            // content may be read more than once, e.g. when following a redirect, count the last read only
+            AtomicReference<CountingInputStream> lastContent = new AtomicReference<>();
+            hdfsClient.saveFile(filePath, () -> {
+                CountingInputStream content = new CountingInputStream(fileContent.getInputStream());
+                lastContent.set(content);
+                return content;
+            });
+            event.addFile(lastContent.get() == null ? 0 : lastContent.get().getCount());
+        }
+        else {
+            hdfsClient.saveFile(filePath, fileContent);
+        }
     }
 }
@@ -24,10 +24,13 @@ import com.google.inject.Singleton;
 import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.hadoop.hdfs.HdfsClient;
 import io.trino.tempto.initialization.SuiteModuleProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.ssl.SSLContextBuilder;
@@ -39,8 +42,11 @@ import java.util.Optional;
 import java.util.Set;
 
 import static com.google.inject.name.Names.named;
+import static io.trino.tempto.internal.hadoop.hdfs.LocalHdfsClient.CONF_HDFS_LOCAL_ROOT_KEY;
 import static io.trino.tempto.internal.hadoop.hdfs.WebHdfsClient.CONF_HDFS_PASSWORD_KEY;
 import static io.trino.tempto.internal.hadoop.hdfs.WebHdfsClient.CONF_HDFS_WEBHDFS_URI_KEY;
+import static java.lang.Math.toIntExact;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class HdfsModuleProvider
         implements SuiteModuleProvider
@@ -48,9 +54,20 @@ public class HdfsModuleProvider
     private static final Logger logger = LoggerFactory.getLogger(HdfsModuleProvider.class);
 
     public static final String CONF_TESTS_HDFS_PATH_KEY = "tests.hdfs.path";
+    public static final String CONF_HTTP_MAX_CONNECTIONS_KEY = "hdfs.webhdfs.http.max_connections";
+    public static final String CONF_HTTP_MAX_CONNECTIONS_PER_ROUTE_KEY = "hdfs.webhdfs.http.max_connections_per_route";
+    public static final String CONF_HTTP_KEEP_ALIVE_SECONDS_KEY = "hdfs.webhdfs.http.keep_alive_seconds";
+    public static final String CONF_HTTP_CONNECT_TIMEOUT_SECONDS_KEY = "hdfs.webhdfs.http.connect_timeout_seconds";
+    public static final String CONF_HTTP_SOCKET_TIMEOUT_SECONDS_KEY = "hdfs.webhdfs.http.socket_timeout_seconds";
 
     private static final String AUTHENTICATION_SPNEGO = "SPNEGO";
     private static final int NUMBER_OF_HTTP_RETRIES = 3;
+    private static final int DEFAULT_MAX_CONNECTIONS = 100;
+    // every data node is a separate route, name node requests of all threads share a single one
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 32;
+    private static final int DEFAULT_KEEP_ALIVE_SECONDS = 60;
+    private static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_SOCKET_TIMEOUT_SECONDS = 300;
 
     @Override
     public Module getModule(Configuration configuration)
@@ -61,21 +78,30 @@ public class HdfsModuleProvider
             protected void configure()
             {
                 Set<String> configurationKeys = configuration.listKeys();
-                if (!configurationKeys.contains(CONF_HDFS_WEBHDFS_URI_KEY)
+                boolean localHdfs = configurationKeys.contains(CONF_HDFS_LOCAL_ROOT_KEY);
+                if ((!localHdfs && !configurationKeys.contains(CONF_HDFS_WEBHDFS_URI_KEY))
                         || !configurationKeys.contains(CONF_TESTS_HDFS_PATH_KEY)) {
                     logger.debug(
-                            "No HDFS support enabled as '{}' or '{}' is not configured",
+                            "No HDFS support enabled as '{}' (or '{}') or '{}' is not configured",
                             CONF_HDFS_WEBHDFS_URI_KEY,
+                            CONF_HDFS_LOCAL_ROOT_KEY,
                             CONF_TESTS_HDFS_PATH_KEY);
                     return;
                 }
-                if (!configurationKeys.contains(CONF_HDFS_PASSWORD_KEY)) {
-                    bind(Key.get(String.class, named(CONF_HDFS_PASSWORD_KEY))).toInstance("");
+
+                if (localHdfs) {
+                    logger.debug("Using local file system HDFS client with root '{}'", configuration.getStringMandatory(CONF_HDFS_LOCAL_ROOT_KEY));
+                    bind(HdfsClient.class).to(LocalHdfsClient.class).in(Scopes.SINGLETON);
                 }
+                else {
+                    if (!configurationKeys.contains(CONF_HDFS_PASSWORD_KEY)) {
+                        bind(Key.get(String.class, named(CONF_HDFS_PASSWORD_KEY))).toInstance("");
+                    }
 
-                install(httpRequestsExecutorModule());
+                    install(httpRequestsExecutorModule());
 
-                bind(HdfsClient.class).to(WebHdfsClient.class).in(Scopes.SINGLETON);
+                    bind(HdfsClient.class).to(WebHdfsClient.class).in(Scopes.SINGLETON);
+                }
                 bind(HdfsDataSourceWriter.class).to(DefaultHdfsDataSourceWriter.class).in(Scopes.SINGLETON);
 
                 expose(HdfsClient.class);
@@ -105,10 +131,34 @@ public class HdfsModuleProvider
             {
                 HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
                 httpClientBuilder.setRetryHandler(new DefaultHttpRequestRetryHandler(NUMBER_OF_HTTP_RETRIES, true));
+                httpClientBuilder.setMaxConnTotal(configuration.getInt(CONF_HTTP_MAX_CONNECTIONS_KEY).orElse(DEFAULT_MAX_CONNECTIONS));
+                httpClientBuilder.setMaxConnPerRoute(configuration.getInt(CONF_HTTP_MAX_CONNECTIONS_PER_ROUTE_KEY).orElse(DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+                httpClientBuilder.setKeepAliveStrategy(keepAliveStrategy(
+                        SECONDS.toMillis(configuration.getInt(CONF_HTTP_KEEP_ALIVE_SECONDS_KEY).orElse(DEFAULT_KEEP_ALIVE_SECONDS))));
+                httpClientBuilder.setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(secondsToMillis(configuration.getInt(CONF_HTTP_CONNECT_TIMEOUT_SECONDS_KEY).orElse(DEFAULT_CONNECT_TIMEOUT_SECONDS)))
+                        .setSocketTimeout(secondsToMillis(configuration.getInt(CONF_HTTP_SOCKET_TIMEOUT_SECONDS_KEY).orElse(DEFAULT_SOCKET_TIMEOUT_SECONDS)))
+                        .build());
                 skipCertificateValidation(httpClientBuilder);
                 return httpClientBuilder.build();
             }
 
+            /**
+             * Keeps idle connections for at most given time, shorter if the server says so.
+             */
+            private ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMillis)
+            {
+                return (response, context) -> {
+                    long serverKeepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return serverKeepAliveMillis > 0 ? Math.min(serverKeepAliveMillis, keepAliveMillis) : keepAliveMillis;
+                };
+            }
+
+            private int secondsToMillis(int seconds)
+            {
+                return toIntExact(SECONDS.toMillis(seconds));
+            }
+
             private void skipCertificateValidation(HttpClientBuilder httpClientBuilder)
             {
                 try {
@@ -23,4 +23,12 @@ public interface HttpRequestsExecutor
 {
     CloseableHttpResponse execute(final HttpUriRequest request)
             throws IOException;
+
+    /**
+     * @return whether a request body may have to be sent more than once, e.g. in reply to an authentication challenge
+     */
+    default boolean requiresRepeatableEntities()
+    {
+        return false;
+    }
 }
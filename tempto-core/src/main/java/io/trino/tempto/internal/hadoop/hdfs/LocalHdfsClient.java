@@ -0,0 +1,398 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import io.trino.tempto.hadoop.hdfs.HdfsClient;
+import org.slf4j.Logger;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * HDFS client for a warehouse on a local or mounted file system, used instead of {@link WebHdfsClient}
+ * when {@value #CONF_HDFS_LOCAL_ROOT_KEY} is configured. HDFS paths are resolved against that directory.
+ * <p>
+ * Files are copied with {@link FileChannel#transferFrom} and {@link FileChannel#transferTo}, which do not copy
+ * data through the heap when the other side is a file too. Owner, group and permissions are POSIX attributes
+ * of files, extended attributes are stored as user-defined file attributes, so the file system has to support them.
+ */
+public class LocalHdfsClient
+        implements HdfsClient
+{
+    private static final Logger logger = getLogger(LocalHdfsClient.class);
+
+    public static final String CONF_HDFS_LOCAL_ROOT_KEY = "hdfs.local.root";
+
+    private static final long TRANSFER_SIZE = 8 * 1024 * 1024;
+    private static final String FILE_SCHEME = "file";
+
+    private final Path root;
+
+    @Inject
+    public LocalHdfsClient(@Named(CONF_HDFS_LOCAL_ROOT_KEY) String root)
+    {
+        this(toPath(requireNonNull(root, "root is null")));
+    }
+
+    public LocalHdfsClient(Path root)
+    {
+        this.root = requireNonNull(root, "root is null").toAbsolutePath().normalize();
+    }
+
+    private static Path toPath(String root)
+    {
+        URI uri = URI.create(root);
+        if (uri.getScheme() == null) {
+            return Paths.get(root);
+        }
+        checkArgument(uri.getScheme().equals(FILE_SCHEME), "Only %s:// URIs are supported as %s: %s", FILE_SCHEME, CONF_HDFS_LOCAL_ROOT_KEY, root);
+        return Paths.get(uri);
+    }
+
+    @Override
+    public void createDirectory(String path)
+    {
+        Path directory = resolve(path);
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            // the same as permission=777 used with WebHDFS, so Hive running as a different user can write there
+            setPosixPermissions(directory, "777");
+            logger.debug("Created directory {}", directory);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not create directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void delete(String path)
+    {
+        Path file = resolve(path);
+        try {
+            if (Files.exists(file, NOFOLLOW_LINKS)) {
+                deleteRecursively(file, ALLOW_INSECURE);
+            }
+            logger.debug("Removed file or directory {}", file);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not remove file or directory " + file, e);
+        }
+    }
+
+    @Override
+    public void saveFile(String path, InputStream input)
+    {
+        Path file = resolve(path);
+        try {
+            Files.createDirectories(file.getParent());
+            long length;
+            if (input instanceof FileInputStream fileInput) {
+                length = transferFrom(fileInput.getChannel(), file);
+            }
+            else {
+                length = transferFrom(Channels.newChannel(input), file);
+            }
+            logger.debug("Saved file {}, size: {}", file, length);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not save file " + file, e);
+        }
+    }
+
+    private static long transferFrom(ReadableByteChannel source, Path file)
+            throws IOException
+    {
+        try (FileChannel target = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, TRANSFER_SIZE)) > 0) {
+                position += transferred;
+            }
+            return position;
+        }
+    }
+
+    @Override
+    public void saveFile(String path, RepeatableContentProducer repeatableContentProducer)
+    {
+        try (InputStream input = repeatableContentProducer.getInputStream()) {
+            saveFile(path, input);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not open content of " + path, e);
+        }
+    }
+
+    @Override
+    public void loadFile(String path, OutputStream outputStream)
+    {
+        Path file = resolve(path);
+        try (FileChannel source = FileChannel.open(file, READ)) {
+            // not closed, it would close given output stream
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+            logger.debug("Loaded file {}", file);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not read file " + file, e);
+        }
+    }
+
+    @Override
+    public List<String> listDirectory(String path)
+    {
+        Path directory = resolve(path);
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .map(file -> file.getFileName().toString())
+                    .sorted()
+                    .collect(toImmutableList());
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not list: " + directory, e);
+        }
+    }
+
+    @Override
+    public void setXAttr(String path, String key, String value)
+    {
+        Path file = resolve(path);
+        try {
+            userDefinedAttributes(file).write(key, ByteBuffer.wrap(value.getBytes(UTF_8)));
+            logger.debug("Set xAttr {} = {} for {}", key, value, file);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not set xAttr for path: " + file, e);
+        }
+    }
+
+    @Override
+    public void removeXAttr(String path, String key)
+    {
+        Path file = resolve(path);
+        try {
+            userDefinedAttributes(file).delete(key);
+            logger.debug("Remove xAttr {} for {}", key, file);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not remove xAttr for path: " + file, e);
+        }
+    }
+
+    @Override
+    public Optional<String> getXAttr(String path, String key)
+    {
+        Path file = resolve(path);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            UserDefinedFileAttributeView attributes = userDefinedAttributes(file);
+            if (!attributes.list().contains(key)) {
+                return Optional.empty();
+            }
+            ByteBuffer value = ByteBuffer.allocate(attributes.size(key));
+            attributes.read(key, value);
+            value.flip();
+            return Optional.of(UTF_8.decode(value).toString());
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not get xAttr for path: " + file, e);
+        }
+    }
+
+    private static UserDefinedFileAttributeView userDefinedAttributes(Path file)
+    {
+        UserDefinedFileAttributeView attributes = Files.getFileAttributeView(file, UserDefinedFileAttributeView.class);
+        if (attributes == null) {
+            throw new UnsupportedOperationException("File system of " + file + " does not support user-defined file attributes");
+        }
+        return attributes;
+    }
+
+    @Override
+    public long getLength(String path)
+    {
+        Path file = resolve(path);
+        try {
+            return Files.exists(file) ? Files.size(file) : -1;
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not get file status: " + file, e);
+        }
+    }
+
+    @Override
+    public boolean exist(String path)
+    {
+        return Files.exists(resolve(path));
+    }
+
+    @Override
+    public String getOwner(String path)
+    {
+        return posixAttributes(resolve(path)).owner().getName();
+    }
+
+    @Override
+    public void setOwner(String path, String owner)
+    {
+        Path file = resolve(path);
+        try {
+            UserPrincipalLookupService lookupService = file.getFileSystem().getUserPrincipalLookupService();
+            Files.setOwner(file, lookupService.lookupPrincipalByName(owner));
+            logger.debug("Set owner for {} to {}", file, owner);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not set owner for path: " + file + " to " + owner, e);
+        }
+    }
+
+    @Override
+    public String getGroup(String path)
+    {
+        return posixAttributes(resolve(path)).group().getName();
+    }
+
+    @Override
+    public void setGroup(String path, String group)
+    {
+        Path file = resolve(path);
+        try {
+            UserPrincipalLookupService lookupService = file.getFileSystem().getUserPrincipalLookupService();
+            posixAttributeView(file).setGroup(lookupService.lookupPrincipalByGroupName(group));
+            logger.debug("Set group for {} to {}", file, group);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not set group for path: " + file + " to " + group, e);
+        }
+    }
+
+    /**
+     * @return permissions in octal notation, like {@code 755}, the same as returned by WebHDFS
+     */
+    @Override
+    public String getPermission(String path)
+    {
+        int permissions = 0;
+        for (PosixFilePermission permission : posixAttributes(resolve(path)).permissions()) {
+            permissions |= permissionBit(permission);
+        }
+        return Integer.toOctalString(permissions);
+    }
+
+    @Override
+    public void setPermission(String path, String octalPermissions)
+    {
+        Path file = resolve(path);
+        try {
+            setPosixPermissions(file, octalPermissions);
+            logger.debug("Set permission for {} to {}", file, octalPermissions);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not set permissions for path: " + file + " to " + octalPermissions, e);
+        }
+    }
+
+    private static void setPosixPermissions(Path file, String octalPermissions)
+            throws IOException
+    {
+        int permissions = Integer.parseInt(octalPermissions, 8);
+        ImmutableSet.Builder<PosixFilePermission> permissionSet = ImmutableSet.builder();
+        for (PosixFilePermission permission : PosixFilePermission.values()) {
+            if ((permissions & permissionBit(permission)) != 0) {
+                permissionSet.add(permission);
+            }
+        }
+        posixAttributeView(file).setPermissions(permissionSet.build());
+    }
+
+    /**
+     * {@link PosixFilePermission} constants are declared from {@code OWNER_READ} to {@code OTHERS_EXECUTE},
+     * the same order as bits of octal notation from the most significant one.
+     */
+    private static int permissionBit(PosixFilePermission permission)
+    {
+        return 1 << (PosixFilePermission.values().length - 1 - permission.ordinal());
+    }
+
+    private static PosixFileAttributes posixAttributes(Path file)
+    {
+        try {
+            return posixAttributeView(file).readAttributes();
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Could not get file status: " + file, e);
+        }
+    }
+
+    private static PosixFileAttributeView posixAttributeView(Path file)
+    {
+        PosixFileAttributeView attributes = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        if (attributes == null) {
+            throw new UnsupportedOperationException("File system of " + file + " does not support POSIX file attributes");
+        }
+        return attributes;
+    }
+
+    private Path resolve(String path)
+    {
+        Path resolved = root.resolve(path.replaceFirst("^/+", "")).normalize();
+        checkArgument(resolved.startsWith(root), "Path %s is outside of %s", path, root);
+        return resolved;
+    }
+}
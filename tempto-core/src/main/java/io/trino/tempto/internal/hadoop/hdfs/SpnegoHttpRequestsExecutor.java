@@ -118,6 +118,13 @@ public class SpnegoHttpRequestsExecutor
         });
     }
 
+    @Override
+    public boolean requiresRepeatableEntities()
+    {
+        // SPNEGO negotiation may answer the first attempt with a challenge and resend the request
+        return true;
+    }
+
     private static class NullCredentials
             implements Credentials
     {
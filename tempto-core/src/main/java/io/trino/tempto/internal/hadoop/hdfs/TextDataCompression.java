@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Compression of text data files uploaded for Hive tables. Hive text input format picks the codec by file
+ * extension, so compressed files are read by the same table definition.
+ */
+public enum TextDataCompression
+{
+    NONE("") {
+        @Override
+        OutputStream compress(OutputStream output)
+        {
+            return output;
+        }
+    },
+    GZIP(".gz") {
+        @Override
+        OutputStream compress(OutputStream output)
+                throws IOException
+        {
+            return new GZIPOutputStream(output, BUFFER_SIZE);
+        }
+    },
+    /**
+     * zlib format, the same as written by Hadoop {@code DefaultCodec}
+     */
+    DEFLATE(".deflate") {
+        @Override
+        OutputStream compress(OutputStream output)
+        {
+            // stream does not end a deflater it was given, so release its native memory on close
+            return new DeflaterOutputStream(output, new Deflater(), BUFFER_SIZE)
+            {
+                @Override
+                public void close()
+                        throws IOException
+                {
+                    try {
+                        super.close();
+                    }
+                    finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String fileExtension;
+
+    TextDataCompression(String fileExtension)
+    {
+        this.fileExtension = fileExtension;
+    }
+
+    public String getFileExtension()
+    {
+        return fileExtension;
+    }
+
+    abstract OutputStream compress(OutputStream output)
+            throws IOException;
+
+    public static TextDataCompression fromString(String value)
+    {
+        return valueOf(value.toUpperCase(ENGLISH));
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Request body of a file upload, written to the connection with a fixed size buffer, so memory used by an upload
+ * does not depend on the size of the file. Content of unknown length is sent with chunked transfer encoding.
+ */
+class UploadEntity
+        extends AbstractHttpEntity
+{
+    private static final Logger logger = getLogger(UploadEntity.class);
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RepeatableContentProducer contentProducer;
+    private final long length;
+    private final boolean repeatable;
+    private final AtomicBoolean consumed = new AtomicBoolean();
+    private volatile long bytesWritten;
+
+    /**
+     * Entity which streams given input once.
+     */
+    static UploadEntity streaming(InputStream input)
+    {
+        requireNonNull(input, "input is null");
+        return new UploadEntity(() -> input, -1, false);
+    }
+
+    /**
+     * Entity which streams content of given producer, once for every attempt to send the request.
+     */
+    static UploadEntity repeatable(RepeatableContentProducer contentProducer)
+    {
+        return new UploadEntity(contentProducer, -1, true);
+    }
+
+    /**
+     * Entity which sends given file; the file can be read for every attempt to send the request.
+     */
+    static UploadEntity ofFile(Path file)
+            throws IOException
+    {
+        requireNonNull(file, "file is null");
+        return new UploadEntity(() -> Channels.newInputStream(FileChannel.open(file, READ)), Files.size(file), true);
+    }
+
+    /**
+     * Copies given input into a local file through a direct buffer of {@link #BUFFER_SIZE}, so the upload can be
+     * repeated without keeping its content in heap.
+     *
+     * @return number of bytes spooled
+     */
+    static long spool(InputStream input, Path file)
+            throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long bytes = 0;
+        try (ReadableByteChannel source = Channels.newChannel(input);
+                FileChannel target = FileChannel.open(file, WRITE)) {
+            while (source.read(buffer) >= 0 || buffer.position() > 0) {
+                buffer.flip();
+                bytes += target.write(buffer);
+                buffer.compact();
+            }
+        }
+        logger.debug("Spooled {} bytes of upload to {}", bytes, file);
+        return bytes;
+    }
+
+    private UploadEntity(RepeatableContentProducer contentProducer, long length, boolean repeatable)
+    {
+        this.contentProducer = requireNonNull(contentProducer, "contentProducer is null");
+        this.length = length;
+        this.repeatable = repeatable;
+        setChunked(length < 0);
+    }
+
+    @Override
+    public boolean isRepeatable()
+    {
+        return repeatable;
+    }
+
+    @Override
+    public long getContentLength()
+    {
+        return length;
+    }
+
+    @Override
+    public InputStream getContent()
+            throws IOException
+    {
+        checkState(repeatable || !consumed.getAndSet(true), "Content of a streaming upload can be read only once");
+        return contentProducer.getInputStream();
+    }
+
+    @Override
+    public void writeTo(OutputStream output)
+            throws IOException
+    {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long bytes = 0;
+        try (InputStream input = getContent()) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+                bytes += read;
+            }
+        }
+        output.flush();
+        bytesWritten = bytes;
+    }
+
+    @Override
+    public boolean isStreaming()
+    {
+        return !repeatable;
+    }
+
+    /**
+     * @return number of bytes written by the last attempt to send the entity
+     */
+    long getBytesWritten()
+    {
+        return bytesWritten;
+    }
+}
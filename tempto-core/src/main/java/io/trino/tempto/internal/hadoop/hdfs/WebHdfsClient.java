@@ -14,14 +14,20 @@
 
 package io.trino.tempto.internal.hadoop.hdfs;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import io.trino.tempto.hadoop.hdfs.HdfsClient;
 import org.apache.commons.io.IOUtils;
-import org.apache.http.HttpEntity;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -30,10 +36,6 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.entity.BufferedHttpEntity;
-import org.apache.http.entity.ContentProducer;
-import org.apache.http.entity.EntityTemplate;
-import org.apache.http.entity.InputStreamEntity;
 import org.slf4j.Logger;
 
 import java.io.IOException;
@@ -41,18 +43,29 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Maps.transformValues;
+import static io.trino.tempto.internal.FailureCollector.awaitAll;
 import static java.lang.String.format;
 import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.commons.io.FileUtils.byteCountToDisplaySize;
-import static org.apache.commons.io.IOUtils.copyLarge;
 import static org.apache.http.HttpStatus.SC_CREATED;
 import static org.apache.http.HttpStatus.SC_NOT_FOUND;
 import static org.apache.http.HttpStatus.SC_OK;
@@ -70,6 +83,9 @@ public class WebHdfsClient
     public static final String CONF_HDFS_WEBHDFS_URI_KEY = "hdfs.webhdfs.uri";
     public static final String CONF_HDFS_USERNAME_KEY = "hdfs.username";
     public static final String CONF_HDFS_PASSWORD_KEY = "hdfs.webhdfs.password";
+    public static final String CONF_HDFS_BULK_PARALLELISM_KEY = "hdfs.webhdfs.bulk_parallelism";
+
+    private static final int DEFAULT_BULK_PARALLELISM = 16;
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private static final TypeReference<Map<String, Object>> MAP_TYPE_REFERENCE = new TypeReference<Map<String, Object>>() {};
@@ -77,6 +93,11 @@ public class WebHdfsClient
     private final URI uri;
     private final String username;
     private final HttpRequestsExecutor httpRequestsExecutor;
+    private int bulkParallelism = DEFAULT_BULK_PARALLELISM;
+    private final Supplier<ExecutorService> bulkExecutor = Suppliers.memoize(() -> newFixedThreadPool(bulkParallelism, new ThreadFactoryBuilder()
+            .setNameFormat("webhdfs-bulk-%s")
+            .setDaemon(true)
+            .build()));
 
     @Inject
     public WebHdfsClient(
@@ -89,6 +110,16 @@ public class WebHdfsClient
         this.httpRequestsExecutor = checkNotNull(httpRequestsExecutor, "username is null");
     }
 
+    /**
+     * @param bulkParallelism number of concurrent requests of bulk operations, like {@link #delete(Collection)}
+     */
+    @Inject(optional = true)
+    public void setBulkParallelism(@Named(CONF_HDFS_BULK_PARALLELISM_KEY) int bulkParallelism)
+    {
+        checkArgument(bulkParallelism > 0, "bulkParallelism must be positive: %s", bulkParallelism);
+        this.bulkParallelism = bulkParallelism;
+    }
+
     @Override
     public void createDirectory(String path)
     {
@@ -120,33 +151,76 @@ public class WebHdfsClient
         }
     }
 
+    @Override
+    public void delete(Collection<String> paths)
+    {
+        forEachInParallel(paths, path -> {
+            delete(path);
+            return path;
+        });
+    }
+
+    /**
+     * Runs given operation for every distinct path, with at most {@value #CONF_HDFS_BULK_PARALLELISM_KEY} requests
+     * at a time. All operations are completed before the first failure is thrown, with the other failures suppressed.
+     */
+    private <T> Map<String, T> forEachInParallel(Collection<String> paths, Function<String, T> operation)
+    {
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String path : ImmutableSet.copyOf(paths)) {
+            futures.put(path, bulkExecutor.get().submit(() -> operation.apply(path)));
+        }
+
+        awaitAll(futures.values(), "running HDFS requests");
+        return ImmutableMap.copyOf(transformValues(futures, Futures::getUnchecked));
+    }
+
+    /**
+     * Streams given input to HDFS with a fixed size buffer. When the request body may have to be sent more than once
+     * (see {@link HttpRequestsExecutor#requiresRepeatableEntities()}), the input is spooled to a local temporary
+     * file first, so it is never held in heap.
+     */
     @Override
     public void saveFile(String path, InputStream input)
     {
+        if (!httpRequestsExecutor.requiresRepeatableEntities()) {
+            saveFile(path, UploadEntity.streaming(input));
+            return;
+        }
+
+        Path spoolFile = null;
         try {
-            saveFile(path, new BufferedHttpEntity(new InputStreamEntity(input)));
+            spoolFile = Files.createTempFile("tempto-webhdfs-upload", ".tmp");
+            UploadEntity.spool(input, spoolFile);
+            saveFile(path, UploadEntity.ofFile(spoolFile));
         }
         catch (IOException e) {
-            throw new RuntimeException("Could not create buffered http entity", e);
+            throw new RuntimeException("Could not spool upload of " + path + " to a local file", e);
+        }
+        finally {
+            if (spoolFile != null) {
+                deleteSpoolFile(spoolFile);
+            }
         }
     }
 
-    @Override
-    public void saveFile(String path, RepeatableContentProducer repeatableContentProducer)
+    private static void deleteSpoolFile(Path spoolFile)
     {
-        saveFile(path, new EntityTemplate(toApacheContentProducer(repeatableContentProducer)));
+        try {
+            Files.deleteIfExists(spoolFile);
+        }
+        catch (IOException e) {
+            logger.warn("Could not delete upload spool file {}", spoolFile, e);
+        }
     }
 
-    private ContentProducer toApacheContentProducer(RepeatableContentProducer repeatableContentProducer)
+    @Override
+    public void saveFile(String path, RepeatableContentProducer repeatableContentProducer)
     {
-        return (OutputStream outputStream) -> {
-            try (InputStream inputStream = repeatableContentProducer.getInputStream()) {
-                copyLarge(inputStream, outputStream);
-            }
-        };
+        saveFile(path, UploadEntity.repeatable(repeatableContentProducer));
     }
 
-    private void saveFile(String path, HttpEntity entity)
+    private void saveFile(String path, UploadEntity entity)
     {
         String writeRedirectUri = executeAndGetRedirectUri(new HttpPut(
                 buildUri(path, "CREATE", ImmutableMap.of("overwrite", "true"))));
@@ -154,12 +228,21 @@ public class WebHdfsClient
         writeRequest.addHeader("content-type", "application/octet-stream");
         writeRequest.setEntity(entity);
 
+        long start = System.nanoTime();
         try (CloseableHttpResponse response = httpRequestsExecutor.execute(writeRequest)) {
             if (response.getStatusLine().getStatusCode() != SC_CREATED) {
                 throw invalidStatusException("CREATE", path, writeRequest, response);
             }
+            long uploadNanos = System.nanoTime() - start;
             long length = waitForFileSavedAndReturnLength(path);
-            logger.debug("Saved file {} - username: {}, size: {}", path, username, byteCountToDisplaySize(length));
+            if (logger.isDebugEnabled()) {
+                logger.debug(
+                        "Saved file {} - username: {}, size: {}, throughput: {}/s",
+                        path,
+                        username,
+                        byteCountToDisplaySize(length),
+                        byteCountToDisplaySize((long) (entity.getBytesWritten() / (Math.max(uploadNanos, 1) / (double) SECONDS.toNanos(1)))));
+            }
         }
         catch (IOException e) {
             throw new RuntimeException("Could not save file " + path + " in hdfs, user: " + username, e);
@@ -185,7 +268,6 @@ public class WebHdfsClient
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public List<String> listDirectory(String path)
     {
         HttpGet request = new HttpGet(buildUri(path, "LISTSTATUS", emptyMap()));
@@ -194,17 +276,37 @@ public class WebHdfsClient
             if (statusCode != SC_OK) {
                 throw invalidStatusException("LISTSTATUS", path, request, response);
             }
-            Map<String, Object> responseObject = deserializeJsonResponse(response);
-            List<Map<String, Object>> fileStatuses = (List<Map<String, Object>>) ((Map<String, Object>) responseObject.get("FileStatuses")).get("FileStatus");
-            return fileStatuses.stream()
-                    .map(entry -> (String) entry.get("pathSuffix"))
-                    .collect(toImmutableList());
+            return readPathSuffixes(response.getEntity().getContent());
         }
         catch (IOException e) {
             throw new RuntimeException("Could not list: " + path + " , user: " + username, e);
         }
     }
 
+    @Override
+    public Map<String, List<String>> listDirectories(Collection<String> paths)
+    {
+        return forEachInParallel(paths, this::listDirectory);
+    }
+
+    /**
+     * Reads names of directory entries from a LISTSTATUS response token by token, so statuses of a large
+     * directory are never materialized.
+     */
+    private static List<String> readPathSuffixes(InputStream content)
+            throws IOException
+    {
+        ImmutableList.Builder<String> pathSuffixes = ImmutableList.builder();
+        try (JsonParser parser = MAPPER.getFactory().createParser(content)) {
+            for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                if (token == JsonToken.FIELD_NAME && parser.currentName().equals("pathSuffix")) {
+                    pathSuffixes.add(parser.nextTextValue());
+                }
+            }
+        }
+        return pathSuffixes.build();
+    }
+
     private Object getAttributeValue(String path, String attribute)
     {
         HttpGet readRequest = new HttpGet(buildUri(path, "GETFILESTATUS", emptyMap()));
@@ -433,6 +535,8 @@ public class WebHdfsClient
     private Map<String, Object> deserializeJsonResponse(HttpResponse response)
             throws IOException
     {
-        return MAPPER.readValue(IOUtils.toString(response.getEntity().getContent()), MAP_TYPE_REFERENCE);
+        try (InputStream content = response.getEntity().getContent()) {
+            return MAPPER.readValue(content, MAP_TYPE_REFERENCE);
+        }
     }
 }
@@ -25,11 +25,24 @@ public class RequirementsAwareTestNGMethod
         extends DelegateTestNGMethod
 {
     private final Set<Requirement> requirements;
+    private final int requirementsVariant;
+    private final int requirementsVariantsCount;
 
     public RequirementsAwareTestNGMethod(ITestNGMethod delegate, Set<Requirement> requirements)
+    {
+        this(delegate, requirements, 0, 1);
+    }
+
+    /**
+     * @param requirementsVariant index of the requirements set, when the test method is run once for each of
+     * {@code requirementsVariantsCount} requirements sets
+     */
+    public RequirementsAwareTestNGMethod(ITestNGMethod delegate, Set<Requirement> requirements, int requirementsVariant, int requirementsVariantsCount)
     {
         super(delegate);
         this.requirements = requirements;
+        this.requirementsVariant = requirementsVariant;
+        this.requirementsVariantsCount = requirementsVariantsCount;
     }
 
     public Set<Requirement> getRequirements()
@@ -37,6 +50,16 @@ public class RequirementsAwareTestNGMethod
         return requirements;
     }
 
+    public int getRequirementsVariant()
+    {
+        return requirementsVariant;
+    }
+
+    public int getRequirementsVariantsCount()
+    {
+        return requirementsVariantsCount;
+    }
+
     @Override
     public ITestNGMethod clone()
     {
@@ -46,6 +69,6 @@ public class RequirementsAwareTestNGMethod
         // method's test class to ITestClassConfigInfo, so leaving the NoOpTestClass in place fails with a
         // ClassCastException. Restore the original (config-aware) ITestClass on the clone.
         clonedDelegate.setTestClass(super.delegate.getTestClass());
-        return new RequirementsAwareTestNGMethod(clonedDelegate, newHashSet(requirements));
+        return new RequirementsAwareTestNGMethod(clonedDelegate, newHashSet(requirements), requirementsVariant, requirementsVariantsCount);
     }
 }
@@ -21,6 +21,7 @@ import io.trino.tempto.Requirements;
 import io.trino.tempto.internal.DataProviders;
 import io.trino.tempto.internal.RequirementsCollector;
 import io.trino.tempto.internal.TestSpecificRequirementsResolver;
+import io.trino.tempto.internal.listeners.TestDurationHistory;
 import org.testng.IMethodInstance;
 import org.testng.IMethodInterceptor;
 import org.testng.ITestContext;
@@ -41,6 +42,9 @@ import static io.trino.tempto.internal.configuration.TestConfigurationFactory.te
  * <p>
  * Each of RequirementAwareTestNGMethods have one requirement set attached from {@link CompositeRequirement}
  * returned by {@link RequirementsCollector} for given test method.
+ * <p>
+ * When {@value TestDurationHistory#HISTORY_FILE_KEY} is configured, methods are ordered by their
+ * duration in previous runs, longest first.
  */
 public class RequirementsExpanderInterceptor
         implements IMethodInterceptor
@@ -48,12 +52,14 @@ public class RequirementsExpanderInterceptor
     private static final String METHODS_COUNT_KEY = "RequirementsExpander.methods.count";
 
     private final TestSpecificRequirementsResolver testSpecificRequirementsResolver;
+    private final Optional<TestDurationHistory> durationHistory;
 
     private volatile int seenMethodsCount;
 
     public RequirementsExpanderInterceptor()
     {
         this.testSpecificRequirementsResolver = new TestSpecificRequirementsResolver(testConfiguration());
+        this.durationHistory = TestDurationHistory.fromConfiguration(testConfiguration());
     }
 
     public static int getMethodsCountFromContext(ITestContext context)
@@ -81,7 +87,9 @@ public class RequirementsExpanderInterceptor
         }
 
         context.setAttribute(METHODS_COUNT_KEY, seenMethodsCount);
-        return allExpandedMethods;
+        return durationHistory
+                .map(history -> history.orderLongestFirst(allExpandedMethods))
+                .orElse(allExpandedMethods);
     }
 
     private void incrementSeenMethodsCount(List<IMethodInstance> newExpandedMethods)
@@ -110,13 +118,14 @@ public class RequirementsExpanderInterceptor
             extendedMethods.add(new MethodInstance(new RequirementsAwareTestNGMethod(method.getMethod(), getOnlyElement(testSpecificRequirements))));
         }
         else {
+            int requirementsVariant = 0;
             for (Set<Requirement> requirementSet : testSpecificRequirements) {
                 TestNGMethod clonedMethod = (TestNGMethod) method.getMethod().clone();
                 // TestNGMethod.clone() resets the test class to a bare NoOpTestClass (not an
                 // ITestClassConfigInfo), which breaks TestNG's @BeforeClass handling with a ClassCastException.
                 // Restore the original (config-aware) ITestClass on the clone.
                 clonedMethod.setTestClass(method.getMethod().getTestClass());
-                extendedMethods.add(new MethodInstance(new RequirementsAwareTestNGMethod(clonedMethod, requirementSet)));
+                extendedMethods.add(new MethodInstance(new RequirementsAwareTestNGMethod(clonedMethod, requirementSet, requirementsVariant++, testSpecificRequirements.size())));
             }
         }
         return extendedMethods;
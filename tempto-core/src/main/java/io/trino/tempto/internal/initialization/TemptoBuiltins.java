@@ -30,7 +30,10 @@ import io.trino.tempto.internal.fulfillment.command.TestCommandFulfiller;
 import io.trino.tempto.internal.fulfillment.resources.SuiteResourceFulfiller;
 import io.trino.tempto.internal.fulfillment.resources.TestResourceFulfiller;
 import io.trino.tempto.internal.fulfillment.table.ImmutableTablesFulfiller;
+import io.trino.tempto.internal.fulfillment.table.MutableTableDropQueueFulfiller;
+import io.trino.tempto.internal.fulfillment.table.MutableTablePoolFulfiller;
 import io.trino.tempto.internal.fulfillment.table.MutableTablesFulfiller;
+import io.trino.tempto.internal.fulfillment.table.StaleMutableTablesFulfiller;
 import io.trino.tempto.internal.fulfillment.table.TableManagerDispatcherModuleProvider;
 import io.trino.tempto.internal.fulfillment.table.cassandra.CassandraTableManager;
 import io.trino.tempto.internal.fulfillment.table.hive.HiveTableManager;
@@ -49,7 +52,10 @@ public class TemptoBuiltins
     public List<Class<? extends RequirementFulfiller>> getFulfillers()
     {
         return ImmutableList.of(
+                StaleMutableTablesFulfiller.class,
                 ImmutableTablesFulfiller.class,
+                MutableTableDropQueueFulfiller.class,
+                MutableTablePoolFulfiller.class,
                 SuiteCommandFulfiller.class,
                 MutableTablesFulfiller.class,
                 TestCommandFulfiller.class,
@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.initialization;
+
+import io.trino.tempto.internal.listeners.TestMetadataReader;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decides whether a test invocation is run by this JVM, when tests are distributed among several worker JVMs.
+ * <p>
+ * Every worker iterates over all selected tests and claims each of them right before it is set up. A test which
+ * was already claimed by another worker is skipped with {@link ClaimedByOtherWorkerException}, before any of
+ * its requirements are fulfilled. By default, every test is claimed.
+ * <p>
+ * A test method run once for each requirements set of {@link io.trino.tempto.Requirements#allOf} is claimed as
+ * a whole, by the first of its invocations, and all its invocations are run by the worker which claimed it. The
+ * order of requirements sets is not guaranteed to be the same in all worker JVMs, so an invocation of one
+ * requirements set cannot be told apart from the others in a way all workers agree on.
+ */
+public final class TestClaims
+{
+    private static final TestMetadataReader TEST_METADATA_READER = new TestMetadataReader();
+
+    private static volatile Optional<Predicate<String>> claimer = Optional.empty();
+    // claim decisions of this worker, by claim name
+    private static final Map<String, Boolean> claims = new ConcurrentHashMap<>();
+
+    private TestClaims() {}
+
+    public static void setClaimer(Predicate<String> claimer)
+    {
+        TestClaims.claimer = Optional.of(requireNonNull(claimer, "claimer is null"));
+    }
+
+    static void clearClaimer()
+    {
+        claimer = Optional.empty();
+        claims.clear();
+    }
+
+    static void claim(ITestResult testResult)
+    {
+        Optional<Predicate<String>> claimer = TestClaims.claimer;
+        if (claimer.isPresent() && !claims.computeIfAbsent(getClaimName(testResult), claimer.get()::test)) {
+            throw new ClaimedByOtherWorkerException();
+        }
+    }
+
+    /**
+     * @return true if the test invocation is run by this worker
+     */
+    public static boolean isClaimed(ITestResult testResult)
+    {
+        return claimer.isEmpty() || claims.getOrDefault(getClaimName(testResult), false);
+    }
+
+    /**
+     * @return name under which the test is claimed, suffixed with data provider parameters index, the same in all
+     * worker JVMs
+     */
+    public static String getClaimName(ITestResult testResult)
+    {
+        return getTestName(testResult) + getParametersSuffix(testResult);
+    }
+
+    /**
+     * @return number of invocations run under the claim of given test invocation, one for each requirements set
+     */
+    public static int getInvocationsPerClaim(ITestResult testResult)
+    {
+        if (testResult.getMethod() instanceof RequirementsAwareTestNGMethod requirementsAwareMethod) {
+            return requirementsAwareMethod.getRequirementsVariantsCount();
+        }
+        return 1;
+    }
+
+    /**
+     * @return name of the test invocation, which unlike {@link #getClaimName(ITestResult)} tells apart invocations
+     * of different requirements sets
+     */
+    public static String getInvocationName(ITestResult testResult)
+    {
+        return getTestName(testResult) + getInvocationSuffix(testResult);
+    }
+
+    /**
+     * @return suffix telling apart invocations of the same test method, with requirements set and data provider
+     * parameters index, or empty string for a method invoked once
+     */
+    public static String getInvocationSuffix(ITestResult testResult)
+    {
+        String requirementsSuffix = "";
+        ITestNGMethod method = testResult.getMethod();
+        if (method instanceof RequirementsAwareTestNGMethod requirementsAwareMethod && requirementsAwareMethod.getRequirementsVariantsCount() > 1) {
+            requirementsSuffix = "[requirements-" + requirementsAwareMethod.getRequirementsVariant() + "]";
+        }
+        return requirementsSuffix + getParametersSuffix(testResult);
+    }
+
+    private static String getTestName(ITestResult testResult)
+    {
+        return TEST_METADATA_READER.readTestMetadata(testResult.getMethod()).testName;
+    }
+
+    private static String getParametersSuffix(ITestResult testResult)
+    {
+        if (testResult.getParameters().length == 0) {
+            return "";
+        }
+        return "[" + testResult.getParameterIndex() + "]";
+    }
+
+    public static class ClaimedByOtherWorkerException
+            extends SkipException
+    {
+        ClaimedByOtherWorkerException()
+        {
+            super("Test is run by another worker");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace()
+        {
+            // thrown for almost every test in every worker, stack trace is not useful
+            return this;
+        }
+    }
+}
@@ -38,6 +38,9 @@ import io.trino.tempto.internal.ReflectionInjectorHelper;
 import io.trino.tempto.internal.TestSpecificRequirementsResolver;
 import io.trino.tempto.internal.context.GuiceTestContext;
 import io.trino.tempto.internal.context.TestContextStack;
+import io.trino.tempto.internal.jfr.FulfillmentEvent;
+import io.trino.tempto.internal.jfr.TestContextCreationEvent;
+import io.trino.tempto.internal.listeners.TestTimings;
 import org.slf4j.Logger;
 import org.testng.IInvokedMethod;
 import org.testng.IInvokedMethodListener;
@@ -73,8 +76,11 @@ import static io.trino.tempto.context.ThreadLocalTestContextHolder.testContextIf
 import static io.trino.tempto.fulfillment.TestStatus.FAILURE;
 import static io.trino.tempto.fulfillment.TestStatus.SUCCESS;
 import static io.trino.tempto.internal.configuration.TestConfigurationFactory.testConfiguration;
+import static io.trino.tempto.internal.listeners.TestTimings.suiteTimingsFor;
+import static io.trino.tempto.internal.listeners.TestTimings.timingsFor;
 import static io.trino.tempto.internal.logging.LoggingMdcHelper.cleanLoggingMdc;
 import static io.trino.tempto.internal.logging.LoggingMdcHelper.setupLoggingMdcForTest;
+import static java.lang.System.nanoTime;
 import static java.util.Collections.emptyList;
 import static java.util.Comparator.comparing;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -139,13 +145,19 @@ public class TestInitializationListener
         displayConfigurationToUser();
 
         Module suiteModule = combine(combine(getSuiteModules()), bind(suiteLevelFulfillers), bind(testMethodLevelFulfillers));
+        TestContextCreationEvent contextCreationEvent = new TestContextCreationEvent("");
+        TestTimings suiteTimings = suiteTimingsFor(context);
+        long contextCreationStartNanos = nanoTime();
+        contextCreationEvent.begin();
         GuiceTestContext initSuiteTestContext = new GuiceTestContext(suiteModule);
+        contextCreationEvent.commit();
+        suiteTimings.addContextCreation(nanoTime() - contextCreationStartNanos);
         TestContextStack<TestContext> suiteTextContextStack = new TestContextStack<>();
         suiteTextContextStack.push(initSuiteTestContext);
 
         try {
             Set<Requirement> allTestsRequirements = resolveAllTestsRequirements(context);
-            doFulfillment(suiteTextContextStack, suiteLevelFulfillers, allTestsRequirements);
+            doFulfillment(suiteTextContextStack, suiteLevelFulfillers, allTestsRequirements, suiteTimings);
         }
         catch (RuntimeException e) {
             // Do not rethrow: TestNG >= 7.9 hangs the whole suite when a listener throws during
@@ -177,7 +189,7 @@ public class TestInitializationListener
         }
 
         TestStatus testStatus = context.getFailedTests().size() > 0 ? FAILURE : SUCCESS;
-        doCleanup(suiteTestContextStack.get(), suiteLevelFulfillers, testStatus);
+        doCleanup(suiteTestContextStack.get(), suiteLevelFulfillers, testStatus, suiteTimingsFor(context));
     }
 
     /**
@@ -197,17 +209,25 @@ public class TestInitializationListener
             return;
         }
 
+        // claim before any setup, tests run by other worker JVMs are skipped
+        TestClaims.claim(testResult);
         setupLoggingMdcForTest(testResult);
         if (!suiteTestContextStack.isPresent()) {
             throw new SuiteInitializationException("test suite not initialized");
         }
+        TestContextCreationEvent contextCreationEvent = new TestContextCreationEvent(testResult.getTestClass().getName() + "." + testResult.getMethod().getMethodName());
+        TestTimings timings = timingsFor(testResult);
+        long contextCreationStartNanos = nanoTime();
+        contextCreationEvent.begin();
         GuiceTestContext initTestContext = ((GuiceTestContext) suiteTestContextStack.get().peek()).createChildContext(emptyList(), getTestModules(testResult));
+        contextCreationEvent.commit();
+        timings.addContextCreation(nanoTime() - contextCreationStartNanos);
         TestContextStack<TestContext> testContextStack = new TestContextStack<>();
         testContextStack.push(initTestContext);
 
         try {
             Set<Requirement> testSpecificRequirements = getTestSpecificRequirements(testResult.getMethod());
-            doFulfillment(testContextStack, testMethodLevelFulfillers, testSpecificRequirements);
+            doFulfillment(testContextStack, testMethodLevelFulfillers, testSpecificRequirements, timings);
         }
         catch (RuntimeException e) {
             LOGGER.debug("error within test initialization", e);
@@ -220,6 +240,7 @@ public class TestInitializationListener
         topTestContext.injectMembers(testResult.getInstance());
 
         runBeforeWithContextMethods(testResult, topTestContext);
+        timings.testBodyStarted();
     }
 
     @Override
@@ -228,6 +249,7 @@ public class TestInitializationListener
         if (!method.isTestMethod()) {
             return;
         }
+        timingsFor(testResult).testBodyFinished();
         if (testResult.getStatus() == ITestResult.FAILURE) {
             LOGGER.debug("test failure", testResult.getThrowable());
         }
@@ -241,28 +263,35 @@ public class TestInitializationListener
             return;
         }
 
+        TestTimings timings = timingsFor(testResult);
         boolean runAfterSucceeded = false;
+        long afterMethodsStartNanos = nanoTime();
         try {
             runAfterWithContextMethods(testResult, testContext());
             runAfterSucceeded = true;
         }
         finally {
+            timings.addAfterMethods(nanoTime() - afterMethodsStartNanos);
             TestContextStack<TestContext> testContextStack = popAllTestContexts();
-            doCleanup(testContextStack, testMethodLevelFulfillers, runAfterSucceeded ? testStatus : FAILURE);
+            doCleanup(testContextStack, testMethodLevelFulfillers, runAfterSucceeded ? testStatus : FAILURE, timings);
             cleanLoggingMdc();
         }
     }
 
     private void runBeforeWithContextMethods(ITestResult testResult, TestContext testContext)
     {
+        TestTimings timings = timingsFor(testResult);
+        long beforeMethodsStartNanos = nanoTime();
         try {
             invokeMethodsAnnotatedWith(BeforeMethodWithContext.class, testResult, testContext, ClassOrdering.SUPER_FIRST);
         }
         catch (RuntimeException e) {
+            timings.addBeforeMethods(nanoTime() - beforeMethodsStartNanos);
             TestContextStack<TestContext> testContextStack = popAllTestContexts();
-            doCleanup(testContextStack, testMethodLevelFulfillers, FAILURE);
+            doCleanup(testContextStack, testMethodLevelFulfillers, FAILURE, timings);
             throw e;
         }
+        timings.addBeforeMethods(nanoTime() - beforeMethodsStartNanos);
     }
 
     private void runAfterWithContextMethods(ITestResult testResult, TestContext testContext)
@@ -302,7 +331,8 @@ public class TestInitializationListener
     private void doFulfillment(
             TestContextStack<TestContext> testContextStack,
             List<Class<? extends RequirementFulfiller>> fulfillerClasses,
-            Set<Requirement> requirements)
+            Set<Requirement> requirements,
+            TestTimings timings)
     {
         List<Class<? extends RequirementFulfiller>> successfulFulfillerClasses = new ArrayList<>();
 
@@ -310,18 +340,28 @@ public class TestInitializationListener
             for (Class<? extends RequirementFulfiller> fulfillerClass : fulfillerClasses) {
                 LOGGER.debug("Fulfilling using {}", fulfillerClass);
                 TestContext testContext = testContextStack.peek();
-                runWithTestContext(testContext, () -> {
-                    RequirementFulfiller fulfiller = testContext.getDependency(fulfillerClass);
-                    TestContext testContextWithNewStates = testContext.createChildContext(fulfiller.fulfill(requirements));
-                    successfulFulfillerClasses.add(fulfillerClass);
-                    testContextStack.push(testContextWithNewStates);
-                });
+                FulfillmentEvent event = new FulfillmentEvent(fulfillerClass, "FULFILL", isSuiteLevel(fulfillerClass))
+                        .setRequirementsCount(requirements.size());
+                long fulfillmentStartNanos = nanoTime();
+                event.begin();
+                try {
+                    runWithTestContext(testContext, () -> {
+                        RequirementFulfiller fulfiller = testContext.getDependency(fulfillerClass);
+                        TestContext testContextWithNewStates = testContext.createChildContext(fulfiller.fulfill(requirements));
+                        successfulFulfillerClasses.add(fulfillerClass);
+                        testContextStack.push(testContextWithNewStates);
+                    });
+                }
+                finally {
+                    event.commit();
+                    timings.addFulfillment(fulfillerClass, nanoTime() - fulfillmentStartNanos);
+                }
             }
         }
         catch (RuntimeException e) {
             LOGGER.debug("error during fulfillment", e);
             try {
-                doCleanup(testContextStack, successfulFulfillerClasses, FAILURE);
+                doCleanup(testContextStack, successfulFulfillerClasses, FAILURE, timings);
             }
             catch (RuntimeException cleanupException) {
                 e.addSuppressed(cleanupException);
@@ -330,16 +370,20 @@ public class TestInitializationListener
         }
     }
 
-    private void doCleanup(TestContextStack<TestContext> testContextStack, List<Class<? extends RequirementFulfiller>> fulfillerClasses, TestStatus testStatus)
+    private void doCleanup(TestContextStack<TestContext> testContextStack, List<Class<? extends RequirementFulfiller>> fulfillerClasses, TestStatus testStatus, TestTimings timings)
     {
+        long cleanupStartNanos = nanoTime();
         // one base test context plus one test context for each fulfiller
         checkState(testContextStack.size() == fulfillerClasses.size() + 1);
 
         for (Class<? extends RequirementFulfiller> fulfillerClass : reverse(fulfillerClasses)) {
             LOGGER.debug("Cleaning for fulfiller {}", fulfillerClass);
+            FulfillmentEvent event = new FulfillmentEvent(fulfillerClass, "CLEANUP", isSuiteLevel(fulfillerClass));
+            event.begin();
             TestContext testContext = testContextStack.pop();
             testContext.close();
             runWithTestContext(testContext, () -> testContextStack.peek().getDependency(fulfillerClass).cleanup(testStatus));
+            event.commit();
         }
 
         if (testContextStack.size() == 1) {
@@ -350,6 +394,12 @@ public class TestInitializationListener
 
         // remove close init test context too
         testContextStack.peek().close();
+        timings.addCleanup(nanoTime() - cleanupStartNanos);
+    }
+
+    private static boolean isSuiteLevel(Class<? extends RequirementFulfiller> fulfillerClass)
+    {
+        return fulfillerClass.isAnnotationPresent(SuiteLevelFulfiller.class);
     }
 
     private List<Module> getSuiteModules()
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.trino.tempto.Fulfillment")
+@Label("Requirement Fulfillment")
+@Description("Fulfillment or cleanup of requirements by a single fulfiller")
+@Category({"Tempto", "Initialization"})
+public class FulfillmentEvent
+        extends Event
+{
+    @Label("Fulfiller")
+    private String fulfiller;
+
+    @Label("Phase")
+    @Description("FULFILL or CLEANUP")
+    private String phase;
+
+    @Label("Suite Level")
+    private boolean suiteLevel;
+
+    @Label("Requirements")
+    @Description("Number of requirements passed to the fulfiller, 0 for cleanup")
+    private int requirementsCount;
+
+    public FulfillmentEvent(Class<?> fulfillerClass, String phase, boolean suiteLevel)
+    {
+        this.fulfiller = fulfillerClass.getName();
+        this.phase = phase;
+        this.suiteLevel = suiteLevel;
+    }
+
+    public FulfillmentEvent setRequirementsCount(int requirementsCount)
+    {
+        this.requirementsCount = requirementsCount;
+        return this;
+    }
+}
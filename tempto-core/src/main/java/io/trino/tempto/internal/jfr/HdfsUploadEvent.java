@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.trino.tempto.HdfsUpload")
+@Label("HDFS Upload")
+@Description("Upload of a Hive data source to HDFS")
+@Category({"Tempto", "Tables"})
+public class HdfsUploadEvent
+        extends Event
+{
+    @Label("Path")
+    private String path;
+
+    @Label("Data Source")
+    private String dataSource;
+
+    @Label("Files")
+    private int fileCount;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    public HdfsUploadEvent(String path, String dataSource)
+    {
+        this.path = path;
+        this.dataSource = dataSource;
+    }
+
+    public synchronized void addFile(long fileBytes)
+    {
+        fileCount++;
+        bytes += fileBytes;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.trino.tempto.HiveStatistics")
+@Label("Hive Statistics Injection")
+@Description("Injection of table and column statistics through the Hive metastore")
+@Category({"Tempto", "Tables"})
+public class HiveStatisticsEvent
+        extends Event
+{
+    @Label("Table Name")
+    private String tableName;
+
+    @Label("Rows")
+    private long rowCount;
+
+    @Label("Columns")
+    private int columnCount;
+
+    @Label("Retried")
+    @Description("Column statistics were retried without date columns")
+    private boolean retried;
+
+    public HiveStatisticsEvent(String tableName, long rowCount, int columnCount)
+    {
+        this.tableName = tableName;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+    }
+
+    public void setRetried()
+    {
+        this.retried = true;
+    }
+}
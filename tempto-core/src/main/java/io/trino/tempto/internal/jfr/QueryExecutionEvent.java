@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.jfr;
+
+import io.trino.tempto.query.QueryExecutionStatistics;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("io.trino.tempto.QueryExecution")
+@Label("Query Execution")
+@Description("Statement executed by a tempto query executor")
+@Category({"Tempto", "Queries"})
+public class QueryExecutionEvent
+        extends Event
+{
+    @Label("Database")
+    private String database;
+
+    @Label("SQL")
+    private String sql;
+
+    @Label("Rows")
+    private long rowCount;
+
+    @Label("Approximate Bytes")
+    @DataAmount
+    private long approximateBytes;
+
+    @Label("Materialize Time")
+    @Description("Time spent reading rows on the client, included in the event duration")
+    @Timespan
+    private long materializeNanos;
+
+    @Label("Failed")
+    private boolean failed;
+
+    /**
+     * Ends and commits the event, if the recording is interested in it.
+     */
+    public void commit(QueryExecutionStatistics statistics)
+    {
+        end();
+        if (shouldCommit()) {
+            database = statistics.getDatabase();
+            sql = statistics.getSql();
+            rowCount = statistics.getRowCount();
+            approximateBytes = statistics.getApproximateBytes();
+            materializeNanos = statistics.getMaterializeTime().toNanos();
+            failed = statistics.isFailed();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.trino.tempto.TableCreation")
+@Label("Table Creation")
+@Description("Creation of an immutable or mutable table by a table manager")
+@Category({"Tempto", "Tables"})
+public class TableCreationEvent
+        extends Event
+{
+    @Label("Database")
+    private String database;
+
+    @Label("Table Definition")
+    private String tableDefinition;
+
+    @Label("Table Manager")
+    private String tableManager;
+
+    @Label("Mutable")
+    private boolean mutable;
+
+    @Label("State")
+    @Description("Requested state of a mutable table")
+    private String state;
+
+    @Label("Table Name")
+    @Description("Name of the created table in the database")
+    private String tableName;
+
+    public TableCreationEvent(String database, String tableDefinition, Class<?> tableManagerClass, boolean mutable, String state)
+    {
+        this.database = database;
+        this.tableDefinition = tableDefinition;
+        this.tableManager = tableManagerClass.getName();
+        this.mutable = mutable;
+        this.state = state;
+    }
+
+    public TableCreationEvent setTableName(String tableName)
+    {
+        this.tableName = tableName;
+        return this;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.trino.tempto.TestContextCreation")
+@Label("Test Context Creation")
+@Description("Creation of the Guice based suite or test context, before any requirement is fulfilled")
+@Category({"Tempto", "Initialization"})
+public class TestContextCreationEvent
+        extends Event
+{
+    @Label("Test")
+    @Description("Test method name, empty for the suite context")
+    private String testName;
+
+    public TestContextCreationEvent(String testName)
+    {
+        this.testName = testName;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import io.trino.tempto.internal.convention.ConventionBasedTest;
+import io.trino.tempto.internal.convention.ConventionTestResultCache;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import static io.trino.tempto.internal.convention.ConventionTestResultCache.conventionTestResultCache;
+
+/**
+ * Records passes of convention tests and saves them into {@link ConventionTestResultCache} when
+ * {@value ConventionTestResultCache#CACHE_FILE_KEY} is configured. A pass is recorded only once TestNG reports
+ * the test as successful.
+ */
+public class ConventionTestResultCacheListener
+        implements ITestListener
+{
+    @Override
+    public void onTestSuccess(ITestResult testResult)
+    {
+        if (testResult.getInstance() instanceof ConventionBasedTest conventionBasedTest) {
+            conventionBasedTest.recordPass();
+        }
+    }
+
+    @Override
+    public void onFinish(ITestContext context)
+    {
+        conventionTestResultCache().ifPresent(ConventionTestResultCache::save);
+    }
+}
@@ -23,6 +23,7 @@ import org.testng.ITestResult;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Preconditions.checkState;
 import static io.trino.tempto.internal.initialization.RequirementsExpanderInterceptor.getMethodsCountFromContext;
@@ -34,12 +35,12 @@ public class ProgressLoggingListener
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProgressLoggingListener.class);
 
-    private int started;
-    private int succeeded;
-    private int skipped;
-    private int failed;
-    private long startTime;
-    private long testStartTime;
+    // tests are executed in parallel, listener methods may be called concurrently
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile long startTime;
 
     private final TestMetadataReader testMetadataReader;
 
@@ -58,14 +59,13 @@ public class ProgressLoggingListener
     @Override
     public void onTestStart(ITestResult testCase)
     {
-        testStartTime = currentTimeMillis();
-        started++;
+        int startedCount = started.incrementAndGet();
         // This is an ITestListener callback and TestNG (>= 7.9) invokes it from unguarded code paths
         // (e.g. when reporting skipped tests); an exception thrown here would not fail the test but
         // hang the whole suite behind a GraphOrchestrator "worker is null" NPE. Logging must never throw.
         try {
             Integer total = getMethodsCountFromContext(testCase.getTestContext());
-            LOGGER.info("[{} of {}] {}", started, total, formatTestName(testCase));
+            LOGGER.info("[{} of {}] {}", startedCount, total, formatTestName(testCase));
         }
         catch (RuntimeException e) {
             LOGGER.warn("Could not log test start for {}", testCase.getName(), e);
@@ -75,14 +75,14 @@ public class ProgressLoggingListener
     @Override
     public void onTestSuccess(ITestResult testCase)
     {
-        succeeded++;
+        succeeded.incrementAndGet();
         logTestEnd(testCase, "SUCCESS");
     }
 
     @Override
     public void onTestFailure(ITestResult testCase)
     {
-        failed++;
+        failed.incrementAndGet();
         logTestEnd(testCase, "FAILURE");
         if (testCase.getThrowable() != null) {
             LOGGER.error("Failure cause:", testCase.getThrowable());
@@ -92,13 +92,13 @@ public class ProgressLoggingListener
     @Override
     public void onTestSkipped(ITestResult testCase)
     {
-        skipped++;
+        skipped.incrementAndGet();
         LOGGER.info("SKIPPED");
     }
 
     private void logTestEnd(ITestResult testCase, String outcome)
     {
-        long executionTime = currentTimeMillis() - testStartTime;
+        long executionTime = testCase.getEndMillis() - testCase.getStartMillis();
         LOGGER.info("{}     /    {} took {}", outcome, formatTestName(testCase), formatDuration(executionTime));
     }
 
@@ -108,10 +108,10 @@ public class ProgressLoggingListener
     @Override
     public void onFinish(ITestContext context)
     {
-        checkState(succeeded + failed + skipped > 0, "No tests executed");
+        checkState(succeeded.get() + failed.get() + skipped.get() > 0, "No tests executed");
         LOGGER.info("");
-        LOGGER.info("Completed {} tests", started);
-        LOGGER.info("{} SUCCEEDED      /      {} FAILED      /      {} SKIPPED", succeeded, failed, skipped);
+        LOGGER.info("Completed {} tests", started.get());
+        LOGGER.info("{} SUCCEEDED      /      {} FAILED      /      {} SKIPPED", succeeded.get(), failed.get(), skipped.get());
         LOGGER.info("Tests execution took {}", formatDuration(currentTimeMillis() - startTime));
     }
 
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.collect.ImmutableMap;
+import io.trino.tempto.internal.initialization.TestClaims;
+import io.trino.tempto.query.QueryExecutionStatistics;
+import org.slf4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.tempto.internal.initialization.TestClaims.getInvocationSuffix;
+import static io.trino.tempto.internal.query.QueryProfileCollector.getQueryProfile;
+import static java.util.Comparator.comparing;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Writes statistics of queries collected with {@code tests.query_profile.enabled} into the TestNG output directory:
+ * {@code query-profiles/<test class>.<test method><invocation>.json} for each test invocation, with queries sorted by
+ * wall time descending, and {@code query-profiles/summary.json} with per database totals and the slowest statements
+ * of the whole suite. Invocations of the same method are told apart by requirements set and data provider parameters
+ * index, see {@link TestClaims#getInvocationSuffix(ITestResult)}. Does nothing when no queries were profiled.
+ */
+public class QueryProfileReportingListener
+        implements ITestListener, ISuiteListener
+{
+    private static final Logger LOGGER = getLogger(QueryProfileReportingListener.class);
+
+    private static final String QUERY_PROFILES_DIRECTORY = "query-profiles";
+    private static final int SLOWEST_STATEMENTS_COUNT = 20;
+    private static final Comparator<QueryExecutionStatistics> BY_WALL_TIME = comparing(QueryExecutionStatistics::getWallTime);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new Jdk8Module())
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, DatabaseQueryStatistics> databaseStatistics = new TreeMap<>();
+    private final PriorityQueue<QueryExecutionStatistics> slowestStatements = new PriorityQueue<>(BY_WALL_TIME);
+
+    @Override
+    public void onTestSuccess(ITestResult testResult)
+    {
+        reportTest(testResult);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult testResult)
+    {
+        reportTest(testResult);
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult testResult)
+    {
+        reportTest(testResult);
+    }
+
+    @Override
+    public synchronized void onFinish(ISuite suite)
+    {
+        if (databaseStatistics.isEmpty()) {
+            return;
+        }
+        Map<String, Object> summary = ImmutableMap.of(
+                "databases", databaseStatistics,
+                "slowestStatements", slowestStatements.stream()
+                        .sorted(BY_WALL_TIME.reversed())
+                        .collect(toImmutableList()));
+        writeJson(Paths.get(suite.getOutputDirectory(), QUERY_PROFILES_DIRECTORY, "summary.json"), summary);
+    }
+
+    private void reportTest(ITestResult testResult)
+    {
+        // This is an ITestListener callback, reporting must never fail the suite
+        try {
+            List<QueryExecutionStatistics> profile = getQueryProfile(testResult).stream()
+                    .sorted(BY_WALL_TIME.reversed())
+                    .collect(toImmutableList());
+            if (profile.isEmpty()) {
+                return;
+            }
+            record(profile);
+
+            String fileName = testResult.getTestClass().getName() + "." + testResult.getMethod().getMethodName() + getInvocationSuffix(testResult) + ".json";
+            writeJson(Paths.get(testResult.getTestContext().getOutputDirectory(), QUERY_PROFILES_DIRECTORY, fileName), profile);
+        }
+        catch (RuntimeException e) {
+            LOGGER.warn("Could not report query profile for {}", testResult.getName(), e);
+        }
+    }
+
+    private synchronized void record(List<QueryExecutionStatistics> profile)
+    {
+        for (QueryExecutionStatistics statistics : profile) {
+            databaseStatistics.computeIfAbsent(statistics.getDatabase(), _ -> new DatabaseQueryStatistics()).add(statistics);
+            slowestStatements.add(statistics);
+            if (slowestStatements.size() > SLOWEST_STATEMENTS_COUNT) {
+                slowestStatements.poll();
+            }
+        }
+    }
+
+    private static void writeJson(Path path, Object value)
+    {
+        try {
+            Files.createDirectories(path.getParent());
+            MAPPER.writeValue(path.toFile(), value);
+        }
+        catch (IOException e) {
+            LOGGER.warn("Could not write query profile to {}", path, e);
+        }
+    }
+
+    @JsonPropertyOrder({"count", "failedCount", "rowCount", "approximateBytes", "wallTimeMillis", "prepareTimeMillis", "executeTimeMillis", "fetchTimeMillis", "materializeTimeMillis"})
+    private static class DatabaseQueryStatistics
+    {
+        @JsonProperty
+        private long count;
+        @JsonProperty
+        private long failedCount;
+        @JsonProperty
+        private long rowCount;
+        @JsonProperty
+        private long approximateBytes;
+        @JsonProperty
+        private double wallTimeMillis;
+        @JsonProperty
+        private double prepareTimeMillis;
+        @JsonProperty
+        private double executeTimeMillis;
+        @JsonProperty
+        private double fetchTimeMillis;
+        @JsonProperty
+        private double materializeTimeMillis;
+
+        private void add(QueryExecutionStatistics statistics)
+        {
+            count++;
+            if (statistics.isFailed()) {
+                failedCount++;
+            }
+            rowCount += statistics.getRowCount();
+            approximateBytes += statistics.getApproximateBytes();
+            wallTimeMillis += statistics.getWallTimeMillis();
+            prepareTimeMillis += statistics.getPrepareTimeMillis();
+            executeTimeMillis += statistics.getExecuteTimeMillis();
+            fetchTimeMillis += statistics.getFetchTimeMillis();
+            materializeTimeMillis += statistics.getMaterializeTimeMillis();
+        }
+    }
+}
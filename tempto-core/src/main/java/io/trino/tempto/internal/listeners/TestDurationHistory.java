@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.trino.tempto.configuration.Configuration;
+import io.trino.tempto.internal.JsonMapFile;
+import io.trino.tempto.internal.initialization.RequirementsAwareTestNGMethod;
+import org.slf4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.ITestNGMethod;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Durations of tests measured in previous runs, stored in a local JSON file, used to start the longest tests first.
+ * <p>
+ * With parallel execution the suite takes at least as long as its longest test, plus whatever was started
+ * before it. Ordering tests longest first (LPT scheduling) lets short tests fill the gaps at the end of the run.
+ * Tests without history are assumed to take the median of known durations, unless
+ * {@value #DEFAULT_DURATION_KEY} is configured.
+ * <p>
+ * Durations are stored per test, summed over all its invocations, as that is the unit {@link TestShard} assigns
+ * to shards. A test run once for each of several requirements sets is ordered by its share of that sum.
+ */
+public class TestDurationHistory
+{
+    private static final Logger LOGGER = getLogger(TestDurationHistory.class);
+
+    public static final String HISTORY_FILE_KEY = "tests.duration_history.file";
+    public static final String DEFAULT_DURATION_KEY = "tests.duration_history.default_duration_millis";
+
+    private static final TypeReference<Map<String, Long>> DURATIONS = new TypeReference<>() {};
+
+    private final JsonMapFile<Long> historyFile;
+    private final Map<String, Long> previousDurations;
+    private final long defaultDurationMillis;
+    private final Map<String, Long> measuredDurations = new ConcurrentHashMap<>();
+
+    public static Optional<TestDurationHistory> fromConfiguration(Configuration configuration)
+    {
+        return configuration.getString(HISTORY_FILE_KEY)
+                .map(historyFile -> new TestDurationHistory(Paths.get(historyFile), configuration.getInt(DEFAULT_DURATION_KEY).map(Integer::longValue)));
+    }
+
+    public TestDurationHistory(Path historyFile, Optional<Long> defaultDurationMillis)
+    {
+        this.historyFile = new JsonMapFile<>(requireNonNull(historyFile, "historyFile is null"), DURATIONS);
+        this.previousDurations = this.historyFile.read();
+        this.defaultDurationMillis = requireNonNull(defaultDurationMillis, "defaultDurationMillis is null")
+                .orElseGet(() -> median(previousDurations.values()));
+    }
+
+    public long getExpectedDurationMillis(String testName)
+    {
+        return previousDurations.getOrDefault(testName, defaultDurationMillis);
+    }
+
+    /**
+     * @return methods ordered by expected duration descending; order of methods with the same duration is preserved
+     */
+    public List<IMethodInstance> orderLongestFirst(List<IMethodInstance> methods)
+    {
+        TestMetadataReader testMetadataReader = new TestMetadataReader();
+        Map<IMethodInstance, Long> expectedDurations = new IdentityHashMap<>();
+        for (IMethodInstance method : methods) {
+            expectedDurations.put(method, getExpectedDurationMillis(testMetadataReader, method.getMethod()));
+        }
+        List<IMethodInstance> orderedMethods = new ArrayList<>(methods);
+        orderedMethods.sort(comparingLong((IMethodInstance method) -> expectedDurations.get(method)).reversed());
+        return orderedMethods;
+    }
+
+    private long getExpectedDurationMillis(TestMetadataReader testMetadataReader, ITestNGMethod method)
+    {
+        long durationMillis = getExpectedDurationMillis(testMetadataReader.readTestMetadata(method).testName);
+        if (method instanceof RequirementsAwareTestNGMethod requirementsAwareMethod) {
+            // recorded duration is summed over all requirements variants, each of which is a separate method instance
+            return durationMillis / requirementsAwareMethod.getRequirementsVariantsCount();
+        }
+        return durationMillis;
+    }
+
+    /**
+     * Records duration of a single test invocation. Durations of all invocations of the same test
+     * (e.g. with data provider parameters or with different requirements sets) are summed up.
+     */
+    public void record(String testName, long durationMillis)
+    {
+        measuredDurations.merge(testName, durationMillis, Long::sum);
+    }
+
+    /**
+     * Merges durations measured in this run into the history file. A new measurement is averaged with
+     * the previous one, so a single slow run does not reorder the suite. Durations saved by other runs in the
+     * meantime, e.g. other shards, are kept.
+     */
+    public synchronized void save()
+    {
+        if (measuredDurations.isEmpty()) {
+            return;
+        }
+        try {
+            historyFile.update(durations -> measuredDurations.forEach((testName, duration) ->
+                    durations.merge(testName, duration, (previous, current) -> (previous + current) / 2)));
+            LOGGER.info("Saved durations of {} tests to {}", measuredDurations.size(), historyFile.getPath());
+        }
+        catch (IOException e) {
+            LOGGER.warn("Could not save test durations to {}", historyFile.getPath(), e);
+        }
+    }
+
+    /**
+     * @return durations stored in given history file, empty if there is no history yet
+     */
+    public static Map<String, Long> readDurations(Path historyFile)
+    {
+        return new JsonMapFile<>(historyFile, DURATIONS).read();
+    }
+
+    private static long median(Iterable<Long> durations)
+    {
+        List<Long> sorted = new ArrayList<>();
+        durations.forEach(sorted::add);
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        sorted.sort(Long::compare);
+        return sorted.get(sorted.size() / 2);
+    }
+}
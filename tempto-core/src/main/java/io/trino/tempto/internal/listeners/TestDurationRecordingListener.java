@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.util.Optional;
+
+import static io.trino.tempto.internal.configuration.TestConfigurationFactory.testConfiguration;
+
+/**
+ * Records test durations into {@link TestDurationHistory} when {@value TestDurationHistory#HISTORY_FILE_KEY} is configured.
+ */
+public class TestDurationRecordingListener
+        implements ITestListener
+{
+    private final TestMetadataReader testMetadataReader = new TestMetadataReader();
+    private final Optional<TestDurationHistory> durationHistory;
+
+    public TestDurationRecordingListener()
+    {
+        this(TestDurationHistory.fromConfiguration(testConfiguration()));
+    }
+
+    TestDurationRecordingListener(Optional<TestDurationHistory> durationHistory)
+    {
+        this.durationHistory = durationHistory;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult testResult)
+    {
+        record(testResult);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult testResult)
+    {
+        record(testResult);
+    }
+
+    private void record(ITestResult testResult)
+    {
+        durationHistory.ifPresent(history -> history.record(
+                testMetadataReader.readTestMetadata(testResult.getMethod()).testName,
+                testResult.getEndMillis() - testResult.getStartMillis()));
+    }
+
+    @Override
+    public void onFinish(ITestContext context)
+    {
+        durationHistory.ifPresent(TestDurationHistory::save);
+    }
+}
@@ -45,7 +45,7 @@ import static java.util.Objects.requireNonNull;
  * <li>{@value #TEST_NAMES_TO_RUN_PROPERTY} - should contain comma separated list of test names to be run
  * <li>{@value #TEST_NAMES_TO_EXCLUDE_PROPERTY} - should contain comma separated list of test names to be excluded
  * </ul>
- * <p>
+ * When the suite is split into shards, see {@link TestShard}, only tests of the selected shard are run.
  * <p>
  * For inclusion, test name matching is done by verifying if value from system property is suffix of actual test name in question.
  * When excluding tests, an exact match is performed, i.e. the fully qualified class name must be provided (and exact method name,
@@ -63,6 +63,7 @@ public class TestNameGroupNameMethodSelector
     private final Set<String> testNamesToExclude;
     private final Optional<Set<String>> testGroupsToRun;
     private final Set<String> testGroupsToExclude;
+    private final Optional<TestShard> testShard;
 
     private static final Splitter LIST_SYSTEM_PROPERTY_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
 
@@ -74,6 +75,7 @@ public class TestNameGroupNameMethodSelector
                 getSetSystemProperty(TEST_NAMES_TO_EXCLUDE_PROPERTY),
                 getOptionalSystemProperty(TEST_GROUPS_TO_RUN_PROPERTY),
                 getSetSystemProperty(TEST_GROUPS_TO_EXCLUDE_PROPERTY),
+                TestShard.fromSystemProperties(),
                 new TestMetadataReader());
     }
 
@@ -83,11 +85,23 @@ public class TestNameGroupNameMethodSelector
             Optional<Set<String>> testGroupsToRun,
             Set<String> testGroupsToExclude,
             TestMetadataReader testMetadataReader)
+    {
+        this(testNamesToRun, testNamesToExclude, testGroupsToRun, testGroupsToExclude, Optional.empty(), testMetadataReader);
+    }
+
+    public TestNameGroupNameMethodSelector(
+            Optional<Set<String>> testNamesToRun,
+            Set<String> testNamesToExclude,
+            Optional<Set<String>> testGroupsToRun,
+            Set<String> testGroupsToExclude,
+            Optional<TestShard> testShard,
+            TestMetadataReader testMetadataReader)
     {
         this.testNamesToRun = requireNonNull(testNamesToRun, "testNamesToRun is null");
         this.testNamesToExclude = ImmutableSet.copyOf(requireNonNull(testNamesToExclude, "testNamesToExclude is null"));
         this.testGroupsToRun = requireNonNull(testGroupsToRun, "testGroupsToRun is null");
         this.testGroupsToExclude = ImmutableSet.copyOf(requireNonNull(testGroupsToExclude, "testGroupsToExclude is null"));
+        this.testShard = requireNonNull(testShard, "testShard is null");
         this.testMetadataReader = requireNonNull(testMetadataReader, "testMetadataReader is null");
     }
 
@@ -104,7 +118,8 @@ public class TestNameGroupNameMethodSelector
         TestMetadata testMetadata = testMetadataReader.readTestMetadata(method);
         return includeBasedOnNameOrGroup(testMetadata) &&
                 !excludeBasedOnName(testMetadata) &&
-                !excludeBasedOnGroups(testMetadata);
+                !excludeBasedOnGroups(testMetadata) &&
+                belongsToShard(testMetadata);
     }
 
     private boolean includeBasedOnNameOrGroup(TestMetadata testMetadata)
@@ -141,6 +156,11 @@ public class TestNameGroupNameMethodSelector
         return !intersection(testMetadata.testGroups, testGroupsToExclude).isEmpty();
     }
 
+    private boolean belongsToShard(TestMetadata testMetadata)
+    {
+        return testShard.map(shard -> shard.contains(testMetadata.testName)).orElse(true);
+    }
+
     private static boolean matches(String testName, String exclusion)
     {
         if (testName.equals(exclusion)) {
@@ -0,0 +1,203 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingDouble;
+import static java.util.stream.Collectors.joining;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Reports how time of each test is split between test context creation, test level fulfillment
+ * (per fulfiller), {@link io.trino.tempto.BeforeMethodWithContext} methods, test body,
+ * {@link io.trino.tempto.AfterMethodWithContext} methods and cleanup.
+ * <p>
+ * At the end of the suite {@code test-profile.json} and {@code test-profile.csv} are written to the TestNG output
+ * directory, with tests sorted by total time descending, and a summary of the slowest tests is logged.
+ */
+public class TestProfilingListener
+        implements ITestListener
+{
+    private static final Logger LOGGER = getLogger(TestProfilingListener.class);
+
+    private static final int SUMMARY_TESTS_COUNT = 10;
+    private static final Comparator<TestProfile> BY_TOTAL_TIME = comparingDouble((TestProfile profile) -> profile.timings.getTotalMillis()).reversed();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final TestMetadataReader testMetadataReader = new TestMetadataReader();
+    private final ConcurrentLinkedQueue<TestProfile> profiles = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void onTestSuccess(ITestResult testResult)
+    {
+        record(testResult, "SUCCESS");
+    }
+
+    @Override
+    public void onTestFailure(ITestResult testResult)
+    {
+        record(testResult, "FAILURE");
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult testResult)
+    {
+        record(testResult, "SUCCESS");
+    }
+
+    private void record(ITestResult testResult, String status)
+    {
+        // This is an ITestListener callback, profiling must never fail the suite
+        try {
+            TestMetadata testMetadata = testMetadataReader.readTestMetadata(testResult);
+            String testName = testMetadata.testName;
+            if (testMetadata.testParameters.length > 0) {
+                testName += " [" + Joiner.on(", ").useForNull("null").join(testMetadata.testParameters) + "]";
+            }
+            profiles.add(new TestProfile(testName, status, TestTimings.timingsFor(testResult)));
+        }
+        catch (RuntimeException e) {
+            LOGGER.warn("Could not record profile of {}", testResult.getName(), e);
+        }
+    }
+
+    @Override
+    public void onFinish(ITestContext context)
+    {
+        List<TestProfile> sortedProfiles = profiles.stream()
+                .sorted(BY_TOTAL_TIME)
+                .collect(toImmutableList());
+        if (sortedProfiles.isEmpty()) {
+            return;
+        }
+        TestTimings suiteTimings = TestTimings.suiteTimingsFor(context);
+
+        Path outputDirectory = Paths.get(context.getOutputDirectory());
+        try {
+            Files.createDirectories(outputDirectory);
+            MAPPER.writeValue(outputDirectory.resolve("test-profile.json").toFile(), ImmutableMap.of(
+                    "suite", suiteTimings,
+                    "tests", sortedProfiles));
+            writeCsv(outputDirectory.resolve("test-profile.csv"), sortedProfiles);
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not write test profile to {}", outputDirectory, e);
+        }
+
+        logSummary(suiteTimings, sortedProfiles);
+    }
+
+    private static void writeCsv(Path path, List<TestProfile> profiles)
+            throws IOException
+    {
+        try (Writer writer = Files.newBufferedWriter(path, UTF_8)) {
+            writer.write("test,status,total_ms,context_creation_ms,fulfillment_ms,before_methods_ms,test_body_ms,after_methods_ms,cleanup_ms,fulfillers\n");
+            for (TestProfile profile : profiles) {
+                TestTimings timings = profile.timings;
+                String fulfillers = timings.getFulfillerMillis().entrySet().stream()
+                        .map(entry -> entry.getKey() + "=" + formatMillis(entry.getValue()))
+                        .collect(joining(";"));
+                writer.write(Joiner.on(',').join(
+                        csvQuote(profile.testName),
+                        profile.status,
+                        formatMillis(timings.getTotalMillis()),
+                        formatMillis(timings.getContextCreationMillis()),
+                        formatMillis(timings.getFulfillmentMillis()),
+                        formatMillis(timings.getBeforeMethodsMillis()),
+                        formatMillis(timings.getTestBodyMillis()),
+                        formatMillis(timings.getAfterMethodsMillis()),
+                        formatMillis(timings.getCleanupMillis()),
+                        csvQuote(fulfillers)));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static void logSummary(TestTimings suiteTimings, List<TestProfile> profiles)
+    {
+        double totalMillis = profiles.stream().mapToDouble(profile -> profile.timings.getTotalMillis()).sum();
+        double testBodyMillis = profiles.stream().mapToDouble(profile -> profile.timings.getTestBodyMillis()).sum();
+        LOGGER.info("");
+        LOGGER.info("Test time profile: suite initialization {} ms, suite cleanup {} ms", formatMillis(suiteTimings.getContextCreationMillis() + suiteTimings.getFulfillmentMillis()), formatMillis(suiteTimings.getCleanupMillis()));
+        LOGGER.info("Tests took {} ms in total, {} ms ({}%) in test bodies, {} ms in framework and test setup overhead",
+                formatMillis(totalMillis),
+                formatMillis(testBodyMillis),
+                totalMillis == 0 ? 0 : Math.round(testBodyMillis * 100 / totalMillis),
+                formatMillis(totalMillis - testBodyMillis));
+        LOGGER.info("Slowest tests (total / setup / body / cleanup ms):");
+        for (TestProfile profile : profiles.subList(0, Math.min(SUMMARY_TESTS_COUNT, profiles.size()))) {
+            TestTimings timings = profile.timings;
+            LOGGER.info("  {} / {} / {} / {}  {}",
+                    formatMillis(timings.getTotalMillis()),
+                    formatMillis(timings.getContextCreationMillis() + timings.getFulfillmentMillis() + timings.getBeforeMethodsMillis()),
+                    formatMillis(timings.getTestBodyMillis()),
+                    formatMillis(timings.getAfterMethodsMillis() + timings.getCleanupMillis()),
+                    profile.testName);
+        }
+    }
+
+    private static String formatMillis(double millis)
+    {
+        return format(Locale.ENGLISH, "%.1f", millis);
+    }
+
+    private static String csvQuote(String value)
+    {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    @JsonPropertyOrder({"test", "status"})
+    private static class TestProfile
+    {
+        @JsonProperty("test")
+        private final String testName;
+        @JsonProperty
+        private final String status;
+        @JsonUnwrapped
+        private final TestTimings timings;
+
+        private TestProfile(String testName, String status, TestTimings timings)
+        {
+            this.testName = testName;
+            this.status = status;
+            this.timings = timings;
+        }
+    }
+}
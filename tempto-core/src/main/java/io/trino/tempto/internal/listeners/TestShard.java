@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.floorMod;
+import static java.lang.System.getProperty;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Part of the suite executed by a single JVM when the suite is split across JVMs or machines.
+ * <p>
+ * Every test belongs to exactly one shard and all shards compute the same assignment independently, so no
+ * coordination between them is needed. Tests are assigned by a stable hash of the test name. When durations
+ * recorded by {@link TestDurationHistory} are given, tests with known duration are instead assigned longest
+ * first to the shard with the least expected total duration, so shards finish at about the same time. Shards
+ * must use the same durations file to agree on the assignment.
+ * <p>
+ * Governed by following java system properties:
+ * <ul>
+ * <li>{@value #SHARD_INDEX_PROPERTY} - zero based index of the shard to run
+ * <li>{@value #SHARD_COUNT_PROPERTY} - total number of shards
+ * <li>{@value #SHARD_DURATIONS_FILE_PROPERTY} - optional test duration history file used to balance shards
+ * </ul>
+ */
+public class TestShard
+{
+    public static final String SHARD_INDEX_PROPERTY = "io.trino.tempto.shard_index";
+    public static final String SHARD_COUNT_PROPERTY = "io.trino.tempto.shard_count";
+    public static final String SHARD_DURATIONS_FILE_PROPERTY = "io.trino.tempto.shard_durations_file";
+
+    private static final HashFunction TEST_NAME_HASH = Hashing.murmur3_32_fixed();
+
+    private final int index;
+    private final int count;
+    private final Map<String, Integer> balancedShards;
+
+    public static Optional<TestShard> fromSystemProperties()
+    {
+        String index = getProperty(SHARD_INDEX_PROPERTY);
+        String count = getProperty(SHARD_COUNT_PROPERTY);
+        if (index == null && count == null) {
+            return Optional.empty();
+        }
+        checkArgument(index != null && count != null, "Both %s and %s must be set", SHARD_INDEX_PROPERTY, SHARD_COUNT_PROPERTY);
+        Map<String, Long> durations = Optional.ofNullable(getProperty(SHARD_DURATIONS_FILE_PROPERTY))
+                .map(file -> TestDurationHistory.readDurations(Paths.get(file)))
+                .orElse(ImmutableMap.of());
+        return Optional.of(new TestShard(Integer.parseInt(index), Integer.parseInt(count), durations));
+    }
+
+    public TestShard(int index, int count, Map<String, Long> durations)
+    {
+        checkArgument(count > 0, "shard count must be greater than zero: %s", count);
+        checkArgument(index >= 0 && index < count, "shard index must be between 0 and %s: %s", count - 1, index);
+        this.index = index;
+        this.count = count;
+        this.balancedShards = balance(requireNonNull(durations, "durations is null"), count);
+    }
+
+    public int getIndex()
+    {
+        return index;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    public boolean contains(String testName)
+    {
+        return getShard(testName) == index;
+    }
+
+    int getShard(String testName)
+    {
+        Integer balancedShard = balancedShards.get(testName);
+        if (balancedShard != null) {
+            return balancedShard;
+        }
+        return floorMod(TEST_NAME_HASH.hashString(testName, UTF_8).asInt(), count);
+    }
+
+    private static Map<String, Integer> balance(Map<String, Long> durations, int count)
+    {
+        // test name breaks ties, so every shard computes the same order
+        List<Map.Entry<String, Long>> longestFirst = new ArrayList<>(durations.entrySet());
+        longestFirst.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        long[] shardDurations = new long[count];
+        ImmutableMap.Builder<String, Integer> shards = ImmutableMap.builder();
+        for (Map.Entry<String, Long> test : longestFirst) {
+            int shard = 0;
+            for (int i = 1; i < count; ++i) {
+                if (shardDurations[i] < shardDurations[shard]) {
+                    shard = i;
+                }
+            }
+            shardDurations[shard] += test.getValue();
+            shards.put(test.getKey(), shard);
+        }
+        return shards.build();
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.testng.IAttributes;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.lang.System.nanoTime;
+
+/**
+ * Time spent in each phase of a test (or suite) initialization, execution and cleanup.
+ * Recorded by {@link io.trino.tempto.internal.initialization.TestInitializationListener}
+ * and reported by {@link TestProfilingListener}.
+ * <p>
+ * Timings of a test are only updated from the thread running the test, but are read by listeners
+ * possibly called from other threads, hence methods are synchronized.
+ */
+@JsonPropertyOrder({"totalMillis", "contextCreationMillis", "fulfillmentMillis", "beforeMethodsMillis", "testBodyMillis", "afterMethodsMillis", "cleanupMillis", "fulfillers"})
+public class TestTimings
+{
+    private static final String TIMINGS_ATTRIBUTE = "tempto.timings";
+
+    private long contextCreationNanos;
+    private final Map<String, Long> fulfillmentNanos = new LinkedHashMap<>();
+    private long beforeMethodsNanos;
+    private long testBodyStartNanos;
+    private long testBodyNanos;
+    private long afterMethodsNanos;
+    private long cleanupNanos;
+
+    public static TestTimings timingsFor(ITestResult testResult)
+    {
+        return getOrCreate(testResult);
+    }
+
+    public static TestTimings suiteTimingsFor(ITestContext testContext)
+    {
+        return getOrCreate(testContext);
+    }
+
+    private static TestTimings getOrCreate(IAttributes attributes)
+    {
+        synchronized (attributes) {
+            TestTimings timings = (TestTimings) attributes.getAttribute(TIMINGS_ATTRIBUTE);
+            if (timings == null) {
+                timings = new TestTimings();
+                attributes.setAttribute(TIMINGS_ATTRIBUTE, timings);
+            }
+            return timings;
+        }
+    }
+
+    public synchronized void addContextCreation(long nanos)
+    {
+        contextCreationNanos += nanos;
+    }
+
+    public synchronized void addFulfillment(Class<?> fulfillerClass, long nanos)
+    {
+        fulfillmentNanos.merge(fulfillerClass.getSimpleName(), nanos, Long::sum);
+    }
+
+    public synchronized void addBeforeMethods(long nanos)
+    {
+        beforeMethodsNanos += nanos;
+    }
+
+    public synchronized void testBodyStarted()
+    {
+        testBodyStartNanos = nanoTime();
+    }
+
+    public synchronized void testBodyFinished()
+    {
+        if (testBodyStartNanos != 0) {
+            testBodyNanos += nanoTime() - testBodyStartNanos;
+            testBodyStartNanos = 0;
+        }
+    }
+
+    public synchronized void addAfterMethods(long nanos)
+    {
+        afterMethodsNanos += nanos;
+    }
+
+    public synchronized void addCleanup(long nanos)
+    {
+        cleanupNanos += nanos;
+    }
+
+    @JsonProperty
+    public synchronized double getContextCreationMillis()
+    {
+        return toMillis(contextCreationNanos);
+    }
+
+    @JsonProperty
+    public synchronized double getFulfillmentMillis()
+    {
+        return toMillis(fulfillmentNanos.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * @return fulfillment time per fulfiller simple class name, in fulfillment order
+     */
+    @JsonProperty("fulfillers")
+    public synchronized Map<String, Double> getFulfillerMillis()
+    {
+        return fulfillmentNanos.entrySet().stream()
+                .collect(toImmutableMap(Map.Entry::getKey, entry -> toMillis(entry.getValue())));
+    }
+
+    @JsonProperty
+    public synchronized double getBeforeMethodsMillis()
+    {
+        return toMillis(beforeMethodsNanos);
+    }
+
+    @JsonProperty
+    public synchronized double getTestBodyMillis()
+    {
+        return toMillis(testBodyNanos);
+    }
+
+    @JsonProperty
+    public synchronized double getAfterMethodsMillis()
+    {
+        return toMillis(afterMethodsNanos);
+    }
+
+    @JsonProperty
+    public synchronized double getCleanupMillis()
+    {
+        return toMillis(cleanupNanos);
+    }
+
+    @JsonProperty
+    public synchronized double getTotalMillis()
+    {
+        return getContextCreationMillis() + getFulfillmentMillis() + getBeforeMethodsMillis() + getTestBodyMillis() + getAfterMethodsMillis() + getCleanupMillis();
+    }
+
+    /**
+     * @return time spent outside of the test body, i.e. framework and test setup overhead
+     */
+    public synchronized double getOverheadMillis()
+    {
+        return getTotalMillis() - getTestBodyMillis();
+    }
+
+    private static double toMillis(long nanos)
+    {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -23,27 +23,37 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.time.Duration;
 import java.util.List;
-import java.util.Scanner;
+import java.util.regex.MatchResult;
 import java.util.regex.Pattern;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.assertj.core.util.Closeables.closeQuietly;
 import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * Base of {@link CliProcess} implementations. Output and error streams of the process are pumped in background,
+ * so a process printing a lot to one of them is not blocked while the other one is being read.
+ * <p>
+ * Up to {@value #OUTPUT_BUFFER_LINES} output lines are buffered, after which the process waits until they are read.
+ * Only the last {@value #ERROR_BUFFER_LINES} error lines are kept, as the error stream is often not read at all.
+ */
 public abstract class CliProcessBase
         implements CliProcess
 {
     private static final Logger LOGGER = getLogger(CliProcessBase.class);
     private static final Duration TIMEOUT = Duration.ofSeconds(20);
 
-    private final Scanner processOutput;
-    private final Scanner processError;
+    static final int OUTPUT_BUFFER_LINES = 64 * 1024;
+    static final int ERROR_BUFFER_LINES = 10_000;
+
+    private final PumpedOutput processOutput;
+    private final PumpedOutput processError;
     private final PrintStream processInput;
 
     protected CliProcessBase(InputStream processOutput, InputStream processError, OutputStream processInput)
     {
-        this.processOutput = new Scanner(processOutput);
-        this.processError = new Scanner(processError);
+        this.processOutput = new PumpedOutput("processOutput", processOutput, OUTPUT_BUFFER_LINES, false);
+        this.processError = new PumpedOutput("processError", processError, ERROR_BUFFER_LINES, true);
         this.processInput = new PrintStream(processInput, true);
     }
 
@@ -91,6 +101,14 @@ public abstract class CliProcessBase
         return processOutput.hasNext();
     }
 
+    @Override
+    public MatchResult awaitOutput(Pattern pattern, Duration timeout)
+    {
+        MatchResult match = processOutput.await(pattern, timeout);
+        LOGGER.debug("processOutput: {}", match.group());
+        return match;
+    }
+
     @Override
     public List<String> readRemainingErrorLines()
     {
@@ -135,6 +153,14 @@ public abstract class CliProcessBase
         return processError.hasNext();
     }
 
+    @Override
+    public MatchResult awaitError(Pattern pattern, Duration timeout)
+    {
+        MatchResult match = processError.await(pattern, timeout);
+        LOGGER.debug("processError: {}", match.group());
+        return match;
+    }
+
     @Override
     public PrintStream getProcessInput()
     {
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.process;
+
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bounded buffer of lines written by a single pump thread and read by process consumers.
+ * <p>
+ * When the buffer is full, the writer either waits for the reader, which propagates back pressure to the process,
+ * or overwrites the oldest line, so that an output nobody reads never blocks the process.
+ */
+final class LineRingBuffer
+{
+    private final String[] lines;
+    private final boolean overwriteWhenFull;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private int head;
+    private int size;
+    private long overwrittenLines;
+    private boolean finished;
+
+    LineRingBuffer(int capacity, boolean overwriteWhenFull)
+    {
+        checkArgument(capacity > 0, "capacity must be positive: %s", capacity);
+        this.lines = new String[capacity];
+        this.overwriteWhenFull = overwriteWhenFull;
+    }
+
+    /**
+     * @return false if the line was not added, as the buffer is already finished
+     */
+    boolean add(String line)
+            throws InterruptedException
+    {
+        lock.lockInterruptibly();
+        try {
+            while (size == lines.length && !overwriteWhenFull && !finished) {
+                notFull.await();
+            }
+            if (finished) {
+                return false;
+            }
+            if (size == lines.length) {
+                head = (head + 1) % lines.length;
+                size--;
+                overwrittenLines++;
+            }
+            lines[(head + size) % lines.length] = line;
+            size++;
+            notEmpty.signal();
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the end of lines. Lines already buffered can still be read.
+     */
+    void finish()
+    {
+        lock.lock();
+        try {
+            finished = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return next line, or empty when the buffer is finished and all lines were read
+     * @throws TimeoutException if no line arrived within the timeout
+     */
+    Optional<String> poll(long timeoutNanos)
+            throws InterruptedException, TimeoutException
+    {
+        lock.lockInterruptibly();
+        try {
+            long remainingNanos = timeoutNanos;
+            while (size == 0 && !finished) {
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException();
+                }
+                remainingNanos = notEmpty.awaitNanos(remainingNanos);
+            }
+            if (size == 0) {
+                return Optional.empty();
+            }
+            String line = lines[head];
+            lines[head] = null;
+            head = (head + 1) % lines.length;
+            size--;
+            notFull.signal();
+            return Optional.of(line);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    long getOverwrittenLines()
+    {
+        lock.lock();
+        try {
+            return overwrittenLines;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
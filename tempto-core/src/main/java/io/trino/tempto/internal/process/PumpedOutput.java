@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.process;
+
+import io.trino.tempto.process.TimeoutRuntimeException;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.Character.isWhitespace;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Output stream of a process, read eagerly by a background pump thread into a {@link LineRingBuffer}, so that
+ * the process is not blocked on a full pipe while its other stream is being read.
+ * <p>
+ * Lines and whitespace separated tokens are served the same way as by {@link java.util.Scanner}.
+ */
+final class PumpedOutput
+        implements Closeable
+{
+    private static final Logger LOGGER = getLogger(PumpedOutput.class);
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final String name;
+    private final InputStream stream;
+    private final LineRingBuffer buffer;
+
+    // lines taken from the buffer but not consumed yet; the first one may be partially consumed by tokens
+    private final List<String> pendingLines = new ArrayList<>();
+
+    PumpedOutput(String name, InputStream stream, int capacity, boolean overwriteWhenFull)
+    {
+        this.name = requireNonNull(name, "name is null");
+        this.stream = requireNonNull(stream, "stream is null");
+        this.buffer = new LineRingBuffer(capacity, overwriteWhenFull);
+        Thread.ofVirtual()
+                .name(name + "-pump")
+                .start(this::pump);
+    }
+
+    private void pump()
+    {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, UTF_8), READ_BUFFER_SIZE)) {
+            String line;
+            while ((line = reader.readLine()) != null && buffer.add(line)) {
+                // keep pumping
+            }
+        }
+        catch (IOException e) {
+            // the stream is closed together with the process
+            LOGGER.debug("Stopped reading {}: {}", name, e.getMessage());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            buffer.finish();
+            long overwrittenLines = buffer.getOverwrittenLines();
+            if (overwrittenLines > 0) {
+                LOGGER.warn("{} oldest lines of {} were dropped, as they were not read", overwrittenLines, name);
+            }
+        }
+    }
+
+    synchronized boolean hasNextLine()
+    {
+        return !pendingLines.isEmpty() || pull();
+    }
+
+    synchronized String nextLine()
+    {
+        if (!hasNextLine()) {
+            throw new NoSuchElementException("No line found");
+        }
+        return pendingLines.remove(0);
+    }
+
+    synchronized boolean hasNext()
+    {
+        return peekToken().isPresent();
+    }
+
+    synchronized boolean hasNext(Pattern pattern)
+    {
+        return peekToken()
+                .map(token -> pattern.matcher(token).matches())
+                .orElse(false);
+    }
+
+    synchronized String next()
+    {
+        while (hasNextLine()) {
+            String line = pendingLines.remove(0);
+            int start = skipWhitespace(line, 0);
+            if (start < line.length()) {
+                int end = skipToken(line, start);
+                // the rest of the line is still returned by nextLine, as in Scanner
+                pendingLines.add(0, line.substring(end));
+                return line.substring(start, end);
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Skips lines until one of them contains a match of the pattern.
+     */
+    synchronized MatchResult await(Pattern pattern, Duration timeout)
+    {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            if (pendingLines.isEmpty()) {
+                try {
+                    Optional<String> line = buffer.poll(deadline - System.nanoTime());
+                    if (line.isEmpty()) {
+                        throw new NoSuchElementException(name + " ended before a line matching '" + pattern + "' was printed");
+                    }
+                    pendingLines.add(line.get());
+                }
+                catch (TimeoutException e) {
+                    throw new TimeoutRuntimeException("No line matching '" + pattern + "' was printed to " + name + " within " + timeout);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            Matcher matcher = pattern.matcher(pendingLines.remove(0));
+            if (matcher.find()) {
+                return matcher.toMatchResult();
+            }
+        }
+    }
+
+    private Optional<String> peekToken()
+    {
+        for (int index = 0; index < pendingLines.size() || pull(); ++index) {
+            String line = pendingLines.get(index);
+            int start = skipWhitespace(line, 0);
+            if (start < line.length()) {
+                return Optional.of(line.substring(start, skipToken(line, start)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Waits for the next line from the pump and appends it to pending lines.
+     *
+     * @return false if there are no more lines
+     */
+    private boolean pull()
+    {
+        try {
+            Optional<String> line = buffer.poll(Long.MAX_VALUE);
+            line.ifPresent(pendingLines::add);
+            return line.isPresent();
+        }
+        catch (TimeoutException e) {
+            throw new IllegalStateException("Unexpected timeout", e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static int skipWhitespace(String line, int position)
+    {
+        while (position < line.length() && isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int skipToken(String line, int position)
+    {
+        while (position < line.length() && !isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        try {
+            stream.close();
+        }
+        finally {
+            buffer.finish();
+        }
+    }
+}
@@ -29,25 +29,37 @@ import com.datastax.oss.driver.api.core.type.DataType;
 import com.datastax.oss.driver.api.core.type.DataTypes;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.trino.tempto.configuration.Configuration;
+import io.trino.tempto.internal.jfr.QueryExecutionEvent;
 import io.trino.tempto.query.QueryExecutionException;
+import io.trino.tempto.query.QueryExecutionListener;
+import io.trino.tempto.query.QueryExecutionStatistics;
 import io.trino.tempto.query.QueryResult;
+import org.slf4j.Logger;
 
 import java.net.InetSocketAddress;
 import java.sql.JDBCType;
 import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.StreamSupport;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
 
 public class CassandraQueryExecutor
         implements AutoCloseable
 {
+    private static final Logger LOGGER = getLogger(CassandraQueryExecutor.class);
+
     private static final Map<DataType, JDBCType> typeMapping = ImmutableMap.<DataType, JDBCType>builder()
             .put(DataTypes.ASCII, JDBCType.VARCHAR)
             .put(DataTypes.BIGINT, JDBCType.BIGINT)
@@ -66,6 +78,7 @@ public class CassandraQueryExecutor
             .put(DataTypes.TEXT, JDBCType.VARCHAR)
             .build();
     private final CqlSession session;
+    private final Set<QueryExecutionListener> listeners;
 
     public static class TypeNotSupportedException
             extends IllegalStateException
@@ -78,6 +91,12 @@ public class CassandraQueryExecutor
 
     public CassandraQueryExecutor(Configuration configuration)
     {
+        this(configuration, ImmutableSet.of());
+    }
+
+    public CassandraQueryExecutor(Configuration configuration, Set<QueryExecutionListener> listeners)
+    {
+        this.listeners = ImmutableSet.copyOf(requireNonNull(listeners, "listeners is null"));
         ProgrammaticDriverConfigLoaderBuilder loader = DriverConfigLoader.programmaticBuilder();
         configuration.getInt("databases.cassandra.basic.request.timeout_seconds")
                 .ifPresent(timeout -> loader.withDuration(DefaultDriverOption.REQUEST_TIMEOUT, Duration.ofSeconds(timeout)));
@@ -90,8 +109,25 @@ public class CassandraQueryExecutor
 
     public QueryResult executeQuery(String sql)
             throws QueryExecutionException
+    {
+        QueryExecutionEvent event = new QueryExecutionEvent();
+        event.begin();
+        QueryExecutionStatistics.Builder statistics = QueryExecutionStatistics.builder("cassandra", sql).prepared();
+        try {
+            QueryResult result = executeQuery(sql, statistics);
+            queryCompleted(event, statistics.build());
+            return result;
+        }
+        catch (RuntimeException e) {
+            queryCompleted(event, statistics.buildFailed(e));
+            throw e;
+        }
+    }
+
+    private QueryResult executeQuery(String sql, QueryExecutionStatistics.Builder statistics)
     {
         ResultSet rs = session.execute(sql);
+        statistics.executed();
         ColumnDefinitions definitions = rs.getColumnDefinitions();
         List<JDBCType> types = StreamSupport.stream(definitions.spliterator(), false)
                 .map(definition -> getJDBCType(definition.getType()))
@@ -103,17 +139,40 @@ public class CassandraQueryExecutor
 
         QueryResult.QueryResultBuilder resultBuilder = new QueryResult.QueryResultBuilder(types, columnNames);
 
-        for (Row row : rs) {
+        // subsequent pages are fetched from within the iterator
+        Iterator<Row> rows = rs.iterator();
+        long fetchStartNanos = nanoTime();
+        while (rows.hasNext()) {
+            Row row = rows.next();
+            long materializeStartNanos = nanoTime();
+            statistics.addFetchTime(materializeStartNanos - fetchStartNanos);
             List<Object> builderRow = newArrayList();
             for (int i = 0; i < types.size(); ++i) {
                 builderRow.add(row.getObject(i));
             }
             resultBuilder.addRow(builderRow);
+            statistics.addRow(builderRow);
+            fetchStartNanos = nanoTime();
+            statistics.addMaterializeTime(fetchStartNanos - materializeStartNanos);
         }
+        statistics.addFetchTime(nanoTime() - fetchStartNanos);
 
         return resultBuilder.build();
     }
 
+    private void queryCompleted(QueryExecutionEvent event, QueryExecutionStatistics statistics)
+    {
+        event.commit(statistics);
+        for (QueryExecutionListener listener : listeners) {
+            try {
+                listener.queryCompleted(statistics);
+            }
+            catch (RuntimeException e) {
+                LOGGER.warn("Query execution listener {} failed", listener, e);
+            }
+        }
+    }
+
     public CqlSession getSession()
     {
         return session;
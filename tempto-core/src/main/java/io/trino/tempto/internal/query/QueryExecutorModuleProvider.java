@@ -21,11 +21,13 @@ import com.google.inject.Module;
 import com.google.inject.PrivateModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
 import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.initialization.SuiteModuleProvider;
 import io.trino.tempto.query.JdbcConnectionsPool;
 import io.trino.tempto.query.JdbcConnectivityParamsState;
 import io.trino.tempto.query.JdbcQueryExecutor;
+import io.trino.tempto.query.QueryExecutionListener;
 import io.trino.tempto.query.QueryExecutor;
 import io.trino.tempto.query.QueryExecutorDispatcher;
 
@@ -33,15 +35,19 @@ import java.util.Map;
 import java.util.Set;
 
 import static com.google.inject.multibindings.MapBinder.newMapBinder;
+import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static com.google.inject.name.Names.named;
 
 public class QueryExecutorModuleProvider
         implements SuiteModuleProvider
 {
+    private static final String QUERY_PROFILE_ENABLED_KEY = "tests.query_profile.enabled";
+
     public Module getModule(Configuration configuration)
     {
         JdbcConnectionsPool jdbcConnectionsPool = new JdbcConnectionsPool();
         JdbcConnectionsConfiguration jdbcConnectionsConfiguration = new JdbcConnectionsConfiguration(configuration);
+        boolean queryProfileEnabled = configuration.getBoolean(QUERY_PROFILE_ENABLED_KEY).orElse(false);
 
         return new AbstractModule()
         {
@@ -49,6 +55,10 @@ public class QueryExecutorModuleProvider
             protected void configure()
             {
                 bind(JdbcConnectionsPool.class).toInstance(jdbcConnectionsPool);
+                Multibinder<QueryExecutionListener> queryExecutionListeners = newSetBinder(binder(), QueryExecutionListener.class);
+                if (queryProfileEnabled) {
+                    queryExecutionListeners.addBinding().to(QueryProfileCollector.class).in(Singleton.class);
+                }
                 Set<String> definedJdbcConnectionNames = jdbcConnectionsConfiguration.getDefinedJdbcConnectionNames();
                 for (String connectionName : definedJdbcConnectionNames) {
                     bindDatabaseConnectionBeans(connectionName);
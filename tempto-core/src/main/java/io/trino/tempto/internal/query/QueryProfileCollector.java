@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.query;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.tempto.query.QueryExecutionListener;
+import io.trino.tempto.query.QueryExecutionStatistics;
+import org.slf4j.Logger;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.synchronizedList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Attaches statistics of executed queries to the currently running TestNG test, so that
+ * {@link io.trino.tempto.internal.listeners.QueryProfileReportingListener} can report them.
+ * Queries executed outside of a test method thread (e.g. by suite level fulfillers) are not attributed.
+ */
+public class QueryProfileCollector
+        implements QueryExecutionListener
+{
+    private static final Logger LOGGER = getLogger(QueryProfileCollector.class);
+
+    private static final String QUERY_PROFILE_ATTRIBUTE = "tempto.query_profile";
+
+    @Override
+    public void queryCompleted(QueryExecutionStatistics statistics)
+    {
+        ITestResult testResult = Reporter.getCurrentTestResult();
+        if (testResult == null) {
+            LOGGER.debug("Query executed outside of a test, not profiled: {}", statistics);
+            return;
+        }
+        getOrCreateProfile(testResult).add(statistics);
+    }
+
+    public static List<QueryExecutionStatistics> getQueryProfile(ITestResult testResult)
+    {
+        @SuppressWarnings("unchecked")
+        List<QueryExecutionStatistics> profile = (List<QueryExecutionStatistics>) testResult.getAttribute(QUERY_PROFILE_ATTRIBUTE);
+        if (profile == null) {
+            return ImmutableList.of();
+        }
+        synchronized (profile) {
+            return ImmutableList.copyOf(profile);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<QueryExecutionStatistics> getOrCreateProfile(ITestResult testResult)
+    {
+        synchronized (testResult) {
+            List<QueryExecutionStatistics> profile = (List<QueryExecutionStatistics>) testResult.getAttribute(QUERY_PROFILE_ATTRIBUTE);
+            if (profile == null) {
+                profile = synchronizedList(new ArrayList<>());
+                testResult.setAttribute(QUERY_PROFILE_ATTRIBUTE, profile);
+            }
+            return profile;
+        }
+    }
+}
@@ -15,7 +15,6 @@ package io.trino.tempto.internal.ssh;
 
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.Session;
 import io.trino.tempto.internal.process.CliProcessBase;
 import io.trino.tempto.process.CommandExecutionException;
 import io.trino.tempto.process.TimeoutRuntimeException;
@@ -24,6 +23,7 @@ import org.slf4j.Logger;
 import java.io.IOException;
 import java.time.Duration;
 
+import static java.lang.Math.max;
 import static java.lang.Thread.sleep;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -32,14 +32,12 @@ class JSchCliProcess
 {
     private static final Logger LOGGER = getLogger(JSchCliProcess.class);
 
-    private final Session session;
     private final ChannelExec channel;
 
-    JSchCliProcess(Session session, ChannelExec channel)
+    JSchCliProcess(ChannelExec channel)
             throws IOException
     {
         super(channel.getInputStream(), channel.getErrStream(), channel.getOutputStream());
-        this.session = session;
         this.channel = channel;
     }
 
@@ -67,7 +65,8 @@ class JSchCliProcess
             }
         });
         thread.start();
-        thread.join(timeout.toMillis());
+        // joining for 0 milliseconds would wait forever
+        thread.join(max(timeout.toMillis(), 1));
 
         if (!channel.isClosed()) {
             close();
@@ -83,7 +82,7 @@ class JSchCliProcess
     }
 
     /**
-     * Terminates process and closes all related streams
+     * Terminates process and closes all related streams. The SSH session is left open for other channels.
      */
     @Override
     public void close()
@@ -92,12 +91,7 @@ class JSchCliProcess
             channel.disconnect();
         }
         finally {
-            try {
-                session.disconnect();
-            }
-            finally {
-                super.close();
-            }
+            super.close();
         }
     }
 }
@@ -14,23 +14,24 @@
 package io.trino.tempto.internal.ssh;
 
 import com.google.common.base.Joiner;
-import com.google.common.io.ByteStreams;
+import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.ChannelSftp;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpException;
 import io.trino.tempto.process.CliProcess;
 import io.trino.tempto.ssh.SshClient;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.UncheckedIOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.nio.file.Files.newInputStream;
 import static java.util.Objects.requireNonNull;
@@ -38,14 +39,24 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * An {@link SshClient} based on JSch library.
+ * <p>
+ * A single authenticated session is kept open and shared by all commands and uploads, each of them using its own
+ * channel. The session is reconnected when it is found disconnected, and closed together with the client, so
+ * clients must be closed once no longer needed.
  */
 public class JSchSshClient
         implements SshClient
 {
     private static final Logger LOGGER = getLogger(JSchSshClient.class);
 
+    // number of SFTP write requests sent ahead without waiting for acknowledgement
+    private static final int SFTP_BULK_REQUESTS = 64;
+
     private final Supplier<Session> sessionSupplier;
 
+    private Session session;
+    private boolean closed;
+
     public JSchSshClient(Supplier<Session> sessionSupplier)
     {
         this.sessionSupplier = requireNonNull(sessionSupplier, "sessionSupplier is null");
@@ -61,12 +72,18 @@ public class JSchSshClient
     public CliProcess execute(String command)
     {
         try {
-            Session session = createSession();
+            ChannelExec channel = (ChannelExec) openChannel("exec");
+            Session session = channel.getSession();
             LOGGER.info("Executing on {}@{}:{}: {}", session.getUserName(), session.getHost(), session.getPort(), command);
-            ChannelExec channel = (ChannelExec) session.openChannel("exec");
             channel.setCommand(command);
-            JSchCliProcess process = new JSchCliProcess(session, channel);
-            process.connect();
+            JSchCliProcess process = new JSchCliProcess(channel);
+            try {
+                process.connect();
+            }
+            catch (JSchException e) {
+                process.close();
+                throw e;
+            }
             return process;
         }
         catch (JSchException | IOException exception) {
@@ -74,30 +91,27 @@ public class JSchSshClient
         }
     }
 
-    private Session createSession()
-            throws JSchException
-    {
-        Session session = sessionSupplier.get();
-        session.setDaemonThread(true);
-        session.connect();
-        return session;
-    }
-
     @Override
     public void upload(Path file, String remotePath)
     {
-        Session session = null;
         try {
-            session = createSession();
+            ChannelSftp channel = (ChannelSftp) openChannel("sftp");
+            Session session = channel.getSession();
             LOGGER.info("Uploading {} onto {}@{}:{}:{}", file, session.getUserName(), session.getHost(), session.getPort(), remotePath);
-            ChannelExec channel = (ChannelExec) session.openChannel("exec");
-            String command = "scp -t " + remotePath;
-            channel.setCommand(command);
-
-            OutputStream out = channel.getOutputStream();
-            InputStream in = channel.getInputStream();
-
-            sendSCPFile(file, channel, in, out);
+            try {
+                channel.setBulkRequests(SFTP_BULK_REQUESTS);
+                channel.connect();
+                String destination = resolveDestination(channel, file, remotePath);
+                try (InputStream fileStream = newInputStream(file)) {
+                    channel.put(fileStream, destination, ChannelSftp.OVERWRITE);
+                }
+            }
+            catch (SftpException e) {
+                throw new IOException("Could not upload " + file + " to " + remotePath, e);
+            }
+            finally {
+                channel.disconnect();
+            }
         }
         catch (JSchException e) {
             throw new RuntimeException(e);
@@ -105,57 +119,92 @@ public class JSchSshClient
         catch (IOException e) {
             throw new UncheckedIOException(e);
         }
-        finally {
-            if (session != null) {
-                session.disconnect();
+    }
+
+    /**
+     * @return path of the uploaded file, which keeps its name when uploaded into an existing directory
+     */
+    private static String resolveDestination(ChannelSftp channel, Path file, String remotePath)
+            throws SftpException
+    {
+        try {
+            if (channel.stat(remotePath).isDir()) {
+                return (remotePath.endsWith("/") ? remotePath : remotePath + "/") + file.getFileName();
             }
         }
+        catch (SftpException e) {
+            if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                throw e;
+            }
+        }
+        return remotePath;
     }
 
-    private void sendSCPFile(Path file, ChannelExec channel, InputStream in, OutputStream out)
-            throws IOException, JSchException
+    /**
+     * Opens a channel of the shared session. When the session turns out to be lost, the channel is opened once more
+     * on a new session, as nothing was sent over it yet. Failures after the channel is opened are not retried, since
+     * a command may already be running on the remote machine by then.
+     */
+    private Channel openChannel(String type)
+            throws JSchException
     {
-        channel.connect();
+        Session session = getSession();
         try {
-            checkAck(channel, in);
-
-            sendSCPHandshake(file, out);
-            checkAck(channel, in);
-
-            try (InputStream fileStream = newInputStream(file)) {
-                ByteStreams.copy(fileStream, out);
+            return session.openChannel(type);
+        }
+        catch (JSchException e) {
+            if (session.isConnected() || Thread.currentThread().isInterrupted()) {
+                throw e;
             }
-            out.write(0);
-
-            out.flush();
-            checkAck(channel, in);
+            LOGGER.warn("SSH session to {}@{}:{} was lost, reconnecting", session.getUserName(), session.getHost(), session.getPort(), e);
+            return getSession().openChannel(type);
         }
-        finally {
-            channel.disconnect();
+    }
+
+    private synchronized Session getSession()
+            throws JSchException
+    {
+        checkState(!closed, "SSH client is closed");
+        if (session == null || !session.isConnected()) {
+            if (session != null) {
+                session.disconnect();
+            }
+            session = createSession();
         }
+        return session;
     }
 
-    private void sendSCPHandshake(Path file, OutputStream out)
-            throws IOException
+    private Session createSession()
+            throws JSchException
     {
-        long fileSize = Files.size(file);
-        String command = "C0644 " + fileSize + " " + file.getFileName().toString() + "\n";
-        out.write(command.getBytes());
-        out.flush();
+        Session session = sessionSupplier.get();
+        session.setDaemonThread(true);
+        session.connect();
+        return session;
     }
 
-    private void checkAck(ChannelExec channel, InputStream in)
-            throws IOException
+    /**
+     * Disconnects the shared session, which closes all its channels. JSch does not react to interruption of a
+     * transfer in progress, so this is the way to abort it.
+     */
+    @Override
+    public synchronized void disconnect()
     {
-        int returnCode = in.read();
-        if (returnCode != 0) {
-            channel.disconnect();
-            throw new RuntimeException("SCP failed, error code: " + returnCode);
+        if (session != null) {
+            session.disconnect();
+            session = null;
         }
     }
 
     @Override
-    public void close() {}
+    public synchronized void close()
+    {
+        closed = true;
+        if (session != null) {
+            session.disconnect();
+            session = null;
+        }
+    }
 
     private Iterable<String> quote(List<String> command)
     {
@@ -17,6 +17,11 @@ import java.io.Closeable;
 import java.io.PrintStream;
 import java.time.Duration;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.util.stream.Collectors.toList;
@@ -44,6 +49,22 @@ public interface CliProcess
 
     boolean hasNextOutputToken();
 
+    /**
+     * Skips output lines until a line containing a match of the pattern is printed.
+     * <p>
+     * The default implementation checks the timeout only between lines read with {@link #nextOutputLine()}, so it
+     * may wait longer when no line is printed at all. Implementations able to wait for a line with a timeout should
+     * override it.
+     *
+     * @return match found in the line
+     * @throws TimeoutRuntimeException if no such line is printed within the timeout
+     * @throws NoSuchElementException if the output ends before such a line is printed
+     */
+    default MatchResult awaitOutput(Pattern pattern, Duration timeout)
+    {
+        return awaitLine(pattern, timeout, "output", this::hasNextOutputLine, this::nextOutputLine);
+    }
+
     List<String> readRemainingErrorLines();
 
     String nextErrorLine();
@@ -56,6 +77,16 @@ public interface CliProcess
 
     boolean hasNextErrorToken();
 
+    /**
+     * Skips error lines until a line containing a match of the pattern is printed.
+     *
+     * @see #awaitOutput(Pattern, Duration)
+     */
+    default MatchResult awaitError(Pattern pattern, Duration timeout)
+    {
+        return awaitLine(pattern, timeout, "error", this::hasNextErrorLine, this::nextErrorLine);
+    }
+
     PrintStream getProcessInput();
 
     /**
@@ -71,4 +102,19 @@ public interface CliProcess
 
     void waitForWithTimeoutAndKill(Duration timeout)
             throws InterruptedException, TimeoutRuntimeException, CommandExecutionException;
+
+    private static MatchResult awaitLine(Pattern pattern, Duration timeout, String name, BooleanSupplier hasNextLine, Supplier<String> nextLine)
+    {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (hasNextLine.getAsBoolean()) {
+            Matcher matcher = pattern.matcher(nextLine.get());
+            if (matcher.find()) {
+                return matcher.toMatchResult();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new TimeoutRuntimeException("No line matching '" + pattern + "' was printed to " + name + " within " + timeout);
+            }
+        }
+        throw new NoSuchElementException(name + " ended before a line matching '" + pattern + "' was printed");
+    }
 }
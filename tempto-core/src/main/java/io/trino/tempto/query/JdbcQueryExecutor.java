@@ -14,19 +14,23 @@
 
 package io.trino.tempto.query;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import io.trino.tempto.context.TestContext;
+import io.trino.tempto.internal.jfr.QueryExecutionEvent;
 import org.slf4j.Logger;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Set;
 
 import static io.trino.tempto.query.QueryResult.forSingleIntegerValue;
 import static io.trino.tempto.query.QueryResult.toSqlIndex;
 import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class JdbcQueryExecutor
@@ -37,17 +41,29 @@ public class JdbcQueryExecutor
     private final String jdbcUrl;
     private final JdbcConnectivityParamsState jdbcParamsState;
     private final JdbcConnectionsPool jdbcConnectionsPool;
+    private final Set<QueryExecutionListener> listeners;
+    private final Set<Statement> runningStatements = newKeySet();
 
     private Connection connection;
 
+    public JdbcQueryExecutor(
+            JdbcConnectivityParamsState jdbcParamsState,
+            JdbcConnectionsPool jdbcConnectionsPool,
+            TestContext testContext)
+    {
+        this(jdbcParamsState, jdbcConnectionsPool, ImmutableSet.of(), testContext);
+    }
+
     @Inject
     public JdbcQueryExecutor(
             JdbcConnectivityParamsState jdbcParamsState,
             JdbcConnectionsPool jdbcConnectionsPool,
+            Set<QueryExecutionListener> listeners,
             TestContext testContext)
     {
         this.jdbcParamsState = requireNonNull(jdbcParamsState, "jdbcParamsState is null");
         this.jdbcConnectionsPool = requireNonNull(jdbcConnectionsPool, "jdbcConnectionsPool is null");
+        this.listeners = ImmutableSet.copyOf(requireNonNull(listeners, "listeners is null"));
         this.jdbcUrl = jdbcParamsState.url;
         testContext.registerCloseCallback(_ -> this.close());
     }
@@ -106,29 +122,62 @@ public class JdbcQueryExecutor
 
         LOGGER.debug("executing on {} query [{}] with params: {}", jdbcUrl, sql, asList(params));
 
+        QueryExecutionEvent event = new QueryExecutionEvent();
+        event.begin();
+        QueryExecutionStatistics.Builder statistics = QueryExecutionStatistics.builder(jdbcParamsState.getName().orElse(jdbcUrl), sql);
         try {
+            QueryResult result;
             if (params.length == 0) {
-                return executeQueryNoParams(sql);
+                result = executeQueryNoParams(sql, statistics);
             }
             else {
-                return executeQueryWithParams(sql, params);
+                result = executeQueryWithParams(sql, params, statistics);
             }
+            queryCompleted(event, statistics.build());
+            return result;
         }
         catch (SQLException e) {
+            queryCompleted(event, statistics.buildFailed(e));
             throw new QueryExecutionException(e);
         }
+        catch (RuntimeException e) {
+            queryCompleted(event, statistics.buildFailed(e));
+            throw e;
+        }
     }
 
-    private QueryResult executeQueryNoParams(String sql)
+    private void queryCompleted(QueryExecutionEvent event, QueryExecutionStatistics statistics)
+    {
+        event.commit(statistics);
+        for (QueryExecutionListener listener : listeners) {
+            try {
+                listener.queryCompleted(statistics);
+            }
+            catch (RuntimeException e) {
+                LOGGER.warn("Query execution listener {} failed", listener, e);
+            }
+        }
+    }
+
+    private QueryResult executeQueryNoParams(String sql, QueryExecutionStatistics.Builder statistics)
             throws SQLException
     {
         requireNonNull(sql, "sql is null");
         try (Statement statement = getConnection().createStatement()) {
-            if (statement.execute(sql)) {
-                return QueryResult.forResultSet(statement.getResultSet());
+            statistics.prepared();
+            runningStatements.add(statement);
+            try {
+                boolean hasResultSet = statement.execute(sql);
+                statistics.executed();
+                if (hasResultSet) {
+                    return QueryResult.forResultSet(statement.getResultSet(), statistics);
+                }
+                else {
+                    return forSingleIntegerValue(statement.getUpdateCount());
+                }
             }
-            else {
-                return forSingleIntegerValue(statement.getUpdateCount());
+            finally {
+                runningStatements.remove(statement);
             }
         }
         catch (Throwable e) {
@@ -137,19 +186,28 @@ public class JdbcQueryExecutor
         }
     }
 
-    private QueryResult executeQueryWithParams(String sql, QueryParam[] params)
+    private QueryResult executeQueryWithParams(String sql, QueryParam[] params, QueryExecutionStatistics.Builder statistics)
             throws SQLException
     {
         requireNonNull(sql, "sql is null");
         requireNonNull(params, "params is null");
         try (PreparedStatement statement = getConnection().prepareStatement(sql)) {
             setQueryParams(statement, params);
+            statistics.prepared();
 
-            if (statement.execute()) {
-                return QueryResult.forResultSet(statement.getResultSet());
+            runningStatements.add(statement);
+            try {
+                boolean hasResultSet = statement.execute();
+                statistics.executed();
+                if (hasResultSet) {
+                    return QueryResult.forResultSet(statement.getResultSet(), statistics);
+                }
+                else {
+                    return forSingleIntegerValue(statement.getUpdateCount());
+                }
             }
-            else {
-                return forSingleIntegerValue(statement.getUpdateCount());
+            finally {
+                runningStatements.remove(statement);
             }
         }
         catch (Throwable e) {
@@ -167,6 +225,19 @@ public class JdbcQueryExecutor
         }
     }
 
+    @Override
+    public void cancel()
+    {
+        for (Statement statement : runningStatements) {
+            try {
+                statement.cancel();
+            }
+            catch (SQLException e) {
+                LOGGER.debug("Exception happened during cancelling statement.", e);
+            }
+        }
+    }
+
     @Override
     public void close()
     {
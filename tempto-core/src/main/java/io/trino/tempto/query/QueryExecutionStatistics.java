@@ -0,0 +1,322 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.query;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.System.nanoTime;
+import static java.time.Duration.ofNanos;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Timings and result size of a single statement execution, reported to {@link QueryExecutionListener}s.
+ * <p>
+ * Execution is split into phases:
+ * <ul>
+ * <li>prepare - creating (and preparing) the statement and binding parameters,</li>
+ * <li>execute - until the first results are available, which is mostly server time,</li>
+ * <li>fetch - waiting for subsequent rows, e.g. for next pages of results to arrive,</li>
+ * <li>materialize - reading values and building the {@link QueryResult} on the client.</li>
+ * </ul>
+ */
+@JsonPropertyOrder({"database", "sql", "startTime", "wallTimeMillis", "prepareTimeMillis", "executeTimeMillis", "fetchTimeMillis", "materializeTimeMillis", "rowCount", "approximateBytes", "failure"})
+public class QueryExecutionStatistics
+{
+    private final String database;
+    private final String sql;
+    private final Instant startTime;
+    private final Duration prepareTime;
+    private final Duration executeTime;
+    private final Duration fetchTime;
+    private final Duration materializeTime;
+    private final long rowCount;
+    private final long approximateBytes;
+    private final Optional<String> failure;
+
+    public QueryExecutionStatistics(
+            String database,
+            String sql,
+            Instant startTime,
+            Duration prepareTime,
+            Duration executeTime,
+            Duration fetchTime,
+            Duration materializeTime,
+            long rowCount,
+            long approximateBytes,
+            Optional<String> failure)
+    {
+        this.database = requireNonNull(database, "database is null");
+        this.sql = requireNonNull(sql, "sql is null");
+        this.startTime = requireNonNull(startTime, "startTime is null");
+        this.prepareTime = requireNonNull(prepareTime, "prepareTime is null");
+        this.executeTime = requireNonNull(executeTime, "executeTime is null");
+        this.fetchTime = requireNonNull(fetchTime, "fetchTime is null");
+        this.materializeTime = requireNonNull(materializeTime, "materializeTime is null");
+        this.rowCount = rowCount;
+        this.approximateBytes = approximateBytes;
+        this.failure = requireNonNull(failure, "failure is null");
+    }
+
+    @JsonProperty
+    public String getDatabase()
+    {
+        return database;
+    }
+
+    @JsonProperty
+    public String getSql()
+    {
+        return sql;
+    }
+
+    public Instant getStartTime()
+    {
+        return startTime;
+    }
+
+    @JsonProperty("startTime")
+    public String getFormattedStartTime()
+    {
+        return startTime.toString();
+    }
+
+    public Duration getPrepareTime()
+    {
+        return prepareTime;
+    }
+
+    public Duration getExecuteTime()
+    {
+        return executeTime;
+    }
+
+    public Duration getFetchTime()
+    {
+        return fetchTime;
+    }
+
+    public Duration getMaterializeTime()
+    {
+        return materializeTime;
+    }
+
+    public Duration getWallTime()
+    {
+        return prepareTime.plus(executeTime).plus(fetchTime).plus(materializeTime);
+    }
+
+    @JsonProperty
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * @return estimated size of returned values, e.g. length of strings and byte arrays, 8 bytes for numbers
+     */
+    @JsonProperty
+    public long getApproximateBytes()
+    {
+        return approximateBytes;
+    }
+
+    @JsonProperty
+    public Optional<String> getFailure()
+    {
+        return failure;
+    }
+
+    public boolean isFailed()
+    {
+        return failure.isPresent();
+    }
+
+    @JsonProperty
+    public double getWallTimeMillis()
+    {
+        return toMillis(getWallTime());
+    }
+
+    @JsonProperty
+    public double getPrepareTimeMillis()
+    {
+        return toMillis(prepareTime);
+    }
+
+    @JsonProperty
+    public double getExecuteTimeMillis()
+    {
+        return toMillis(executeTime);
+    }
+
+    @JsonProperty
+    public double getFetchTimeMillis()
+    {
+        return toMillis(fetchTime);
+    }
+
+    @JsonProperty
+    public double getMaterializeTimeMillis()
+    {
+        return toMillis(materializeTime);
+    }
+
+    private static double toMillis(Duration duration)
+    {
+        return duration.toNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("database", database)
+                .add("sql", sql)
+                .add("wallTime", getWallTime())
+                .add("prepareTime", prepareTime)
+                .add("executeTime", executeTime)
+                .add("fetchTime", fetchTime)
+                .add("materializeTime", materializeTime)
+                .add("rowCount", rowCount)
+                .add("approximateBytes", approximateBytes)
+                .add("failure", failure.orElse(null))
+                .omitNullValues()
+                .toString();
+    }
+
+    public static Builder builder(String database, String sql)
+    {
+        return new Builder(database, sql);
+    }
+
+    /**
+     * Measures phases of a statement execution, started when the builder is created. Not thread safe.
+     */
+    public static class Builder
+    {
+        private final String database;
+        private final String sql;
+        private final Instant startTime = Instant.now();
+        private long phaseStartNanos = nanoTime();
+        private long prepareNanos;
+        private long executeNanos;
+        private long fetchNanos;
+        private long materializeNanos;
+        private long rowCount;
+        private long approximateBytes;
+        private boolean executed;
+
+        private Builder(String database, String sql)
+        {
+            this.database = requireNonNull(database, "database is null");
+            this.sql = requireNonNull(sql, "sql is null");
+        }
+
+        public Builder prepared()
+        {
+            long now = nanoTime();
+            prepareNanos += now - phaseStartNanos;
+            phaseStartNanos = now;
+            return this;
+        }
+
+        public Builder executed()
+        {
+            long now = nanoTime();
+            executeNanos += now - phaseStartNanos;
+            phaseStartNanos = now;
+            executed = true;
+            return this;
+        }
+
+        public Builder addFetchTime(long nanos)
+        {
+            fetchNanos += nanos;
+            return this;
+        }
+
+        public Builder addMaterializeTime(long nanos)
+        {
+            materializeNanos += nanos;
+            return this;
+        }
+
+        public Builder addRow(List<?> row)
+        {
+            rowCount++;
+            for (Object value : row) {
+                approximateBytes += approximateSize(value);
+            }
+            return this;
+        }
+
+        public QueryExecutionStatistics build()
+        {
+            return build(Optional.empty());
+        }
+
+        public QueryExecutionStatistics buildFailed(Throwable failure)
+        {
+            if (!executed) {
+                // statement failed during prepare or execution, account the time spent so far
+                executed();
+            }
+            return build(Optional.of(String.valueOf(failure)));
+        }
+
+        private QueryExecutionStatistics build(Optional<String> failure)
+        {
+            return new QueryExecutionStatistics(
+                    database,
+                    sql,
+                    startTime,
+                    ofNanos(prepareNanos),
+                    ofNanos(executeNanos),
+                    ofNanos(fetchNanos),
+                    ofNanos(materializeNanos),
+                    rowCount,
+                    approximateBytes,
+                    failure);
+        }
+
+        private static long approximateSize(Object value)
+        {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof String string) {
+                return string.length();
+            }
+            if (value instanceof byte[] bytes) {
+                return bytes.length;
+            }
+            if (value instanceof BigDecimal) {
+                return 16;
+            }
+            if (value instanceof Number || value instanceof Date || value instanceof Boolean) {
+                return 8;
+            }
+            return value.toString().length();
+        }
+    }
+}
@@ -48,6 +48,12 @@ public interface QueryExecutor
 
     Connection getConnection();
 
+    /**
+     * Cancels statements currently being executed by this executor, if supported.
+     * May be called from a thread other than the one executing the statements.
+     */
+    default void cancel() {}
+
     void close();
 
     /**
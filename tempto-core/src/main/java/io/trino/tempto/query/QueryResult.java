@@ -35,6 +35,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.System.nanoTime;
 import static java.sql.JDBCType.INTEGER;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
@@ -209,6 +210,18 @@ public class QueryResult
                 .build();
     }
 
+    static QueryResult forResultSet(ResultSet rs, QueryExecutionStatistics.Builder statistics)
+            throws SQLException
+    {
+        QueryResultBuilder builder = QueryResult.builder(rs.getMetaData())
+                .addRows(rs, statistics)
+                .setJdbcResultSet(rs);
+        long buildStartNanos = nanoTime();
+        QueryResult queryResult = builder.build();
+        statistics.addMaterializeTime(nanoTime() - buildStartNanos);
+        return queryResult;
+    }
+
     public static class QueryResultBuilder
     {
         private final List<JDBCType> columnTypes = newArrayList();
@@ -266,6 +279,32 @@ public class QueryResult
             return this;
         }
 
+        /**
+         * Same as {@link #addRows(ResultSet)}, but records time spent waiting for rows separately
+         * from time spent reading them, as well as returned rows.
+         */
+        QueryResultBuilder addRows(ResultSet rs, QueryExecutionStatistics.Builder statistics)
+                throws SQLException
+        {
+            int columnCount = columnTypes.size();
+
+            long fetchStartNanos = nanoTime();
+            while (rs.next()) {
+                long materializeStartNanos = nanoTime();
+                statistics.addFetchTime(materializeStartNanos - fetchStartNanos);
+                List<Object> row = newArrayList();
+                for (int sqlColumnIndex = 1; sqlColumnIndex <= columnCount; ++sqlColumnIndex) {
+                    row.add(rs.getObject(sqlColumnIndex));
+                }
+                values.add(row);
+                statistics.addRow(row);
+                fetchStartNanos = nanoTime();
+                statistics.addMaterializeTime(fetchStartNanos - materializeStartNanos);
+            }
+            statistics.addFetchTime(nanoTime() - fetchStartNanos);
+            return this;
+        }
+
         public QueryResultBuilder setJdbcResultSet(ResultSet rs)
         {
             this.jdbcResultSet = Optional.of(rs);
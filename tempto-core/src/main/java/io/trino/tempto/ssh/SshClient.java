@@ -22,7 +22,8 @@ import java.nio.file.Path;
 import java.util.List;
 
 /**
- * Simple SSH client.
+ * Simple SSH client. Implementations may keep a connection open between calls, so clients must be closed
+ * once no longer needed.
  */
 public interface SshClient
         extends Closeable
@@ -50,10 +51,19 @@ public interface SshClient
     CliProcess execute(List<String> command);
 
     /**
-     * Uploads file to a remote machine. It works like SCP.
+     * Uploads file to a remote machine over SFTP, overwriting an existing file.
      *
      * @param file Local path to file which is to be uploaded
-     * @param remotePath Destination path for file on remote machine.
+     * @param remotePath Destination path for file on remote machine. When it is an existing directory,
+     *         the file is uploaded into it under its local name.
      */
     void upload(Path file, String remotePath);
+
+    /**
+     * Disconnects from the remote machine, aborting commands and uploads in progress, where supported.
+     * The client remains usable and connects again when used next time.
+     */
+    default void disconnect()
+    {
+    }
 }
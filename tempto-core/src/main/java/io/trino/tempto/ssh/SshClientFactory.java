@@ -14,8 +14,12 @@
 
 package io.trino.tempto.ssh;
 
+import java.util.List;
 import java.util.Optional;
 
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.function.Function.identity;
+
 public interface SshClientFactory
 {
     String DEFAULT_USER = "root";
@@ -37,5 +41,15 @@ public interface SshClientFactory
 
     SshClient create(String host, int port, String user, Optional<String> password);
 
+    /**
+     * Creates clients of all given hosts, to run commands and uploads on them concurrently.
+     */
+    default SshFanOut createFanOut(List<String> hosts, int port, String user, Optional<String> password)
+    {
+        return new SshFanOut(hosts.stream()
+                .distinct()
+                .collect(toImmutableMap(identity(), host -> create(host, port, user, password))));
+    }
+
     void addIdentity(String pathToPem);
 }
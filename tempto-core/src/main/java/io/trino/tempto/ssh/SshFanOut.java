@@ -0,0 +1,273 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.ssh;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.tempto.internal.FailureCollector;
+import io.trino.tempto.process.CliProcess;
+import io.trino.tempto.process.CommandExecutionException;
+import io.trino.tempto.process.TimeoutRuntimeException;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Runs a command or an upload on many hosts concurrently, so that a cluster-wide operation takes as long as the
+ * slowest host rather than the sum of all hosts.
+ * <p>
+ * At most {@code maxParallelism} hosts are served at a time. Each host gets {@code hostTimeout} from the moment
+ * its command starts, after which the channel of the command is closed and the host is reported as failed. Closing
+ * the channel does not kill the remote command, as no terminal is allocated for it, so the command may keep running
+ * on the host. A failure on one host does not stop the others, all results are collected in {@link SshFanOutResult}.
+ * <p>
+ * An upload which times out is aborted by disconnecting the SSH client of its host, see {@link SshClient#disconnect()}.
+ * The remote file may be left partially written then.
+ * <p>
+ * Closing the fan-out closes the SSH clients of all hosts.
+ */
+public class SshFanOut
+        implements Closeable
+{
+    private static final Logger LOGGER = getLogger(SshFanOut.class);
+
+    public static final int DEFAULT_MAX_PARALLELISM = 16;
+    public static final Duration DEFAULT_HOST_TIMEOUT = Duration.ofMinutes(1);
+
+    private final Map<String, SshClient> clients;
+    private final Duration hostTimeout;
+    private final ExecutorService hostExecutor;
+    // reads output and error streams of commands, and runs uploads, so that host threads can enforce the timeout
+    private final ExecutorService ioExecutor = newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("ssh-fan-out-io-%s")
+            .setDaemon(true)
+            .build());
+
+    public SshFanOut(Map<String, SshClient> clients)
+    {
+        this(clients, DEFAULT_MAX_PARALLELISM, DEFAULT_HOST_TIMEOUT);
+    }
+
+    public SshFanOut(Map<String, SshClient> clients, int maxParallelism, Duration hostTimeout)
+    {
+        this.clients = ImmutableMap.copyOf(requireNonNull(clients, "clients is null"));
+        this.hostTimeout = requireNonNull(hostTimeout, "hostTimeout is null");
+        checkArgument(!clients.isEmpty(), "clients is empty");
+        checkArgument(maxParallelism > 0, "maxParallelism must be positive: %s", maxParallelism);
+        this.hostExecutor = newFixedThreadPool(min(maxParallelism, clients.size()), new ThreadFactoryBuilder()
+                .setNameFormat("ssh-fan-out-%s")
+                .setDaemon(true)
+                .build());
+    }
+
+    public List<String> getHosts()
+    {
+        return ImmutableList.copyOf(clients.keySet());
+    }
+
+    public SshFanOutResult execute(String command)
+    {
+        LOGGER.info("Executing on {} hosts: {}", clients.size(), command);
+        return fanOut(host -> executeOnHost(host, client -> client.execute(command)));
+    }
+
+    public SshFanOutResult execute(List<String> command)
+    {
+        LOGGER.info("Executing on {} hosts: {}", clients.size(), command);
+        return fanOut(host -> executeOnHost(host, client -> client.execute(command)));
+    }
+
+    public SshFanOutResult upload(Path file, String remotePath)
+    {
+        LOGGER.info("Uploading {} onto {} hosts: {}", file, clients.size(), remotePath);
+        return fanOut(host -> uploadOnHost(host, file, remotePath));
+    }
+
+    private SshFanOutResult fanOut(Function<String, SshHostResult> task)
+    {
+        List<Future<SshHostResult>> futures = clients.keySet().stream()
+                .map(host -> hostExecutor.submit(() -> task.apply(host)))
+                .collect(toImmutableList());
+        ImmutableList.Builder<SshHostResult> results = ImmutableList.builder();
+        for (Future<SshHostResult> future : futures) {
+            results.add(getUnchecked(future));
+        }
+        return new SshFanOutResult(results.build());
+    }
+
+    private SshHostResult executeOnHost(String host, Function<SshClient, CliProcess> starter)
+    {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        CliProcess process;
+        try {
+            process = starter.apply(clients.get(host));
+        }
+        catch (RuntimeException e) {
+            return failed(host, stopwatch, List.of(), List.of(), e);
+        }
+
+        try {
+            Future<List<String>> output = ioExecutor.submit(process::readRemainingOutputLines);
+            Future<List<String>> error = ioExecutor.submit(process::readRemainingErrorLines);
+            List<String> outputLines;
+            List<String> errorLines;
+            try {
+                outputLines = output.get(remainingMillis(stopwatch), MILLISECONDS);
+                errorLines = error.get(remainingMillis(stopwatch), MILLISECONDS);
+            }
+            catch (TimeoutException e) {
+                // closing the process ends its streams, which completes the readers
+                closeQuietly(process);
+                return failed(host, stopwatch, getOrEmpty(output), getOrEmpty(error), new TimeoutRuntimeException("Command did not finish on " + host + " within " + hostTimeout));
+            }
+
+            try {
+                // streams are exhausted at this point, it only remains to collect the exit status, which is worth
+                // a moment of waiting even when the timeout has just run out
+                process.waitForWithTimeoutAndKill(Duration.ofMillis(max(remainingMillis(stopwatch), 1)));
+            }
+            catch (CommandExecutionException e) {
+                return new SshHostResult(host, OptionalInt.of(e.getExitStatus()), outputLines, errorLines, stopwatch.elapsed(), Optional.of(e));
+            }
+            return new SshHostResult(host, OptionalInt.of(0), outputLines, errorLines, stopwatch.elapsed(), Optional.empty());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(host, stopwatch, List.of(), List.of(), e);
+        }
+        catch (ExecutionException e) {
+            return failed(host, stopwatch, List.of(), List.of(), e.getCause());
+        }
+        catch (RuntimeException e) {
+            return failed(host, stopwatch, List.of(), List.of(), e);
+        }
+        finally {
+            closeQuietly(process);
+        }
+    }
+
+    private SshHostResult uploadOnHost(String host, Path file, String remotePath)
+    {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Future<?> upload = ioExecutor.submit(() -> clients.get(host).upload(file, remotePath));
+        try {
+            upload.get(hostTimeout.toMillis(), MILLISECONDS);
+            return new SshHostResult(host, OptionalInt.empty(), List.of(), List.of(), stopwatch.elapsed(), Optional.empty());
+        }
+        catch (TimeoutException e) {
+            // interruption alone does not stop an SFTP transfer, closing the connection does
+            upload.cancel(true);
+            clients.get(host).disconnect();
+            return failed(host, stopwatch, List.of(), List.of(), new TimeoutRuntimeException("Upload did not finish on " + host + " within " + hostTimeout));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(host, stopwatch, List.of(), List.of(), e);
+        }
+        catch (ExecutionException e) {
+            return failed(host, stopwatch, List.of(), List.of(), e.getCause());
+        }
+    }
+
+    private long remainingMillis(Stopwatch stopwatch)
+    {
+        return max(hostTimeout.minus(stopwatch.elapsed()).toMillis(), 0);
+    }
+
+    private static SshHostResult failed(String host, Stopwatch stopwatch, List<String> outputLines, List<String> errorLines, Throwable failure)
+    {
+        LOGGER.warn("Failed on {}: {}", host, failure.getMessage());
+        return new SshHostResult(host, OptionalInt.empty(), outputLines, errorLines, stopwatch.elapsed(), Optional.of(failure));
+    }
+
+    private static List<String> getOrEmpty(Future<List<String>> lines)
+    {
+        try {
+            return lines.get(1, SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+        catch (ExecutionException | TimeoutException e) {
+            return List.of();
+        }
+    }
+
+    private static void closeQuietly(CliProcess process)
+    {
+        try {
+            process.close();
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not close process", e);
+        }
+    }
+
+    private static <T> T getUnchecked(Future<T> future)
+    {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        hostExecutor.shutdownNow();
+        ioExecutor.shutdownNow();
+        FailureCollector failures = new FailureCollector();
+        clients.forEach((host, client) -> {
+            try {
+                client.close();
+            }
+            catch (Exception e) {
+                failures.add(new RuntimeException("Could not close SSH client of " + host, e));
+            }
+        });
+        failures.throwIfFailed();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.ssh;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Results of a command or an upload run on all hosts of {@link SshFanOut}, in the order of hosts.
+ */
+public final class SshFanOutResult
+{
+    private final List<SshHostResult> hostResults;
+
+    SshFanOutResult(List<SshHostResult> hostResults)
+    {
+        this.hostResults = ImmutableList.copyOf(requireNonNull(hostResults, "hostResults is null"));
+    }
+
+    public List<SshHostResult> getHostResults()
+    {
+        return hostResults;
+    }
+
+    public SshHostResult getHostResult(String host)
+    {
+        return hostResults.stream()
+                .filter(hostResult -> hostResult.getHost().equals(host))
+                .findFirst()
+                .orElseThrow(() -> new NoSuchElementException("No result for host: " + host));
+    }
+
+    public List<SshHostResult> getFailedHostResults()
+    {
+        return hostResults.stream()
+                .filter(hostResult -> !hostResult.isSuccessful())
+                .collect(toImmutableList());
+    }
+
+    public boolean isSuccessful()
+    {
+        return getFailedHostResults().isEmpty();
+    }
+
+    /**
+     * @throws RuntimeException listing all failed hosts, with their failures suppressed, if any host failed
+     */
+    public SshFanOutResult checkSuccessful()
+    {
+        List<SshHostResult> failed = getFailedHostResults();
+        if (failed.isEmpty()) {
+            return this;
+        }
+        RuntimeException exception = new RuntimeException(failed.stream()
+                .map(hostResult -> hostResult.getHost() + ": " + hostResult.getFailure().get().getMessage())
+                .collect(joining(", ", "Failed on " + failed.size() + " of " + hostResults.size() + " hosts: ", "")));
+        failed.forEach(hostResult -> exception.addSuppressed(hostResult.getFailure().get()));
+        throw exception;
+    }
+}
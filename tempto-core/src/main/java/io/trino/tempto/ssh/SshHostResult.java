@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.ssh;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Result of a command or an upload run on a single host by {@link SshFanOut}.
+ */
+public final class SshHostResult
+{
+    private final String host;
+    private final OptionalInt exitStatus;
+    private final List<String> outputLines;
+    private final List<String> errorLines;
+    private final Duration duration;
+    private final Optional<Throwable> failure;
+
+    SshHostResult(String host, OptionalInt exitStatus, List<String> outputLines, List<String> errorLines, Duration duration, Optional<Throwable> failure)
+    {
+        this.host = requireNonNull(host, "host is null");
+        this.exitStatus = requireNonNull(exitStatus, "exitStatus is null");
+        this.outputLines = ImmutableList.copyOf(requireNonNull(outputLines, "outputLines is null"));
+        this.errorLines = ImmutableList.copyOf(requireNonNull(errorLines, "errorLines is null"));
+        this.duration = requireNonNull(duration, "duration is null");
+        this.failure = requireNonNull(failure, "failure is null");
+    }
+
+    public String getHost()
+    {
+        return host;
+    }
+
+    /**
+     * @return exit status of the command, empty if it did not finish (e.g. it timed out or could not be started)
+     */
+    public OptionalInt getExitStatus()
+    {
+        return exitStatus;
+    }
+
+    public List<String> getOutputLines()
+    {
+        return outputLines;
+    }
+
+    public List<String> getErrorLines()
+    {
+        return errorLines;
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    public Optional<Throwable> getFailure()
+    {
+        return failure;
+    }
+
+    public boolean isSuccessful()
+    {
+        return failure.isEmpty();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("host", host)
+                .add("exitStatus", exitStatus)
+                .add("duration", duration)
+                .add("failure", failure.map(Throwable::getMessage).orElse(null))
+                .toString();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.threads;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Long.numberOfLeadingZeros;
+
+/**
+ * Thread safe histogram of latencies with HDR-style log-linear buckets.
+ * <p>
+ * Values are recorded in microseconds. Every power of two range is split into
+ * 128 linear sub-buckets, so reported percentiles are within
+ * 1% of the actual values, regardless of magnitude, with a fixed memory footprint.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong minMicros = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(Duration latency)
+    {
+        recordMicros(latency.toNanos() / 1_000);
+    }
+
+    public void recordMicros(long micros)
+    {
+        checkArgument(micros >= 0, "latency must not be negative: %s", micros);
+        counts.incrementAndGet(bucketIndex(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        minMicros.accumulateAndGet(micros, Math::min);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount()
+    {
+        return totalCount.get();
+    }
+
+    public Duration getMin()
+    {
+        return getCount() == 0 ? Duration.ZERO : Duration.ofNanos(minMicros.get() * 1_000);
+    }
+
+    public Duration getMax()
+    {
+        return Duration.ofNanos(maxMicros.get() * 1_000);
+    }
+
+    public Duration getMean()
+    {
+        long count = getCount();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalMicros.get() * 1_000 / count);
+    }
+
+    /**
+     * @param percentile percentile in range (0, 100]
+     * @return the highest latency equivalent (within histogram precision) to the value at given percentile
+     */
+    public Duration getPercentile(double percentile)
+    {
+        checkArgument(percentile > 0 && percentile <= 100, "percentile must be in range (0, 100]: %s", percentile);
+        long count = getCount();
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+        long targetCount = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long cumulativeCount = 0;
+        for (int index = 0; index < BUCKET_COUNT; ++index) {
+            cumulativeCount += counts.get(index);
+            if (cumulativeCount >= targetCount) {
+                return Duration.ofNanos(Math.min(highestEquivalentValue(index), maxMicros.get()) * 1_000);
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketIndex(long value)
+    {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKET_HALF_COUNT + subBucket - SUB_BUCKET_HALF_COUNT;
+    }
+
+    static long highestEquivalentValue(int index)
+    {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
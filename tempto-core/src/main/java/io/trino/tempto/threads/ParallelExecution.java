@@ -14,30 +14,113 @@
 package io.trino.tempto.threads;
 
 import com.google.common.collect.ImmutableList;
+import io.trino.tempto.query.QueryExecutor;
+import io.trino.tempto.threads.RunnableTiming.Status;
+import org.slf4j.Logger;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Lists.newArrayList;
-import static java.lang.System.currentTimeMillis;
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.withCurrentTestContext;
+import static io.trino.tempto.threads.RunnableTiming.Status.CANCELLED;
+import static io.trino.tempto.threads.RunnableTiming.Status.FAILED;
+import static io.trino.tempto.threads.RunnableTiming.Status.SUCCEEDED;
+import static java.lang.System.nanoTime;
+import static java.time.Duration.ofNanos;
 import static java.util.Collections.synchronizedList;
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newThreadPerTaskExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * A class implementing parallel execution of code blocks.
+ * <p>
+ * By default every runnable is executed on its own platform thread. {@link ParallelExecutionBuilder} allows
+ * to use virtual threads or a provided {@link Executor} instead, to bound the number of runnables executed
+ * concurrently and to cancel all runnables as soon as one of them fails.
  */
 public class ParallelExecution
 {
-    private final List<Thread> threads;
+    private static final Logger LOGGER = getLogger(ParallelExecution.class);
+
+    private final List<IndexedRunnable> runnables;
+    private final ThreadFactory threadFactory;
+    private final Optional<Executor> executor;
+    private final Optional<Semaphore> permits;
+    private final boolean failFast;
+    private final List<Runnable> cancellationHooks;
+
     private final List<Throwable> throwables = synchronizedList(newArrayList());
+    private final Thread[] runningThreads;
+    private final AtomicReferenceArray<RunnableTiming> timings;
+    private final AtomicInteger remaining;
+    private final CountDownLatch finished;
+
+    private volatile boolean started;
+    private volatile boolean cancelled;
+    private volatile long startNanos;
 
-    private ParallelExecution(List<IndexedRunnable> runnables)
+    private ParallelExecution(
+            List<IndexedRunnable> runnables,
+            ThreadFactory threadFactory,
+            Optional<Executor> executor,
+            Optional<Semaphore> permits,
+            boolean failFast,
+            List<Runnable> cancellationHooks)
     {
-        threads = asThreads(runnables);
+        this.runnables = ImmutableList.copyOf(requireNonNull(runnables, "runnables is null"));
+        this.threadFactory = requireNonNull(threadFactory, "threadFactory is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.permits = requireNonNull(permits, "permits is null");
+        this.failFast = failFast;
+        this.cancellationHooks = ImmutableList.copyOf(requireNonNull(cancellationHooks, "cancellationHooks is null"));
+        this.runningThreads = new Thread[runnables.size()];
+        this.timings = new AtomicReferenceArray<>(runnables.size());
+        this.remaining = new AtomicInteger(runnables.size());
+        this.finished = new CountDownLatch(runnables.size());
     }
 
     public ParallelExecution start()
     {
-        threads.stream().forEach(Thread::start);
+        synchronized (this) {
+            checkState(!started, "parallel execution already started");
+            started = true;
+        }
+        startNanos = nanoTime();
+
+        Optional<ExecutorService> ownedExecutor = Optional.empty();
+        if (executor.isEmpty()) {
+            ownedExecutor = Optional.of(newThreadPerTaskExecutor(threadFactory));
+        }
+        Executor taskExecutor = executor.orElseGet(ownedExecutor::get);
+
+        for (int i = 0; i < runnables.size(); ++i) {
+            int threadIndex = i;
+            try {
+                // inheritance of thread locals does not cover a context bound with a scoped value, pass it explicitly
+                taskExecutor.execute(withCurrentTestContext(() -> execute(threadIndex)));
+            }
+            catch (RejectedExecutionException e) {
+                recordFailure(e);
+                complete(threadIndex, 0L, FAILED);
+            }
+        }
+        // tasks already submitted are still executed, owned executor just does not accept new ones
+        ownedExecutor.ifPresent(ExecutorService::shutdown);
         return this;
     }
 
@@ -64,7 +147,7 @@ public class ParallelExecution
         boolean joinedWithinTimeout = join(timeout);
 
         if (!throwables.isEmpty()) {
-            throw new ParallelExecutionException(throwables);
+            throw new ParallelExecutionException(ImmutableList.copyOf(throwables));
         }
 
         return joinedWithinTimeout;
@@ -79,26 +162,46 @@ public class ParallelExecution
     public boolean join(long timeout)
             throws InterruptedException
     {
+        checkState(started, "parallel execution not started");
         if (timeout == 0) {
-            timeout = Long.MAX_VALUE;
+            finished.await();
+            return true;
         }
+        return finished.await(timeout, MILLISECONDS);
+    }
 
-        long startTime = currentTimeMillis();
-
-        for (Thread thread : threads) {
-            long remaining = calculateRemainingTime(startTime, timeout);
-            if (remaining > 0) {
-                thread.join(remaining);
+    /**
+     * Cancels this execution. Runnables that have not started yet are skipped, running ones are
+     * interrupted and registered cancellation hooks (e.g. {@link QueryExecutor#cancel()}) are invoked.
+     * Failures of runnables observed after cancellation are not reported.
+     */
+    public void cancel()
+    {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            for (Thread thread : runningThreads) {
+                if (thread != null) {
+                    thread.interrupt();
+                }
             }
         }
 
-        return calculateRemainingTime(startTime, timeout) > 0;
+        for (Runnable cancellationHook : cancellationHooks) {
+            try {
+                cancellationHook.run();
+            }
+            catch (RuntimeException e) {
+                LOGGER.warn("Cancellation hook failed", e);
+            }
+        }
     }
 
-    private long calculateRemainingTime(long startTime, long timeout)
+    public boolean isCancelled()
     {
-        long elapsed = currentTimeMillis() - startTime;
-        return timeout - elapsed;
+        return cancelled;
     }
 
     /**
@@ -109,21 +212,115 @@ public class ParallelExecution
         return throwables;
     }
 
-    private List<Thread> asThreads(List<IndexedRunnable> runnables)
+    /**
+     * @return timings of runnables which already completed, ordered by runnable index.
+     */
+    public List<RunnableTiming> getTimings()
+    {
+        List<RunnableTiming> completed = newArrayList();
+        for (int i = 0; i < timings.length(); ++i) {
+            RunnableTiming timing = timings.get(i);
+            if (timing != null) {
+                completed.add(timing);
+            }
+        }
+        return completed;
+    }
+
+    private void execute(int threadIndex)
     {
-        List<Thread> threads = newArrayList();
-        for (int i = 0; i < runnables.size(); ++i) {
-            final int threadIndex = i;
-            threads.add(new Thread(() -> {
-                try {
+        long runStartNanos = nanoTime();
+        Status status = CANCELLED;
+        boolean permitAcquired = false;
+        try {
+            if (!cancelled) {
+                acquirePermit();
+                permitAcquired = true;
+                runStartNanos = nanoTime();
+                if (markRunning(threadIndex)) {
                     runnables.get(threadIndex).run(threadIndex);
+                    status = SUCCEEDED;
                 }
-                catch (Throwable throwable) {
-                    throwables.add(throwable);
-                }
-            }));
+            }
+        }
+        catch (Throwable throwable) {
+            if (cancelled) {
+                LOGGER.debug("Runnable {} failed after parallel execution was cancelled", threadIndex, throwable);
+            }
+            else {
+                status = FAILED;
+                recordFailure(throwable);
+            }
+        }
+        finally {
+            markDone(threadIndex);
+            if (permitAcquired) {
+                permits.ifPresent(Semaphore::release);
+            }
+            complete(threadIndex, runStartNanos, status);
         }
-        return threads;
+    }
+
+    private void acquirePermit()
+            throws InterruptedException
+    {
+        if (permits.isPresent()) {
+            permits.get().acquire();
+        }
+    }
+
+    private synchronized boolean markRunning(int threadIndex)
+    {
+        if (cancelled) {
+            return false;
+        }
+        runningThreads[threadIndex] = Thread.currentThread();
+        return true;
+    }
+
+    private synchronized void markDone(int threadIndex)
+    {
+        runningThreads[threadIndex] = null;
+        // do not leak cancellation interrupt to the next task executed by a pooled thread
+        Thread.interrupted();
+    }
+
+    private void recordFailure(Throwable throwable)
+    {
+        throwables.add(throwable);
+        if (failFast) {
+            cancel();
+        }
+    }
+
+    private void complete(int threadIndex, long runStartNanos, Status status)
+    {
+        long now = nanoTime();
+        if (runStartNanos == 0L) {
+            runStartNanos = now;
+        }
+        timings.set(threadIndex, new RunnableTiming(threadIndex, ofNanos(runStartNanos - startNanos), ofNanos(now - runStartNanos), status));
+        if (remaining.decrementAndGet() == 0) {
+            logTimings();
+        }
+        finished.countDown();
+    }
+
+    private void logTimings()
+    {
+        if (!LOGGER.isDebugEnabled()) {
+            return;
+        }
+        List<RunnableTiming> completed = getTimings();
+        completed.stream()
+                .max(comparing(RunnableTiming::getRunTime))
+                .ifPresent(slowest -> LOGGER.debug(
+                        "Parallel execution of {} runnables finished in {}, cancelled: {}, slowest: {}",
+                        completed.size(),
+                        ofNanos(nanoTime() - startNanos),
+                        cancelled,
+                        slowest));
+        completed.forEach(timing -> LOGGER.debug("{}", timing));
     }
 
     public static ParallelExecution parallelExecution(int nTimes, IndexedRunnable indexedRunnable)
@@ -140,6 +337,11 @@ public class ParallelExecution
     {
         private final List<IndexedRunnable> indexedRunnables = newArrayList();
         private final List<Runnable> runnables = newArrayList();
+        private final List<Runnable> cancellationHooks = newArrayList();
+        private ThreadFactory threadFactory = Thread.ofPlatform().name("parallel-execution-", 0).factory();
+        private Optional<Executor> executor = Optional.empty();
+        private Optional<Integer> maxParallelism = Optional.empty();
+        private boolean failFast;
 
         public ParallelExecutionBuilder addRunnable(IndexedRunnable indexedRunnable)
         {
@@ -160,6 +362,73 @@ public class ParallelExecution
             return this;
         }
 
+        /**
+         * Executes every runnable on its own virtual thread. Suitable for thousands of concurrent,
+         * mostly blocking clients.
+         */
+        public ParallelExecutionBuilder withVirtualThreads()
+        {
+            return withThreadFactory(Thread.ofVirtual().name("parallel-execution-virtual-", 0).factory());
+        }
+
+        /**
+         * Executes every runnable on its own thread created by given {@link ThreadFactory}.
+         */
+        public ParallelExecutionBuilder withThreadFactory(ThreadFactory threadFactory)
+        {
+            this.threadFactory = requireNonNull(threadFactory, "threadFactory is null");
+            this.executor = Optional.empty();
+            return this;
+        }
+
+        /**
+         * Executes runnables on given {@link Executor}. The executor is not shut down by {@link ParallelExecution}.
+         * Test context of the thread calling {@link ParallelExecution#start()} is propagated to the runnables.
+         */
+        public ParallelExecutionBuilder withExecutor(Executor executor)
+        {
+            this.executor = Optional.of(requireNonNull(executor, "executor is null"));
+            return this;
+        }
+
+        /**
+         * Limits the number of runnables executed at the same time. Remaining runnables wait for a free slot.
+         */
+        public ParallelExecutionBuilder withMaxParallelism(int maxParallelism)
+        {
+            checkArgument(maxParallelism > 0, "maxParallelism must be positive");
+            this.maxParallelism = Optional.of(maxParallelism);
+            return this;
+        }
+
+        /**
+         * Cancels the whole execution (see {@link ParallelExecution#cancel()}) as soon as any runnable fails.
+         */
+        public ParallelExecutionBuilder failFast()
+        {
+            this.failFast = true;
+            return this;
+        }
+
+        /**
+         * Registers a hook invoked when the execution is cancelled, e.g. to abort blocking calls
+         * which do not respond to thread interruption.
+         */
+        public ParallelExecutionBuilder addCancellationHook(Runnable cancellationHook)
+        {
+            cancellationHooks.add(requireNonNull(cancellationHook, "cancellationHook is null"));
+            return this;
+        }
+
+        /**
+         * Cancels statements being executed by given {@link QueryExecutor} when the execution is cancelled.
+         */
+        public ParallelExecutionBuilder cancelQueriesOnCancel(QueryExecutor queryExecutor)
+        {
+            requireNonNull(queryExecutor, "queryExecutor is null");
+            return addCancellationHook(queryExecutor::cancel);
+        }
+
         public ParallelExecution build()
         {
             List<IndexedRunnable> allIndexedRunnables =
@@ -167,7 +436,13 @@ public class ParallelExecution
                             .addAll(indexedRunnables)
                             .addAll(asParallelRunnables(runnables))
                             .build();
-            return new ParallelExecution(allIndexedRunnables);
+            return new ParallelExecution(
+                    allIndexedRunnables,
+                    threadFactory,
+                    executor,
+                    maxParallelism.map(Semaphore::new),
+                    failFast,
+                    cancellationHooks);
         }
     }
 
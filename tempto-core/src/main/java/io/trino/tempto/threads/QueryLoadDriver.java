@@ -0,0 +1,251 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.threads;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.tempto.query.QueryExecutor;
+import org.intellij.lang.annotations.Language;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.System.nanoTime;
+import static java.time.Duration.ofNanos;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Runs a weighted mix of SQL statements for a fixed duration and records per statement latencies.
+ * <p>
+ * In the default closed loop mode each of {@code concurrency} clients executes the next statement as soon as
+ * the previous one completes. With {@link Builder#withTargetRate(double)} statements are started at a fixed rate
+ * instead, using at most {@code concurrency} clients. In that mode latency is measured from the moment the
+ * statement was scheduled to start, so a system that cannot keep up with the rate is not hidden
+ * by clients waiting for each other.
+ * <pre>{@code
+ * QueryLoadResult result = QueryLoadDriver.builder(() -> newQueryExecutor())
+ *         .addStatement("point-lookup", "SELECT * FROM nation WHERE n_nationkey = 1", 9)
+ *         .addStatement("aggregation", "SELECT count(*) FROM lineitem", 1)
+ *         .withConcurrency(32)
+ *         .withDuration(Duration.ofMinutes(1))
+ *         .build()
+ *         .run();
+ * assertThat(result).hasNoErrors().statement("point-lookup").hasP99Below(Duration.ofMillis(200));
+ * }</pre>
+ */
+public class QueryLoadDriver
+{
+    private static final Logger LOGGER = getLogger(QueryLoadDriver.class);
+
+    private final Supplier<QueryExecutor> queryExecutorFactory;
+    private final List<WeightedStatement> statements;
+    private final int[] cumulativeWeights;
+    private final int concurrency;
+    private final Optional<Double> targetRate;
+    private final Duration duration;
+    private final boolean virtualThreads;
+
+    private QueryLoadDriver(
+            Supplier<QueryExecutor> queryExecutorFactory,
+            List<WeightedStatement> statements,
+            int concurrency,
+            Optional<Double> targetRate,
+            Duration duration,
+            boolean virtualThreads)
+    {
+        this.queryExecutorFactory = requireNonNull(queryExecutorFactory, "queryExecutorFactory is null");
+        this.statements = ImmutableList.copyOf(requireNonNull(statements, "statements is null"));
+        this.concurrency = concurrency;
+        this.targetRate = requireNonNull(targetRate, "targetRate is null");
+        this.duration = requireNonNull(duration, "duration is null");
+        this.virtualThreads = virtualThreads;
+
+        this.cumulativeWeights = new int[statements.size()];
+        int totalWeight = 0;
+        for (int i = 0; i < statements.size(); ++i) {
+            totalWeight += statements.get(i).weight;
+            cumulativeWeights[i] = totalWeight;
+        }
+    }
+
+    public QueryLoadResult run()
+            throws InterruptedException
+    {
+        List<StatementLoadStatistics> statistics = statements.stream()
+                .map(statement -> new StatementLoadStatistics(statement.name, statement.sql))
+                .collect(toImmutableList());
+        long intervalNanos = targetRate.map(rate -> (long) (SECONDS.toNanos(1) / rate)).orElse(0L);
+
+        LOGGER.info("Running {} statements with concurrency {}{} for {}", statements.size(), concurrency, targetRate.map(rate -> " at " + rate + "/s").orElse(""), duration);
+        long startNanos = nanoTime();
+        long deadlineNanos = startNanos + duration.toNanos();
+        AtomicLong nextStartNanos = new AtomicLong(startNanos);
+
+        ParallelExecution.ParallelExecutionBuilder executionBuilder = ParallelExecution.builder()
+                .addRunnable(concurrency, (int _) -> runClient(statistics, deadlineNanos, nextStartNanos, intervalNanos));
+        if (virtualThreads) {
+            executionBuilder.withVirtualThreads();
+        }
+        executionBuilder.build().start().joinAndRethrow();
+
+        Duration elapsed = ofNanos(nanoTime() - startNanos);
+        statistics.forEach(statement -> statement.finish(elapsed));
+        QueryLoadResult result = new QueryLoadResult(elapsed, concurrency, targetRate.orElse(0.0), statistics);
+        LOGGER.info("Load run finished: {}", result);
+        return result;
+    }
+
+    private void runClient(List<StatementLoadStatistics> statistics, long deadlineNanos, AtomicLong nextStartNanos, long intervalNanos)
+            throws InterruptedException
+    {
+        try (QueryExecutor queryExecutor = queryExecutorFactory.get()) {
+            while (true) {
+                long scheduledNanos;
+                if (intervalNanos > 0) {
+                    scheduledNanos = nextStartNanos.getAndAdd(intervalNanos);
+                    if (scheduledNanos >= deadlineNanos) {
+                        return;
+                    }
+                    NANOSECONDS.sleep(scheduledNanos - nanoTime());
+                }
+                else {
+                    scheduledNanos = nanoTime();
+                    if (scheduledNanos >= deadlineNanos) {
+                        return;
+                    }
+                }
+
+                int statementIndex = nextStatementIndex();
+                StatementLoadStatistics statementStatistics = statistics.get(statementIndex);
+                try {
+                    queryExecutor.executeQuery(statements.get(statementIndex).sql);
+                    statementStatistics.recordSuccess(ofNanos(nanoTime() - scheduledNanos));
+                }
+                catch (RuntimeException e) {
+                    LOGGER.debug("Statement {} failed", statementStatistics.getName(), e);
+                    statementStatistics.recordFailure(e);
+                }
+            }
+        }
+    }
+
+    private int nextStatementIndex()
+    {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, value + 1);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * @param queryExecutorFactory called once per client, created executors are closed when the client finishes
+     */
+    public static Builder builder(Supplier<QueryExecutor> queryExecutorFactory)
+    {
+        return new Builder(queryExecutorFactory);
+    }
+
+    private static class WeightedStatement
+    {
+        private final String name;
+        private final String sql;
+        private final int weight;
+
+        private WeightedStatement(String name, String sql, int weight)
+        {
+            this.name = requireNonNull(name, "name is null");
+            this.sql = requireNonNull(sql, "sql is null");
+            checkArgument(weight > 0, "weight must be positive");
+            this.weight = weight;
+        }
+    }
+
+    public static class Builder
+    {
+        private final Supplier<QueryExecutor> queryExecutorFactory;
+        private final List<WeightedStatement> statements = newArrayList();
+        private int concurrency = 1;
+        private Optional<Double> targetRate = Optional.empty();
+        private Optional<Duration> duration = Optional.empty();
+        private boolean virtualThreads;
+
+        private Builder(Supplier<QueryExecutor> queryExecutorFactory)
+        {
+            this.queryExecutorFactory = requireNonNull(queryExecutorFactory, "queryExecutorFactory is null");
+        }
+
+        public Builder addStatement(String name, @Language("SQL") String sql)
+        {
+            return addStatement(name, sql, 1);
+        }
+
+        public Builder addStatement(String name, @Language("SQL") String sql, int weight)
+        {
+            checkArgument(statements.stream().noneMatch(statement -> statement.name.equals(name)), "Duplicate statement name: %s", name);
+            statements.add(new WeightedStatement(name, sql, weight));
+            return this;
+        }
+
+        /**
+         * @param concurrency number of clients executing statements at the same time
+         */
+        public Builder withConcurrency(int concurrency)
+        {
+            checkArgument(concurrency > 0, "concurrency must be positive");
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * @param executionsPerSecond rate at which statements are started, across all clients
+         */
+        public Builder withTargetRate(double executionsPerSecond)
+        {
+            checkArgument(executionsPerSecond > 0, "target rate must be positive");
+            this.targetRate = Optional.of(executionsPerSecond);
+            return this;
+        }
+
+        public Builder withDuration(Duration duration)
+        {
+            checkArgument(!duration.isNegative() && !duration.isZero(), "duration must be positive");
+            this.duration = Optional.of(duration);
+            return this;
+        }
+
+        public Builder withVirtualThreads()
+        {
+            this.virtualThreads = true;
+            return this;
+        }
+
+        public QueryLoadDriver build()
+        {
+            checkState(!statements.isEmpty(), "no statements added");
+            checkState(duration.isPresent(), "duration not set");
+            return new QueryLoadDriver(queryExecutorFactory, statements, concurrency, targetRate, duration.get(), virtualThreads);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.threads;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.collect.ImmutableList;
+import io.trino.tempto.assertions.QueryLoadAssert;
+import org.assertj.core.api.AssertProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Result of a {@link QueryLoadDriver} run. Use {@code assertThat(result)} for assertions on latencies,
+ * errors and throughput.
+ */
+@JsonPropertyOrder({"durationMillis", "concurrency", "targetRate", "count", "errorCount", "throughput", "statements"})
+public class QueryLoadResult
+        implements AssertProvider<QueryLoadAssert>
+{
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new Jdk8Module())
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Duration duration;
+    private final int concurrency;
+    private final double targetRate;
+    private final List<StatementLoadStatistics> statements;
+
+    QueryLoadResult(Duration duration, int concurrency, double targetRate, List<StatementLoadStatistics> statements)
+    {
+        this.duration = requireNonNull(duration, "duration is null");
+        this.concurrency = concurrency;
+        this.targetRate = targetRate;
+        this.statements = ImmutableList.copyOf(requireNonNull(statements, "statements is null"));
+    }
+
+    public Duration getDuration()
+    {
+        return duration;
+    }
+
+    @JsonProperty
+    public long getDurationMillis()
+    {
+        return duration.toMillis();
+    }
+
+    @JsonProperty
+    public int getConcurrency()
+    {
+        return concurrency;
+    }
+
+    /**
+     * @return requested executions per second, or 0 for a closed loop run
+     */
+    @JsonProperty
+    public double getTargetRate()
+    {
+        return targetRate;
+    }
+
+    @JsonProperty
+    public List<StatementLoadStatistics> getStatements()
+    {
+        return statements;
+    }
+
+    public StatementLoadStatistics getStatement(String name)
+    {
+        return statements.stream()
+                .filter(statement -> statement.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(format("No statement named [%s], available: %s", name, statements)));
+    }
+
+    @JsonProperty
+    public long getCount()
+    {
+        return statements.stream().mapToLong(StatementLoadStatistics::getCount).sum();
+    }
+
+    @JsonProperty
+    public long getErrorCount()
+    {
+        return statements.stream().mapToLong(StatementLoadStatistics::getErrorCount).sum();
+    }
+
+    /**
+     * @return successful executions of all statements per second
+     */
+    @JsonProperty
+    public double getThroughput()
+    {
+        return statements.stream().mapToDouble(StatementLoadStatistics::getThroughput).sum();
+    }
+
+    public String toJson()
+    {
+        try {
+            return MAPPER.writeValueAsString(this);
+        }
+        catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize load result", e);
+        }
+    }
+
+    public void writeJson(Path path)
+    {
+        try {
+            Files.writeString(path, toJson());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public QueryLoadAssert assertThat()
+    {
+        return new QueryLoadAssert(this);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("duration", duration)
+                .add("concurrency", concurrency)
+                .add("targetRate", targetRate)
+                .add("statements", statements)
+                .toString();
+    }
+}
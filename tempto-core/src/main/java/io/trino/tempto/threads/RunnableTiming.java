@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.threads;
+
+import java.time.Duration;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Timing of a single {@link IndexedRunnable} executed by {@link ParallelExecution}.
+ */
+public class RunnableTiming
+{
+    public enum Status
+    {
+        SUCCEEDED,
+        FAILED,
+        /**
+         * Runnable was interrupted or skipped because a sibling failed.
+         */
+        CANCELLED,
+    }
+
+    private final int index;
+    private final Duration queuedTime;
+    private final Duration runTime;
+    private final Status status;
+
+    public RunnableTiming(int index, Duration queuedTime, Duration runTime, Status status)
+    {
+        this.index = index;
+        this.queuedTime = requireNonNull(queuedTime, "queuedTime is null");
+        this.runTime = requireNonNull(runTime, "runTime is null");
+        this.status = requireNonNull(status, "status is null");
+    }
+
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * @return time between {@link ParallelExecution#start()} and the moment runnable actually started,
+     *         e.g. because of waiting for a free slot in a bounded execution.
+     */
+    public Duration getQueuedTime()
+    {
+        return queuedTime;
+    }
+
+    public Duration getRunTime()
+    {
+        return runTime;
+    }
+
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("index", index)
+                .add("queuedTime", queuedTime)
+                .add("runTime", runTime)
+                .add("status", status)
+                .toString();
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.threads;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Latencies, errors and throughput of a single statement executed by {@link QueryLoadDriver}.
+ */
+@JsonPropertyOrder({"name", "sql", "count", "errorCount", "throughput", "latencyMillis"})
+public class StatementLoadStatistics
+{
+    private final String name;
+    private final String sql;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+    private volatile Duration elapsed = Duration.ZERO;
+
+    StatementLoadStatistics(String name, String sql)
+    {
+        this.name = requireNonNull(name, "name is null");
+        this.sql = requireNonNull(sql, "sql is null");
+    }
+
+    void recordSuccess(Duration latency)
+    {
+        latencies.record(latency);
+    }
+
+    void recordFailure(Throwable throwable)
+    {
+        errorCount.incrementAndGet();
+        lastError.set(String.valueOf(throwable.getMessage()));
+    }
+
+    void finish(Duration elapsed)
+    {
+        this.elapsed = requireNonNull(elapsed, "elapsed is null");
+    }
+
+    @JsonProperty
+    public String getName()
+    {
+        return name;
+    }
+
+    @JsonProperty
+    public String getSql()
+    {
+        return sql;
+    }
+
+    /**
+     * @return number of successful executions
+     */
+    @JsonProperty
+    public long getCount()
+    {
+        return latencies.getCount();
+    }
+
+    @JsonProperty
+    public long getErrorCount()
+    {
+        return errorCount.get();
+    }
+
+    @JsonProperty
+    public Optional<String> getLastError()
+    {
+        return Optional.ofNullable(lastError.get());
+    }
+
+    /**
+     * @return ratio of failed executions to all executions
+     */
+    public double getErrorRate()
+    {
+        long total = getCount() + getErrorCount();
+        return total == 0 ? 0 : (double) getErrorCount() / total;
+    }
+
+    /**
+     * @return successful executions per second
+     */
+    @JsonProperty
+    public double getThroughput()
+    {
+        long elapsedNanos = elapsed.toNanos();
+        return elapsedNanos == 0 ? 0 : getCount() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public LatencyHistogram getLatencies()
+    {
+        return latencies;
+    }
+
+    public Duration getPercentile(double percentile)
+    {
+        return latencies.getPercentile(percentile);
+    }
+
+    @JsonProperty("latencyMillis")
+    public LatencySummary getLatencySummary()
+    {
+        return new LatencySummary(latencies);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("name", name)
+                .add("count", getCount())
+                .add("errorCount", getErrorCount())
+                .add("throughput", getThroughput())
+                .add("p50", getPercentile(50))
+                .add("p99", getPercentile(99))
+                .add("max", latencies.getMax())
+                .toString();
+    }
+
+    @JsonPropertyOrder({"min", "mean", "p50", "p90", "p99", "p999", "max"})
+    public static class LatencySummary
+    {
+        private final LatencyHistogram latencies;
+
+        private LatencySummary(LatencyHistogram latencies)
+        {
+            this.latencies = latencies;
+        }
+
+        @JsonProperty
+        public double getMin()
+        {
+            return toMillis(latencies.getMin());
+        }
+
+        @JsonProperty
+        public double getMean()
+        {
+            return toMillis(latencies.getMean());
+        }
+
+        @JsonProperty
+        public double getP50()
+        {
+            return toMillis(latencies.getPercentile(50));
+        }
+
+        @JsonProperty
+        public double getP90()
+        {
+            return toMillis(latencies.getPercentile(90));
+        }
+
+        @JsonProperty
+        public double getP99()
+        {
+            return toMillis(latencies.getPercentile(99));
+        }
+
+        @JsonProperty
+        public double getP999()
+        {
+            return toMillis(latencies.getPercentile(99.9));
+        }
+
+        @JsonProperty
+        public double getMax()
+        {
+            return toMillis(latencies.getMax());
+        }
+
+        private static double toMillis(Duration duration)
+        {
+            return duration.toNanos() / 1_000_000.0;
+        }
+    }
+}
@@ -20,16 +20,21 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 
 import static io.trino.tempto.context.TestContextDsl.withChildTestContext;
+import static io.trino.tempto.context.TestContextPropagatingExecutorService.propagatingTestContext;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.ThreadLocalTestContextException;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.assertTestContextNotSet;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.popAllTestContexts;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.popTestContext;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.pushTestContext;
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.runWithTestContext;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.testContext;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.testContextIfSet;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -145,6 +150,44 @@ public class ThreadLocalTestContextHolderTest
         assertThat(testContext()).isEqualTo(mockTestContext);
     }
 
+    @Test
+    public void scopedTestContextShouldHideAndRestorePushedContext()
+    {
+        TestContext pushedTestContext = mock(TestContext.class);
+        TestContext scopedTestContext = mock(TestContext.class);
+
+        pushTestContext(pushedTestContext);
+
+        runWithTestContext(scopedTestContext, () -> assertThat(testContext()).isEqualTo(scopedTestContext));
+
+        assertThat(testContext()).isEqualTo(pushedTestContext);
+    }
+
+    @Test
+    public void testContextShouldPropagateToPooledThreads()
+            throws Exception
+    {
+        TestContext staleTestContext = mock(TestContext.class);
+        TestContext testContext = mock(TestContext.class);
+
+        // pool thread is created while stale context is set, so it inherits it
+        pushTestContext(staleTestContext);
+        ExecutorService executor = propagatingTestContext(newSingleThreadExecutor());
+        try {
+            executor.submit(() -> {}).get();
+            popTestContext();
+
+            assertThat(executor.submit(() -> testContextIfSet().isPresent()).get()).isFalse();
+
+            pushTestContext(testContext);
+            assertThat(executor.submit(ThreadLocalTestContextHolder::testContext).get()).isEqualTo(testContext);
+            assertThat(CompletableFuture.supplyAsync(ThreadLocalTestContextHolder::testContext, executor).get()).isEqualTo(testContext);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     private Pair<Thread, List<Throwable>> run(Runnable runnable)
     {
         List<Throwable> throwables = new ArrayList<>();
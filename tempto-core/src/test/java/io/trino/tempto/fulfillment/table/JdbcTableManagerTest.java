@@ -14,9 +14,11 @@
 
 package io.trino.tempto.fulfillment.table;
 
+import com.google.common.collect.ImmutableList;
 import io.trino.tempto.fulfillment.table.jdbc.RelationalDataSource;
 import io.trino.tempto.fulfillment.table.jdbc.RelationalTableDefinition;
 import io.trino.tempto.internal.configuration.EmptyConfiguration;
+import io.trino.tempto.internal.fulfillment.table.TableName;
 import io.trino.tempto.internal.fulfillment.table.TableNameGenerator;
 import io.trino.tempto.internal.fulfillment.table.jdbc.JdbcTableManager;
 import io.trino.tempto.query.QueryExecutor;
@@ -30,14 +32,19 @@ import java.sql.ResultSetMetaData;
 import java.util.Collections;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class JdbcTableManagerTest
 {
     private RelationalTableDefinition tableDefinition;
+    private DatabaseMetaData mockMetadata;
     private JdbcTableManager tableManager;
     private String tableName;
 
@@ -51,7 +58,7 @@ public class JdbcTableManagerTest
 
         QueryExecutor mockExecutor = mock(QueryExecutor.class);
         Connection mockConnection = mock(Connection.class);
-        DatabaseMetaData mockMetadata = mock(DatabaseMetaData.class);
+        mockMetadata = mock(DatabaseMetaData.class);
         lenient().when(mockExecutor.getConnection()).thenReturn(mockConnection);
         lenient().when(mockConnection.getMetaData()).thenReturn(mockMetadata);
 
@@ -67,4 +74,21 @@ public class JdbcTableManagerTest
         assertThatCode(() -> tableManager.createImmutable(tableDefinition, TableHandle.tableHandle(tableName)))
                 .doesNotThrowAnyException();
     }
+
+    @Test
+    public void staleMutableTablesAreListedWithNamePattern()
+            throws Exception
+    {
+        ResultSet staleTables = mock(ResultSet.class);
+        when(staleTables.next()).thenReturn(true, true, false);
+        when(staleTables.getString("TABLE_NAME")).thenReturn("TEMPTO_MUT_NATION_AB12CD", "TEMPTORARY");
+        when(staleTables.getString("TABLE_SCHEM")).thenReturn("TEST_SCHEMA");
+        when(mockMetadata.getSearchStringEscape()).thenReturn("\\");
+        when(mockMetadata.storesUpperCaseIdentifiers()).thenReturn(true);
+        when(mockMetadata.getTables(isNull(), eq("test\\_schema"), eq("TEMPTO\\_MUT\\_%"), isNull())).thenReturn(staleTables);
+
+        assertThat(tableManager.listStaleMutableTables(ImmutableList.of("test_schema")))
+                .extracting(TableName::getNameInDatabase)
+                .containsExactly("TEST_SCHEMA.TEMPTO_MUT_NATION_AB12CD");
+    }
 }
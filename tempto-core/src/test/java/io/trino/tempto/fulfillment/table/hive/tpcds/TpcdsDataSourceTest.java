@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.fulfillment.table.hive.tpcds;
+
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static io.trino.tempto.fulfillment.table.hive.tpcds.TpcdsTable.CUSTOMER_ADDRESS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TpcdsDataSourceTest
+{
+    @Test
+    public void shouldSplitDataIntoParts()
+            throws IOException
+    {
+        TpcdsDataSource dataSource = new TpcdsDataSource(CUSTOMER_ADDRESS, 1);
+        TpcdsDataSource splitDataSource = new TpcdsDataSource(CUSTOMER_ADDRESS, 1, 3);
+
+        List<RepeatableContentProducer> parts = List.copyOf(splitDataSource.data());
+
+        assertThat(parts).hasSize(3);
+        ByteArrayOutputStream splitData = new ByteArrayOutputStream();
+        for (RepeatableContentProducer part : parts) {
+            byte[] partData = read(part);
+            assertThat(partData).isNotEmpty();
+            splitData.write(partData);
+        }
+        assertThat(splitData.toByteArray()).isEqualTo(read(dataSource.data().iterator().next()));
+        assertThat(splitDataSource.getPathSuffix()).isEqualTo(dataSource.getPathSuffix());
+        assertThat(splitDataSource.getRevision()).isEqualTo(dataSource.getRevision());
+    }
+
+    @Test
+    public void shouldRejectNonPositivePartCount()
+    {
+        assertThatThrownBy(() -> new TpcdsDataSource(CUSTOMER_ADDRESS, 1, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Part count should be greater than 0: 0");
+    }
+
+    private static byte[] read(RepeatableContentProducer content)
+            throws IOException
+    {
+        try (InputStream input = content.getInputStream()) {
+            return input.readAllBytes();
+        }
+    }
+}
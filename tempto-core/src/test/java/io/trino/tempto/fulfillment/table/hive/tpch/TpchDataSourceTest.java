@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.fulfillment.table.hive.tpch;
+
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static io.trino.tempto.fulfillment.table.hive.tpch.TpchTable.CUSTOMER;
+import static io.trino.tempto.fulfillment.table.hive.tpch.TpchTable.NATION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TpchDataSourceTest
+{
+    @Test
+    public void shouldSplitDataIntoParts()
+            throws IOException
+    {
+        TpchDataSource dataSource = new TpchDataSource(CUSTOMER, 0.01);
+        TpchDataSource splitDataSource = new TpchDataSource(CUSTOMER, 0.01, 4);
+
+        List<RepeatableContentProducer> parts = List.copyOf(splitDataSource.data());
+
+        assertThat(parts).hasSize(4);
+        ByteArrayOutputStream splitData = new ByteArrayOutputStream();
+        for (RepeatableContentProducer part : parts) {
+            byte[] partData = read(part);
+            assertThat(partData).isNotEmpty();
+            splitData.write(partData);
+        }
+        assertThat(splitData.toByteArray()).isEqualTo(read(dataSource.data().iterator().next()));
+        // parts are stored under the same path and reused as the same data
+        assertThat(splitDataSource.getPathSuffix()).isEqualTo(dataSource.getPathSuffix());
+        assertThat(splitDataSource.getRevision()).isEqualTo(dataSource.getRevision());
+    }
+
+    @Test
+    public void shouldGenerateSameDataOnEveryRead()
+            throws IOException
+    {
+        RepeatableContentProducer part = new TpchDataSource(NATION, 1, 2).data().iterator().next();
+
+        assertThat(read(part)).isEqualTo(read(part));
+    }
+
+    @Test
+    public void shouldRejectNonPositivePartCount()
+    {
+        assertThatThrownBy(() -> new TpchDataSource(CUSTOMER, 0.01, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("partCount must be positive: 0");
+    }
+
+    private static byte[] read(RepeatableContentProducer content)
+            throws IOException
+    {
+        try (InputStream input = content.getInputStream()) {
+            return input.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.trino.tempto.internal.FailureCollector.awaitAll;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FailureCollectorTest
+{
+    @Test
+    public void shouldThrowFirstFailureWithOthersSuppressed()
+    {
+        RuntimeException first = new RuntimeException("first");
+        RuntimeException second = new RuntimeException("second");
+        CompletableFuture<Void> succeeded = CompletableFuture.completedFuture(null);
+
+        assertThatThrownBy(() -> awaitAll(List.of(CompletableFuture.failedFuture(first), succeeded, CompletableFuture.failedFuture(second)), "testing"))
+                .isSameAs(first)
+                .satisfies(failure -> assertThat(failure.getSuppressed()).containsExactly(second));
+    }
+
+    @Test
+    public void shouldWrapCheckedFailure()
+    {
+        Exception checked = new Exception("checked");
+
+        assertThatThrownBy(() -> awaitAll(List.of(CompletableFuture.failedFuture(checked)), "testing"))
+                .isExactlyInstanceOf(RuntimeException.class)
+                .hasMessage("Failed testing")
+                .hasCause(checked);
+    }
+
+    @Test
+    public void shouldNotThrowWithoutFailures()
+    {
+        FailureCollector failures = new FailureCollector();
+
+        assertThatNoException().isThrownBy(failures::throwIfFailed);
+        assertThatNoException().isThrownBy(() -> awaitAll(List.of(CompletableFuture.completedFuture(null)), "testing"));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonMapFileTest
+{
+    private static final TypeReference<Map<String, Long>> TYPE = new TypeReference<>() {};
+
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    public void shouldKeepUpdatesOfConcurrentRuns()
+    {
+        Path file = temporaryDirectory.resolve("history").resolve("durations.json");
+        // every run has its own instance, as runs sharing the file would
+        List<CompletableFuture<Void>> updates = IntStream.range(0, 16)
+                .mapToObj(run -> CompletableFuture.runAsync(() -> update(new JsonMapFile<>(file, TYPE), "test-" + run, run)))
+                .collect(toImmutableList());
+        updates.forEach(CompletableFuture::join);
+
+        Map<String, Long> content = new JsonMapFile<>(file, TYPE).read();
+        assertThat(content).hasSize(16);
+        assertThat(content).containsEntry("test-7", 7L);
+    }
+
+    @Test
+    public void shouldReplaceFileWithoutLeavingTemporaryFiles()
+            throws IOException
+    {
+        Path file = temporaryDirectory.resolve("durations.json");
+        JsonMapFile<Long> jsonMapFile = new JsonMapFile<>(file, TYPE);
+        assertThat(jsonMapFile.read()).isEmpty();
+
+        update(jsonMapFile, "first", 1);
+        update(jsonMapFile, "second", 2);
+
+        assertThat(jsonMapFile.read()).isEqualTo(Map.of("first", 1L, "second", 2L));
+        try (Stream<Path> files = Files.list(temporaryDirectory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .containsExactlyInAnyOrder("durations.json", "durations.json.lock");
+        }
+    }
+
+    @Test
+    public void shouldIgnoreUnreadableFile()
+            throws IOException
+    {
+        Path file = temporaryDirectory.resolve("durations.json");
+        Files.writeString(file, "{not json");
+        JsonMapFile<Long> jsonMapFile = new JsonMapFile<>(file, TYPE);
+        assertThat(jsonMapFile.read()).isEmpty();
+
+        update(jsonMapFile, "first", 1);
+
+        assertThat(jsonMapFile.read()).isEqualTo(Map.of("first", 1L));
+    }
+
+    private static void update(JsonMapFile<Long> jsonMapFile, String key, long value)
+    {
+        try {
+            jsonMapFile.update(content -> content.put(key, value));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.convention;
+
+import io.trino.tempto.internal.convention.ConventionTestResultCache.TestFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConventionTestResultCacheTest
+{
+    @TempDir
+    Path temporaryDirectory;
+
+    private Path cacheFile;
+    private Path testFile;
+    private Path datasets;
+
+    @BeforeEach
+    public void setup()
+            throws IOException
+    {
+        cacheFile = temporaryDirectory.resolve("cache.json");
+        testFile = Files.writeString(temporaryDirectory.resolve("query.sql"), "SELECT * FROM nation");
+        datasets = Files.createDirectory(temporaryDirectory.resolve("datasets"));
+        Files.writeString(datasets.resolve("nation.ddl"), "-- type: jdbc\nCREATE TABLE %NAME% (n_nationkey BIGINT)");
+        Files.writeString(datasets.resolve("nation.data-revision"), "1");
+    }
+
+    @Test
+    public void shouldSkipTestWithUnchangedFingerprint()
+    {
+        ConventionTestResultCache cache = cache("1.0");
+        TestFingerprint fingerprint = fingerprint(cache);
+        assertThat(fingerprint.isCachedPass("sql_tests.query")).isFalse();
+        fingerprint.recordPass("sql_tests.query");
+        cache.save();
+
+        cache = cache("1.0");
+        assertThat(fingerprint(cache).isCachedPass("sql_tests.query")).isTrue();
+        assertThat(fingerprint(cache).isCachedPass("sql_tests.other_query")).isFalse();
+    }
+
+    @Test
+    public void shouldRunTestWhenInputsChange()
+            throws IOException
+    {
+        ConventionTestResultCache cache = cache("1.0");
+        fingerprint(cache).recordPass("sql_tests.query");
+        cache.save();
+
+        assertThat(fingerprint(cache("1.1")).isCachedPass("sql_tests.query")).isFalse();
+
+        Files.writeString(datasets.resolve("nation.data-revision"), "2");
+        assertThat(fingerprint(cache("1.0")).isCachedPass("sql_tests.query")).isFalse();
+
+        Files.writeString(datasets.resolve("nation.data-revision"), "1");
+        assertThat(fingerprint(cache("1.0")).isCachedPass("sql_tests.query")).isTrue();
+
+        Files.writeString(testFile.resolveSibling("query.result"), "-- delimiter: |; types: BIGINT\n1|");
+        assertThat(fingerprint(cache("1.0")).isCachedPass("sql_tests.query")).isFalse();
+    }
+
+    @Test
+    public void shouldReadEveryFileOnceDuringRun()
+            throws IOException
+    {
+        ConventionTestResultCache cache = cache("1.0");
+        String fingerprint = fingerprint(cache).getValue();
+
+        // files are assumed not to change during the run, a change is seen by the next run only
+        Files.writeString(datasets.resolve("nation.data-revision"), "2");
+        assertThat(fingerprint(cache).getValue()).isEqualTo(fingerprint);
+        assertThat(fingerprint(cache("1.0")).getValue()).isNotEqualTo(fingerprint);
+    }
+
+    private ConventionTestResultCache cache(String sutVersion)
+    {
+        return new ConventionTestResultCache(cacheFile, sutVersion, () -> Optional.of(datasets));
+    }
+
+    private TestFingerprint fingerprint(ConventionTestResultCache cache)
+    {
+        return cache.fingerprint(List.of(testFile, testFile.resolveSibling("query.result")), Set.of("nation"), "0");
+    }
+}
@@ -14,27 +14,42 @@
 
 package io.trino.tempto.internal.fulfillment.hive;
 
+import com.google.common.collect.ImmutableMap;
 import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
 import io.trino.tempto.fulfillment.table.hive.HiveTableDefinition;
+import io.trino.tempto.fulfillment.table.hive.statistics.TableStatistics;
+import io.trino.tempto.internal.fulfillment.table.TableName;
 import io.trino.tempto.internal.fulfillment.table.TableNameGenerator;
 import io.trino.tempto.internal.fulfillment.table.hive.HiveTableInstance;
 import io.trino.tempto.internal.fulfillment.table.hive.HiveTableManager;
 import io.trino.tempto.internal.fulfillment.table.hive.HiveThriftClient;
 import io.trino.tempto.internal.hadoop.hdfs.HdfsDataSourceWriter;
 import io.trino.tempto.query.QueryExecutor;
-import io.trino.tempto.query.QueryResult;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
-import java.sql.JDBCType;
+import java.util.List;
+import java.util.Optional;
 
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.CREATED;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.LOADED;
+import static io.trino.tempto.fulfillment.table.hive.ColumnarStorage.orc;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class HiveTableManagerTest
@@ -101,8 +116,7 @@ public class HiveTableManagerTest
         String expectedTableLocation = "/user/hive/warehouse/nation_randomSuffix";
         String expectedTableName = "nation";
         String expectedTableNameInDatabase = "nation_randomSuffix";
-        when(queryExecutor.executeQuery("SHOW CREATE TABLE nation_randomSuffix"))
-                .thenReturn(QueryResult.forSingleValue(JDBCType.VARCHAR, "CRATE TABLE NATION(....) LOCATION '/user/hive/warehouse/nation_randomSuffix'"));
+        when(hiveThriftClient.getTableLocation(tableName("nation_randomSuffix"))).thenReturn("hdfs://namenode:8020/user/hive/warehouse/nation_randomSuffix");
 
         HiveTableDefinition tableDefinition = getNationHiveTableDefinition();
         HiveTableInstance tableInstance = (HiveTableInstance) tableManager.createMutable(tableDefinition, LOADED);
@@ -135,8 +149,7 @@ public class HiveTableManagerTest
         String expectedTableLocation = MUTABLE_TABLES_PATH + expectedTableNameInDatabase;
         String expectedPartition0Location = expectedTableLocation + "/partition_0";
         String expectedPartition1Location = expectedTableLocation + "/partition_1";
-        when(queryExecutor.executeQuery("SHOW CREATE TABLE nation_randomSuffix"))
-                .thenReturn(QueryResult.forSingleValue(JDBCType.VARCHAR, "CRATE TABLE NATION(....) LOCATION '/user/hive/warehouse/nation_randomSuffix'"));
+        when(hiveThriftClient.getTableLocation(tableName("nation_randomSuffix"))).thenReturn("hdfs://namenode:8020/user/hive/warehouse/nation_randomSuffix");
 
         HiveTableDefinition tableDefinition = getPartitionedNationHiveTableDefinition();
         HiveTableInstance tableInstance = (HiveTableInstance) tableManager.createMutable(tableDefinition, LOADED);
@@ -146,8 +159,11 @@ public class HiveTableManagerTest
         verify(dataSourceWriter).ensureDataOnHdfs(eq(expectedPartition0Location), any());
         verify(dataSourceWriter).ensureDataOnHdfs(eq(expectedPartition1Location), any());
         verify(queryExecutor).executeQuery(eq(expandDDLTemplate(PARTITIONED_NATION_DDL_TEMPLATE, expectedTableNameInDatabase)));
-        verify(queryExecutor).executeQuery(eq("ALTER TABLE " + expectedTableNameInDatabase + " ADD PARTITION (pc=0) LOCATION '" + expectedPartition0Location + "'"));
-        verify(queryExecutor).executeQuery(eq("ALTER TABLE " + expectedTableNameInDatabase + " ADD PARTITION (pc=1) LOCATION '" + expectedPartition1Location + "'"));
+        verify(queryExecutor).executeQuery(eq("ALTER TABLE " + expectedTableNameInDatabase +
+                " ADD PARTITION (pc=0) LOCATION '" + expectedPartition0Location + "'" +
+                " PARTITION (pc=1) LOCATION '" + expectedPartition1Location + "'"));
+        // location is resolved once per table
+        verify(hiveThriftClient).getTableLocation(any());
     }
 
     @Test
@@ -158,8 +174,7 @@ public class HiveTableManagerTest
         String expectedTableLocation = MUTABLE_TABLES_PATH + expectedTableNameInDatabase;
         String expectedPartition0Location = expectedTableLocation + "/partition_0";
         String expectedPartition1Location = expectedTableLocation + "/partition_1";
-        when(queryExecutor.executeQuery("SHOW CREATE TABLE nation_randomSuffix"))
-                .thenReturn(QueryResult.forSingleValue(JDBCType.VARCHAR, "CRATE TABLE NATION(....) LOCATION '/user/hive/warehouse/nation_randomSuffix'"));
+        when(hiveThriftClient.getTableLocation(tableName("nation_randomSuffix"))).thenReturn("hdfs://namenode:8020/user/hive/warehouse/nation_randomSuffix");
 
         HiveTableDefinition tableDefinition = getPartitionedNationHiveTableDefinition();
         HiveTableInstance tableInstance = (HiveTableInstance) tableManager.createMutable(tableDefinition, CREATED);
@@ -167,8 +182,207 @@ public class HiveTableManagerTest
         assertThat(tableInstance.getNameInDatabase()).isEqualTo(expectedTableNameInDatabase);
         assertThat(tableInstance.getName()).isEqualTo(expectedTableName);
         verify(queryExecutor).executeQuery(eq(expandDDLTemplate(PARTITIONED_NATION_DDL_TEMPLATE, expectedTableNameInDatabase)));
-        verify(queryExecutor).executeQuery(eq("ALTER TABLE " + expectedTableNameInDatabase + " ADD PARTITION (pc=0) LOCATION '" + expectedPartition0Location + "'"));
-        verify(queryExecutor).executeQuery(eq("ALTER TABLE " + expectedTableNameInDatabase + " ADD PARTITION (pc=1) LOCATION '" + expectedPartition1Location + "'"));
+        verify(queryExecutor).executeQuery(eq("ALTER TABLE " + expectedTableNameInDatabase +
+                " ADD PARTITION (pc=0) LOCATION '" + expectedPartition0Location + "'" +
+                " PARTITION (pc=1) LOCATION '" + expectedPartition1Location + "'"));
+    }
+
+    @Test
+    public void shouldCreateColumnarHiveImmutableTableFromTextTable()
+    {
+        String expectedTableLocation = "/tests-path/some/table/in/hdfs";
+        HiveTableDefinition tableDefinition = HiveTableDefinition.from(getNationHiveTableDefinition())
+                .setColumnarStorage(orc().withBlockSize(8388608).sortedBy("n_name"))
+                .build();
+
+        HiveTableInstance tableInstance = (HiveTableInstance) tableManager.createImmutable(tableDefinition);
+
+        assertThat(tableInstance.getNameInDatabase()).isEqualTo("nation");
+        InOrder inOrder = inOrder(dataSourceWriter, queryExecutor);
+        inOrder.verify(dataSourceWriter).ensureDataOnHdfs(eq(expectedTableLocation), any());
+        inOrder.verify(queryExecutor).executeQuery(eq(expandDDLTemplate(NATION_DDL_TEMPLATE, "tempto_staging_nation", expectedTableLocation)));
+        inOrder.verify(queryExecutor).executeQuery("ALTER TABLE tempto_staging_nation SET TBLPROPERTIES('EXTERNAL'='TRUE')");
+        inOrder.verify(queryExecutor).executeQuery("CREATE TABLE nation STORED AS ORC TBLPROPERTIES ('orc.stripe.size'='8388608') AS SELECT * FROM tempto_staging_nation SORT BY n_name");
+        inOrder.verify(queryExecutor).executeQuery("DROP TABLE tempto_staging_nation");
+    }
+
+    @Test
+    public void shouldDropStagingTableWhenColumnarConversionFails()
+    {
+        when(queryExecutor.executeQuery("CREATE TABLE nation STORED AS ORC AS SELECT * FROM tempto_staging_nation")).thenThrow(new RuntimeException("conversion failed"));
+        HiveTableDefinition tableDefinition = HiveTableDefinition.from(getNationHiveTableDefinition())
+                .setColumnarStorage(orc())
+                .build();
+
+        assertThatThrownBy(() -> tableManager.createImmutable(tableDefinition))
+                .hasRootCauseMessage("conversion failed");
+
+        InOrder inOrder = inOrder(queryExecutor);
+        inOrder.verify(queryExecutor).executeQuery("CREATE TABLE nation STORED AS ORC AS SELECT * FROM tempto_staging_nation");
+        inOrder.verify(queryExecutor).executeQuery("DROP TABLE tempto_staging_nation");
+    }
+
+    @Test
+    public void shouldReuseColumnarHiveImmutableTableWhenDataSourceRevisionDidNotChange()
+    {
+        HiveDataSource dataSource = mockDataSource("some/table/in/hdfs");
+        when(dataSource.getRevision()).thenReturn(Optional.of("revision-1"));
+        HiveTableDefinition tableDefinition = HiveTableDefinition.builder("nation")
+                .setDataSource(dataSource)
+                .setCreateTableDDLTemplate(NATION_DDL_TEMPLATE)
+                .setColumnarStorage(orc())
+                .build();
+        when(hiveThriftClient.getTableParameters(tableName("nation"))).thenReturn(Optional.empty());
+
+        tableManager.createImmutable(tableDefinition);
+
+        ArgumentCaptor<String> queries = ArgumentCaptor.forClass(String.class);
+        verify(queryExecutor, atLeastOnce()).executeQuery(queries.capture());
+        String setRevisionQuery = queries.getAllValues().get(queries.getAllValues().size() - 1);
+        assertThat(setRevisionQuery).startsWith("ALTER TABLE nation SET TBLPROPERTIES('tempto.source_revision'='");
+        String sourceRevision = setRevisionQuery.substring(setRevisionQuery.indexOf("'='") + 3, setRevisionQuery.lastIndexOf("'"));
+
+        reset(queryExecutor, dataSourceWriter);
+        when(hiveThriftClient.getTableParameters(tableName("nation"))).thenReturn(Optional.of(ImmutableMap.of("tempto.source_revision", sourceRevision)));
+
+        HiveTableInstance tableInstance = (HiveTableInstance) tableManager.createImmutable(tableDefinition);
+
+        assertThat(tableInstance.getNameInDatabase()).isEqualTo("nation");
+        verifyNoInteractions(queryExecutor, dataSourceWriter);
+
+        // changed data is rewritten
+        when(dataSource.getRevision()).thenReturn(Optional.of("revision-2"));
+
+        tableManager.createImmutable(tableDefinition);
+
+        verify(dataSourceWriter).ensureDataOnHdfs(eq("/tests-path/some/table/in/hdfs"), any());
+        verify(queryExecutor).executeQuery("CREATE TABLE nation STORED AS ORC AS SELECT * FROM tempto_staging_nation");
+    }
+
+    @Test
+    public void shouldCreateColumnarHiveMutableTableLoaded()
+    {
+        when(hiveThriftClient.getTableLocation(new TableName("database", Optional.empty(), "nation_staging", "nation_randomSuffix_staging"))).thenReturn("hdfs://namenode:8020/user/hive/warehouse/nation_randomSuffix_staging");
+        HiveTableDefinition tableDefinition = HiveTableDefinition.from(getNationHiveTableDefinition())
+                .setColumnarStorage(orc())
+                .build();
+
+        HiveTableInstance tableInstance = (HiveTableInstance) tableManager.createMutable(tableDefinition, LOADED);
+
+        assertThat(tableInstance.getNameInDatabase()).isEqualTo("nation_randomSuffix");
+        InOrder inOrder = inOrder(dataSourceWriter, queryExecutor);
+        inOrder.verify(queryExecutor).executeQuery(eq(expandDDLTemplate(NATION_DDL_TEMPLATE, "nation_randomSuffix_staging")));
+        inOrder.verify(dataSourceWriter).ensureDataOnHdfs(eq("/user/hive/warehouse/nation_randomSuffix_staging"), any());
+        inOrder.verify(queryExecutor).executeQuery("CREATE TABLE nation_randomSuffix STORED AS ORC AS SELECT * FROM nation_randomSuffix_staging");
+        inOrder.verify(queryExecutor).executeQuery("DROP TABLE nation_randomSuffix_staging");
+    }
+
+    @Test
+    public void shouldNameStagingTableOfMutableTableAsMutable()
+    {
+        TableNameGenerator realTableNameGenerator = new TableNameGenerator();
+        tableManager = new HiveTableManager(queryExecutor, dataSourceWriter, realTableNameGenerator, hiveThriftClient, ROOT_PATH, "database", false, false);
+        when(hiveThriftClient.getTableLocation(any())).thenReturn("hdfs://namenode:8020/user/hive/warehouse/staging");
+        HiveTableDefinition tableDefinition = HiveTableDefinition.from(getNationHiveTableDefinition())
+                .setColumnarStorage(orc())
+                .build();
+
+        tableManager.createMutable(tableDefinition, LOADED);
+
+        // a staging table left behind by a killed run is dropped by the stale mutable tables sweep
+        ArgumentCaptor<String> queries = ArgumentCaptor.forClass(String.class);
+        verify(queryExecutor, atLeastOnce()).executeQuery(queries.capture());
+        assertThat(queries.getAllValues())
+                .filteredOn(query -> query.startsWith("DROP TABLE "))
+                .singleElement()
+                .satisfies(query -> assertThat(realTableNameGenerator.isMutableTableName(query.substring("DROP TABLE ".length()))).isTrue());
+    }
+
+    @Test
+    public void shouldInjectStatisticsOfImmutableTablesInBackground()
+    {
+        tableManager = new HiveTableManager(queryExecutor, dataSourceWriter, tableNameGenerator, hiveThriftClient, ROOT_PATH, "database", true, false);
+        TableStatistics statistics = new TableStatistics(25, ImmutableMap.of());
+        HiveDataSource dataSource = mockDataSource("some/table/in/hdfs");
+        when(dataSource.getStatistics()).thenReturn(Optional.of(statistics));
+        HiveTableDefinition tableDefinition = HiveTableDefinition.builder("nation")
+                .setDataSource(dataSource)
+                .setCreateTableDDLTemplate(NATION_DDL_TEMPLATE)
+                .build();
+
+        tableManager.createImmutable(tableDefinition);
+        tableManager.awaitImmutableTables();
+
+        verify(hiveThriftClient).setStatistics(tableName("nation"), statistics);
+    }
+
+    @Test
+    public void shouldReportFailedStatisticsInjectionWhenAwaitingImmutableTables()
+    {
+        tableManager = new HiveTableManager(queryExecutor, dataSourceWriter, tableNameGenerator, hiveThriftClient, ROOT_PATH, "database", true, false);
+        HiveDataSource dataSource = mockDataSource("some/table/in/hdfs");
+        when(dataSource.getStatistics()).thenReturn(Optional.of(new TableStatistics(25, ImmutableMap.of())));
+        doThrow(new RuntimeException("metastore is down")).when(hiveThriftClient).setStatistics(any(), any());
+        HiveTableDefinition tableDefinition = HiveTableDefinition.builder("nation")
+                .setDataSource(dataSource)
+                .setCreateTableDDLTemplate(NATION_DDL_TEMPLATE)
+                .build();
+
+        tableManager.createImmutable(tableDefinition);
+
+        assertThatThrownBy(() -> tableManager.awaitImmutableTables())
+                .hasMessage("Failed to inject statistics of table nation")
+                .hasRootCauseMessage("metastore is down");
+        // failure is reported once
+        tableManager.awaitImmutableTables();
+    }
+
+    @Test
+    public void shouldCreateHiveImmutableTableThroughMetastore()
+    {
+        tableManager.setCreateTablesInMetastore(true);
+
+        tableManager.createImmutable(getNationHiveTableDefinition());
+
+        ArgumentCaptor<Table> table = ArgumentCaptor.forClass(Table.class);
+        verify(hiveThriftClient).createTable(table.capture());
+        assertThat(table.getValue().getTableName()).isEqualTo("nation");
+        assertThat(table.getValue().getSd().getLocation()).isEqualTo("/tests-path/some/table/in/hdfs");
+        // external flag is set up front, without ALTER TABLE
+        assertThat(table.getValue().getParameters()).containsEntry("EXTERNAL", "TRUE");
+        verify(queryExecutor).executeQuery("DROP TABLE nation");
+        verifyNoMoreInteractions(queryExecutor);
+    }
+
+    @Test
+    public void shouldAddPartitionsThroughMetastoreInSingleCall()
+    {
+        tableManager.setCreateTablesInMetastore(true);
+        when(hiveThriftClient.getTableLocation(tableName("nation_randomSuffix"))).thenReturn("hdfs://namenode:8020/user/hive/warehouse/nation_randomSuffix");
+
+        HiveTableDefinition tableDefinition = HiveTableDefinition.builder("nation")
+                .setCreateTableDDLTemplate("CREATE TABLE %NAME%(n_nationid BIGINT, n_name STRING) PARTITIONED BY (pc INT) ROW FORMAT DELIMITED FIELDS TERMINATED BY '|'")
+                .addPartition("pc=0", mockDataSource("not/important"))
+                .addPartition("pc=1", mockDataSource("not/important"))
+                .build();
+
+        tableManager.createMutable(tableDefinition, CREATED);
+
+        ArgumentCaptor<List<Partition>> partitions = ArgumentCaptor.forClass(List.class);
+        verify(hiveThriftClient).createTable(any());
+        verify(hiveThriftClient).addPartitions(partitions.capture());
+        assertThat(partitions.getValue())
+                .extracting(partition -> partition.getValues().get(0))
+                .containsExactly("0", "1");
+        assertThat(partitions.getValue())
+                .extracting(partition -> partition.getSd().getLocation())
+                .containsExactly(MUTABLE_TABLES_PATH + "nation_randomSuffix/partition_0", MUTABLE_TABLES_PATH + "nation_randomSuffix/partition_1");
+        verifyNoMoreInteractions(queryExecutor);
+    }
+
+    private static TableName tableName(String nameInDatabase)
+    {
+        return new TableName("database", Optional.empty(), "nation", nameInDatabase);
     }
 
     private String expandDDLTemplate(String template, String tableName)
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.tempto.context.TestContext;
+import io.trino.tempto.fulfillment.TestStatus;
+import io.trino.tempto.fulfillment.table.TableManager;
+import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
+import io.trino.tempto.internal.listeners.TestShard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static io.trino.tempto.internal.configuration.EmptyConfiguration.emptyConfiguration;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StaleMutableTablesFulfillerTest
+{
+    private static final String DATABASE_NAME = "database_name";
+    private static final TableName STALE_TABLE = new TableName(DATABASE_NAME, Optional.empty(), "nation", "tempto_mut_nation_1");
+
+    private TableManager tableManager;
+    private TableManagerDispatcher tableManagerDispatcher;
+
+    @BeforeEach
+    public void setup()
+    {
+        tableManager = mock(TableManager.class);
+        when(tableManager.getDatabaseName()).thenReturn(DATABASE_NAME);
+        when(tableManager.listStaleMutableTables(any())).thenReturn(List.of(STALE_TABLE));
+        tableManagerDispatcher = new DefaultTableManagerDispatcher(ImmutableMap.of(DATABASE_NAME, tableManager));
+    }
+
+    @Test
+    public void shouldDropStaleTables()
+    {
+        StaleMutableTablesFulfiller fulfiller = fulfiller(Optional.empty());
+
+        fulfiller.fulfill(Set.of());
+        fulfiller.cleanup(TestStatus.SUCCESS);
+
+        verify(tableManager).dropTable(STALE_TABLE);
+    }
+
+    @Test
+    public void shouldNotDropTablesOfShardsRunningAtTheSameTime()
+    {
+        // each shard sees mutable tables of the other one as left by a previous run
+        StaleMutableTablesFulfiller firstShard = fulfiller(Optional.of(new TestShard(0, 2, ImmutableMap.of())));
+        StaleMutableTablesFulfiller secondShard = fulfiller(Optional.of(new TestShard(1, 2, ImmutableMap.of())));
+
+        CompletableFuture.allOf(
+                        CompletableFuture.runAsync(() -> firstShard.fulfill(Set.of())),
+                        CompletableFuture.runAsync(() -> secondShard.fulfill(Set.of())))
+                .join();
+        firstShard.cleanup(TestStatus.SUCCESS);
+        secondShard.cleanup(TestStatus.SUCCESS);
+
+        verify(tableManager, never()).listStaleMutableTables(any());
+        verify(tableManager, never()).dropTable(any());
+    }
+
+    private StaleMutableTablesFulfiller fulfiller(Optional<TestShard> testShard)
+    {
+        return new StaleMutableTablesFulfiller(tableManagerDispatcher, emptyConfiguration(), mock(TestContext.class), testShard);
+    }
+}
@@ -16,6 +16,7 @@ package io.trino.tempto.internal.fulfillment.table;
 
 import io.trino.tempto.Requirement;
 import io.trino.tempto.context.State;
+import io.trino.tempto.context.TestContext;
 import io.trino.tempto.fulfillment.TestStatus;
 import io.trino.tempto.fulfillment.table.ImmutableTableRequirement;
 import io.trino.tempto.fulfillment.table.ImmutableTablesState;
@@ -29,7 +30,9 @@ import io.trino.tempto.fulfillment.table.TableManagerDispatcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -38,6 +41,7 @@ import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.CREATED;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.LOADED;
 import static io.trino.tempto.fulfillment.table.TableHandle.tableHandle;
+import static java.util.Map.entry;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
@@ -45,6 +49,8 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -143,6 +149,84 @@ public class TableRequirementFulfillerTest
         verifyNoInteractions(tableManager, otherTableManager, otherTableManager2);
     }
 
+    @Test
+    public void testMutableTableFromPool()
+    {
+        TestTableDefinition tableDefinition = getTableDefinition("nation");
+        TableInstance pooledTableInstance = new TestTableInstance(new TableName(DATABASE_NAME, Optional.empty(), "nation", "nation_pooled_1"), tableDefinition);
+        TableInstance replenishedTableInstance = new TestTableInstance(new TableName(DATABASE_NAME, Optional.empty(), "nation", "nation_pooled_2"), tableDefinition);
+        MutableTableRequirement requirement = MutableTableRequirement.builder(tableDefinition).build();
+
+        when(tableManager.createMutable(eq(tableDefinition), eq(LOADED), any())).thenReturn(pooledTableInstance, replenishedTableInstance);
+
+        MutableTablePool pool = new MutableTablePool(
+                mock(TestContext.class),
+                tableManagerDispatcher,
+                Map.ofEntries(entry((MutableTableRequirement) requirement.copyWithDatabase(DATABASE_NAME), 1)));
+        pool.start();
+        MutableTablesFulfiller fulfiller = new MutableTablesFulfiller(tableManagerDispatcher);
+        fulfiller.setMutableTablePool(pool);
+
+        Set<State> states = fulfiller.fulfill(Set.<Requirement>of(requirement));
+
+        MutableTablesState state = (MutableTablesState) getOnlyElement(states);
+        assertThat(state.get("nation")).isEqualTo(pooledTableInstance);
+        verify(tableManager, never()).dropStaleMutableTables();
+
+        fulfiller.cleanup(TestStatus.SUCCESS);
+        verify(tableManager).dropTable(pooledTableInstance.getTableName());
+
+        pool.drain();
+        verify(tableManager, times(2)).createMutable(eq(tableDefinition), eq(LOADED), any());
+        verify(tableManager).dropTable(replenishedTableInstance.getTableName());
+        assertThat(pool.take(requirement)).isEmpty();
+    }
+
+    @Test
+    public void testMutableTableCopiedFromImmutable()
+    {
+        TestTableDefinition tableDefinition = getTableDefinition("nation");
+        TestTableDefinition otherTableDefinition = getTableDefinition("region");
+        TableInstance immutableTableInstance = new TestTableInstance(new TableName(DATABASE_NAME, Optional.empty(), "nation", "nation"), tableDefinition);
+        TableInstance copiedTableInstance = new TestTableInstance(new TableName(DATABASE_NAME, Optional.empty(), "nation", "nation_copy"), tableDefinition);
+        TableInstance createdTableInstance = new TestTableInstance(new TableName(DATABASE_NAME, Optional.empty(), "region", "region_mutable"), otherTableDefinition);
+
+        when(tableManager.createMutableCopy(eq(tableDefinition), any(), eq(immutableTableInstance))).thenReturn(copiedTableInstance);
+        when(tableManager.createMutable(eq(otherTableDefinition), eq(LOADED), any())).thenReturn(createdTableInstance);
+
+        MutableTablesFulfiller fulfiller = new MutableTablesFulfiller(tableManagerDispatcher);
+        fulfiller.setMutableTableFactory(new MutableTableFactory(List.of(immutableTableInstance)));
+
+        Set<State> states = fulfiller.fulfill(Set.<Requirement>of(
+                MutableTableRequirement.builder(tableDefinition).build(),
+                MutableTableRequirement.builder(otherTableDefinition).build()));
+
+        MutableTablesState state = (MutableTablesState) getOnlyElement(states);
+        assertThat(state.get("nation")).isEqualTo(copiedTableInstance);
+        assertThat(state.get("region")).isEqualTo(createdTableInstance);
+        verify(tableManager, never()).createMutable(eq(tableDefinition), any(), any());
+    }
+
+    @Test
+    public void testMutableTableDroppedInBackground()
+    {
+        TestTableDefinition tableDefinition = getTableDefinition("nation");
+        TableInstance mutableTableInstance = new TestTableInstance(new TableName(DATABASE_NAME, Optional.empty(), "nation", "nation_mutable"), tableDefinition);
+
+        when(tableManager.createMutable(eq(tableDefinition), eq(LOADED), any())).thenReturn(mutableTableInstance);
+
+        MutableTableDropQueue queue = new MutableTableDropQueue(mock(TestContext.class), tableManagerDispatcher);
+        MutableTablesFulfiller fulfiller = new MutableTablesFulfiller(tableManagerDispatcher);
+        fulfiller.setMutableTableDropQueue(queue);
+        fulfiller.fulfill(Set.<Requirement>of(MutableTableRequirement.builder(tableDefinition).build()));
+
+        fulfiller.cleanup(TestStatus.SUCCESS);
+        queue.drain(Duration.ofSeconds(10));
+
+        verify(tableManager).dropTable(mutableTableInstance.getTableName());
+        assertThat(queue.drop(List.of(mutableTableInstance.getTableName()))).isFalse();
+    }
+
     @Test
     public void testImmutableTableFulfillCleanup()
     {
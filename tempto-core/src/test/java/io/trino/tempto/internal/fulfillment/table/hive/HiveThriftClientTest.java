@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table.hive;
+
+import io.trino.tempto.internal.fulfillment.table.TableName;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HiveThriftClientTest
+{
+    private static final String NATION_DDL = "" +
+            "CREATE EXTERNAL TABLE tpch.nation(" +
+            "   n_nationkey     BIGINT," +
+            "   n_name          VARCHAR(25)) " +
+            "PARTITIONED BY (pc INT) " +
+            "ROW FORMAT DELIMITED FIELDS TERMINATED BY '|'";
+
+    private InProcessHiveMetastore metastore;
+    private HiveThriftClient client;
+
+    @BeforeEach
+    public void setUp()
+            throws Exception
+    {
+        metastore = new InProcessHiveMetastore();
+        client = new HiveThriftClient(metastore.getHost(), metastore.getPort(), 2);
+    }
+
+    @AfterEach
+    public void tearDown()
+            throws Exception
+    {
+        client.close();
+        metastore.close();
+    }
+
+    @Test
+    public void shouldCreateTablesAndPartitionsThroughMetastore()
+    {
+        Table table = MetastoreTableFactory.createTable(NATION_DDL, "tpch", "nation", false).orElseThrow();
+
+        client.createDatabaseIfNotExists("tpch");
+        client.createDatabaseIfNotExists("tpch");
+        client.createTable(table);
+        List<Partition> partitions = IntStream.range(0, 3)
+                .mapToObj(partitionId -> MetastoreTableFactory.createPartition(table, "pc=" + partitionId, "/user/hive/warehouse/nation/partition_" + partitionId).orElseThrow())
+                .collect(toImmutableList());
+        client.addPartitions(partitions);
+
+        assertThat(metastore.getDatabases()).containsOnlyKeys("tpch");
+        assertThat(metastore.getTables().get("tpch.nation").getParameters()).containsEntry("EXTERNAL", "TRUE");
+        assertThat(metastore.getPartitions())
+                .extracting(partition -> partition.getValues().get(0))
+                .containsExactly("0", "1", "2");
+        // all partitions are added with a single call
+        assertThat(metastore.getCalls()).containsExactly("create_database", "create_database", "create_table", "add_partitions");
+        assertThat(client.getTableLocation(new TableName("hive", Optional.of("tpch"), "nation", "nation")))
+                .isEqualTo("hdfs://namenode:8020/user/hive/warehouse/nation");
+    }
+
+    @Test
+    public void shouldShareConnectionsBetweenThreads()
+            throws Exception
+    {
+        client.createDatabaseIfNotExists("tpch");
+        client.createTable(MetastoreTableFactory.createTable(NATION_DDL, "tpch", "nation", false).orElseThrow());
+        TableName tableName = new TableName("hive", Optional.of("tpch"), "nation", "nation");
+
+        ExecutorService executor = newFixedThreadPool(8);
+        try {
+            List<Future<String>> locations = IntStream.range(0, 100)
+                    .mapToObj(_ -> executor.submit(() -> client.getTableLocation(tableName)))
+                    .collect(toImmutableList());
+            for (Future<String> location : locations) {
+                assertThat(location.get()).isEqualTo("hdfs://namenode:8020/user/hive/warehouse/nation");
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReportFailedCalls()
+    {
+        assertThatThrownBy(() -> client.getTableLocation(new TableName("hive", Optional.of("tpch"), "missing", "missing")))
+                .hasMessage("Could not get location of table tpch.missing");
+        // connection of the failed call is not reused, next call opens a new one
+        client.createDatabaseIfNotExists("tpch");
+        assertThat(metastore.getDatabases()).containsOnlyKeys("tpch");
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table.hive;
+
+import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.ThriftHiveMetastore;
+import org.apache.thrift.TException;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.server.TThreadPoolServer;
+import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.transport.TTransportException;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Thrift metastore stand-in running in the test JVM. Supports the calls made by {@link HiveThriftClient} to create
+ * databases, tables and partitions, and keeps created objects in memory.
+ */
+class InProcessHiveMetastore
+        implements AutoCloseable
+{
+    private final Map<String, Database> databases = new ConcurrentHashMap<>();
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final List<Partition> partitions = new CopyOnWriteArrayList<>();
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private final ServerSocket serverSocket;
+    private final TServer server;
+
+    InProcessHiveMetastore()
+            throws IOException, TTransportException
+    {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        ThriftHiveMetastore.Iface metastore = (ThriftHiveMetastore.Iface) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {ThriftHiveMetastore.Iface.class},
+                (_, method, arguments) -> handle(method, arguments));
+        server = new TThreadPoolServer(new TThreadPoolServer.Args(new TServerSocket(serverSocket))
+                .processor(new ThriftHiveMetastore.Processor<>(metastore)));
+        Thread serverThread = new Thread(server::serve, "in-process-metastore");
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    String getHost()
+    {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    Map<String, Database> getDatabases()
+    {
+        return databases;
+    }
+
+    Map<String, Table> getTables()
+    {
+        return tables;
+    }
+
+    List<Partition> getPartitions()
+    {
+        return partitions;
+    }
+
+    List<String> getCalls()
+    {
+        return calls;
+    }
+
+    private Object handle(Method method, Object[] arguments)
+            throws TException
+    {
+        calls.add(method.getName());
+        switch (method.getName()) {
+            case "create_database": {
+                Database database = (Database) arguments[0];
+                if (databases.putIfAbsent(database.getName(), database) != null) {
+                    throw new AlreadyExistsException("Database " + database.getName() + " already exists");
+                }
+                return null;
+            }
+            case "create_table": {
+                Table table = (Table) arguments[0];
+                if (table.getSd().getLocation() == null) {
+                    table.getSd().setLocation("hdfs://namenode:8020/user/hive/warehouse/" + table.getTableName());
+                }
+                if (tables.putIfAbsent(table.getDbName() + "." + table.getTableName(), table) != null) {
+                    throw new AlreadyExistsException("Table " + table.getTableName() + " already exists");
+                }
+                return null;
+            }
+            case "get_table": {
+                Table table = tables.get(arguments[0] + "." + arguments[1]);
+                if (table == null) {
+                    throw new NoSuchObjectException("Table " + arguments[1] + " does not exist");
+                }
+                return table;
+            }
+            case "add_partitions": {
+                @SuppressWarnings("unchecked")
+                List<Partition> newPartitions = (List<Partition>) arguments[0];
+                partitions.addAll(newPartitions);
+                return newPartitions.size();
+            }
+            default:
+                throw new TException("Not supported by in-process metastore: " + method.getName());
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        server.stop();
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table.hive;
+
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetastoreTableFactoryTest
+{
+    @Test
+    public void shouldCreateDelimitedTextTable()
+    {
+        Table table = MetastoreTableFactory.createTable("" +
+                        "CREATE  TABLE tpch.nation(" +
+                        "   n_nationkey     BIGINT," +
+                        "   n_name          VARCHAR(25)," +
+                        "   n_price         DECIMAL(12, 2)) " +
+                        "ROW FORMAT DELIMITED FIELDS TERMINATED BY '|' " +
+                        "LOCATION '/tests/tpch/nation'",
+                "tpch",
+                "nation",
+                true)
+                .orElseThrow();
+
+        assertThat(table.getDbName()).isEqualTo("tpch");
+        assertThat(table.getTableName()).isEqualTo("nation");
+        assertThat(table.getTableType()).isEqualTo("EXTERNAL_TABLE");
+        assertThat(table.getParameters()).containsEntry("EXTERNAL", "TRUE");
+        assertThat(table.getSd().getCols()).containsExactly(
+                new FieldSchema("n_nationkey", "bigint", null),
+                new FieldSchema("n_name", "varchar(25)", null),
+                new FieldSchema("n_price", "decimal(12,2)", null));
+        assertThat(table.getSd().getLocation()).isEqualTo("/tests/tpch/nation");
+        assertThat(table.getSd().getSerdeInfo().getParameters()).containsEntry("field.delim", "|");
+        assertThat(table.getPartitionKeys()).isEmpty();
+    }
+
+    @Test
+    public void shouldCreatePartitionsWithValuesInOrderOfPartitionColumns()
+    {
+        Table table = MetastoreTableFactory.createTable(
+                "CREATE TABLE t(a BIGINT) PARTITIONED BY (pc INT, region STRING) ROW FORMAT DELIMITED FIELDS TERMINATED BY '|'",
+                "default",
+                "t",
+                false)
+                .orElseThrow();
+        assertThat(table.getTableType()).isEqualTo("MANAGED_TABLE");
+        assertThat(table.getSd().getLocation()).isNull();
+
+        Partition partition = MetastoreTableFactory.createPartition(table, "region='EUROPE', pc=1", "/warehouse/t/partition_0").orElseThrow();
+
+        assertThat(partition.getValues()).containsExactly("1", "EUROPE");
+        assertThat(partition.getSd().getLocation()).isEqualTo("/warehouse/t/partition_0");
+        assertThat(MetastoreTableFactory.createPartition(table, "pc=1", "/warehouse/t/partition_0")).isEmpty();
+    }
+
+    @Test
+    public void shouldNotConvertUnsupportedDDL()
+    {
+        assertThat(MetastoreTableFactory.createTable("CREATE TABLE t(a BIGINT COMMENT 'key')", "default", "t", false)).isEmpty();
+        assertThat(MetastoreTableFactory.createTable("CREATE TABLE t(a BIGINT) STORED AS ORC", "default", "t", false)).isEmpty();
+        assertThat(MetastoreTableFactory.createTable("CREATE TABLE t(a ARRAY<INT>)", "default", "t", false)).isEmpty();
+        assertThat(MetastoreTableFactory.createTable("CREATE TABLE t AS SELECT * FROM s", "default", "t", false)).isEmpty();
+    }
+}
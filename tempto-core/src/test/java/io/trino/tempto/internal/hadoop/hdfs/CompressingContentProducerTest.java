@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompressingContentProducerTest
+{
+    private final ExecutorService executor = newCachedThreadPool();
+
+    @AfterEach
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCompressContentOnEveryRead()
+            throws IOException
+    {
+        byte[] content = "1|ALGERIA|0|final deposits\n".repeat(20_000).getBytes(UTF_8);
+        CompressingContentProducer producer = new CompressingContentProducer(() -> new ByteArrayInputStream(content), TextDataCompression.GZIP, executor);
+
+        for (int attempt = 0; attempt < 2; ++attempt) {
+            byte[] compressed;
+            try (InputStream input = producer.getInputStream()) {
+                compressed = input.readAllBytes();
+            }
+            assertThat(compressed.length).isLessThan(content.length / 10);
+            assertThat(new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    public void shouldWriteZlibForDeflate()
+            throws IOException
+    {
+        byte[] content = "2|BRAZIL\n".repeat(10).getBytes(UTF_8);
+        CompressingContentProducer producer = new CompressingContentProducer(() -> new ByteArrayInputStream(content), TextDataCompression.DEFLATE, executor);
+
+        try (InputStream input = producer.getInputStream()) {
+            assertThat(new InflaterInputStream(input).readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    public void shouldPropagateContentFailure()
+    {
+        CompressingContentProducer producer = new CompressingContentProducer(
+                () -> {
+                    throw new IOException("no data");
+                },
+                TextDataCompression.GZIP,
+                executor);
+
+        assertThatThrownBy(() -> producer.getInputStream().readAllBytes())
+                .isInstanceOf(IOException.class)
+                .hasMessage("Could not compress content")
+                .cause()
+                .hasMessage("no data");
+    }
+
+    @Test
+    public void shouldStopCompressionWhenClosedEarly()
+            throws IOException
+    {
+        byte[] content = new byte[64 * CompressingContentProducer.CHUNK_SIZE];
+        new Random(7).nextBytes(content);
+        CompressingContentProducer producer = new CompressingContentProducer(() -> new ByteArrayInputStream(content), TextDataCompression.GZIP, executor);
+
+        try (InputStream input = producer.getInputStream()) {
+            assertThat(input.read(new byte[10])).isEqualTo(10);
+        }
+    }
+}
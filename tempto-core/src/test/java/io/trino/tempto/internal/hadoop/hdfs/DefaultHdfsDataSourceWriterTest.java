@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
+import io.trino.tempto.hadoop.hdfs.HdfsClient;
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayInputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+
+import static java.util.Collections.nCopies;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DefaultHdfsDataSourceWriterTest
+{
+    private static final String DATA_PATH = "/tests-path/tpch/sf-1_00/customer";
+
+    @Test
+    public void shouldUploadFilesOfDataSourceInParallel()
+    {
+        HdfsClient hdfsClient = mock(HdfsClient.class);
+        Set<String> savedFiles = ConcurrentHashMap.newKeySet();
+        // every upload waits for the other ones, so uploads succeed only when they run at the same time
+        CyclicBarrier allUploadsStarted = new CyclicBarrier(3);
+        doAnswer(invocation -> {
+            allUploadsStarted.await(10, SECONDS);
+            savedFiles.add(invocation.getArgument(0));
+            return null;
+        }).when(hdfsClient).saveFile(anyString(), any(RepeatableContentProducer.class));
+        DefaultHdfsDataSourceWriter writer = new DefaultHdfsDataSourceWriter(hdfsClient);
+        writer.setUploadParallelism(3);
+
+        writer.ensureDataOnHdfs(DATA_PATH, dataSource(3));
+
+        assertThat(savedFiles).containsOnly(DATA_PATH + "/data_0", DATA_PATH + "/data_1", DATA_PATH + "/data_2");
+        InOrder inOrder = inOrder(hdfsClient);
+        inOrder.verify(hdfsClient).delete(DATA_PATH);
+        inOrder.verify(hdfsClient).createDirectory(DATA_PATH);
+    }
+
+    @Test
+    public void shouldCompleteAllUploadsAndAggregateFailures()
+    {
+        HdfsClient hdfsClient = mock(HdfsClient.class);
+        Set<String> savedFiles = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            String path = invocation.getArgument(0);
+            if (!path.endsWith("/data_1")) {
+                throw new RuntimeException("Could not save file " + path);
+            }
+            savedFiles.add(path);
+            return null;
+        }).when(hdfsClient).saveFile(anyString(), any(RepeatableContentProducer.class));
+        DefaultHdfsDataSourceWriter writer = new DefaultHdfsDataSourceWriter(hdfsClient);
+        writer.setUploadParallelism(2);
+
+        assertThatThrownBy(() -> writer.ensureDataOnHdfs(DATA_PATH, dataSource(3)))
+                .hasMessage("Could not save file " + DATA_PATH + "/data_0")
+                .satisfies(failure -> assertThat(failure.getSuppressed())
+                        .singleElement()
+                        .satisfies(suppressed -> assertThat(suppressed).hasMessage("Could not save file " + DATA_PATH + "/data_2")));
+        assertThat(savedFiles).containsOnly(DATA_PATH + "/data_1");
+    }
+
+    private static HiveDataSource dataSource(int partCount)
+    {
+        HiveDataSource dataSource = mock(HiveDataSource.class);
+        when(dataSource.getPathSuffix()).thenReturn("tpch/sf-1_00/customer");
+        RepeatableContentProducer part = () -> new ByteArrayInputStream("1|Customer#000000001|\n".getBytes());
+        when(dataSource.data()).thenReturn(nCopies(partCount, part));
+        return dataSource;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LocalHdfsClientTest
+{
+    @TempDir
+    Path warehouse;
+
+    private LocalHdfsClient client;
+
+    @BeforeEach
+    public void setUp()
+    {
+        client = new LocalHdfsClient(warehouse.toUri().toString());
+    }
+
+    @Test
+    public void shouldSaveLoadAndDeleteFiles()
+            throws IOException
+    {
+        client.createDirectory("/tempto/nation");
+        client.saveFile("/tempto/nation/data_0", "1|ALGERIA");
+        Path source = Files.writeString(warehouse.resolve("source"), "2|ARGENTINA");
+        try (InputStream input = new FileInputStream(source.toFile())) {
+            client.saveFile("/tempto/nation/data_1", input);
+        }
+        client.saveFile("/tempto/nation/data_2", () -> new ByteArrayInputStream("3|BRAZIL".getBytes(UTF_8)));
+
+        assertThat(Files.readString(warehouse.resolve("tempto/nation/data_0"))).isEqualTo("1|ALGERIA");
+        assertThat(client.loadFile("/tempto/nation/data_1", UTF_8)).isEqualTo("2|ARGENTINA");
+        assertThat(client.getLength("/tempto/nation/data_2")).isEqualTo(8);
+        assertThat(client.listDirectory("/tempto/nation")).containsExactly("data_0", "data_1", "data_2");
+
+        client.delete("/tempto");
+        assertThat(client.exist("/tempto/nation")).isFalse();
+        assertThat(client.getLength("/tempto/nation/data_0")).isEqualTo(-1);
+        // deleting missing path is a no-op, like with WebHDFS
+        client.delete("/tempto");
+    }
+
+    @Test
+    public void shouldUseOctalPermissions()
+    {
+        client.saveFile("/file", "content");
+
+        client.setPermission("/file", "750");
+        assertThat(client.getPermission("/file")).isEqualTo("750");
+        assertThat(client.getOwner("/file")).isEqualTo(System.getProperty("user.name"));
+    }
+
+    @Test
+    public void shouldRejectPathsOutsideOfRoot()
+    {
+        assertThatThrownBy(() -> client.exist("/../outside"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Path /../outside is outside of ");
+    }
+}
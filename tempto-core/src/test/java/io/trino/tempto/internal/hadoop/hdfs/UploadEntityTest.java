@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UploadEntityTest
+{
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    public void shouldStreamInputOnceWithChunkedEncoding()
+            throws IOException
+    {
+        byte[] content = randomBytes(3 * UploadEntity.BUFFER_SIZE + 17);
+        UploadEntity entity = UploadEntity.streaming(new ByteArrayInputStream(content));
+
+        assertThat(entity.isRepeatable()).isFalse();
+        assertThat(entity.isChunked()).isTrue();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        entity.writeTo(output);
+        assertThat(output.toByteArray()).isEqualTo(content);
+        assertThat(entity.getBytesWritten()).isEqualTo(content.length);
+
+        assertThatThrownBy(() -> entity.writeTo(new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Content of a streaming upload can be read only once");
+    }
+
+    @Test
+    public void shouldRepeatSpooledFile()
+            throws IOException
+    {
+        byte[] content = randomBytes(2 * UploadEntity.BUFFER_SIZE + 5);
+        Path spoolFile = Files.createFile(temporaryDirectory.resolve("spool"));
+
+        assertThat(UploadEntity.spool(new ByteArrayInputStream(content), spoolFile)).isEqualTo(content.length);
+        UploadEntity entity = UploadEntity.ofFile(spoolFile);
+
+        assertThat(entity.isRepeatable()).isTrue();
+        assertThat(entity.isChunked()).isFalse();
+        assertThat(entity.getContentLength()).isEqualTo(content.length);
+        for (int attempt = 0; attempt < 2; ++attempt) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            entity.writeTo(output);
+            assertThat(output.toByteArray()).isEqualTo(content);
+        }
+    }
+
+    private static byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
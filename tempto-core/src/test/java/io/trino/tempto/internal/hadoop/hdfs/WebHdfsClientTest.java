@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WebHdfsClientTest
+{
+    @Test
+    public void shouldListDirectories()
+            throws IOException
+    {
+        HttpRequestsExecutor httpRequestsExecutor = mock(HttpRequestsExecutor.class);
+        when(httpRequestsExecutor.execute(any())).thenAnswer(invocation -> {
+            HttpUriRequest request = invocation.getArgument(0);
+            String directory = request.getURI().getPath().substring("/webhdfs/v1/".length());
+            return listStatusResponse(directory + "_file1", directory + "_file2");
+        });
+        WebHdfsClient client = new WebHdfsClient("http://namenode:9870", "hdfs", httpRequestsExecutor);
+        client.setBulkParallelism(2);
+
+        Map<String, List<String>> listings = client.listDirectories(List.of("/a", "/b", "/c", "/a"));
+
+        assertThat(listings).containsOnlyKeys("/a", "/b", "/c");
+        assertThat(listings.get("/b")).containsExactly("b_file1", "b_file2");
+        assertThat(client.listDirectory("/c")).containsExactly("c_file1", "c_file2");
+    }
+
+    @Test
+    public void shouldDeleteDistinctPaths()
+            throws IOException
+    {
+        Set<String> deleted = ConcurrentHashMap.newKeySet();
+        HttpRequestsExecutor httpRequestsExecutor = mock(HttpRequestsExecutor.class);
+        when(httpRequestsExecutor.execute(any())).thenAnswer(invocation -> {
+            HttpUriRequest request = invocation.getArgument(0);
+            assertThat(request.getMethod()).isEqualTo("DELETE");
+            assertThat(deleted.add(request.getURI().getPath())).isTrue();
+            return response(SC_OK);
+        });
+        WebHdfsClient client = new WebHdfsClient("http://namenode:9870", "hdfs", httpRequestsExecutor);
+        client.setBulkParallelism(2);
+
+        client.delete(List.of("/a", "/b", "/c", "/a", "/d"));
+
+        assertThat(deleted).containsOnly("/webhdfs/v1/a", "/webhdfs/v1/b", "/webhdfs/v1/c", "/webhdfs/v1/d");
+    }
+
+    @Test
+    public void shouldCompleteAllDeletesAndAggregateFailures()
+            throws IOException
+    {
+        Set<String> deleted = ConcurrentHashMap.newKeySet();
+        HttpRequestsExecutor httpRequestsExecutor = mock(HttpRequestsExecutor.class);
+        when(httpRequestsExecutor.execute(any())).thenAnswer(invocation -> {
+            HttpUriRequest request = invocation.getArgument(0);
+            String path = request.getURI().getPath();
+            if (path.startsWith("/webhdfs/v1/missing")) {
+                return response(SC_NOT_FOUND);
+            }
+            deleted.add(path);
+            return response(SC_OK);
+        });
+        WebHdfsClient client = new WebHdfsClient("http://namenode:9870", "hdfs", httpRequestsExecutor);
+        client.setBulkParallelism(2);
+
+        assertThatThrownBy(() -> client.delete(List.of("/missing1", "/a", "/missing2", "/b")))
+                .hasMessageContaining("/missing1")
+                .satisfies(failure -> assertThat(failure.getSuppressed())
+                        .singleElement()
+                        .satisfies(suppressed -> assertThat(suppressed).hasMessageContaining("/missing2")));
+        assertThat(deleted).containsOnly("/webhdfs/v1/a", "/webhdfs/v1/b");
+    }
+
+    private static CloseableHttpResponse listStatusResponse(String... names)
+            throws IOException
+    {
+        StringBuilder statuses = new StringBuilder();
+        for (String name : names) {
+            if (!statuses.isEmpty()) {
+                statuses.append(",");
+            }
+            statuses.append("{\"accessTime\":0,\"owner\":\"hdfs\",\"pathSuffix\":\"").append(name).append("\",\"type\":\"FILE\",\"aclBit\":false}");
+        }
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, SC_OK, "OK"));
+        when(response.getEntity()).thenReturn(new StringEntity("{\"FileStatuses\":{\"FileStatus\":[" + statuses + "]}}"));
+        return response;
+    }
+
+    private static CloseableHttpResponse response(int statusCode)
+            throws IOException
+    {
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, "status"));
+        when(response.getEntity()).thenReturn(new StringEntity(""));
+        return response;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.initialization;
+
+import io.trino.tempto.internal.DummyTestRequirement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.testng.ITestClass;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestClaimsTest
+{
+    // claimed tests of the coordinator, shared by all workers
+    private final Set<String> coordinatorClaims = ConcurrentHashMap.newKeySet();
+
+    @AfterEach
+    public void tearDown()
+    {
+        TestClaims.clearClaimer();
+    }
+
+    @Test
+    public void shouldRunEveryRequirementsVariantByExactlyOneWorker()
+    {
+        ITestNGMethod method = testMethod();
+        ITestResult firstVariant = testResult(new RequirementsAwareTestNGMethod(method, Set.of(new DummyTestRequirement("a")), 0, 2));
+        ITestResult secondVariant = testResult(new RequirementsAwareTestNGMethod(method, Set.of(new DummyTestRequirement("b")), 1, 2));
+
+        // workers may see the variants in different order
+        List<String> firstWorkerRuns = runWorker(List.of(firstVariant, secondVariant));
+        List<String> secondWorkerRuns = runWorker(List.of(secondVariant, firstVariant));
+
+        assertThat(firstWorkerRuns).containsExactly("Test.method[requirements-0]", "Test.method[requirements-1]");
+        assertThat(secondWorkerRuns).isEmpty();
+        assertThat(coordinatorClaims).containsExactly("Test.method");
+        assertThat(TestClaims.getInvocationsPerClaim(firstVariant)).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldClaimDataProviderInvocationsSeparately()
+    {
+        ITestNGMethod method = testMethod();
+        ITestResult firstInvocation = testResult(new RequirementsAwareTestNGMethod(method, Set.of()), 0);
+        ITestResult secondInvocation = testResult(new RequirementsAwareTestNGMethod(method, Set.of()), 1);
+
+        List<String> firstWorkerRuns = runWorker(List.of(firstInvocation));
+        List<String> secondWorkerRuns = runWorker(List.of(firstInvocation, secondInvocation));
+
+        assertThat(firstWorkerRuns).containsExactly("Test.method[0]");
+        assertThat(secondWorkerRuns).containsExactly("Test.method[1]");
+        assertThat(TestClaims.getInvocationsPerClaim(secondInvocation)).isEqualTo(1);
+    }
+
+    private List<String> runWorker(List<ITestResult> invocations)
+    {
+        TestClaims.clearClaimer();
+        TestClaims.setClaimer(coordinatorClaims::add);
+        List<String> runs = new ArrayList<>();
+        for (ITestResult invocation : invocations) {
+            try {
+                TestClaims.claim(invocation);
+                assertThat(TestClaims.isClaimed(invocation)).isTrue();
+                runs.add(TestClaims.getInvocationName(invocation));
+            }
+            catch (TestClaims.ClaimedByOtherWorkerException e) {
+                assertThat(TestClaims.isClaimed(invocation)).isFalse();
+            }
+        }
+        return runs;
+    }
+
+    private static ITestNGMethod testMethod()
+    {
+        ITestClass testClass = mock(ITestClass.class);
+        when(testClass.getName()).thenReturn("Test");
+        ITestNGMethod method = mock(ITestNGMethod.class);
+        when(method.getTestClass()).thenReturn(testClass);
+        when(method.getMethodName()).thenReturn("method");
+        when(method.getGroups()).thenReturn(new String[] {});
+        return method;
+    }
+
+    private static ITestResult testResult(ITestNGMethod method)
+    {
+        ITestResult testResult = mock(ITestResult.class);
+        when(testResult.getMethod()).thenReturn(method);
+        when(testResult.getParameters()).thenReturn(new Object[0]);
+        return testResult;
+    }
+
+    private static ITestResult testResult(ITestNGMethod method, int parameterIndex)
+    {
+        ITestResult testResult = mock(ITestResult.class);
+        when(testResult.getMethod()).thenReturn(method);
+        when(testResult.getParameters()).thenReturn(new Object[] {parameterIndex});
+        when(testResult.getParameterIndex()).thenReturn(parameterIndex);
+        return testResult;
+    }
+}
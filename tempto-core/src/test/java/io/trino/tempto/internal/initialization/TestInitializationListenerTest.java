@@ -52,6 +52,7 @@ import static io.trino.tempto.context.ThreadLocalTestContextHolder.assertTestCon
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.assertTestContextSet;
 import static io.trino.tempto.internal.configuration.EmptyConfiguration.emptyConfiguration;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -207,6 +208,46 @@ public class TestInitializationListenerTest
         assertThat(events.get(0).object).isEqualTo(events.get(6).object);
     }
 
+    @Test
+    public void testClaimedByOtherWorkerIsSkippedBeforeFulfillment()
+            throws Exception
+    {
+        TestClass testClass = new TestClass();
+        TestInitializationListener listener = new TestInitializationListener(
+                List.of(),
+                List.of(),
+                List.of(AFulfiller.class),
+                List.of(BFulfiller.class),
+                emptyConfiguration());
+        ITestContext iTestContext = getITestContext(getSuccessMethod(), testClass);
+        IInvokedMethod invokedMethod = getInvokedMethod();
+        ITestResult testResult = getITestResult(getSuccessMethod(), testClass, ITestResult.STARTED);
+        when(testResult.getParameters()).thenReturn(new Object[0]);
+
+        listener.onStart(iTestContext);
+        List<String> claims = new ArrayList<>();
+        TestClaims.setClaimer(testName -> {
+            claims.add(testName);
+            return false;
+        });
+        try {
+            assertThatThrownBy(() -> listener.beforeInvocation(invokedMethod, testResult))
+                    .isInstanceOf(TestClaims.ClaimedByOtherWorkerException.class);
+        }
+        finally {
+            TestClaims.clearClaimer();
+        }
+        assertTestContextNotSet();
+        listener.afterInvocation(invokedMethod, getITestResult(getSuccessMethod(), testClass, ITestResult.SKIP));
+        listener.onFinish(iTestContext);
+
+        assertThat(claims).containsExactly("MockTestClass.mockTestMethod");
+        assertThat(events.stream()
+                .map(event -> event.name)
+                .collect(Collectors.toList()))
+                .containsExactly(SUITE_A_FULFILL, SUITE_A_CLEANUP, SUITE_A_CALLBACK);
+    }
+
     private ITestContext getITestContext(Method method, TestClass testClass)
     {
         ITestContext suiteContext = mock(ITestContext.class);
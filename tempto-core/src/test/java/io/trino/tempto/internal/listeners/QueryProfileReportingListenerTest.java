@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.trino.tempto.internal.query.QueryProfileCollector;
+import io.trino.tempto.query.QueryExecutionStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testng.IClass;
+import org.testng.ISuite;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static io.trino.tempto.internal.listeners.TestTimingsTest.testResult;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class QueryProfileReportingListenerTest
+{
+    @TempDir
+    Path outputDirectory;
+
+    @Test
+    public void shouldWriteProfileOfEveryInvocationAndSuiteSummary()
+            throws IOException
+    {
+        QueryProfileReportingListener listener = new QueryProfileReportingListener();
+        listener.onTestSuccess(profiledTestResult(0, "SELECT 1"));
+        listener.onTestFailure(profiledTestResult(1, "SELECT 2"));
+
+        ISuite suite = mock(ISuite.class);
+        when(suite.getOutputDirectory()).thenReturn(outputDirectory.toString());
+        listener.onFinish(suite);
+
+        ObjectMapper mapper = new ObjectMapper();
+        Path profiles = outputDirectory.resolve("query-profiles");
+        assertThat(mapper.readTree(profiles.resolve("Test.query[0].json").toFile()).get(0).get("sql").asText()).isEqualTo("SELECT 1");
+        assertThat(mapper.readTree(profiles.resolve("Test.query[1].json").toFile()).get(0).get("sql").asText()).isEqualTo("SELECT 2");
+        JsonNode summary = mapper.readTree(profiles.resolve("summary.json").toFile());
+        assertThat(summary.get("databases").get("presto").get("count").asLong()).isEqualTo(2);
+        assertThat(summary.get("slowestStatements")).hasSize(2);
+    }
+
+    @Test
+    public void shouldNotWriteSummaryWithoutProfiledQueries()
+    {
+        ISuite suite = mock(ISuite.class);
+        when(suite.getOutputDirectory()).thenReturn(outputDirectory.toString());
+
+        new QueryProfileReportingListener().onFinish(suite);
+
+        assertThat(outputDirectory.resolve("query-profiles")).doesNotExist();
+    }
+
+    private ITestResult profiledTestResult(int parameterIndex, String sql)
+    {
+        IClass testClass = mock(IClass.class);
+        when(testClass.getName()).thenReturn("Test");
+        ITestNGMethod method = mock(ITestNGMethod.class);
+        when(method.getMethodName()).thenReturn("query");
+        ITestContext context = mock(ITestContext.class);
+        when(context.getOutputDirectory()).thenReturn(outputDirectory.toString());
+        ITestResult testResult = testResult();
+        when(testResult.getTestClass()).thenReturn(testClass);
+        when(testResult.getMethod()).thenReturn(method);
+        when(testResult.getTestContext()).thenReturn(context);
+        when(testResult.getParameters()).thenReturn(new Object[] {parameterIndex});
+        when(testResult.getParameterIndex()).thenReturn(parameterIndex);
+
+        Reporter.setCurrentTestResult(testResult);
+        try {
+            new QueryProfileCollector().queryCompleted(QueryExecutionStatistics.builder("presto", sql).executed().build());
+        }
+        finally {
+            Reporter.setCurrentTestResult(null);
+        }
+        return testResult;
+    }
+}
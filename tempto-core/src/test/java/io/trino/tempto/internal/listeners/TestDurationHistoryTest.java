@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import com.google.common.collect.ImmutableSet;
+import io.trino.tempto.internal.initialization.RequirementsAwareTestNGMethod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testng.IMethodInstance;
+import org.testng.ITestClass;
+import org.testng.ITestNGMethod;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestDurationHistoryTest
+{
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    public void shouldOrderLongestFirst()
+    {
+        Path historyFile = temporaryDirectory.resolve("durations.json");
+        TestDurationHistory history = new TestDurationHistory(historyFile, Optional.empty());
+        history.record("Test.short", 10);
+        history.record("Test.long", 1000);
+        history.record("Test.medium", 60);
+        history.record("Test.medium", 40);
+        history.save();
+
+        history = new TestDurationHistory(historyFile, Optional.empty());
+        assertThat(history.getExpectedDurationMillis("Test.medium")).isEqualTo(100);
+        // median of known durations
+        assertThat(history.getExpectedDurationMillis("Test.unknown")).isEqualTo(100);
+
+        IMethodInstance shortTest = methodInstance("short");
+        IMethodInstance unknownTest = methodInstance("unknown");
+        IMethodInstance longTest = methodInstance("long");
+        IMethodInstance mediumTest = methodInstance("medium");
+        assertThat(history.orderLongestFirst(List.of(shortTest, unknownTest, longTest, mediumTest)))
+                .containsExactly(longTest, unknownTest, mediumTest, shortTest);
+    }
+
+    @Test
+    public void shouldAverageWithPreviousDurations()
+    {
+        Path historyFile = temporaryDirectory.resolve("durations.json");
+        TestDurationHistory history = new TestDurationHistory(historyFile, Optional.of(5L));
+        assertThat(history.getExpectedDurationMillis("Test.first")).isEqualTo(5);
+        history.record("Test.first", 100);
+        history.save();
+
+        history = new TestDurationHistory(historyFile, Optional.empty());
+        history.record("Test.first", 300);
+        history.record("Test.second", 10);
+        history.save();
+
+        history = new TestDurationHistory(historyFile, Optional.empty());
+        assertThat(history.getExpectedDurationMillis("Test.first")).isEqualTo(200);
+        assertThat(history.getExpectedDurationMillis("Test.second")).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldOrderRequirementsVariantsByTheirShareOfDuration()
+    {
+        Path historyFile = temporaryDirectory.resolve("durations.json");
+        TestDurationHistory history = new TestDurationHistory(historyFile, Optional.empty());
+        // three requirements variants, 100ms each
+        history.record("Test.variants", 100);
+        history.record("Test.variants", 100);
+        history.record("Test.variants", 100);
+        history.record("Test.single", 150);
+        history.save();
+
+        history = new TestDurationHistory(historyFile, Optional.empty());
+        assertThat(history.getExpectedDurationMillis("Test.variants")).isEqualTo(300);
+
+        IMethodInstance firstVariant = requirementsVariant(methodInstance("variants"), 0, 3);
+        IMethodInstance secondVariant = requirementsVariant(methodInstance("variants"), 1, 3);
+        IMethodInstance singleTest = methodInstance("single");
+        assertThat(history.orderLongestFirst(List.of(firstVariant, secondVariant, singleTest)))
+                .containsExactly(singleTest, firstVariant, secondVariant);
+    }
+
+    private static IMethodInstance requirementsVariant(IMethodInstance methodInstance, int variant, int variantsCount)
+    {
+        ITestNGMethod method = new RequirementsAwareTestNGMethod(methodInstance.getMethod(), ImmutableSet.of(), variant, variantsCount);
+        IMethodInstance variantInstance = mock(IMethodInstance.class);
+        when(variantInstance.getMethod()).thenReturn(method);
+        return variantInstance;
+    }
+
+    private static IMethodInstance methodInstance(String methodName)
+    {
+        ITestClass testClass = mock(ITestClass.class);
+        when(testClass.getName()).thenReturn("Test");
+        ITestNGMethod method = mock(ITestNGMethod.class);
+        when(method.getTestClass()).thenReturn(testClass);
+        when(method.getMethodName()).thenReturn(methodName);
+        when(method.getGroups()).thenReturn(new String[] {});
+        IMethodInstance methodInstance = mock(IMethodInstance.class);
+        when(methodInstance.getMethod()).thenReturn(method);
+        return methodInstance;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testng.ITestClass;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.trino.tempto.internal.listeners.TestTimingsTest.testResult;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestProfilingListenerTest
+{
+    @TempDir
+    Path outputDirectory;
+
+    @Test
+    public void shouldWriteProfilesSortedByTotalTime()
+            throws IOException
+    {
+        TestProfilingListener listener = new TestProfilingListener();
+        listener.onTestSuccess(profiledTestResult("fast", 1_000_000, new Object[] {}));
+        listener.onTestFailure(profiledTestResult("slow", 30_000_000, new Object[] {"a", null}));
+        listener.onTestSuccess(profiledTestResult("medium", 2_000_000, new Object[] {}));
+
+        ITestContext context = mock(ITestContext.class);
+        when(context.getOutputDirectory()).thenReturn(outputDirectory.toString());
+        TestTimings.suiteTimingsFor(context);
+        listener.onFinish(context);
+
+        JsonNode profile = new ObjectMapper().readTree(outputDirectory.resolve("test-profile.json").toFile());
+        assertThat(profile.get("tests")).extracting(test -> test.get("test").asText())
+                .containsExactly("Test.slow [a, null]", "Test.medium", "Test.fast");
+        JsonNode slowest = profile.get("tests").get(0);
+        assertThat(slowest.get("status").asText()).isEqualTo("FAILURE");
+        assertThat(slowest.get("totalMillis").asDouble()).isEqualTo(30.0);
+        assertThat(slowest.get("cleanupMillis").asDouble()).isEqualTo(30.0);
+        assertThat(profile.get("suite").get("totalMillis").asDouble()).isEqualTo(0.0);
+
+        assertThat(Files.readAllLines(outputDirectory.resolve("test-profile.csv"), UTF_8)).containsExactly(
+                "test,status,total_ms,context_creation_ms,fulfillment_ms,before_methods_ms,test_body_ms,after_methods_ms,cleanup_ms,fulfillers",
+                "\"Test.slow [a, null]\",FAILURE,30.0,0.0,0.0,0.0,0.0,0.0,30.0,\"\"",
+                "\"Test.medium\",SUCCESS,2.0,0.0,0.0,0.0,0.0,0.0,2.0,\"\"",
+                "\"Test.fast\",SUCCESS,1.0,0.0,0.0,0.0,0.0,0.0,1.0,\"\"");
+    }
+
+    @Test
+    public void shouldNotWriteProfileWithoutTests()
+    {
+        ITestContext context = mock(ITestContext.class);
+        when(context.getOutputDirectory()).thenReturn(outputDirectory.toString());
+
+        new TestProfilingListener().onFinish(context);
+
+        assertThat(outputDirectory.resolve("test-profile.json")).doesNotExist();
+    }
+
+    private static ITestResult profiledTestResult(String methodName, long cleanupNanos, Object[] parameters)
+    {
+        ITestClass testClass = mock(ITestClass.class);
+        when(testClass.getName()).thenReturn("Test");
+        ITestNGMethod method = mock(ITestNGMethod.class);
+        when(method.getTestClass()).thenReturn(testClass);
+        when(method.getMethodName()).thenReturn(methodName);
+        when(method.getGroups()).thenReturn(new String[] {});
+        ITestResult testResult = testResult();
+        when(testResult.getMethod()).thenReturn(method);
+        when(testResult.getName()).thenReturn(methodName);
+        when(testResult.getParameters()).thenReturn(parameters);
+        TestTimings.timingsFor(testResult).addCleanup(cleanupNanos);
+        return testResult;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestShardTest
+{
+    @Test
+    public void shouldAssignEveryTestToExactlyOneShard()
+    {
+        List<TestShard> shards = IntStream.range(0, 3)
+                .mapToObj(index -> new TestShard(index, 3, Map.of()))
+                .collect(toImmutableList());
+
+        for (int i = 0; i < 100; ++i) {
+            String testName = "io.trino.tests.Test" + i + ".test";
+            assertThat(shards.stream().filter(shard -> shard.contains(testName))).hasSize(1);
+            // assignment does not depend on the shard computing it
+            assertThat(shards.get(0).getShard(testName)).isEqualTo(shards.get(2).getShard(testName));
+        }
+    }
+
+    @Test
+    public void shouldBalanceShardsByDuration()
+    {
+        Map<String, Long> durations = Map.of(
+                "Test.a", 100L,
+                "Test.b", 60L,
+                "Test.c", 50L,
+                "Test.d", 30L,
+                "Test.e", 20L);
+        TestShard shard = new TestShard(0, 2, durations);
+
+        // longest first to the least loaded shard: a -> 0, b -> 1, c -> 1, d -> 0, e -> 1
+        assertThat(shard.getShard("Test.a")).isEqualTo(0);
+        assertThat(shard.getShard("Test.b")).isEqualTo(1);
+        assertThat(shard.getShard("Test.c")).isEqualTo(1);
+        assertThat(shard.getShard("Test.d")).isEqualTo(0);
+        assertThat(shard.getShard("Test.e")).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRejectInvalidShard()
+    {
+        assertThatThrownBy(() -> new TestShard(2, 2, Map.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("shard index must be between 0 and 1: 2");
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.listeners;
+
+import org.junit.jupiter.api.Test;
+import org.testng.ITestResult;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestTimingsTest
+{
+    @Test
+    public void shouldAggregateTimingsOfTest()
+    {
+        ITestResult testResult = testResult();
+        TestTimings timings = TestTimings.timingsFor(testResult);
+        timings.addContextCreation(1_000_000);
+        timings.addFulfillment(String.class, 2_000_000);
+        timings.addFulfillment(Integer.class, 3_000_000);
+        timings.addFulfillment(String.class, 500_000);
+        timings.addBeforeMethods(4_000_000);
+        timings.addAfterMethods(5_000_000);
+        timings.addCleanup(6_000_000);
+        timings.addCleanup(1_000_000);
+
+        // timings are attached to the test result, so that all listeners see the same instance
+        assertThat(TestTimings.timingsFor(testResult)).isSameAs(timings);
+        assertThat(timings.getContextCreationMillis()).isEqualTo(1.0);
+        assertThat(timings.getFulfillerMillis()).containsExactly(Map.entry("String", 2.5), Map.entry("Integer", 3.0));
+        assertThat(timings.getFulfillmentMillis()).isEqualTo(5.5);
+        assertThat(timings.getBeforeMethodsMillis()).isEqualTo(4.0);
+        assertThat(timings.getAfterMethodsMillis()).isEqualTo(5.0);
+        assertThat(timings.getCleanupMillis()).isEqualTo(7.0);
+        assertThat(timings.getTestBodyMillis()).isEqualTo(0.0);
+        assertThat(timings.getTotalMillis()).isEqualTo(22.5);
+        assertThat(timings.getOverheadMillis()).isEqualTo(22.5);
+    }
+
+    @Test
+    public void shouldMeasureTestBody()
+            throws InterruptedException
+    {
+        TestTimings timings = TestTimings.timingsFor(testResult());
+        // finishing a body which was not started is ignored
+        timings.testBodyFinished();
+        assertThat(timings.getTestBodyMillis()).isEqualTo(0.0);
+
+        timings.testBodyStarted();
+        Thread.sleep(20);
+        timings.testBodyFinished();
+        timings.testBodyFinished();
+
+        assertThat(timings.getTestBodyMillis()).isGreaterThanOrEqualTo(20.0);
+        assertThat(timings.getOverheadMillis()).isEqualTo(0.0);
+    }
+
+    static ITestResult testResult()
+    {
+        Map<String, Object> attributes = new HashMap<>();
+        ITestResult testResult = mock(ITestResult.class);
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(testResult).setAttribute(anyString(), any());
+        when(testResult.getAttribute(anyString())).then(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        return testResult;
+    }
+}
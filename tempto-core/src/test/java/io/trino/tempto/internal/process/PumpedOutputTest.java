@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.process;
+
+import io.trino.tempto.process.TimeoutRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PumpedOutputTest
+{
+    @Test
+    public void shouldServeLinesAndTokensLikeScanner()
+            throws IOException
+    {
+        try (PumpedOutput output = pumpedOutput("first line\n\n  second\r\nlast")) {
+            assertThat(output.next()).isEqualTo("first");
+            assertThat(output.nextLine()).isEqualTo(" line");
+            assertThat(output.hasNext(Pattern.compile("sec.*"))).isTrue();
+            assertThat(output.next()).isEqualTo("second");
+            assertThat(output.nextLine()).isEmpty();
+            assertThat(output.hasNext(Pattern.compile("first"))).isFalse();
+            assertThat(output.nextLine()).isEqualTo("last");
+            assertThat(output.hasNextLine()).isFalse();
+            assertThat(output.hasNext()).isFalse();
+            assertThatThrownBy(output::nextLine)
+                    .isInstanceOf(NoSuchElementException.class);
+        }
+    }
+
+    @Test
+    public void shouldAwaitMatchingLine()
+            throws IOException
+    {
+        PipedOutputStream process = new PipedOutputStream();
+        try (PumpedOutput output = new PumpedOutput("output", new PipedInputStream(process), 16, false)) {
+            assertThatThrownBy(() -> output.await(Pattern.compile("started"), Duration.ofMillis(50)))
+                    .isInstanceOf(TimeoutRuntimeException.class)
+                    .hasMessage("No line matching 'started' was printed to output within PT0.05S");
+
+            process.write("starting\nserver started on port 8080\nnext\n".getBytes(UTF_8));
+            process.flush();
+            MatchResult match = output.await(Pattern.compile("started on port (\\d+)"), Duration.ofSeconds(10));
+
+            assertThat(match.group(1)).isEqualTo("8080");
+            assertThat(output.nextLine()).isEqualTo("next");
+        }
+    }
+
+    @Test
+    public void shouldFailAwaitingWhenOutputEnds()
+            throws IOException
+    {
+        try (PumpedOutput output = pumpedOutput("starting\nfailed\n")) {
+            assertThatThrownBy(() -> output.await(Pattern.compile("started"), Duration.ofSeconds(10)))
+                    .isInstanceOf(NoSuchElementException.class)
+                    .hasMessage("output ended before a line matching 'started' was printed");
+        }
+    }
+
+    @Test
+    public void shouldKeepPumpingUnreadOutputWhenOverwriting()
+            throws IOException
+    {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            lines.append("line ").append(i).append('\n');
+        }
+        try (PumpedOutput output = new PumpedOutput("error", new ByteArrayInputStream(lines.toString().getBytes(UTF_8)), 10, true)) {
+            // the pump is not blocked by the full buffer and reaches the end of the stream
+            assertThat(output.await(Pattern.compile("line 999"), Duration.ofSeconds(10)).group()).isEqualTo("line 999");
+            assertThat(output.hasNextLine()).isFalse();
+        }
+    }
+
+    private static PumpedOutput pumpedOutput(String content)
+    {
+        return new PumpedOutput("output", new ByteArrayInputStream(content.getBytes(UTF_8)), 16, false);
+    }
+}
@@ -14,20 +14,31 @@
 
 package io.trino.tempto.internal.query;
 
+import com.google.common.collect.ImmutableSet;
 import io.trino.tempto.context.TestContext;
 import io.trino.tempto.internal.context.GuiceTestContext;
 import io.trino.tempto.query.JdbcConnectionsPool;
 import io.trino.tempto.query.JdbcConnectivityParamsState;
 import io.trino.tempto.query.JdbcQueryExecutor;
+import io.trino.tempto.query.QueryExecutionException;
+import io.trino.tempto.query.QueryExecutionStatistics;
 import io.trino.tempto.query.QueryResult;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.apache.commons.dbutils.QueryRunner;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static io.trino.tempto.assertions.QueryAssert.Row.row;
 import static io.trino.tempto.assertions.QueryAssert.assertThat;
@@ -36,6 +47,8 @@ import static io.trino.tempto.internal.query.JdbcUtils.connection;
 import static io.trino.tempto.internal.query.JdbcUtils.registerDriver;
 import static java.sql.JDBCType.INTEGER;
 import static java.sql.JDBCType.VARCHAR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class JdbcQueryExecutorTest
 {
@@ -102,6 +115,52 @@ public class JdbcQueryExecutorTest
                         row(3, "Starburst"));
     }
 
+    @Test
+    public void testQueryExecutionListener()
+    {
+        List<QueryExecutionStatistics> executions = new CopyOnWriteArrayList<>();
+        JdbcQueryExecutor listenedQueryExecutor = new JdbcQueryExecutor(JDBC_STATE, new JdbcConnectionsPool(), ImmutableSet.of(executions::add), testContext);
+
+        listenedQueryExecutor.executeQuery("SELECT comp_id, comp_name FROM company ORDER BY comp_id");
+        assertThatThrownBy(() -> listenedQueryExecutor.executeQuery("SELECT * FROM non_existing_table"))
+                .isInstanceOf(QueryExecutionException.class);
+
+        assertThat(executions).hasSize(2);
+        QueryExecutionStatistics select = executions.get(0);
+        assertThat(select.getDatabase()).isEqualTo("connection_name");
+        assertThat(select.getRowCount()).isEqualTo(3);
+        assertThat(select.getApproximateBytes()).isEqualTo("TeradataOracleStarburst".length() + 3 * 8);
+        assertThat(select.isFailed()).isFalse();
+        assertThat(select.getWallTime()).isPositive();
+        assertThat(executions.get(1).getFailure()).hasValueSatisfying(failure ->
+                assertThat(failure).containsIgnoringCase("non_existing_table"));
+    }
+
+    @Test
+    public void testQueryExecutionEventIsRecorded()
+            throws IOException
+    {
+        Path recordingFile = Files.createTempFile("query-execution", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.trino.tempto.QueryExecution");
+            recording.start();
+            queryExecutor.executeQuery("SELECT comp_id, comp_name FROM company ORDER BY comp_id");
+            recording.stop();
+            recording.dump(recordingFile);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+            assertThat(events).hasSize(1);
+            RecordedEvent event = events.get(0);
+            assertThat(event.getString("database")).isEqualTo("connection_name");
+            assertThat(event.getString("sql")).isEqualTo("SELECT comp_id, comp_name FROM company ORDER BY comp_id");
+            assertThat(event.getLong("rowCount")).isEqualTo(3);
+            assertThat(event.getBoolean("failed")).isFalse();
+        }
+        finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
     @Test
     public void testUpdate()
     {
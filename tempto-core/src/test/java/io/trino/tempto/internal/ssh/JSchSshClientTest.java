@@ -14,6 +14,9 @@
 package io.trino.tempto.internal.ssh;
 
 import com.google.common.io.Files;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
 import io.trino.tempto.process.CliProcess;
 import io.trino.tempto.ssh.SshClient;
 import org.apache.sshd.SshServer;
@@ -28,6 +31,7 @@ import org.apache.sshd.server.auth.UserAuthPublicKey;
 import org.apache.sshd.server.command.ScpCommandFactory;
 import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
 import org.apache.sshd.server.session.ServerSession;
+import org.apache.sshd.server.sftp.SftpSubsystem;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -41,8 +45,10 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -59,65 +65,163 @@ public class JSchSshClientTest
 
     @Test
     public void shouldConnectAndExecuteCommandOnMaster()
-            throws InterruptedException
+            throws IOException, InterruptedException
     {
-        SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD));
-
-        CliProcess process = client.execute(List.of("echo", "hello world"));
-        String line = process.nextOutputLine();
-        process.waitForWithTimeoutAndKill();
+        try (SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))) {
+            CliProcess process = client.execute(List.of("echo", "hello world"));
+            String line = process.nextOutputLine();
+            process.waitForWithTimeoutAndKill();
 
-        assertThat(line).isEqualTo("hello world");
+            assertThat(line).isEqualTo("hello world");
+        }
     }
 
     @Test
     public void shouldFailWhenInvalidSshCommand()
+            throws IOException
     {
-        SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD));
-
-        CliProcess process = client.execute(List.of("foo"));
+        try (SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))) {
+            CliProcess process = client.execute(List.of("foo"));
 
-        assertThatThrownBy(() -> process.waitForWithTimeoutAndKill())
-                .isInstanceOf(RuntimeException.class);
+            assertThatThrownBy(() -> process.waitForWithTimeoutAndKill())
+                    .isInstanceOf(RuntimeException.class);
+        }
     }
 
     @Test
     public void shouldFailWhenTimeouted()
+            throws IOException
     {
-        SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD));
-        CliProcess process = client.execute(List.of("sleep", "5"));
+        try (SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))) {
+            CliProcess process = client.execute(List.of("sleep", "5"));
 
-        assertThatThrownBy(() -> process.waitForWithTimeoutAndKill(Duration.ofMillis(100)))
-                .isInstanceOf(RuntimeException.class);
+            assertThatThrownBy(() -> process.waitForWithTimeoutAndKill(Duration.ofMillis(100)))
+                    .isInstanceOf(RuntimeException.class);
+        }
     }
 
     @Test
     public void shouldUploadFile()
             throws IOException
     {
-        SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD));
-        Path file = fileWithContent("hello world");
-        UUID suffix = UUID.randomUUID();
-        String fileName = "/tmp/test_file.txt_" + suffix;
-        client.upload(file, fileName);
+        try (SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))) {
+            Path file = fileWithContent("hello world");
+            UUID suffix = UUID.randomUUID();
+            String fileName = "/tmp/test_file.txt_" + suffix;
+            client.upload(file, fileName);
+
+            String content = Files.toString(new File(fileName), UTF_8);
+
+            assertThat(content).isEqualTo("hello world");
+        }
+    }
+
+    @Test
+    public void shouldOverwriteExistingFile()
+            throws IOException
+    {
+        try (SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))) {
+            Path file = fileWithContent("hello world");
+            String fileName = fileWithContent("old content").toString();
+
+            client.upload(file, fileName);
+
+            assertThat(Files.toString(new File(fileName), UTF_8)).isEqualTo("hello world");
+        }
+    }
+
+    @Test
+    public void shouldUploadFileIntoDirectory()
+            throws IOException
+    {
+        try (SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))) {
+            Path file = fileWithContent("hello world");
+            Path directory = createTempDirectory("tempto-upload");
 
-        String content = Files.toString(new File(fileName), UTF_8);
+            client.upload(file, directory.toString());
+            client.upload(file, directory + "/");
 
-        assertThat(content).isEqualTo("hello world");
+            assertThat(directory.toFile().list()).containsExactly(file.getFileName().toString());
+            assertThat(Files.toString(directory.resolve(file.getFileName()).toFile(), UTF_8)).isEqualTo("hello world");
+        }
     }
 
     @Test
     public void shouldConnectWithJustAPrivateKey()
-            throws InterruptedException
+            throws IOException, InterruptedException
     {
         factory.addIdentity("src/test/resources/ssh/ssh.pem");
-        SshClient client = factory.create(HOST, PORT, USER, Optional.empty());
+        try (SshClient client = factory.create(HOST, PORT, USER, Optional.empty())) {
+            CliProcess process = client.execute(List.of("echo", "hello world"));
+            String line = process.nextOutputLine();
+            process.waitForWithTimeoutAndKill();
+
+            assertThat(line).isEqualTo("hello world");
+        }
+    }
+
+    @Test
+    public void shouldReuseSessionForCommandsAndUploads()
+            throws Exception
+    {
+        List<Session> sessions = new CopyOnWriteArrayList<>();
+        try (SshClient client = new JSchSshClient(() -> createSession(sessions))) {
+            // channels of both commands are open at the same time
+            CliProcess first = client.execute(List.of("echo", "hello world"));
+            CliProcess second = client.execute(List.of("echo", "hello world"));
+            assertThat(first.nextOutputLine()).isEqualTo("hello world");
+            assertThat(second.nextOutputLine()).isEqualTo("hello world");
+            first.waitForWithTimeoutAndKill();
+            second.waitForWithTimeoutAndKill();
+
+            String fileName = "/tmp/test_file.txt_" + UUID.randomUUID();
+            client.upload(fileWithContent("hello world"), fileName);
+            assertThat(Files.toString(new File(fileName), UTF_8)).isEqualTo("hello world");
+
+            assertThat(sessions).hasSize(1);
+            assertThat(sessions.get(0).isConnected()).isTrue();
+        }
+        assertThat(sessions.get(0).isConnected()).isFalse();
+    }
+
+    @Test
+    public void shouldReconnectLostSession()
+            throws Exception
+    {
+        List<Session> sessions = new CopyOnWriteArrayList<>();
+        try (SshClient client = new JSchSshClient(() -> createSession(sessions))) {
+            assertThat(client.command("\"echo\" \"hello world\"")).isEqualTo("hello world");
+            sessions.get(0).disconnect();
 
-        CliProcess process = client.execute(List.of("echo", "hello world"));
-        String line = process.nextOutputLine();
-        process.waitForWithTimeoutAndKill();
+            assertThat(client.command("\"echo\" \"hello world\"")).isEqualTo("hello world");
+            assertThat(sessions).hasSize(2);
+        }
+    }
 
-        assertThat(line).isEqualTo("hello world");
+    @Test
+    public void shouldFailWhenClosed()
+            throws IOException
+    {
+        SshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD));
+        client.close();
+
+        assertThatThrownBy(() -> client.execute(List.of("echo", "hello world")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("SSH client is closed");
+    }
+
+    private static Session createSession(List<Session> sessions)
+    {
+        try {
+            Session session = new JSch().getSession(USER, HOST, PORT);
+            session.setPassword(PASSWORD);
+            session.setConfig("StrictHostKeyChecking", "no");
+            sessions.add(session);
+            return session;
+        }
+        catch (JSchException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     private Path fileWithContent(String content)
@@ -192,6 +296,7 @@ public class JSchSshClientTest
             }
         };
         sshd.setCommandFactory(new ScpCommandFactory(delegateFactory));
+        sshd.setSubsystemFactories(Arrays.<NamedFactory<Command>>asList(new SftpSubsystem.Factory()));
     }
 
     @AfterAll
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class CliProcessTest
+{
+    @Test
+    public void shouldAwaitMatchingOutputLine()
+    {
+        CliProcess process = mock(CliProcess.class, CALLS_REAL_METHODS);
+        doReturn(true).when(process).hasNextOutputLine();
+        doReturn("starting", "started on port 8080").when(process).nextOutputLine();
+
+        assertThat(process.awaitOutput(Pattern.compile("port (\\d+)"), Duration.ofSeconds(10)).group(1)).isEqualTo("8080");
+    }
+
+    @Test
+    public void shouldFailWhenErrorEndsBeforeMatchingLine()
+    {
+        CliProcess process = mock(CliProcess.class, CALLS_REAL_METHODS);
+        doReturn(true, false).when(process).hasNextErrorLine();
+        doReturn("warning").when(process).nextErrorLine();
+
+        assertThatThrownBy(() -> process.awaitError(Pattern.compile("fatal"), Duration.ofSeconds(10)))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessage("error ended before a line matching 'fatal' was printed");
+    }
+
+    @Test
+    public void shouldTimeOutBetweenOutputLines()
+    {
+        CliProcess process = mock(CliProcess.class, CALLS_REAL_METHODS);
+        doReturn(true).when(process).hasNextOutputLine();
+        doReturn("waiting").when(process).nextOutputLine();
+
+        assertThatThrownBy(() -> process.awaitOutput(Pattern.compile("started"), Duration.ZERO))
+                .isInstanceOf(TimeoutRuntimeException.class)
+                .hasMessage("No line matching 'started' was printed to output within PT0S");
+    }
+}
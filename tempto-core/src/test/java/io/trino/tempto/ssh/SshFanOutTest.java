@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.ssh;
+
+import com.google.common.collect.ImmutableMap;
+import io.trino.tempto.process.CliProcess;
+import io.trino.tempto.process.CommandExecutionException;
+import io.trino.tempto.process.TimeoutRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SshFanOutTest
+{
+    @Test
+    public void shouldRunCommandOnAllHostsConcurrently()
+            throws IOException
+    {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        ImmutableMap.Builder<String, SshClient> clients = ImmutableMap.builder();
+        for (String host : List.of("a", "b", "c")) {
+            CliProcess process = mock(CliProcess.class);
+            when(process.readRemainingOutputLines()).then(_ -> {
+                allStarted.countDown();
+                // completes only if all hosts run at the same time
+                assertThat(allStarted.await(10, SECONDS)).isTrue();
+                return List.of("hello from " + host);
+            });
+            when(process.readRemainingErrorLines()).thenReturn(List.of());
+            clients.put(host, clientExecuting("hostname", process));
+        }
+
+        try (SshFanOut fanOut = new SshFanOut(clients.build())) {
+            SshFanOutResult result = fanOut.execute("hostname");
+
+            assertThat(result.isSuccessful()).isTrue();
+            assertThat(result.getHostResults())
+                    .extracting(SshHostResult::getHost)
+                    .containsExactly("a", "b", "c");
+            assertThat(result.getHostResult("b").getOutputLines()).containsExactly("hello from b");
+            assertThat(result.getHostResult("b").getExitStatus()).isEqualTo(OptionalInt.of(0));
+        }
+    }
+
+    @Test
+    public void shouldAggregateFailuresOfHosts()
+            throws Exception
+    {
+        CliProcess succeeding = process(List.of("ok"), List.of());
+        CliProcess failing = process(List.of(), List.of("no such file"));
+        doThrow(new CommandExecutionException("SSH command exited with status: 2", 2)).when(failing).waitForWithTimeoutAndKill(any());
+        SshClient unreachable = mock(SshClient.class);
+        when(unreachable.execute("ls")).thenThrow(new RuntimeException("Connection refused"));
+
+        try (SshFanOut fanOut = new SshFanOut(ImmutableMap.of("a", clientExecuting("ls", succeeding), "b", clientExecuting("ls", failing), "c", unreachable))) {
+            SshFanOutResult result = fanOut.execute("ls");
+
+            assertThat(result.isSuccessful()).isFalse();
+            assertThat(result.getFailedHostResults())
+                    .extracting(SshHostResult::getHost)
+                    .containsExactly("b", "c");
+            assertThat(result.getHostResult("b").getExitStatus()).isEqualTo(OptionalInt.of(2));
+            assertThat(result.getHostResult("b").getErrorLines()).containsExactly("no such file");
+            assertThat(result.getHostResult("c").getExitStatus()).isEmpty();
+            assertThatThrownBy(result::checkSuccessful)
+                    .hasMessage("Failed on 2 of 3 hosts: b: SSH command exited with status: 2, c: Connection refused");
+        }
+    }
+
+    @Test
+    public void shouldKillCommandAfterHostTimeout()
+            throws IOException
+    {
+        CountDownLatch closed = new CountDownLatch(1);
+        CliProcess hanging = mock(CliProcess.class);
+        when(hanging.readRemainingOutputLines()).then(_ -> {
+            closed.await();
+            return List.of();
+        });
+        when(hanging.readRemainingErrorLines()).thenReturn(List.of());
+        doAnswer(_ -> {
+            closed.countDown();
+            return null;
+        }).when(hanging).close();
+
+        try (SshFanOut fanOut = new SshFanOut(ImmutableMap.of("a", clientExecuting("sleep", hanging)), 1, Duration.ofMillis(100))) {
+            SshHostResult result = fanOut.execute("sleep").getHostResult("a");
+
+            assertThat(result.getFailure()).containsInstanceOf(TimeoutRuntimeException.class);
+            assertThat(result.getExitStatus()).isEmpty();
+        }
+        verify(hanging, atLeastOnce()).close();
+    }
+
+    @Test
+    public void shouldUploadToAllHosts()
+            throws IOException
+    {
+        Path file = Paths.get("file.txt");
+        SshClient first = mock(SshClient.class);
+        SshClient second = mock(SshClient.class);
+        doThrow(new RuntimeException("Permission denied")).when(second).upload(file, "/tmp/file.txt");
+
+        try (SshFanOut fanOut = new SshFanOut(ImmutableMap.of("a", first, "b", second))) {
+            SshFanOutResult result = fanOut.upload(file, "/tmp/file.txt");
+
+            verify(first).upload(file, "/tmp/file.txt");
+            assertThat(result.getHostResult("a").isSuccessful()).isTrue();
+            assertThat(result.getHostResult("b").getFailure()).get().extracting(Throwable::getMessage).isEqualTo("Permission denied");
+        }
+        verify(first).close();
+        verify(second).close();
+    }
+
+    @Test
+    public void shouldDisconnectHostAfterUploadTimeout()
+    {
+        Path file = Paths.get("file.txt");
+        CountDownLatch disconnected = new CountDownLatch(1);
+        SshClient client = mock(SshClient.class);
+        doAnswer(_ -> {
+            // like an SFTP transfer, the upload ignores interruption and ends when the connection is closed
+            awaitUninterruptibly(disconnected, 10, SECONDS);
+            throw new RuntimeException("Channel closed");
+        }).when(client).upload(file, "/tmp/file.txt");
+        doAnswer(_ -> {
+            disconnected.countDown();
+            return null;
+        }).when(client).disconnect();
+
+        try (SshFanOut fanOut = new SshFanOut(ImmutableMap.of("a", client), 1, Duration.ofMillis(100))) {
+            SshHostResult result = fanOut.upload(file, "/tmp/file.txt").getHostResult("a");
+
+            assertThat(result.getFailure()).containsInstanceOf(TimeoutRuntimeException.class);
+            verify(client).disconnect();
+        }
+    }
+
+    private static SshClient clientExecuting(String command, CliProcess process)
+    {
+        SshClient client = mock(SshClient.class);
+        when(client.execute(command)).thenReturn(process);
+        return client;
+    }
+
+    private static CliProcess process(List<String> outputLines, List<String> errorLines)
+    {
+        CliProcess process = mock(CliProcess.class);
+        when(process.readRemainingOutputLines()).thenReturn(outputLines);
+        when(process.readRemainingErrorLines()).thenReturn(errorLines);
+        return process;
+    }
+}
@@ -13,13 +13,26 @@
  */
 package io.trino.tempto.threads;
 
+import io.trino.tempto.context.TestContext;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.runWithTestContext;
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.testContext;
 import static io.trino.tempto.threads.ParallelExecution.parallelExecution;
+import static io.trino.tempto.threads.RunnableTiming.Status.CANCELLED;
+import static io.trino.tempto.threads.RunnableTiming.Status.FAILED;
+import static io.trino.tempto.threads.RunnableTiming.Status.SUCCEEDED;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
 
 public class ParallelExecutionTest
 {
@@ -75,4 +88,129 @@ public class ParallelExecutionTest
 
         assertThat(parallelExecution.join(100)).isFalse();
     }
+
+    @Test
+    public void shouldExecuteRunnablesOnVirtualThreads()
+            throws InterruptedException
+    {
+        AtomicInteger virtualExecutions = new AtomicInteger();
+
+        ParallelExecution parallelExecution = ParallelExecution.builder()
+                .addRunnable(1000, (int _) -> {
+                    if (Thread.currentThread().isVirtual()) {
+                        virtualExecutions.incrementAndGet();
+                    }
+                })
+                .withVirtualThreads()
+                .build();
+
+        parallelExecution.start().joinAndRethrow();
+
+        assertThat(virtualExecutions.get()).isEqualTo(1000);
+        assertThat(parallelExecution.getTimings())
+                .hasSize(1000)
+                .allMatch(timing -> timing.getStatus() == SUCCEEDED);
+    }
+
+    @Test
+    public void shouldBoundParallelism()
+            throws InterruptedException
+    {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        ParallelExecution parallelExecution = ParallelExecution.builder()
+                .addRunnable(20, (int _) -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(10);
+                    running.decrementAndGet();
+                })
+                .withVirtualThreads()
+                .withMaxParallelism(3)
+                .build();
+
+        parallelExecution.start().joinAndRethrow();
+
+        assertThat(maxRunning.get()).isBetween(1, 3);
+    }
+
+    @Test
+    public void shouldExecuteRunnablesOnProvidedExecutor()
+            throws InterruptedException
+    {
+        ExecutorService executor = newFixedThreadPool(2);
+        try {
+            AtomicInteger executionCount = new AtomicInteger();
+
+            ParallelExecution.builder()
+                    .addRunnable(10, (int _) -> executionCount.incrementAndGet())
+                    .withExecutor(executor)
+                    .build()
+                    .start()
+                    .joinAndRethrow();
+
+            assertThat(executionCount.get()).isEqualTo(10);
+            assertThat(executor.isShutdown()).isFalse();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldPassScopedTestContextToOwnedThreads()
+    {
+        TestContext testContext = mock(TestContext.class);
+        List<TestContext> observedContexts = new CopyOnWriteArrayList<>();
+
+        runWithTestContext(testContext, () -> {
+            try {
+                ParallelExecution.builder()
+                        .addRunnable(3, (int _) -> observedContexts.add(testContext()))
+                        .build()
+                        .start()
+                        .joinAndRethrow();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertThat(observedContexts).containsExactly(testContext, testContext, testContext);
+    }
+
+    @Test
+    public void shouldCancelSiblingsOnFailure()
+            throws InterruptedException
+    {
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        AtomicBoolean hookInvoked = new AtomicBoolean();
+
+        ParallelExecution parallelExecution = ParallelExecution.builder()
+                .addRunnable((int _) -> {
+                    siblingStarted.countDown();
+                    Thread.sleep(500000);
+                })
+                .addRunnable((int _) -> {
+                    siblingStarted.await();
+                    throw new IllegalStateException("failure");
+                })
+                .failFast()
+                .addCancellationHook(() -> hookInvoked.set(true))
+                .build();
+
+        parallelExecution.start();
+
+        assertThatThrownBy(() -> parallelExecution.joinAndRethrow(10_000))
+                .isInstanceOf(ParallelExecutionException.class)
+                .satisfies(e -> assertThat(((ParallelExecutionException) e).getThrowables())
+                        .singleElement()
+                        .isInstanceOf(IllegalStateException.class));
+        assertThat(parallelExecution.isCancelled()).isTrue();
+        assertThat(hookInvoked.get()).isTrue();
+        assertThat(parallelExecution.getTimings())
+                .extracting(RunnableTiming::getStatus)
+                .containsExactly(CANCELLED, FAILED);
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.threads;
+
+import io.trino.tempto.context.TestContext;
+import io.trino.tempto.internal.context.GuiceTestContext;
+import io.trino.tempto.query.JdbcConnectionsPool;
+import io.trino.tempto.query.JdbcConnectivityParamsState;
+import io.trino.tempto.query.JdbcQueryExecutor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static io.trino.tempto.internal.configuration.TestConfigurationFactory.TEST_CONFIGURATION_URIS_KEY;
+import static io.trino.tempto.internal.query.JdbcUtils.registerDriver;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class QueryLoadDriverTest
+{
+    private static final JdbcConnectivityParamsState JDBC_STATE =
+            JdbcConnectivityParamsState.builder()
+                    .setName("load_driver")
+                    .setDriverClass("org.hsqldb.jdbc.JDBCDriver")
+                    .setUrl("jdbc:hsqldb:mem:loaddb")
+                    .setUser("sa")
+                    .setPooling(true)
+                    .build();
+
+    private static final TestContext testContext = new GuiceTestContext();
+    private static final JdbcConnectionsPool connectionsPool = new JdbcConnectionsPool();
+
+    @BeforeAll
+    public static void setupSpec()
+    {
+        System.setProperty(TEST_CONFIGURATION_URIS_KEY, "/configuration/global-configuration-tempto.yaml");
+        registerDriver(JDBC_STATE);
+    }
+
+    @AfterAll
+    public static void cleanupSpec()
+    {
+        testContext.close();
+    }
+
+    @Test
+    public void shouldRunClosedLoopMix()
+            throws InterruptedException
+    {
+        QueryLoadResult result = QueryLoadDriver.builder(() -> new JdbcQueryExecutor(JDBC_STATE, connectionsPool, testContext))
+                .addStatement("values", "VALUES (1)", 3)
+                .addStatement("failing", "SELECT * FROM non_existing_table", 1)
+                .withConcurrency(4)
+                .withVirtualThreads()
+                .withDuration(Duration.ofMillis(500))
+                .build()
+                .run();
+
+        StatementLoadStatistics values = result.getStatement("values");
+        StatementLoadStatistics failing = result.getStatement("failing");
+        assertThat(values.getCount()).isPositive();
+        assertThat(values.getErrorCount()).isZero();
+        assertThat(failing.getCount()).isZero();
+        assertThat(failing.getErrorCount()).isPositive();
+        assertThat(values.getPercentile(50)).isLessThanOrEqualTo(values.getPercentile(99));
+        assertThat(result.getThroughput()).isPositive();
+
+        assertThat(result).statement("values")
+                .hasNoErrors()
+                .hasP99Below(Duration.ofSeconds(10));
+        assertThatThrownBy(() -> assertThat(result).hasNoErrors())
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("failing");
+
+        assertThat(result.toJson())
+                .contains("\"name\" : \"values\"")
+                .contains("\"p99\"");
+    }
+
+    @Test
+    public void shouldRunAtTargetRate()
+            throws InterruptedException
+    {
+        QueryLoadResult result = QueryLoadDriver.builder(() -> new JdbcQueryExecutor(JDBC_STATE, connectionsPool, testContext))
+                .addStatement("values", "VALUES (1)")
+                .withConcurrency(2)
+                .withTargetRate(100)
+                .withDuration(Duration.ofMillis(500))
+                .build()
+                .run();
+
+        assertThat(result.getCount()).isBetween(40L, 51L);
+    }
+
+    @Test
+    public void histogramShouldReportPercentilesWithinPrecision()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(100_000);
+        assertThat(histogram.getMin()).isEqualTo(Duration.ofNanos(1_000));
+        assertThat(histogram.getMax()).isEqualTo(Duration.ofMillis(100));
+        assertThat(histogram.getPercentile(50).toNanos() / 1_000).isBetween(50_000L, 50_500L);
+        assertThat(histogram.getPercentile(99).toNanos() / 1_000).isBetween(99_000L, 99_990L);
+        assertThat(histogram.getPercentile(100)).isEqualTo(Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.runner;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.tempto.process.JavaProcessLauncher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.base.Throwables.getStackTraceAsString;
+import static io.trino.tempto.process.JavaProcessLauncher.defaultJavaProcessLauncher;
+import static io.trino.tempto.runner.TemptoForkedWorker.CLAIM;
+import static io.trino.tempto.runner.TemptoForkedWorker.DONE;
+import static io.trino.tempto.runner.TemptoForkedWorker.FAILURE;
+import static io.trino.tempto.runner.TemptoForkedWorker.RESULT;
+import static io.trino.tempto.runner.TemptoForkedWorker.SKIP;
+import static io.trino.tempto.runner.TemptoForkedWorker.SUCCESS;
+import static io.trino.tempto.runner.TemptoRunnerOptions.CONFIG_FILES;
+import static io.trino.tempto.runner.TemptoRunnerOptions.FORK_COUNT;
+import static io.trino.tempto.runner.TemptoRunnerOptions.REPORT_DIR;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Runs the suite in several worker JVMs, see {@link TemptoForkedWorker}, so tests which are not safe to run
+ * in parallel within a single JVM (static state, system properties) can still use all cores.
+ * <p>
+ * Every worker iterates over all selected tests in the same order and claims each test from the coordinator
+ * right before running it. The first worker to claim a test runs it, others skip it, so a worker which is done
+ * with a test takes the next one nobody took yet. Results are sent back to the coordinator and written as a
+ * single JUnit report.
+ * <p>
+ * Workers share the configured databases. Suite level requirements (e.g. immutable tables) are fulfilled by one
+ * worker at a time and no test is handed out before all workers are set up, as fulfilling them recreates shared
+ * tables. Only the first worker drops stale mutable tables, otherwise it could drop tables of other workers.
+ */
+class ForkedTestsCoordinator
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ForkedTestsCoordinator.class);
+
+    private final TemptoRunnerOptions options;
+    private final int workerCount;
+    private final JavaProcessLauncher processLauncher;
+    private final Set<String> claimedTests = ConcurrentHashMap.newKeySet();
+    // worker index by claim name, until all results of the claim are received
+    private final Map<String, Integer> runningTests = new ConcurrentHashMap<>();
+    private final Map<String, Integer> receivedResults = new ConcurrentHashMap<>();
+    private final List<TestResult> results = new ArrayList<>();
+    private final List<Process> processes = new CopyOnWriteArrayList<>();
+    private final CountDownLatch allWorkersReady = new CountDownLatch(1);
+    private final ExecutorService executor = newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("tempto-fork-%s")
+            .setDaemon(true)
+            .build());
+
+    ForkedTestsCoordinator(TemptoRunnerOptions options, int workerCount)
+    {
+        this(options, workerCount, defaultJavaProcessLauncher());
+    }
+
+    ForkedTestsCoordinator(TemptoRunnerOptions options, int workerCount, JavaProcessLauncher processLauncher)
+    {
+        this.options = requireNonNull(options, "options is null");
+        this.workerCount = workerCount;
+        this.processLauncher = requireNonNull(processLauncher, "processLauncher is null");
+    }
+
+    /**
+     * @return true if all tests passed
+     */
+    public boolean run()
+    {
+        long startNanos = nanoTime();
+        Path reportDir = Paths.get(options.getReportDir());
+        try (ServerSocket serverSocket = new ServerSocket(0, workerCount, InetAddress.getLoopbackAddress())) {
+            Files.createDirectories(reportDir);
+            Path workerConfiguration = writeWorkerConfiguration(reportDir);
+            serverSocket.setSoTimeout(1000);
+
+            List<Worker> workers = new ArrayList<>();
+            List<Future<?>> servings = new ArrayList<>();
+            for (int index = 0; index < workerCount; ++index) {
+                Worker worker = startWorker(index, serverSocket, reportDir, workerConfiguration);
+                workers.add(worker);
+                servings.add(executor.submit(worker::serve));
+                // fulfilling suite requirements concurrently would recreate tables used by other workers
+                worker.awaitReady();
+            }
+            LOG.info("Started {} workers", workerCount);
+            allWorkersReady.countDown();
+
+            for (Future<?> serving : servings) {
+                serving.get();
+            }
+            boolean workersSucceeded = true;
+            for (Worker worker : workers) {
+                workersSucceeded &= worker.awaitExit();
+            }
+            runningTests.forEach((testName, workerIndex) ->
+                    addResult(new TestResult(testName, FAILURE, 0, format("worker-%s exited while running the test", workerIndex))));
+
+            writeReport(reportDir, NANOSECONDS.toMillis(nanoTime() - startNanos));
+            return workersSucceeded && results.stream().noneMatch(result -> result.getStatus() == FAILURE);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Forked run failed", e);
+        }
+        finally {
+            // workers left behind after a failure would wait for the coordinator forever
+            processes.stream()
+                    .filter(Process::isAlive)
+                    .forEach(Process::destroy);
+            executor.shutdownNow();
+        }
+    }
+
+    private Path writeWorkerConfiguration(Path reportDir)
+            throws IOException
+    {
+        Path configuration = reportDir.resolve("tempto-worker-configuration.yaml");
+        TemptoRunner.writeStaleSweepDisabledConfiguration(configuration);
+        return configuration;
+    }
+
+    private Worker startWorker(int index, ServerSocket serverSocket, Path reportDir, Path workerConfiguration)
+            throws IOException
+    {
+        ImmutableList.Builder<String> arguments = ImmutableList.builder();
+        arguments.add(String.valueOf(serverSocket.getLocalPort()));
+        options.asMap().forEach((option, value) -> {
+            if (option.equals(FORK_COUNT.getLongOpt())) {
+                return;
+            }
+            if (option.equals(REPORT_DIR.getLongOpt())) {
+                value = reportDir.resolve("worker-" + index).toString();
+            }
+            if (option.equals(CONFIG_FILES.getLongOpt()) && index > 0) {
+                value = value + "," + workerConfiguration.toAbsolutePath();
+            }
+            arguments.add(option + "=" + value);
+        });
+        Process process = processLauncher.launch(TemptoForkedWorker.class, arguments.build());
+        processes.add(process);
+        executor.execute(() -> pumpOutput(index, process.getInputStream()));
+        executor.execute(() -> pumpOutput(index, process.getErrorStream()));
+
+        while (true) {
+            try {
+                return new Worker(index, process, serverSocket.accept());
+            }
+            catch (SocketTimeoutException e) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(format("worker-%s exited with code %s before connecting", index, process.exitValue()));
+                }
+            }
+        }
+    }
+
+    private static void pumpOutput(int index, InputStream output)
+    {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(output, UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LOG.info("[worker-{}] {}", index, line);
+            }
+        }
+        catch (IOException e) {
+            LOG.debug("worker-{} output closed", index, e);
+        }
+    }
+
+    private synchronized void addResult(TestResult result)
+    {
+        results.add(result);
+    }
+
+    private synchronized void writeReport(Path reportDir, long durationMillis)
+            throws IOException
+    {
+        long failed = results.stream().filter(result -> result.getStatus() == FAILURE).count();
+        long skipped = results.stream().filter(result -> result.getStatus() == SKIP).count();
+        try {
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+            Element suite = document.createElement("testsuite");
+            suite.setAttribute("name", "tempto-tests");
+            suite.setAttribute("tests", String.valueOf(results.size()));
+            suite.setAttribute("failures", String.valueOf(failed));
+            suite.setAttribute("skipped", String.valueOf(skipped));
+            suite.setAttribute("time", seconds(durationMillis));
+            document.appendChild(suite);
+            for (TestResult result : results) {
+                Element testCase = document.createElement("testcase");
+                String methodName = result.getTestName().replaceFirst("\\[\\d+]$", "");
+                int classSeparator = methodName.lastIndexOf('.');
+                testCase.setAttribute("classname", classSeparator == -1 ? "" : result.getTestName().substring(0, classSeparator));
+                testCase.setAttribute("name", result.getTestName().substring(classSeparator + 1));
+                testCase.setAttribute("time", seconds(result.getDurationMillis()));
+                if (result.getStatus() != SUCCESS) {
+                    Element details = document.createElement(result.getStatus() == FAILURE ? "failure" : "skipped");
+                    details.setTextContent(result.getFailure());
+                    testCase.appendChild(details);
+                }
+                suite.appendChild(testCase);
+            }
+
+            Path junitReports = Files.createDirectories(reportDir.resolve("junitreports"));
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.transform(new DOMSource(document), new StreamResult(junitReports.resolve("TEST-tempto-tests.xml").toFile()));
+        }
+        catch (ParserConfigurationException | TransformerException e) {
+            throw new IOException("Could not write report", e);
+        }
+        LOG.info("Forked run of {} workers finished in {} s: {} tests, {} passed, {} failed, {} skipped",
+                workerCount,
+                seconds(durationMillis),
+                results.size(),
+                results.size() - failed - skipped,
+                failed,
+                skipped);
+    }
+
+    private static String seconds(long millis)
+    {
+        return format("%.3f", millis / 1000.0);
+    }
+
+    private class Worker
+    {
+        private final int index;
+        private final Process process;
+        private final Socket socket;
+        private final CountDownLatch ready = new CountDownLatch(1);
+        private volatile boolean done;
+
+        Worker(int index, Process process, Socket socket)
+        {
+            this.index = index;
+            this.process = process;
+            this.socket = socket;
+        }
+
+        void serve()
+        {
+            try (socket) {
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                while (!done) {
+                    byte message = input.readByte();
+                    switch (message) {
+                        case CLAIM -> {
+                            String testName = input.readUTF();
+                            // first claim means the worker is set up
+                            ready.countDown();
+                            allWorkersReady.await();
+                            boolean claimed = claimedTests.add(testName);
+                            if (claimed) {
+                                runningTests.put(testName, index);
+                            }
+                            output.writeBoolean(claimed);
+                            output.flush();
+                        }
+                        case RESULT -> {
+                            String claimName = input.readUTF();
+                            int claimResults = input.readInt();
+                            String testName = input.readUTF();
+                            byte status = input.readByte();
+                            long durationMillis = input.readLong();
+                            byte[] failure = new byte[input.readInt()];
+                            input.readFully(failure);
+                            // a test run for several requirements sets sends a result for each of them under the same claim
+                            if (receivedResults.merge(claimName, 1, Integer::sum) >= claimResults) {
+                                runningTests.remove(claimName);
+                            }
+                            addResult(new TestResult(testName, status, durationMillis, new String(failure, UTF_8)));
+                        }
+                        case DONE -> done = true;
+                        default -> throw new IllegalStateException(format("Unexpected message %s from worker-%s", message, index));
+                    }
+                }
+            }
+            catch (EOFException e) {
+                LOG.warn("worker-{} disconnected", index);
+            }
+            catch (IOException e) {
+                LOG.warn("Lost connection to worker-{}: {}", index, getStackTraceAsString(e));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                ready.countDown();
+            }
+        }
+
+        void awaitReady()
+                throws InterruptedException
+        {
+            ready.await();
+        }
+
+        boolean awaitExit()
+                throws InterruptedException
+        {
+            int exitCode = process.waitFor();
+            if (!done) {
+                LOG.error("worker-{} exited with code {} before finishing", index, exitCode);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private static class TestResult
+    {
+        private final String testName;
+        private final byte status;
+        private final long durationMillis;
+        private final String failure;
+
+        TestResult(String testName, byte status, long durationMillis, String failure)
+        {
+            this.testName = testName;
+            this.status = status;
+            this.durationMillis = durationMillis;
+            this.failure = failure;
+        }
+
+        String getTestName()
+        {
+            return testName;
+        }
+
+        byte getStatus()
+        {
+            return status;
+        }
+
+        long getDurationMillis()
+        {
+            return durationMillis;
+        }
+
+        String getFailure()
+        {
+            return failure;
+        }
+    }
+}
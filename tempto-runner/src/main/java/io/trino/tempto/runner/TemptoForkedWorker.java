@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.runner;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import io.trino.tempto.internal.initialization.TestClaims;
+import io.trino.tempto.internal.initialization.TestClaims.ClaimedByOtherWorkerException;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Worker JVM of the fork mode, see {@link ForkedTestsCoordinator}. Runs the suite with options given by the
+ * coordinator, claims every test from the coordinator before running it and sends results back.
+ * <p>
+ * Usage: {@code TemptoForkedWorker <coordinator-port> <option>=<value>...}
+ */
+public final class TemptoForkedWorker
+{
+    static final byte CLAIM = 1;
+    static final byte RESULT = 2;
+    static final byte DONE = 3;
+
+    static final byte SUCCESS = 1;
+    static final byte FAILURE = 2;
+    static final byte SKIP = 3;
+
+    private TemptoForkedWorker() {}
+
+    public static void main(String[] args)
+            throws IOException
+    {
+        int coordinatorPort = parseInt(args[0]);
+        ImmutableMap.Builder<String, String> values = ImmutableMap.builder();
+        for (int i = 1; i < args.length; ++i) {
+            int separator = args[i].indexOf('=');
+            values.put(args[i].substring(0, separator), args[i].substring(separator + 1));
+        }
+        TemptoRunnerOptions options = new TemptoRunnerOptions(values.build());
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinatorPort)) {
+            CoordinatorConnection coordinator = new CoordinatorConnection(socket);
+            TestClaims.setClaimer(coordinator::claim);
+            TemptoRunner.runTemptoWorker(
+                    TemptoRunnerCommandLineParser.builder("tempto-worker").build(),
+                    options,
+                    testNG -> {
+                        // reports are written by the coordinator, tests of other workers would show up as skipped here
+                        testNG.setUseDefaultListeners(false);
+                        testNG.addListener(new ResultsListener(coordinator));
+                    });
+        }
+    }
+
+    private static class CoordinatorConnection
+    {
+        private final DataInputStream input;
+        private final DataOutputStream output;
+
+        CoordinatorConnection(Socket socket)
+                throws IOException
+        {
+            this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized boolean claim(String testName)
+        {
+            try {
+                output.writeByte(CLAIM);
+                output.writeUTF(testName);
+                output.flush();
+                return input.readBoolean();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Lost connection to coordinator", e);
+            }
+        }
+
+        synchronized void sendResult(String claimName, int claimResults, String testName, byte status, long durationMillis, String failure)
+        {
+            try {
+                output.writeByte(RESULT);
+                output.writeUTF(claimName);
+                output.writeInt(claimResults);
+                output.writeUTF(testName);
+                output.writeByte(status);
+                output.writeLong(durationMillis);
+                byte[] failureBytes = failure.getBytes(UTF_8);
+                output.writeInt(failureBytes.length);
+                output.write(failureBytes);
+                output.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Lost connection to coordinator", e);
+            }
+        }
+
+        synchronized void sendDone()
+        {
+            try {
+                output.writeByte(DONE);
+                output.flush();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Lost connection to coordinator", e);
+            }
+        }
+    }
+
+    private static class ResultsListener
+            implements ITestListener
+    {
+        private final CoordinatorConnection coordinator;
+
+        ResultsListener(CoordinatorConnection coordinator)
+        {
+            this.coordinator = coordinator;
+        }
+
+        @Override
+        public void onTestSuccess(ITestResult result)
+        {
+            send(result, SUCCESS);
+        }
+
+        @Override
+        public void onTestFailure(ITestResult result)
+        {
+            send(result, FAILURE);
+        }
+
+        @Override
+        public void onTestSkipped(ITestResult result)
+        {
+            if (!(result.getThrowable() instanceof ClaimedByOtherWorkerException)) {
+                send(result, SKIP);
+            }
+        }
+
+        @Override
+        public void onFinish(ITestContext context)
+        {
+            coordinator.sendDone();
+        }
+
+        private void send(ITestResult result, byte status)
+        {
+            if (!TestClaims.isClaimed(result)) {
+                // e.g. skipped because of a failed configuration method, before the test was claimed
+                return;
+            }
+            String failure = result.getThrowable() == null ? "" : Throwables.getStackTraceAsString(result.getThrowable());
+            coordinator.sendResult(TestClaims.getClaimName(result), TestClaims.getInvocationsPerClaim(result), TestClaims.getInvocationName(result), status, result.getEndMillis() - result.getStartMillis(), failure);
+        }
+    }
+}
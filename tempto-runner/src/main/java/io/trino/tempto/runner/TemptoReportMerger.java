@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.runner;
+
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Arrays.stream;
+
+/**
+ * Merges TestNG reports of suite shards, see {@code --shard-index} and {@code --shard-count}, into a single report.
+ * <p>
+ * Suites of all {@code testng-results.xml} files are combined into one file with summed up test counts.
+ * JUnit reports of each shard are copied with the shard directory name as a prefix, as tests of a single class
+ * may be run by different shards.
+ * <p>
+ * Usage: {@code TemptoReportMerger <output-dir> <shard-report-dir>...}
+ */
+public class TemptoReportMerger
+{
+    private static final Logger LOG = LoggerFactory.getLogger(TemptoReportMerger.class);
+
+    private static final String TESTNG_RESULTS = "testng-results.xml";
+    private static final String JUNIT_REPORTS = "junitreports";
+    private static final List<String> COUNT_ATTRIBUTES = ImmutableList.of("total", "passed", "failed", "skipped", "ignored");
+
+    private TemptoReportMerger() {}
+
+    public static void main(String[] args)
+    {
+        if (args.length < 2) {
+            System.err.println("Usage: TemptoReportMerger <output-dir> <shard-report-dir>...");
+            System.exit(1);
+        }
+        List<Path> shardReportDirs = stream(args, 1, args.length)
+                .map(Paths::get)
+                .collect(toImmutableList());
+        mergeReports(Paths.get(args[0]), shardReportDirs);
+    }
+
+    public static void mergeReports(Path outputDir, List<Path> shardReportDirs)
+    {
+        checkArgument(!shardReportDirs.isEmpty(), "no shard report directories given");
+        try {
+            Files.createDirectories(outputDir);
+            mergeTestNGResults(outputDir.resolve(TESTNG_RESULTS), shardReportDirs);
+            for (Path shardReportDir : shardReportDirs) {
+                copyJUnitReports(shardReportDir, outputDir.resolve(JUNIT_REPORTS));
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void mergeTestNGResults(Path output, List<Path> shardReportDirs)
+            throws IOException
+    {
+        try {
+            DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            Document merged = null;
+            for (Path shardReportDir : shardReportDirs) {
+                Path results = shardReportDir.resolve(TESTNG_RESULTS);
+                if (!Files.exists(results)) {
+                    LOG.warn("No {} in {}, shard is skipped", TESTNG_RESULTS, shardReportDir);
+                    continue;
+                }
+                Document shard = documentBuilder.parse(results.toFile());
+                if (merged == null) {
+                    merged = shard;
+                    continue;
+                }
+                Element mergedRoot = merged.getDocumentElement();
+                Element shardRoot = shard.getDocumentElement();
+                for (String attribute : COUNT_ATTRIBUTES) {
+                    mergedRoot.setAttribute(attribute, String.valueOf(getCount(mergedRoot, attribute) + getCount(shardRoot, attribute)));
+                }
+                NodeList suites = shardRoot.getElementsByTagName("suite");
+                for (int i = 0; i < suites.getLength(); ++i) {
+                    Node suite = suites.item(i);
+                    if (suite.getParentNode() == shardRoot) {
+                        mergedRoot.appendChild(merged.importNode(suite, true));
+                    }
+                }
+            }
+            if (merged == null) {
+                LOG.warn("No {} found, nothing to merge", TESTNG_RESULTS);
+                return;
+            }
+
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.transform(new DOMSource(merged), new StreamResult(output.toFile()));
+            Element root = merged.getDocumentElement();
+            LOG.info("Merged {} shards into {}: {} tests, {} passed, {} failed, {} skipped",
+                    shardReportDirs.size(),
+                    output,
+                    getCount(root, "total"),
+                    getCount(root, "passed"),
+                    getCount(root, "failed"),
+                    getCount(root, "skipped"));
+        }
+        catch (ParserConfigurationException | SAXException | TransformerException e) {
+            throw new IOException("Could not merge " + TESTNG_RESULTS, e);
+        }
+    }
+
+    private static long getCount(Element element, String attribute)
+    {
+        String value = element.getAttribute(attribute);
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    private static void copyJUnitReports(Path shardReportDir, Path outputDir)
+            throws IOException
+    {
+        Path junitReports = shardReportDir.resolve(JUNIT_REPORTS);
+        if (!Files.isDirectory(junitReports)) {
+            return;
+        }
+        Files.createDirectories(outputDir);
+        String prefix = shardReportDir.toAbsolutePath().normalize().getFileName() + "-";
+        try (DirectoryStream<Path> reports = Files.newDirectoryStream(junitReports, "*.xml")) {
+            for (Path report : reports) {
+                Files.copy(report, outputDir.resolve(prefix + report.getFileName()), REPLACE_EXISTING);
+            }
+        }
+    }
+}
@@ -15,7 +15,10 @@
 package io.trino.tempto.runner;
 
 import com.google.common.base.Joiner;
+import io.trino.tempto.internal.fulfillment.table.StaleMutableTablesFulfiller;
 import io.trino.tempto.internal.listeners.TestNameGroupNameMethodSelector;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.TestNG;
@@ -24,7 +27,15 @@ import org.testng.xml.XmlPackage;
 import org.testng.xml.XmlSuite;
 import org.testng.xml.XmlTest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Lists.newArrayList;
@@ -35,6 +46,10 @@ import static io.trino.tempto.internal.listeners.TestNameGroupNameMethodSelector
 import static io.trino.tempto.internal.listeners.TestNameGroupNameMethodSelector.TEST_GROUPS_TO_RUN_PROPERTY;
 import static io.trino.tempto.internal.listeners.TestNameGroupNameMethodSelector.TEST_NAMES_TO_EXCLUDE_PROPERTY;
 import static io.trino.tempto.internal.listeners.TestNameGroupNameMethodSelector.TEST_NAMES_TO_RUN_PROPERTY;
+import static io.trino.tempto.internal.listeners.TestShard.SHARD_COUNT_PROPERTY;
+import static io.trino.tempto.internal.listeners.TestShard.SHARD_DURATIONS_FILE_PROPERTY;
+import static io.trino.tempto.internal.listeners.TestShard.SHARD_INDEX_PROPERTY;
+import static java.lang.String.format;
 import static java.util.Collections.singletonList;
 
 public class TemptoRunner
@@ -44,6 +59,7 @@ public class TemptoRunner
     private static final String METHOD_SELECTOR_CLASS_NAME = TestNameGroupNameMethodSelector.class.getName();
     private final TemptoRunnerCommandLineParser parser;
     private final TemptoRunnerOptions options;
+    private final Consumer<TestNG> testNGCustomizer;
 
     public static void runTempto(TemptoRunnerCommandLineParser parser, String[] args)
     {
@@ -64,10 +80,24 @@ public class TemptoRunner
         new TemptoRunner(parser, options).run();
     }
 
+    /**
+     * Runs tests in a worker JVM started by {@link ForkedTestsCoordinator}.
+     */
+    static void runTemptoWorker(TemptoRunnerCommandLineParser parser, TemptoRunnerOptions options, Consumer<TestNG> testNGCustomizer)
+    {
+        new TemptoRunner(parser, options, testNGCustomizer).run();
+    }
+
     private TemptoRunner(TemptoRunnerCommandLineParser parser, TemptoRunnerOptions options)
+    {
+        this(parser, options, _ -> {});
+    }
+
+    private TemptoRunner(TemptoRunnerCommandLineParser parser, TemptoRunnerOptions options, Consumer<TestNG> testNGCustomizer)
     {
         this.parser = parser;
         this.options = options;
+        this.testNGCustomizer = testNGCustomizer;
     }
 
     private void run()
@@ -77,6 +107,16 @@ public class TemptoRunner
             parser.printHelpMessage();
             return;
         }
+        if (options.getForkCount().isPresent()) {
+            int forkCount = options.getForkCount().get();
+            if (forkCount < 1) {
+                throw new TemptoRunnerCommandLineParser.ParsingException("Invalid fork count: " + forkCount);
+            }
+            if (!new ForkedTestsCoordinator(options, forkCount).run()) {
+                System.exit(1);
+            }
+            return;
+        }
 
         XmlSuite testSuite = getXmlSuite();
         testSuite.setThreadCount(options.getThreadCount());
@@ -88,12 +128,48 @@ public class TemptoRunner
         setupTestsFiltering(testNG);
         options.getConventionResultsDumpPath()
                 .ifPresent(path -> System.setProperty(CONVENTION_TESTS_RESULTS_DUMP_PATH_KEY, path));
-        testNG.run();
+        testNGCustomizer.accept(testNG);
+        Optional<Recording> recording = options.getJfrRecordingPath().map(TemptoRunner::startRecording);
+        try {
+            testNG.run();
+        }
+        finally {
+            recording.ifPresent(TemptoRunner::stopRecording);
+        }
         if (testNG.hasFailure()) {
             System.exit(1);
         }
     }
 
+    private static Recording startRecording(String path)
+    {
+        Path destination = Paths.get(path);
+        try {
+            // default settings are designed for continuous use in production, with overhead below 1%
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("tempto");
+            recording.setDestination(destination);
+            recording.setToDisk(true);
+            recording.start();
+            LOG.info("Started JFR recording to {}", destination.toAbsolutePath());
+            return recording;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catch (ParseException e) {
+            throw new IllegalStateException("Could not load default JFR configuration", e);
+        }
+    }
+
+    private static void stopRecording(Recording recording)
+    {
+        // data is written to the destination when the recording stops
+        recording.stop();
+        LOG.info("JFR recording written to {}", recording.getDestination().toAbsolutePath());
+        recording.close();
+    }
+
     private void setupTestsConfiguration()
     {
         System.setProperty(TEST_CONFIGURATION_URIS_KEY, options.getConfigFiles());
@@ -113,9 +189,46 @@ public class TemptoRunner
         if (!options.getExcludedTests().isEmpty()) {
             System.setProperty(TEST_NAMES_TO_EXCLUDE_PROPERTY, Joiner.on(',').join(options.getExcludedTests()));
         }
+        setupTestsSharding();
         testNG.addMethodSelector(METHOD_SELECTOR_CLASS_NAME, METHOD_SELECTOR_PRIORITY);
     }
 
+    private void setupTestsSharding()
+    {
+        Optional<Integer> shardIndex = options.getShardIndex();
+        Optional<Integer> shardCount = options.getShardCount();
+        if (shardIndex.isEmpty() && shardCount.isEmpty()) {
+            return;
+        }
+        if (shardIndex.isEmpty() || shardCount.isEmpty()) {
+            throw new TemptoRunnerCommandLineParser.ParsingException("Both --shard-index and --shard-count must be set");
+        }
+        if (shardCount.get() < 1 || shardIndex.get() < 0 || shardIndex.get() >= shardCount.get()) {
+            throw new TemptoRunnerCommandLineParser.ParsingException(format("Invalid shard %s of %s", shardIndex.get(), shardCount.get()));
+        }
+        LOG.info("Running shard {} of {}", shardIndex.get(), shardCount.get());
+        System.setProperty(SHARD_INDEX_PROPERTY, shardIndex.get().toString());
+        System.setProperty(SHARD_COUNT_PROPERTY, shardCount.get().toString());
+        options.getShardDurationsPath()
+                .ifPresent(path -> System.setProperty(SHARD_DURATIONS_FILE_PROPERTY, path));
+    }
+
+    /**
+     * Writes configuration file which disables {@link StaleMutableTablesFulfiller}, to be added to configuration
+     * files of runs sharing databases with another run.
+     */
+    static void writeStaleSweepDisabledConfiguration(Path configuration)
+            throws IOException
+    {
+        String[] key = StaleMutableTablesFulfiller.ENABLED_KEY.split("\\.");
+        StringBuilder yaml = new StringBuilder();
+        for (int i = 0; i < key.length; ++i) {
+            yaml.append("  ".repeat(i)).append(key[i]).append(":");
+            yaml.append(i == key.length - 1 ? " false\n" : "\n");
+        }
+        Files.writeString(configuration, yaml.toString());
+    }
+
     private XmlSuite getXmlSuite()
     {
         // we cannot use singletonLists here as testNG later
@@ -41,11 +41,16 @@ import static io.trino.tempto.runner.TemptoRunnerOptions.CONVENTION_TESTS_DIR;
 import static io.trino.tempto.runner.TemptoRunnerOptions.DUMP_CONVENTION_RESULTS;
 import static io.trino.tempto.runner.TemptoRunnerOptions.EXCLUDED_GROUPS;
 import static io.trino.tempto.runner.TemptoRunnerOptions.EXCLUDED_TESTS;
+import static io.trino.tempto.runner.TemptoRunnerOptions.FORK_COUNT;
 import static io.trino.tempto.runner.TemptoRunnerOptions.GROUPS;
 import static io.trino.tempto.runner.TemptoRunnerOptions.HELP;
+import static io.trino.tempto.runner.TemptoRunnerOptions.JFR_RECORDING;
 import static io.trino.tempto.runner.TemptoRunnerOptions.PACKAGE;
 import static io.trino.tempto.runner.TemptoRunnerOptions.PARALLEL;
 import static io.trino.tempto.runner.TemptoRunnerOptions.REPORT_DIR;
+import static io.trino.tempto.runner.TemptoRunnerOptions.SHARD_COUNT;
+import static io.trino.tempto.runner.TemptoRunnerOptions.SHARD_DURATIONS;
+import static io.trino.tempto.runner.TemptoRunnerOptions.SHARD_INDEX;
 import static io.trino.tempto.runner.TemptoRunnerOptions.TESTS;
 import static io.trino.tempto.runner.TemptoRunnerOptions.THREAD_COUNT;
 import static java.lang.Boolean.TRUE;
@@ -188,6 +193,11 @@ public class TemptoRunnerCommandLineParser
             addOption(DUMP_CONVENTION_RESULTS);
             addOption(THREAD_COUNT);
             addOption(PARALLEL);
+            addOption(JFR_RECORDING);
+            addOption(SHARD_INDEX);
+            addOption(SHARD_COUNT);
+            addOption(SHARD_DURATIONS);
+            addOption(FORK_COUNT);
             setReportDir("./test-reports", true);
             setConfigFile(TestConfigurationFactory.DEFAULT_TEST_CONFIGURATION_LOCATION, true);
             setConventionTestDirectory(ConventionTestsUtils.DEFAULT_CONVENTION_TESTS_DIR, true);
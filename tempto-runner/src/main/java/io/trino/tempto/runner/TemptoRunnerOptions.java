@@ -105,6 +105,36 @@ public class TemptoRunnerOptions
             .hasArg()
             .build();
 
+    public static final Option JFR_RECORDING = Option.builder()
+            .longOpt("jfr-recording")
+            .desc("Record the run with JDK Flight Recorder into given file, including tempto fulfillment and query events")
+            .hasArg()
+            .build();
+
+    public static final Option SHARD_INDEX = Option.builder()
+            .longOpt("shard-index")
+            .desc("Zero based index of the shard to run, when the suite is split with --shard-count.")
+            .hasArg()
+            .build();
+
+    public static final Option SHARD_COUNT = Option.builder()
+            .longOpt("shard-count")
+            .desc("Number of shards the suite is split into. Every test is run by exactly one shard.")
+            .hasArg()
+            .build();
+
+    public static final Option SHARD_DURATIONS = Option.builder()
+            .longOpt("shard-durations")
+            .desc("Test durations file (see tests.duration_history.file) used to balance shards by expected duration. All shards must use the same file.")
+            .hasArg()
+            .build();
+
+    public static final Option FORK_COUNT = Option.builder()
+            .longOpt("fork-count")
+            .desc("Number of worker JVMs tests are distributed among. Each worker takes the next test not taken by other workers yet, so tests which are not thread safe can use all cores.")
+            .hasArg()
+            .build();
+
     private final Map<String, String> values;
 
     public TemptoRunnerOptions(Map<String, String> values)
@@ -173,6 +203,36 @@ public class TemptoRunnerOptions
         return getValue(PARALLEL.getLongOpt());
     }
 
+    public Optional<String> getJfrRecordingPath()
+    {
+        return getValue(JFR_RECORDING.getLongOpt());
+    }
+
+    public Optional<Integer> getShardIndex()
+    {
+        return getValue(SHARD_INDEX.getLongOpt()).map(Integer::parseInt);
+    }
+
+    public Optional<Integer> getShardCount()
+    {
+        return getValue(SHARD_COUNT.getLongOpt()).map(Integer::parseInt);
+    }
+
+    public Optional<String> getShardDurationsPath()
+    {
+        return getValue(SHARD_DURATIONS.getLongOpt());
+    }
+
+    public Optional<Integer> getForkCount()
+    {
+        return getValue(FORK_COUNT.getLongOpt()).map(Integer::parseInt);
+    }
+
+    public Map<String, String> asMap()
+    {
+        return values;
+    }
+
     public Set<String> getValues(String option)
     {
         return getValue(option)
@@ -0,0 +1,228 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.runner;
+
+import io.trino.tempto.process.JavaProcessLauncher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.trino.tempto.runner.TemptoForkedWorker.CLAIM;
+import static io.trino.tempto.runner.TemptoForkedWorker.DONE;
+import static io.trino.tempto.runner.TemptoForkedWorker.FAILURE;
+import static io.trino.tempto.runner.TemptoForkedWorker.RESULT;
+import static io.trino.tempto.runner.TemptoForkedWorker.SKIP;
+import static io.trino.tempto.runner.TemptoForkedWorker.SUCCESS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ForkedTestsCoordinatorTest
+{
+    @TempDir
+    Path reportDir;
+
+    @Test
+    @Timeout(60)
+    public void shouldRunContendedTestByOneWorker()
+            throws IOException
+    {
+        Set<Integer> claimedBy = ConcurrentHashMap.newKeySet();
+        WorkerScript worker = (index, coordinator) -> {
+            if (coordinator.claim("Test.method")) {
+                claimedBy.add(index);
+                coordinator.sendResult("Test.method", 1, "Test.method", SUCCESS, "");
+            }
+            coordinator.sendDone();
+            return 0;
+        };
+
+        assertThat(run(worker, worker, worker)).isTrue();
+
+        assertThat(claimedBy).hasSize(1);
+        assertThat(readReport())
+                .contains("tests=\"1\"")
+                .contains("failures=\"0\"")
+                .contains("name=\"method\"");
+    }
+
+    @Test
+    @Timeout(60)
+    public void shouldForwardResultsOfAllInvocations()
+            throws IOException
+    {
+        WorkerScript worker = (_, coordinator) -> {
+            assertThat(coordinator.claim("Test.method")).isTrue();
+            coordinator.sendResult("Test.method", 2, "Test.method[requirements-0]", SUCCESS, "");
+            coordinator.sendResult("Test.method", 2, "Test.method[requirements-1]", FAILURE, "assertion failed");
+            assertThat(coordinator.claim("Test.skipped")).isTrue();
+            coordinator.sendResult("Test.skipped", 1, "Test.skipped", SKIP, "skipped on purpose");
+            coordinator.sendDone();
+            return 0;
+        };
+
+        assertThat(run(worker)).isFalse();
+
+        assertThat(readReport())
+                .contains("tests=\"3\"")
+                .contains("failures=\"1\"")
+                .contains("skipped=\"1\"")
+                .contains("name=\"method[requirements-0]\"")
+                .contains("name=\"method[requirements-1]\"")
+                .contains("assertion failed")
+                .contains("skipped on purpose")
+                .doesNotContain("exited while running the test");
+    }
+
+    @Test
+    @Timeout(60)
+    public void shouldFailTestOfWorkerDisconnectedMidTest()
+            throws IOException
+    {
+        WorkerScript worker = (_, coordinator) -> {
+            assertThat(coordinator.claim("Test.method")).isTrue();
+            // first of two requirements sets passed, the worker dies running the second one
+            coordinator.sendResult("Test.method", 2, "Test.method[requirements-0]", SUCCESS, "");
+            return 1;
+        };
+
+        assertThat(run(worker)).isFalse();
+
+        assertThat(readReport())
+                .contains("tests=\"2\"")
+                .contains("failures=\"1\"")
+                .contains("name=\"method[requirements-0]\"")
+                .contains("worker-0 exited while running the test");
+    }
+
+    private boolean run(WorkerScript... workers)
+    {
+        TemptoRunnerOptions options = new TemptoRunnerOptions(Map.of(
+                TemptoRunnerOptions.REPORT_DIR.getLongOpt(), reportDir.toString(),
+                TemptoRunnerOptions.CONFIG_FILES.getLongOpt(), "tempto-configuration.yaml"));
+        return new ForkedTestsCoordinator(options, workers.length, processLauncher(List.of(workers))).run();
+    }
+
+    private String readReport()
+            throws IOException
+    {
+        return Files.readString(reportDir.resolve("junitreports").resolve("TEST-tempto-tests.xml"));
+    }
+
+    /**
+     * Launches workers as threads talking to the coordinator over its socket, like {@link TemptoForkedWorker} does.
+     */
+    private static JavaProcessLauncher processLauncher(List<WorkerScript> workers)
+    {
+        AtomicInteger launchedWorkers = new AtomicInteger();
+        JavaProcessLauncher processLauncher = mock(JavaProcessLauncher.class);
+        when(processLauncher.launch(any(), any())).thenAnswer(invocation -> {
+            List<String> arguments = invocation.getArgument(1);
+            int index = launchedWorkers.getAndIncrement();
+            return launch(index, Integer.parseInt(arguments.get(0)), workers.get(index));
+        });
+        return processLauncher;
+    }
+
+    private static Process launch(int index, int coordinatorPort, WorkerScript worker)
+            throws InterruptedException
+    {
+        CompletableFuture<Integer> exitCode = CompletableFuture.supplyAsync(() -> {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinatorPort)) {
+                return worker.run(index, new Coordinator(socket));
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Process process = mock(Process.class);
+        when(process.getInputStream()).thenReturn(InputStream.nullInputStream());
+        when(process.getErrorStream()).thenReturn(InputStream.nullInputStream());
+        when(process.isAlive()).thenAnswer(_ -> !exitCode.isDone());
+        when(process.waitFor()).thenAnswer(_ -> exitCode.join());
+        return process;
+    }
+
+    private interface WorkerScript
+    {
+        /**
+         * @return exit code of the worker
+         */
+        int run(int index, Coordinator coordinator)
+                throws IOException;
+    }
+
+    private static class Coordinator
+    {
+        private final DataInputStream input;
+        private final DataOutputStream output;
+
+        Coordinator(Socket socket)
+                throws IOException
+        {
+            this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        boolean claim(String claimName)
+                throws IOException
+        {
+            output.writeByte(CLAIM);
+            output.writeUTF(claimName);
+            output.flush();
+            return input.readBoolean();
+        }
+
+        void sendResult(String claimName, int claimResults, String testName, byte status, String failure)
+                throws IOException
+        {
+            output.writeByte(RESULT);
+            output.writeUTF(claimName);
+            output.writeInt(claimResults);
+            output.writeUTF(testName);
+            output.writeByte(status);
+            output.writeLong(10);
+            byte[] failureBytes = failure.getBytes(UTF_8);
+            output.writeInt(failureBytes.length);
+            output.write(failureBytes);
+            output.flush();
+        }
+
+        void sendDone()
+                throws IOException
+        {
+            output.writeByte(DONE);
+            output.flush();
+        }
+    }
+}